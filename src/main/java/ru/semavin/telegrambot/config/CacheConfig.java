@@ -6,6 +6,7 @@ import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 @Configuration
@@ -18,7 +19,10 @@ public class CacheConfig {
                 Caffeine.newBuilder()
                         .expireAfterWrite(7, TimeUnit.DAYS)
                         .maximumSize(1500)
+                        .recordStats()
         );
+        // Метрики cache.gets регистрируются только для кэшей, известных при старте
+        cacheManager.setCacheNames(List.of("scheduleDay", "notifications"));
         return cacheManager;
     }
 }
@@ -0,0 +1,23 @@
+package ru.semavin.telegrambot.config;
+
+import io.micrometer.core.instrument.config.MeterFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.regex.Pattern;
+
+@Configuration
+public class MetricsConfig {
+
+    private static final Pattern MAI_RESOURCE = Pattern.compile("/schedule/data/[0-9a-fA-F-]{32,36}\\.json$");
+
+    /**
+     * json групп и преподавателей MAI лежат по адресам с md5 группы или uuid преподавателя,
+     * без замены каждый адрес стал бы отдельным значением тега uri в http.client.requests.
+     */
+    @Bean
+    public MeterFilter maiResourceUriFilter() {
+        return MeterFilter.replaceTagValues("uri",
+                uri -> MAI_RESOURCE.matcher(uri).replaceFirst("/schedule/data/{resource}.json"));
+    }
+}
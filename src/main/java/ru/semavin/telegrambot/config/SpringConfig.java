@@ -1,21 +1,26 @@
 package ru.semavin.telegrambot.config;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.client.RestTemplate;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.time.Duration;
 
 @Configuration
 public class SpringConfig {
+    /**
+     * Через RestTemplateBuilder, чтобы запросы попадали в метрики http.client.requests.
+     * Таймауты ограничивают время, на которое зависший MAI занимает поток запроса.
+     */
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
-    }
-
-    @Bean
-    public ExecutorService executorService() {
-        return Executors.newVirtualThreadPerTaskExecutor();
+    public RestTemplate restTemplate(RestTemplateBuilder builder,
+                                     @Value("${upstream.connect-timeout}") Duration connectTimeout,
+                                     @Value("${upstream.read-timeout}") Duration readTimeout) {
+        return builder
+                .connectTimeout(connectTimeout)
+                .readTimeout(readTimeout)
+                .build();
     }
 }
@@ -0,0 +1,26 @@
+package ru.semavin.telegrambot.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import ru.semavin.telegrambot.services.upstream.UpstreamStaleness;
+
+/**
+ * Открывает {@link UpstreamStaleness} на время обработки запроса.
+ */
+@Component
+public class UpstreamStalenessInterceptor implements HandlerInterceptor {
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        UpstreamStaleness.begin();
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        UpstreamStaleness.end();
+    }
+}
@@ -7,14 +7,17 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
     private final SwaggerInterceptor swaggerInterceptor;
+    private final UpstreamStalenessInterceptor upstreamStalenessInterceptor;
 
-    public WebConfig(SwaggerInterceptor swaggerInterceptor) {
+    public WebConfig(SwaggerInterceptor swaggerInterceptor, UpstreamStalenessInterceptor upstreamStalenessInterceptor) {
         this.swaggerInterceptor = swaggerInterceptor;
+        this.upstreamStalenessInterceptor = upstreamStalenessInterceptor;
     }
 
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
         registry.addInterceptor(swaggerInterceptor)
                 .addPathPatterns("/swagger-ui/**", "/v3/api-docs/**");
+        registry.addInterceptor(upstreamStalenessInterceptor);
     }
 }
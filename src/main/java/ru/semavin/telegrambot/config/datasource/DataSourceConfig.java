@@ -0,0 +1,118 @@
+package ru.semavin.telegrambot.config.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Два пула соединений (bulkhead): для запросов пользователей и для фоновой загрузки расписания.
+ * Медленная загрузка не может занять соединения, нужные API, и наоборот.
+ * Задачи {@code @Scheduled} и исполнитель ingest явно выставляют нагрузку {@link Workload#INGEST}:
+ * декоратор планировщика не применяется к задачам fixedDelay, которые выполняются в потоке планировщика.
+ * Метрики ожидания соединения публикуются по каждому пулу (hikaricp.connections.acquire{pool=...}).
+ * <p>
+ * readOnly-транзакции читают с реплик из datasource.replicas.urls, если те не отстают,
+ * иначе с основной БД. Методы, которым нужна основная БД, отмечены {@link PrimaryRead}; кэши не сохраняют
+ * результаты, прочитанные с отстающей реплики (см. {@link WorkloadRoutingDataSource#staleRead()}).
+ * Пулы реплик получают те же настройки spring.datasource.hikari.*, что и основные.
+ * Для локальной проверки достаточно указать в качестве реплики тот же PostgreSQL по другому URL.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource userDataSource(DataSourceProperties properties,
+                                           @Value("${datasource.bulkhead.user.maximum-pool-size}") int maxPoolSize,
+                                           @Value("${datasource.bulkhead.user.minimum-idle}") int minIdle) {
+        return createPool(properties, "user", maxPoolSize, minIdle);
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource ingestDataSource(DataSourceProperties properties,
+                                             @Value("${datasource.bulkhead.ingest.maximum-pool-size}") int maxPoolSize,
+                                             @Value("${datasource.bulkhead.ingest.minimum-idle}") int minIdle) {
+        return createPool(properties, "ingest", maxPoolSize, minIdle);
+    }
+
+    @Bean
+    public ReplicaSet replicaSet(DataSourceProperties properties, Environment environment,
+                                 @Value("${datasource.replicas.urls}") List<String> urls,
+                                 @Value("${datasource.replicas.maximum-pool-size}") int maxPoolSize,
+                                 @Value("${datasource.replicas.max-lag}") Duration maxLag) {
+        Binder binder = Binder.get(environment);
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (String url : urls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            String name = "replica-" + replicas.size();
+            HikariDataSource replica = createPool(properties, name, maxPoolSize, 1);
+            binder.bind("spring.datasource.hikari", Bindable.ofInstance(replica));
+            replica.setJdbcUrl(url.trim());
+            replica.setReadOnly(true);
+            replicas.put(name, replica);
+        }
+        return new ReplicaSet(replicas, maxLag);
+    }
+
+    /**
+     * Соединения без пула для долгоживущих подписок LISTEN: каждое получение открывает новое физическое
+     * соединение, поэтому подписка не занимает соединение bulkhead и не попадает под leak detection Hikari.
+     * Внедряется только по квалификатору.
+     */
+    @Bean(defaultCandidate = false)
+    public DataSource listenerDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder()
+                .type(SimpleDriverDataSource.class)
+                .build();
+    }
+
+    /**
+     * Соединение берется из пула только при первом обращении к БД, поэтому транзакции
+     * без запросов (например, ответ из кэша) пул не занимают.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("userDataSource") DataSource userDataSource,
+                                 @Qualifier("ingestDataSource") DataSource ingestDataSource,
+                                 ReplicaSet replicaSet) {
+        WorkloadRoutingDataSource routing = new WorkloadRoutingDataSource(replicaSet);
+        Map<Object, Object> targets = new HashMap<>(replicaSet.targetDataSources());
+        targets.put(Workload.USER, userDataSource);
+        targets.put(Workload.INGEST, ingestDataSource);
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(userDataSource);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    private static HikariDataSource createPool(DataSourceProperties properties, String name,
+                                               int maxPoolSize, int minIdle) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName(name);
+        dataSource.setMaximumPoolSize(maxPoolSize);
+        dataSource.setMinimumIdle(minIdle);
+        return dataSource;
+    }
+}
@@ -0,0 +1,18 @@
+package ru.semavin.telegrambot.config.datasource;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * readOnly-транзакции метода читают с основной БД, а не с реплики.
+ * Нужен методам, результат которых кладется в кэш: отстающая реплика сразу после
+ * сброса ключа вернула бы старые строки, и они жили бы в кэше до истечения TTL.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface PrimaryRead {
+}
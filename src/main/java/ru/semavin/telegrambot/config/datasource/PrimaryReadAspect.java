@@ -0,0 +1,36 @@
+package ru.semavin.telegrambot.config.datasource;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Отмечает поток на время выполнения метода с {@link PrimaryRead}.
+ * Соединение берется при первом запросе (см. DataSourceConfig), поэтому порядок
+ * относительно транзакционного прокси не важен.
+ */
+@Aspect
+@Component
+public class PrimaryReadAspect {
+
+    private static final ThreadLocal<Boolean> ACTIVE = ThreadLocal.withInitial(() -> false);
+
+    /**
+     * @return выполняется ли в текущем потоке метод с {@link PrimaryRead}
+     */
+    public static boolean active() {
+        return ACTIVE.get();
+    }
+
+    @Around("@annotation(ru.semavin.telegrambot.config.datasource.PrimaryRead)")
+    public Object readFromPrimary(ProceedingJoinPoint joinPoint) throws Throwable {
+        boolean previous = ACTIVE.get();
+        ACTIVE.set(true);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ACTIVE.set(previous);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package ru.semavin.telegrambot.config.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Реплики БД для readOnly-транзакций. Запросы распределяются по кругу между репликами,
+ * отставание которых от основной БД не превышает maxLag. Пока отставание не проверено
+ * или проверка не удалась, реплика не используется.
+ */
+@Slf4j
+public class ReplicaSet {
+
+    /**
+     * Отставание реплики в секундах. Для основной БД, а также реплики, которая
+     * применила все полученные изменения, равно нулю.
+     */
+    static final String LAG_QUERY = """
+            SELECT CASE
+                       WHEN NOT pg_is_in_recovery() THEN 0
+                       WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                       ELSE extract(epoch FROM now() - pg_last_xact_replay_timestamp())
+                   END
+            """;
+
+    private final List<Replica> replicas;
+    private final Duration maxLag;
+    private final LagProbe lagProbe;
+    private final AtomicInteger cursor = new AtomicInteger();
+
+    public ReplicaSet(Map<String, DataSource> replicas, Duration maxLag) {
+        this(replicas, maxLag, ReplicaSet::queryLag);
+    }
+
+    ReplicaSet(Map<String, DataSource> replicas, Duration maxLag, LagProbe lagProbe) {
+        this.replicas = replicas.entrySet().stream()
+                .map(entry -> new Replica(entry.getKey(), entry.getValue()))
+                .toList();
+        this.maxLag = maxLag;
+        this.lagProbe = lagProbe;
+    }
+
+    /**
+     * @return ключ следующей пригодной реплики или пусто, если читать нужно из основной БД
+     */
+    public Optional<String> nextKey() {
+        int size = replicas.size();
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get(Math.floorMod(cursor.getAndIncrement(), size));
+            if (replica.healthy) {
+                return Optional.of(replica.key);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * @return отставала ли реплика при последней проверке: данные с нее могут быть старше основной БД
+     */
+    public boolean lagging(Object key) {
+        for (Replica replica : replicas) {
+            if (replica.key.equals(key)) {
+                return replica.lagging;
+            }
+        }
+        return false;
+    }
+
+    public Map<Object, Object> targetDataSources() {
+        Map<Object, Object> targets = new HashMap<>();
+        replicas.forEach(replica -> targets.put(replica.key, replica.dataSource));
+        return targets;
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replicas.check-interval}")
+    public void checkLag() {
+        WorkloadContext.runAs(Workload.INGEST, this::measureLags);
+    }
+
+    private void measureLags() {
+        for (Replica replica : replicas) {
+            boolean healthy;
+            try {
+                Duration lag = lagProbe.measure(replica.dataSource);
+                healthy = lag.compareTo(maxLag) <= 0;
+                replica.lagging = !lag.isZero();
+                if (!healthy && replica.healthy) {
+                    log.warn("Реплика {} отстает на {}, чтение переключено на основную БД", replica.key, lag);
+                }
+            } catch (SQLException | RuntimeException e) {
+                healthy = false;
+                if (replica.healthy) {
+                    log.warn("Реплика {} недоступна: {}", replica.key, e.getMessage());
+                }
+            }
+            if (healthy && !replica.healthy) {
+                log.info("Реплика {} используется для чтения", replica.key);
+            }
+            replica.healthy = healthy;
+        }
+    }
+
+    /**
+     * Закрывает пулы реплик при остановке приложения.
+     */
+    public void close() {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("Не удалось закрыть пул реплики {}: {}", replica.key, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static Duration queryLag(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(LAG_QUERY)) {
+            rs.next();
+            return Duration.ofMillis(Math.round(rs.getDouble(1) * 1000));
+        }
+    }
+
+    @FunctionalInterface
+    interface LagProbe {
+        Duration measure(DataSource dataSource) throws SQLException;
+    }
+
+    private static final class Replica {
+        private final String key;
+        private final DataSource dataSource;
+        private volatile boolean healthy;
+        private volatile boolean lagging = true;
+
+        private Replica(String key, DataSource dataSource) {
+            this.key = key;
+            this.dataSource = dataSource;
+        }
+    }
+}
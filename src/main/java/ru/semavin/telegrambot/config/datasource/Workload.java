@@ -0,0 +1,15 @@
+package ru.semavin.telegrambot.config.datasource;
+
+/**
+ * Тип нагрузки на БД. Каждому типу соответствует свой пул соединений.
+ */
+public enum Workload {
+    /**
+     * Запросы пользователей через API.
+     */
+    USER,
+    /**
+     * Фоновая загрузка и обслуживание расписания.
+     */
+    INGEST
+}
@@ -0,0 +1,41 @@
+package ru.semavin.telegrambot.config.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Тип нагрузки текущего потока. Наследуется потоками, созданными из текущего,
+ * в том числе виртуальными потоками исполнителей.
+ */
+public final class WorkloadContext {
+
+    private static final InheritableThreadLocal<Workload> CURRENT = new InheritableThreadLocal<>() {
+        @Override
+        protected Workload initialValue() {
+            return Workload.USER;
+        }
+    };
+
+    private WorkloadContext() {
+    }
+
+    public static Workload current() {
+        return CURRENT.get();
+    }
+
+    public static void runAs(Workload workload, Runnable task) {
+        callAs(workload, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    public static <T> T callAs(Workload workload, Supplier<T> task) {
+        Workload previous = CURRENT.get();
+        CURRENT.set(workload);
+        try {
+            return task.get();
+        } finally {
+            CURRENT.set(previous);
+        }
+    }
+}
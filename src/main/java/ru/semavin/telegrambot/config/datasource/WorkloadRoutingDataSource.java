@@ -0,0 +1,46 @@
+package ru.semavin.telegrambot.config.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Выбирает пул соединений по типу нагрузки текущего потока.
+ * readOnly-транзакции уходят на пригодную реплику, если реплики настроены,
+ * кроме выполняемых внутри метода с {@link PrimaryRead}.
+ * Ключ определяется при первом обращении к БД (см. LazyConnectionDataSourceProxy),
+ * когда признак readOnly транзакции уже известен.
+ * <p>
+ * Для каждого выбранного соединения поток запоминает, взято ли оно с отстающей реплики
+ * ({@link #staleRead()}): кэши не сохраняют такие результаты, иначе прочитанное до репликации
+ * записи осталось бы в кэше после ее сброса.
+ */
+public class WorkloadRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final ThreadLocal<Boolean> STALE_READ = ThreadLocal.withInitial(() -> false);
+
+    private final ReplicaSet replicaSet;
+
+    public WorkloadRoutingDataSource(ReplicaSet replicaSet) {
+        this.replicaSet = replicaSet;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !PrimaryReadAspect.active()) {
+            Object replicaKey = replicaSet.nextKey().orElse(null);
+            if (replicaKey != null) {
+                STALE_READ.set(replicaSet.lagging(replicaKey));
+                return replicaKey;
+            }
+        }
+        STALE_READ.set(false);
+        return WorkloadContext.current();
+    }
+
+    /**
+     * @return взято ли последнее соединение текущего потока с реплики, отстававшей при последней проверке
+     */
+    public static boolean staleRead() {
+        return STALE_READ.get();
+    }
+}
@@ -0,0 +1,167 @@
+package ru.semavin.telegrambot.config.executors;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import ru.semavin.telegrambot.config.datasource.Workload;
+import ru.semavin.telegrambot.config.datasource.WorkloadContext;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Именованный исполнитель: каждая задача в своем виртуальном потоке, одновременно выполняется
+ * не больше maxConcurrency задач, ожидать могут не больше queueCapacity, остальные отклоняются.
+ * <p>
+ * Метрики с тегом name: executor.idle (ожидание в очереди), executor (выполнение),
+ * executor.active, executor.queued, executor.rejected.
+ * Задачи одного исполнителя не должны ждать задач того же исполнителя, иначе при исчерпании
+ * лимита они заблокируют друг друга.
+ * <p>
+ * Если указан тип нагрузки, задачи выполняются с ним независимо от потока, который их отправил.
+ */
+public class InstrumentedExecutor extends AbstractExecutorService {
+
+    private final String name;
+    private final Workload workload;
+    private final int queueCapacity;
+    private final Semaphore permits;
+    private final ExecutorService threads;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final Timer idleTimer;
+    private final Timer executionTimer;
+    private final Counter rejected;
+
+    public InstrumentedExecutor(String name, int maxConcurrency, int queueCapacity, MeterRegistry registry) {
+        this(name, null, maxConcurrency, queueCapacity, registry);
+    }
+
+    public InstrumentedExecutor(String name, Workload workload, int maxConcurrency, int queueCapacity,
+                                MeterRegistry registry) {
+        this.name = name;
+        this.workload = workload;
+        this.queueCapacity = queueCapacity;
+        this.permits = new Semaphore(maxConcurrency);
+        this.threads = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 0).factory());
+        this.idleTimer = Timer.builder("executor.idle").tag("name", name).register(registry);
+        this.executionTimer = Timer.builder("executor").tag("name", name).register(registry);
+        this.rejected = Counter.builder("executor.rejected").tag("name", name).register(registry);
+        Gauge.builder("executor.active", active, AtomicInteger::get).tag("name", name).register(registry);
+        Gauge.builder("executor.queued", queued, AtomicInteger::get).tag("name", name).register(registry);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (queued.incrementAndGet() > queueCapacity) {
+            queued.decrementAndGet();
+            rejected.increment();
+            throw new RejectedExecutionException("Очередь исполнителя " + name + " заполнена");
+        }
+        long submittedAt = System.nanoTime();
+        try {
+            threads.execute(() -> run(task, submittedAt));
+        } catch (RejectedExecutionException e) {
+            queued.decrementAndGet();
+            rejected.increment();
+            throw e;
+        }
+    }
+
+    /**
+     * Выполняет задачу на этом исполнителе и ждет результата.
+     * Используется как ограничитель параллелизма для синхронных вызовов.
+     */
+    public <T> T callAndWait(Callable<T> task) {
+        Future<T> future = submit(task);
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Ожидание задачи " + name + " прервано", e);
+        }
+    }
+
+    /**
+     * Выполняет задачи на этом исполнителе и ждет завершения всех.
+     * Ошибки задач не пробрасываются, задачи обрабатывают их сами.
+     */
+    public void runAllAndWait(List<Runnable> tasks) {
+        try {
+            invokeAll(tasks.stream().map(Executors::callable).toList());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Ожидание задач " + name + " прервано", e);
+        }
+    }
+
+    private void run(Runnable task, long submittedAt) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            queued.decrementAndGet();
+            Thread.currentThread().interrupt();
+            return;
+        }
+        queued.decrementAndGet();
+        long startedAt = System.nanoTime();
+        idleTimer.record(startedAt - submittedAt, TimeUnit.NANOSECONDS);
+        active.incrementAndGet();
+        try {
+            if (workload == null) {
+                task.run();
+            } else {
+                WorkloadContext.runAs(workload, task);
+            }
+        } finally {
+            executionTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            active.decrementAndGet();
+            permits.release();
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        threads.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return threads.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return threads.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return threads.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return threads.awaitTermination(timeout, unit);
+    }
+}
@@ -0,0 +1,108 @@
+package ru.semavin.telegrambot.config.executors;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import ru.semavin.telegrambot.config.datasource.Workload;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Исполнители по видам работы:
+ * <ul>
+ *     <li>upstream - запросы расписания групп к MAI;</li>
+ *     <li>parsing - разбор дней расписания;</li>
+ *     <li>ingest - фоновые обновления расписания с записью в БД, задачи выполняются с нагрузкой INGEST;</li>
+ *     <li>ics - формирование календарей .ics.</li>
+ * </ul>
+ * Лимиты задаются свойствами executors.&lt;name&gt;.max-concurrency и executors.&lt;name&gt;.queue-capacity.
+ * <p>
+ * При остановке приложения исполнители перестают принимать задачи и дожидаются выполняющихся
+ * (не дольше executors.drain-timeout), чтобы деплой не обрывал обновления расписания на середине.
+ * Останавливаются после веб-сервера и планировщика, но до закрытия пулов соединений.
+ * Исполнители не регистрируются бинами Executor, чтобы не подменять applicationTaskExecutor Spring Boot.
+ */
+@Slf4j
+@Component
+public class WorkloadExecutors implements SmartLifecycle {
+
+    private final InstrumentedExecutor upstream;
+    private final InstrumentedExecutor parsing;
+    private final InstrumentedExecutor ingest;
+    private final InstrumentedExecutor ics;
+    private final Duration drainTimeout;
+    private volatile boolean running;
+
+    public WorkloadExecutors(MeterRegistry registry,
+                             @Value("${executors.upstream.max-concurrency}") int upstreamConcurrency,
+                             @Value("${executors.upstream.queue-capacity}") int upstreamQueue,
+                             @Value("${executors.parsing.max-concurrency}") int parsingConcurrency,
+                             @Value("${executors.parsing.queue-capacity}") int parsingQueue,
+                             @Value("${executors.ingest.max-concurrency}") int ingestConcurrency,
+                             @Value("${executors.ingest.queue-capacity}") int ingestQueue,
+                             @Value("${executors.ics.max-concurrency}") int icsConcurrency,
+                             @Value("${executors.ics.queue-capacity}") int icsQueue,
+                             @Value("${executors.drain-timeout}") Duration drainTimeout) {
+        this.upstream = new InstrumentedExecutor("upstream", upstreamConcurrency, upstreamQueue, registry);
+        this.parsing = new InstrumentedExecutor("parsing", parsingConcurrency, parsingQueue, registry);
+        this.ingest = new InstrumentedExecutor("ingest", Workload.INGEST, ingestConcurrency, ingestQueue, registry);
+        this.ics = new InstrumentedExecutor("ics", icsConcurrency, icsQueue, registry);
+        this.drainTimeout = drainTimeout;
+    }
+
+    public InstrumentedExecutor upstream() {
+        return upstream;
+    }
+
+    public InstrumentedExecutor parsing() {
+        return parsing;
+    }
+
+    public InstrumentedExecutor ingest() {
+        return ingest;
+    }
+
+    public InstrumentedExecutor ics() {
+        return ics;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        List<InstrumentedExecutor> executors = List.of(upstream, parsing, ingest, ics);
+        executors.forEach(InstrumentedExecutor::shutdown);
+        long deadline = System.nanoTime() + drainTimeout.toNanos();
+        for (InstrumentedExecutor executor : executors) {
+            try {
+                if (!executor.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                    log.warn("Исполнитель {} не завершил задачи за {}, оставшиеся прерваны",
+                            executor.getName(), drainTimeout);
+                    executor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                executor.shutdownNow();
+            }
+        }
+        log.info("Исполнители остановлены");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+}
@@ -10,6 +10,7 @@ import ru.semavin.telegrambot.dto.ErrorResponseDTO;
 import ru.semavin.telegrambot.utils.exceptions.*;
 
 import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 @ControllerAdvice
@@ -100,6 +101,72 @@ public class GlobalAdviceController {
                         .error_description(ex.getMessage())
                         .build());
     }
+    @ExceptionHandler(FanOutTimeoutException.class)
+    public ResponseEntity<ErrorResponseDTO> handleFanOutTimeoutException(FanOutTimeoutException ex) {
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT)
+                .body(ErrorResponseDTO.builder()
+                        .error(String.valueOf(HttpStatus.GATEWAY_TIMEOUT.value()))
+                        .error_description(ex.getMessage())
+                        .build());
+    }
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<ErrorResponseDTO> handleRejectedExecutionException(RejectedExecutionException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(ErrorResponseDTO.builder()
+                        .error(String.valueOf(HttpStatus.SERVICE_UNAVAILABLE.value()))
+                        .error_description(ex.getMessage())
+                        .build());
+    }
+    @ExceptionHandler(UpstreamPayloadNotArchivedException.class)
+    public ResponseEntity<ErrorResponseDTO> handleUpstreamPayloadNotArchivedException(
+            UpstreamPayloadNotArchivedException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(ErrorResponseDTO.builder()
+                        .error(String.valueOf(HttpStatus.SERVICE_UNAVAILABLE.value()))
+                        .error_description(ex.getMessage())
+                        .build());
+    }
+    @ExceptionHandler(UpstreamUnavailableException.class)
+    public ResponseEntity<ErrorResponseDTO> handleUpstreamUnavailableException(UpstreamUnavailableException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(ErrorResponseDTO.builder()
+                        .error(String.valueOf(HttpStatus.SERVICE_UNAVAILABLE.value()))
+                        .error_description(ex.getMessage())
+                        .build());
+    }
+    @ExceptionHandler(RefreshRetryNotFoundException.class)
+    public ResponseEntity<ErrorResponseDTO> handleRefreshRetryNotFoundException(RefreshRetryNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(ErrorResponseDTO.builder()
+                        .error(String.valueOf(HttpStatus.NOT_FOUND.value()))
+                        .error_description(ex.getMessage())
+                        .build());
+    }
+    @ExceptionHandler(RecordingNotFoundException.class)
+    public ResponseEntity<ErrorResponseDTO> handleRecordingNotFoundException(RecordingNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(ErrorResponseDTO.builder()
+                        .error(String.valueOf(HttpStatus.NOT_FOUND.value()))
+                        .error_description(ex.getMessage())
+                        .build());
+    }
+    @ExceptionHandler(InvalidRecordingSettingsException.class)
+    public ResponseEntity<ErrorResponseDTO> handleInvalidRecordingSettingsException(
+            InvalidRecordingSettingsException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ErrorResponseDTO.builder()
+                        .error(String.valueOf(HttpStatus.BAD_REQUEST.value()))
+                        .error_description(ex.getMessage())
+                        .build());
+    }
+    @ExceptionHandler(LessonMoveTooFarException.class)
+    public ResponseEntity<ErrorResponseDTO> handleLessonMoveTooFarException(LessonMoveTooFarException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ErrorResponseDTO.builder()
+                        .error(String.valueOf(HttpStatus.BAD_REQUEST.value()))
+                        .error_description(ex.getMessage())
+                        .build());
+    }
     @ExceptionHandler(UserNotFoundException.class)
     public ResponseEntity<ErrorResponseDTO> handleUserNotFoundException(UserNotFoundException ex) {
         return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -0,0 +1,76 @@
+package ru.semavin.telegrambot.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import ru.semavin.telegrambot.dto.GroupRefreshRetryDTO;
+import ru.semavin.telegrambot.models.enums.ExceptionMessages;
+import ru.semavin.telegrambot.services.schedules.GroupRefreshRetryService;
+import ru.semavin.telegrambot.utils.ExceptionFabric;
+import ru.semavin.telegrambot.utils.exceptions.KeyNotEqualsException;
+
+import java.util.List;
+
+/**
+ * Очередь повторов неудачных обновлений расписания и dead-letter.
+ * Группы из dead-letter не обновляются ни повторами, ни адаптивным и ежедневным обновлением,
+ * пока их не вернут в очередь через /requeue.
+ */
+@RestController
+@RequestMapping("api/v1/admin/refresh-retries")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Refresh Retry Controller", description = "Очередь повторов обновления расписания")
+public class GroupRefreshRetryController {
+
+    private final GroupRefreshRetryService retryService;
+
+    @Value("${key.api}")
+    private String keyApi;
+
+    @GetMapping("")
+    @Operation(summary = "Группы в очереди повторов или в dead-letter",
+            description = "Группы из dead-letter исключены из всех фоновых обновлений, включая ежедневное, "
+                    + "и ждут ручного повтора через /requeue",
+            security = @SecurityRequirement(name = "API-KEY"))
+    public ResponseEntity<List<GroupRefreshRetryDTO>> list(
+            @Parameter(description = "true - только dead-letter, false - ожидающие повтора")
+            @RequestParam(defaultValue = "true") boolean dead,
+            @RequestHeader("API-KEY") String key
+    ) {
+        checkKey(key);
+        return ResponseEntity.ok(retryService.findAll(dead));
+    }
+
+    @PostMapping("/requeue")
+    @Operation(summary = "Повторить обновление группы из dead-letter",
+            description = "Единственный способ вернуть группу из dead-letter: ежедневное обновление ее пропускает. "
+                    + "Группа получает немедленную попытку, счетчик попыток сбрасывается",
+            security = @SecurityRequirement(name = "API-KEY"))
+    public ResponseEntity<GroupRefreshRetryDTO> requeue(
+            @Parameter(description = "Название группы", example = "М3О-403С-22")
+            @RequestParam String groupName,
+            @RequestHeader("API-KEY") String key
+    ) {
+        checkKey(key);
+        return ResponseEntity.ok(retryService.requeue(groupName));
+    }
+
+    private void checkKey(String key) {
+        if (!keyApi.equals(key)) {
+            log.warn("API key in header not equals");
+            throw ExceptionFabric.create(KeyNotEqualsException.class, ExceptionMessages.KEY_NOT_VALID);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package ru.semavin.telegrambot.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.semavin.telegrambot.dto.RecordingStatusDTO;
+import ru.semavin.telegrambot.models.enums.ExceptionMessages;
+import ru.semavin.telegrambot.services.profiling.FlightRecorderService;
+import ru.semavin.telegrambot.utils.ExceptionFabric;
+import ru.semavin.telegrambot.utils.exceptions.KeyNotEqualsException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Управление записью Java Flight Recorder для диагностики задержек в проде без внешних профилировщиков.
+ */
+@RestController
+@RequestMapping("api/v1/admin/jfr")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Profiling Controller", description = "Запись Java Flight Recorder")
+public class ProfilingController {
+
+    private final FlightRecorderService flightRecorderService;
+
+    @Value("${key.api}")
+    private String keyApi;
+
+    @PostMapping("/start")
+    @Operation(summary = "Запуск записи JFR", security = @SecurityRequirement(name = "API-KEY"))
+    public ResponseEntity<RecordingStatusDTO> start(
+            @Parameter(description = "Конфигурация JFR: default или profile")
+            @RequestParam(defaultValue = "default") String settings,
+            @Parameter(description = "Сколько хранить события, ISO-8601", example = "PT30M")
+            @RequestParam(defaultValue = "PT30M") Duration maxAge,
+            @RequestHeader("API-KEY") String key
+    ) {
+        checkKey(key);
+        return ResponseEntity.ok(flightRecorderService.start(settings, maxAge));
+    }
+
+    @PostMapping("/stop")
+    @Operation(summary = "Остановка записи JFR", security = @SecurityRequirement(name = "API-KEY"))
+    public ResponseEntity<RecordingStatusDTO> stop(@RequestHeader("API-KEY") String key) {
+        checkKey(key);
+        return ResponseEntity.ok(flightRecorderService.stop());
+    }
+
+    @GetMapping("")
+    @Operation(summary = "Состояние записи JFR", security = @SecurityRequirement(name = "API-KEY"))
+    public ResponseEntity<RecordingStatusDTO> status(@RequestHeader("API-KEY") String key) {
+        checkKey(key);
+        return ResponseEntity.ok(flightRecorderService.status());
+    }
+
+    @GetMapping("/dump")
+    @Operation(summary = "Выгрузка записи JFR в файл .jfr", security = @SecurityRequirement(name = "API-KEY"))
+    public ResponseEntity<StreamingResponseBody> dump(@RequestHeader("API-KEY") String key) {
+        checkKey(key);
+        Path file = flightRecorderService.dump();
+        StreamingResponseBody body = out -> {
+            try {
+                Files.copy(file, out);
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.getFileName() + "\"")
+                .body(body);
+    }
+
+    private void checkKey(String key) {
+        if (!keyApi.equals(key)) {
+            log.warn("API key in header not equals");
+            throw ExceptionFabric.create(KeyNotEqualsException.class, ExceptionMessages.KEY_NOT_VALID);
+        }
+    }
+}
@@ -41,7 +41,8 @@ public class ScheduleChangeController {
      * Редактирование (обновление) одной пары по её ID.
      */
     @PutMapping("/change")
-    @Operation(summary = "Редактировать расписание с сохранением изменений в отдельной таблице")
+    @Operation(summary = "Редактировать расписание с сохранением изменений в отдельной таблице",
+            description = "Перенос дальше чем на шесть месяцев от исходной даты отклоняется с кодом 400")
     public ResponseEntity<String> editSchedule(
             @RequestBody ScheduleChangeDTO changeDto,
             @RequestParam String groupName
@@ -0,0 +1,34 @@
+package ru.semavin.telegrambot.controller;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+import ru.semavin.telegrambot.services.upstream.UpstreamStaleness;
+
+/**
+ * Если ответ собран по сохраненным данным MAI, добавляет заголовок X-Upstream-Stale-Since
+ * со временем получения самых старых из них.
+ */
+@RestControllerAdvice
+public class StaleResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String STALE_SINCE_HEADER = "X-Upstream-Stale-Since";
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        UpstreamStaleness.staleSince().ifPresent(since ->
+                response.getHeaders().set(STALE_SINCE_HEADER, since.toString()));
+        return body;
+    }
+}
@@ -0,0 +1,29 @@
+package ru.semavin.telegrambot.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@Schema(description = "Неудачное обновление расписания группы в очереди повторов")
+public class GroupRefreshRetryDTO {
+    @Schema(description = "Название группы", example = "М3О-403С-22")
+    private String groupName;
+    @Schema(description = "Класс ошибки: NOT_FOUND, UPSTREAM, PARSE или OTHER", example = "UPSTREAM")
+    private String errorClass;
+    @Schema(description = "Неудачных попыток подряд", example = "3")
+    private int attempts;
+    @Schema(description = "Время первой ошибки")
+    private LocalDateTime firstFailedAt;
+    @Schema(description = "Время последней ошибки")
+    private LocalDateTime lastFailedAt;
+    @Schema(description = "Время следующей попытки, для dead-letter не используется")
+    private LocalDateTime nextAttemptAt;
+    @Schema(description = "Текст последней ошибки")
+    private String lastError;
+    @Schema(description = "Попытки исчерпаны")
+    private boolean dead;
+}
@@ -0,0 +1,24 @@
+package ru.semavin.telegrambot.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Duration;
+import java.time.Instant;
+
+@Data
+@Builder
+@Schema(description = "Состояние записи Java Flight Recorder")
+public class RecordingStatusDTO {
+    @Schema(description = "Название записи", example = "telegrambot-on-demand")
+    private String name;
+    @Schema(description = "Состояние записи", example = "RUNNING")
+    private String state;
+    @Schema(description = "Время начала записи")
+    private Instant startTime;
+    @Schema(description = "Сколько хранятся события", example = "PT30M")
+    private Duration maxAge;
+    @Schema(description = "Размер записи в байтах")
+    private long size;
+}
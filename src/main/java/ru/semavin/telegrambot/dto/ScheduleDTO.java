@@ -4,9 +4,12 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import ru.semavin.telegrambot.models.enums.LessonType;
+import ru.semavin.telegrambot.utils.StringInterner;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.List;
 
 /**
  * DTO для расписания.
@@ -17,9 +20,17 @@ import java.time.LocalTime;
 @Schema(description = "DTO для расписания")
 public class ScheduleDTO {
     private Long id;
+
+    @Schema(description = "Идентификатор занятия, общий для всех групп потока")
+    private Long lessonId;
+
     @Schema(description = "Название группы", example = "М3О-303С-22")
     private String groupName;
 
+    @Schema(description = "Группы, у которых идет занятие (в расписании преподавателя)",
+            example = "[\"М3О-303С-22\", \"М3О-304С-22\"]")
+    private List<String> groupNames;
+
     @Schema(description = "Название предмета", example = "ОТУ")
     private String subjectName;
 
@@ -46,4 +57,24 @@ public class ScheduleDTO {
 
     @Schema(description = "Время окончания занятия", example = "11:30")
     private LocalTime endTime;
+
+    /**
+     * Конструктор для JPQL-проекций {@code select new ScheduleDTO(...)} в {@link ru.semavin.telegrambot.repositories.ScheduleRepository}.
+     * Имя преподавателя берется готовым из users.display_name, повторяющиеся строки берутся из {@link StringInterner}.
+     */
+    public ScheduleDTO(Long id, Long lessonId, String groupName, String subjectName, LessonType lessonType,
+                       String teacherName, String classroom, LocalDate lessonDate, LocalTime startTime,
+                       LocalTime endTime, String controlSum) {
+        this.id = id;
+        this.lessonId = lessonId;
+        this.groupName = StringInterner.intern(groupName);
+        this.subjectName = StringInterner.intern(subjectName);
+        this.lessonType = lessonType == null ? null : lessonType.name();
+        this.teacherName = StringInterner.intern(teacherName);
+        this.classroom = StringInterner.intern(classroom);
+        this.lessonDate = lessonDate;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.controlSum = controlSum;
+    }
 }
@@ -10,11 +10,13 @@ import java.util.List;
 @Mapper(componentModel = "spring")
 public interface ScheduleMapper {
     @Mapping(target = "group.groupName", source = "groupName")
+    @Mapping(target = "lessonId", ignore = true)
     ScheduleEntity toScheduleEntity(ScheduleDTO dto);
 
     @Mapping(target = "id", source = "id")
     @Mapping(target = "groupName", source = "group.groupName")
-    @Mapping(target = "teacherName", expression = "java(entity.getTeacher().getFirstName() + \" \" + entity.getTeacher().getPatronymic() + \" \" + entity.getTeacher().getLastName())")
+    @Mapping(target = "groupNames", ignore = true)
+    @Mapping(target = "teacherName", expression = "java(ru.semavin.telegrambot.utils.StringInterner.intern(entity.getTeacher().getDisplayName()))")
     ScheduleDTO toScheduleDTO(ScheduleEntity entity);
 
     List<ScheduleDTO> toScheduleDTOList(List<ScheduleEntity> entities);
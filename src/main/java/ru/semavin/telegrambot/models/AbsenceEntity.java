@@ -23,10 +23,19 @@ public class AbsenceEntity {
     @JoinColumn(name = "user_id", nullable = false)
     private UserEntity user;
 
+    /**
+     * Пара пропуска. Пустая, если месяц пары перенесен в архив, тогда см. {@link #archivedScheduleId}.
+     */
     @ManyToOne
-    @JoinColumn(name = "schedule_id", nullable = false)
+    @JoinColumn(name = "schedule_id")
     private ScheduleEntity schedule;
 
+    /**
+     * id архивной пары в schedule_archive.lessons за месяц пропуска.
+     */
+    @Column(name = "archived_schedule_id")
+    private Long archivedScheduleId;
+
     @Column(name = "date")
     private LocalDate date;
 
@@ -0,0 +1,60 @@
+package ru.semavin.telegrambot.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+import ru.semavin.telegrambot.models.enums.RefreshErrorClass;
+
+import java.time.LocalDateTime;
+
+/**
+ * Неудачное обновление расписания группы, ожидающее повтора.
+ * Запись удаляется после успешного обновления группы.
+ */
+@Entity
+@Table(name = "group_refresh_retry")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GroupRefreshRetryEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "group_id", referencedColumnName = "id", nullable = false, unique = true)
+    private GroupEntity group;
+
+    /**
+     * Класс последней ошибки, по нему выбирается политика повторов.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "error_class", nullable = false, length = 16)
+    private RefreshErrorClass errorClass;
+
+    /**
+     * Число неудачных попыток подряд с любым классом ошибки.
+     */
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "first_failed_at", nullable = false)
+    private LocalDateTime firstFailedAt;
+
+    @Column(name = "last_failed_at", nullable = false)
+    private LocalDateTime lastFailedAt;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    /**
+     * Попытки исчерпаны, автоматически группа больше не повторяется.
+     */
+    @Column(name = "dead", nullable = false)
+    private boolean dead;
+}
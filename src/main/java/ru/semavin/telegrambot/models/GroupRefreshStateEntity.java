@@ -0,0 +1,68 @@
+package ru.semavin.telegrambot.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Состояние адаптивного обновления расписания группы.
+ * Хранит затухающую оценку частоты изменений расписания (по разнице контрольных сумм)
+ * и момент следующего обновления, а также валидаторы условных запросов к MAI.
+ */
+@Entity
+@Table(name = "group_refresh_state")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GroupRefreshStateEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Группа, для которой отслеживаются изменения.
+     */
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "group_id", referencedColumnName = "id", nullable = false, unique = true)
+    private GroupEntity group;
+
+    /**
+     * Затухающий счетчик обновлений, в которых расписание изменилось.
+     */
+    @Column(name = "change_score", nullable = false)
+    private double changeScore;
+
+    @Column(name = "last_refresh_at")
+    private LocalDateTime lastRefreshAt;
+
+    @Column(name = "last_change_at")
+    private LocalDateTime lastChangeAt;
+
+    @Column(name = "next_refresh_at", nullable = false)
+    private LocalDateTime nextRefreshAt;
+
+    @Column(name = "refresh_count", nullable = false)
+    private long refreshCount;
+
+    /**
+     * ETag последнего обработанного json группы.
+     */
+    @Column(name = "etag")
+    private String etag;
+
+    /**
+     * Last-Modified последнего обработанного json группы в миллисекундах.
+     */
+    @Column(name = "last_modified")
+    private Long lastModified;
+
+    /**
+     * MD5 последнего обработанного json группы.
+     */
+    @Column(name = "body_digest", length = 32)
+    private String bodyDigest;
+}
@@ -0,0 +1,35 @@
+package ru.semavin.telegrambot.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Указатель на текущую версию (снимок) расписания группы.
+ * Новое расписание записывается под новой версией, а указатель переключается
+ * в той же транзакции, поэтому читатели видят либо старый, либо новый снимок целиком.
+ */
+@Entity
+@Table(name = "group_schedule_version")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GroupScheduleVersionEntity {
+
+    @Id
+    @Column(name = "group_id")
+    private Long groupId;
+
+    @Column(name = "current_version", nullable = false)
+    private long currentVersion;
+
+    /**
+     * Момент переключения на текущую версию. Старые версии удаляются не раньше,
+     * чем через schedule.snapshot.gc-grace после переключения.
+     */
+    @Column(name = "switched_at")
+    private LocalDateTime switchedAt;
+}
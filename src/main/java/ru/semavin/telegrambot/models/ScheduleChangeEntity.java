@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import ru.semavin.telegrambot.models.converters.ControlSumConverter;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
@@ -36,6 +37,7 @@ public class ScheduleChangeEntity {
     private String description;
     private boolean deleted;
 
+    @Convert(converter = ControlSumConverter.class)
     private String oldControlSum;
 
     @ManyToOne
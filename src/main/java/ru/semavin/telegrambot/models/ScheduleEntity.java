@@ -5,25 +5,36 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import ru.semavin.telegrambot.models.converters.ControlSumConverter;
 import ru.semavin.telegrambot.models.enums.LessonType;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
 
 /**
- * Сущность расписания (schedule).
+ * Сущность расписания: пара группы.
  * Хранит информацию о парах: предмет, тип, время, преподаватель и т.д.
+ * <p>
+ * Отображается на представление schedule_lessons: содержимое пары лежит в lessons и общее
+ * для всех групп потока, а в schedule записана только принадлежность пары группе и версии снимка.
+ * Вставку и удаление через представление разбирает триггер БД; загрузка расписания группы
+ * пишет пары набором через {@link ru.semavin.telegrambot.services.schedules.ScheduleLessonWriter}.
  */
 @Entity
-@Table(name = "schedule")
+@Table(name = "schedule_lessons")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class ScheduleEntity {
 
+    /**
+     * Идентификаторы выдаются из последовательности пачками по 50,
+     * чтобы Hibernate мог группировать INSERT в JDBC-батчи.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "schedule_seq")
+    @SequenceGenerator(name = "schedule_seq", sequenceName = "schedule_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -33,6 +44,12 @@ public class ScheduleEntity {
     @JoinColumn(name = "group_id", referencedColumnName = "id")
     private GroupEntity group;
 
+    /**
+     * Занятие в lessons, общее для пар всех групп потока. Назначается триггером при вставке.
+     */
+    @Column(name = "lesson_id", insertable = false, updatable = false)
+    private Long lessonId;
+
     @Column(name = "subject_name")
     private String subjectName;
 
@@ -63,9 +80,20 @@ public class ScheduleEntity {
     @Column(name = "lesson_week")
     private Integer lessonWeek;
 
+    /**
+     * Контрольная сумма пары, в БД хранится 32 байтами; уникальна в версии снимка группы.
+     */
+    @Convert(converter = ControlSumConverter.class)
     @Column(name = "control_sum")
     private String controlSum;
 
+    /**
+     * Версия снимка расписания группы, в которой записана пара.
+     * Актуальной считается версия из {@link GroupScheduleVersionEntity}.
+     */
+    @Column(name = "snapshot_version", nullable = false, columnDefinition = "bigint default 0")
+    private long snapshotVersion;
+
     @Override
     public String toString() {
         return "ScheduleEntity{" +
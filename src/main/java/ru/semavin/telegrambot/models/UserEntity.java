@@ -2,9 +2,14 @@ package ru.semavin.telegrambot.models;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Generated;
+import org.hibernate.generator.EventType;
 import ru.semavin.telegrambot.models.enums.UserRole;
 
 import java.util.HashSet;
+import java.util.Objects;
 import java.util.Set;
 
 /**
@@ -12,6 +17,7 @@ import java.util.Set;
  */
 @Entity
 @Table(name = "users")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -53,6 +59,14 @@ public class UserEntity {
     @Column(name = "last_name")
     private String lastName;
 
+    /**
+     * Имя для выдачи в расписании: имя, отчество и фамилия через пробел.
+     * Вычисляется в БД (генерируемая колонка) и перечитывается Hibernate после вставки и обновления.
+     */
+    @Generated(event = {EventType.INSERT, EventType.UPDATE})
+    @Column(name = "display_name", insertable = false, updatable = false)
+    private String displayName;
+
     /**
      * Роль пользователя в системе (например, STUDENT, STAROSTA, ADMIN, TEACHER).
      */
@@ -86,6 +100,17 @@ public class UserEntity {
     @Builder.Default
     private Set<GroupEntity> teachingGroups = new HashSet<>();
 
+    /**
+     * Имя для выдачи; для еще не сохраненного пользователя собирается из частей.
+     */
+    public String getDisplayName() {
+        if (displayName != null) {
+            return displayName;
+        }
+        return Objects.requireNonNullElse(firstName, "") + " " + Objects.requireNonNullElse(patronymic, "")
+                + " " + Objects.requireNonNullElse(lastName, "");
+    }
+
     @Override
     public String toString() {
         return "UserEntity{" +
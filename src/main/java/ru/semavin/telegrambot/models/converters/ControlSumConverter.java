@@ -0,0 +1,34 @@
+package ru.semavin.telegrambot.models.converters;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+
+/**
+ * Контрольная сумма пары (SHA-256): в коде и API - hex-строка, в БД - 32 байта bytea.
+ */
+@Converter
+public class ControlSumConverter implements AttributeConverter<String, byte[]> {
+
+    private static final HexFormat HEX = HexFormat.of();
+    private static final Pattern SHA_256_HEX = Pattern.compile("[0-9a-f]{64}");
+
+    /**
+     * @return true, если строка - контрольная сумма в формате {@link ru.semavin.telegrambot.services.schedules.ScheduleControlSumParserService}
+     */
+    public static boolean isValid(String controlSum) {
+        return controlSum != null && SHA_256_HEX.matcher(controlSum).matches();
+    }
+
+    @Override
+    public byte[] convertToDatabaseColumn(String controlSum) {
+        return controlSum == null ? null : HEX.parseHex(controlSum);
+    }
+
+    @Override
+    public String convertToEntityAttribute(byte[] bytes) {
+        return bytes == null ? null : HEX.formatHex(bytes);
+    }
+}
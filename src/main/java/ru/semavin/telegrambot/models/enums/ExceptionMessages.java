@@ -18,7 +18,15 @@ public enum ExceptionMessages {
     USER_NOW_NOT_EXISTS_AS_STAROSTA("Пользователь не староста!"),
     USER_TELEGRAM_ID_EXISTS("Пользователь с таким Telegram_id уже есть!"),
     UNKNOWN_ERROR("Произошла неизвестная ошибка."),
-    INVALID_ROLE("Не правильно указана роль"), DEADLINE_NOT_FOUND("Дедлайн не найден");
+    INVALID_ROLE("Не правильно указана роль"), DEADLINE_NOT_FOUND("Дедлайн не найден"),
+    FAN_OUT_TIMEOUT("Расписание не удалось собрать вовремя, попробуйте позже"),
+    UPSTREAM_PAYLOAD_NOT_ARCHIVED("Ответ MAI не найден в архиве для воспроизведения"),
+    UPSTREAM_UNAVAILABLE("Расписание MAI временно недоступно, сохраненного ответа нет"),
+    REFRESH_RETRY_NOT_FOUND("Группы нет в очереди повторов обновления"),
+    LESSON_NOT_FOUND("Пара не найдена в расписании группы"),
+    RECORDING_NOT_FOUND("Запись JFR не запускалась"),
+    INVALID_RECORDING_SETTINGS("Неизвестная конфигурация JFR, допустимы default и profile"),
+    LESSON_MOVE_TOO_FAR("Пару можно перенести не дальше чем на шесть месяцев от исходной даты");
 
     private final String message;
 
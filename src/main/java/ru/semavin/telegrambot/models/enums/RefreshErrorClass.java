@@ -0,0 +1,35 @@
+package ru.semavin.telegrambot.models.enums;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Класс ошибки обновления расписания группы и политика повторов для него:
+ * начальная задержка, которая удваивается с каждой попыткой, и число попыток
+ * до переноса группы в dead-letter.
+ */
+@Getter
+public enum RefreshErrorClass {
+    /**
+     * MAI не знает группу (404) или отдал пустое расписание: повторять часто бессмысленно.
+     */
+    NOT_FOUND(Duration.ofHours(6), 3),
+    /**
+     * MAI недоступен: таймаут, 5xx, разомкнут выключатель.
+     */
+    UPSTREAM(Duration.ofMinutes(2), 10),
+    /**
+     * json не разбирается: обычно MAI поменял формат, нужен разбор вручную.
+     */
+    PARSE(Duration.ofHours(1), 4),
+    OTHER(Duration.ofMinutes(10), 5);
+
+    private final Duration baseDelay;
+    private final int maxAttempts;
+
+    RefreshErrorClass(Duration baseDelay, int maxAttempts) {
+        this.baseDelay = baseDelay;
+        this.maxAttempts = maxAttempts;
+    }
+}
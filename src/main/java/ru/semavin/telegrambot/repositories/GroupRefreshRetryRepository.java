@@ -0,0 +1,68 @@
+package ru.semavin.telegrambot.repositories;
+
+import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import ru.semavin.telegrambot.models.GroupEntity;
+import ru.semavin.telegrambot.models.GroupRefreshRetryEntity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface GroupRefreshRetryRepository extends JpaRepository<GroupRefreshRetryEntity, Long> {
+
+    Optional<GroupRefreshRetryEntity> findByGroup(GroupEntity group);
+
+    /**
+     * Запись повтора группы, заблокированная до конца текущей транзакции.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from GroupRefreshRetryEntity r where r.group = :group")
+    Optional<GroupRefreshRetryEntity> findForUpdate(@Param("group") GroupEntity group);
+
+    /**
+     * Создает запись повтора для первой ошибки группы, если ее еще нет.
+     * Две одновременные первые ошибки не нарушают уникальность group_id: вторая вставка ждет первую
+     * и только блокирует ее строку, попытки затем считаются через {@link #findForUpdate(GroupEntity)}.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO group_refresh_retry (group_id, error_class, attempts, first_failed_at, last_failed_at,
+                                             next_attempt_at)
+            VALUES (:groupId, :errorClass, 0, :now, :now, :now)
+            ON CONFLICT (group_id) DO UPDATE SET last_failed_at = EXCLUDED.last_failed_at
+            """, nativeQuery = true)
+    void upsertFirstFailure(@Param("groupId") Long groupId,
+                            @Param("errorClass") String errorClass,
+                            @Param("now") LocalDateTime now);
+
+    /**
+     * Повторы, у которых наступило время, начиная с самых "просроченных".
+     */
+    @Query("""
+            select r from GroupRefreshRetryEntity r
+                        join fetch r.group
+                        where r.dead = false and r.nextAttemptAt <= :now
+                        order by r.nextAttemptAt
+            """)
+    List<GroupRefreshRetryEntity> findDue(@Param("now") LocalDateTime now, Pageable pageable);
+
+    @Query("""
+            select r from GroupRefreshRetryEntity r
+                        join fetch r.group
+                        where r.dead = :dead
+                        order by r.lastFailedAt desc
+            """)
+    List<GroupRefreshRetryEntity> findAllByDead(@Param("dead") boolean dead);
+
+    @Transactional
+    @Modifying
+    @Query("delete from GroupRefreshRetryEntity r where r.group = :group")
+    int deleteByGroup(@Param("group") GroupEntity group);
+}
@@ -0,0 +1,50 @@
+package ru.semavin.telegrambot.repositories;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.semavin.telegrambot.models.GroupEntity;
+import ru.semavin.telegrambot.models.GroupRefreshStateEntity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface GroupRefreshStateRepository extends JpaRepository<GroupRefreshStateEntity, Long> {
+
+    boolean existsByGroup(GroupEntity group);
+
+    /**
+     * Группы, у которых наступило время обновления, начиная с самых "просроченных".
+     * Группы из очереди повторов, в том числе из dead-letter, не возвращаются.
+     */
+    @Query("""
+            select st from GroupRefreshStateEntity st
+                        join fetch st.group
+                        where st.nextRefreshAt <= :now
+                          and not exists (select r.id from GroupRefreshRetryEntity r where r.group = st.group)
+                        order by st.nextRefreshAt
+            """)
+    List<GroupRefreshStateEntity> findDue(@Param("now") LocalDateTime now, Pageable pageable);
+
+    @Query("select st from GroupRefreshStateEntity st where st.group.groupName = :groupName")
+    Optional<GroupRefreshStateEntity> findByGroupName(@Param("groupName") String groupName);
+
+    /**
+     * Сохраняет валидаторы условных запросов группы.
+     *
+     * @return количество обновленных строк (0, если группа не под адаптивным обновлением)
+     */
+    @Modifying
+    @Query("""
+            update GroupRefreshStateEntity st
+                        set st.etag = :etag, st.lastModified = :lastModified, st.bodyDigest = :digest
+                        where st.group in (select g from GroupEntity g where g.groupName = :groupName)
+            """)
+    int updateValidators(@Param("groupName") String groupName,
+                         @Param("etag") String etag,
+                         @Param("lastModified") Long lastModified,
+                         @Param("digest") String digest);
+}
@@ -1,11 +1,29 @@
 package ru.semavin.telegrambot.repositories;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import ru.semavin.telegrambot.models.GroupEntity;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface GroupRepository extends JpaRepository<GroupEntity, Long> {
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "groupQueries")
+    })
     Optional<GroupEntity> findByGroupNameIgnoreCase(String groupName);
 
+    /**
+     * Группы, в которых есть хотя бы один пользователь бота.
+     */
+    @Query("""
+            select g from GroupEntity g
+                        where exists (select u.id from UserEntity u where u.group = g)
+            """)
+    List<GroupEntity> findAllWithUsers();
+
 }
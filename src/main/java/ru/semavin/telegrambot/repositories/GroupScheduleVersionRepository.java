@@ -0,0 +1,53 @@
+package ru.semavin.telegrambot.repositories;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import ru.semavin.telegrambot.models.GroupScheduleVersionEntity;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface GroupScheduleVersionRepository extends JpaRepository<GroupScheduleVersionEntity, Long> {
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "group_schedule_version"))
+    @Query(value = """
+            INSERT INTO group_schedule_version (group_id, current_version, switched_at)
+            VALUES (:groupId, 0, now())
+            ON CONFLICT DO NOTHING
+            """, nativeQuery = true)
+    void insertIfAbsent(@Param("groupId") long groupId);
+
+    /**
+     * Блокирует указатель версии группы до конца транзакции, чтобы обновления
+     * одной группы не выполнялись параллельно. Читателей блокировка не затрагивает.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select v from GroupScheduleVersionEntity v where v.groupId = :groupId")
+    Optional<GroupScheduleVersionEntity> findForUpdate(@Param("groupId") long groupId);
+
+    /**
+     * Удаляет пары устаревших версий, если с момента переключения прошло достаточно времени.
+     * Пары, на которые ссылаются пропуски, сохраняются.
+     *
+     * @return количество удаленных пар
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "schedule_lessons"))
+    @Query(value = """
+            DELETE FROM schedule s
+            USING group_schedule_version v
+            WHERE s.group_id = v.group_id
+              AND s.snapshot_version < v.current_version
+              AND v.switched_at < :switchedBefore
+              AND NOT EXISTS (SELECT 1 FROM absences a WHERE a.schedule_id = s.id)
+            """, nativeQuery = true)
+    int deleteStaleSnapshots(@Param("switchedBefore") LocalDateTime switchedBefore);
+}
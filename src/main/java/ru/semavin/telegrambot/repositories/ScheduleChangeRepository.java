@@ -7,20 +7,53 @@ import ru.semavin.telegrambot.models.GroupEntity;
 import ru.semavin.telegrambot.models.ScheduleChangeEntity;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 public interface ScheduleChangeRepository extends JpaRepository<ScheduleChangeEntity, Long> {
 
     List<ScheduleChangeEntity> findAllByGroupAndOldLessonDate(GroupEntity group, LocalDate date);
 
+    List<ScheduleChangeEntity> findAllByGroupAndOldLessonDateBetween(GroupEntity group, LocalDate from, LocalDate to);
+
+    /**
+     * Изменения, переносящие пару на указанную дату. Таблица партиционирована по старой дате,
+     * поэтому поиск ограничен окном старых дат [oldFrom, oldTo], чтобы затрагивать только его партиции.
+     */
     @Query("""
         SELECT sc from ScheduleChangeEntity sc
                 where sc.group = :group
-                        AND (sc.newLessonDate = :date
-                                OR sc.oldLessonDate = :date)
+                        AND sc.newLessonDate = :date
+                        AND sc.oldLessonDate BETWEEN :oldFrom AND :oldTo
         """)
-    List<ScheduleChangeEntity> findAllByGroupAndDate(@Param("group") GroupEntity group,
-                                                     @Param("date") LocalDate date);
+    List<ScheduleChangeEntity> findAllByGroupAndNewLessonDate(@Param("group") GroupEntity group,
+                                                              @Param("date") LocalDate date,
+                                                              @Param("oldFrom") LocalDate oldFrom,
+                                                              @Param("oldTo") LocalDate oldTo);
 
-}
+    @Query("""
+        SELECT sc from ScheduleChangeEntity sc
+                where sc.group = :group
+                        AND sc.newLessonDate BETWEEN :from AND :to
+                        AND sc.oldLessonDate BETWEEN :oldFrom AND :oldTo
+        """)
+    List<ScheduleChangeEntity> findAllByGroupAndNewLessonDateBetween(@Param("group") GroupEntity group,
+                                                                     @Param("from") LocalDate from,
+                                                                     @Param("to") LocalDate to,
+                                                                     @Param("oldFrom") LocalDate oldFrom,
+                                                                     @Param("oldTo") LocalDate oldTo);
 
+    /**
+     * Все изменения пар с указанными контрольными суммами, с тем же ограничением окна старых дат.
+     */
+    @Query("""
+        SELECT sc from ScheduleChangeEntity sc
+                where sc.group = :group
+                        AND sc.oldControlSum IN :sums
+                        AND sc.oldLessonDate BETWEEN :oldFrom AND :oldTo
+        """)
+    List<ScheduleChangeEntity> findAllByGroupAndOldControlSumIn(@Param("group") GroupEntity group,
+                                                                @Param("sums") Collection<String> sums,
+                                                                @Param("oldFrom") LocalDate oldFrom,
+                                                                @Param("oldTo") LocalDate oldTo);
+}
@@ -3,6 +3,7 @@ package ru.semavin.telegrambot.repositories;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import ru.semavin.telegrambot.dto.ScheduleDTO;
 import ru.semavin.telegrambot.models.GroupEntity;
 import ru.semavin.telegrambot.models.ScheduleEntity;
 import ru.semavin.telegrambot.models.enums.LessonType;
@@ -13,17 +14,80 @@ import java.util.List;
 
 public interface ScheduleRepository extends JpaRepository<ScheduleEntity, Long> {
 
-    List<ScheduleEntity> findAllByLessonDateAndGroup(LocalDate lessonDate, GroupEntity group);
+    /**
+     * Условие выборки пар только из текущей версии снимка расписания группы.
+     * Для групп без указателя версии текущей считается версия 0.
+     */
+    String CURRENT_SNAPSHOT = """
+             and sh.snapshotVersion = coalesce(
+                    (select v.currentVersion from GroupScheduleVersionEntity v where v.groupId = sh.group.id), 0)
+            """;
 
     /**
-     * Удаляет все записи расписания для указанной группы
-     *
-     * @param group название групп
+     * Проекция пары сразу в {@link ScheduleDTO} одним запросом с join группы и преподавателя,
+     * без загрузки сущностей в контекст персистентности.
      */
+    String SELECT_DTO = """
+            select new ru.semavin.telegrambot.dto.ScheduleDTO(
+                        sh.id, sh.lessonId, g.groupName, sh.subjectName, sh.lessonType,
+                        t.displayName,
+                        sh.classroom, sh.lessonDate, sh.startTime, sh.endTime, sh.controlSum)
+                        from ScheduleEntity sh
+                        join sh.group g
+                        left join sh.teacher t
+            """;
 
-    void deleteAllByGroup(GroupEntity group);
+    @Query("""
+            select sh from ScheduleEntity sh
+                        where sh.group = :group
+                        and sh.lessonDate = :lessonDate
+            """ + CURRENT_SNAPSHOT)
+    List<ScheduleEntity> findAllByLessonDateAndGroup(@Param("lessonDate") LocalDate lessonDate,
+                                                     @Param("group") GroupEntity group);
 
-    ScheduleEntity findByGroupAndLessonDateAndStartTime(GroupEntity group, LocalDate lessonDate, LocalTime startTime);
+    @Query(SELECT_DTO + """
+                        where sh.group = :group
+                        and sh.lessonDate = :lessonDate
+            """ + CURRENT_SNAPSHOT + " order by sh.startTime")
+    List<ScheduleDTO> findDtosByGroupAndLessonDate(@Param("group") GroupEntity group,
+                                                   @Param("lessonDate") LocalDate lessonDate);
+
+    @Query(SELECT_DTO + """
+                        where sh.group = :group
+                        and sh.lessonDate between :from and :to
+            """ + CURRENT_SNAPSHOT + " order by sh.lessonDate, sh.startTime")
+    List<ScheduleDTO> findDtosByGroupAndLessonDateBetween(@Param("group") GroupEntity group,
+                                                          @Param("from") LocalDate from,
+                                                          @Param("to") LocalDate to);
+
+    @Query(SELECT_DTO + """
+                        where sh.group = :group
+                        and sh.lessonDate = :lessonDate
+                        and sh.startTime = :startTime
+            """ + CURRENT_SNAPSHOT)
+    ScheduleDTO findDtoByGroupAndLessonDateAndStartTime(@Param("group") GroupEntity group,
+                                                        @Param("lessonDate") LocalDate lessonDate,
+                                                        @Param("startTime") LocalTime startTime);
+
+    /**
+     * Контрольные суммы всех пар группы, используются для оценки изменений при обновлении.
+     */
+    @Query("select sh.controlSum from ScheduleEntity sh where sh.group = :group" + CURRENT_SNAPSHOT)
+    List<String> findControlSumsByGroup(@Param("group") GroupEntity group);
+
+    /**
+     * Пара группы в текущей версии снимка по контрольной сумме, поиск по уникальному индексу
+     * (group_id, control_sum, snapshot_version, lesson_date).
+     */
+    @Query("""
+            select sh from ScheduleEntity sh
+                        where sh.group = :group
+                        and sh.controlSum = :controlSum
+                        and sh.lessonDate = :lessonDate
+            """ + CURRENT_SNAPSHOT)
+    ScheduleEntity findByGroupAndControlSum(@Param("group") GroupEntity group,
+                                            @Param("controlSum") String controlSum,
+                                            @Param("lessonDate") LocalDate lessonDate);
 
     @Query("""
             select sh from ScheduleEntity sh
@@ -33,7 +97,7 @@ public interface ScheduleRepository extends JpaRepository<ScheduleEntity, Long>
                         and sh.endTime = :endTime
                         and sh.lessonType = :type
                         and sh.subjectName = :subName
-            """)
+            """ + CURRENT_SNAPSHOT)
     ScheduleEntity findSchedule(@Param("group") GroupEntity group,
                                 @Param("lessonDate") LocalDate lessonDate,
                                 @Param("startTime") LocalTime startTimeParse,
@@ -41,12 +105,23 @@ public interface ScheduleRepository extends JpaRepository<ScheduleEntity, Long>
                                 @Param("type") LessonType lessonTypeParse,
                                 @Param("subName") String subjectName);
 
-    @Query("""
-            select sh from ScheduleEntity sh
-                        where sh.teacher.teacherUuid = :uuid
+    @Query(SELECT_DTO + """
+                        where t.teacherUuid = :uuid
                         and sh.group = :group
-            """)
-    List<ScheduleEntity> findScheduleByTeacher(@Param("uuid") String uuid,
-                                               @Param("group") GroupEntity group);
+            """ + CURRENT_SNAPSHOT + " order by sh.lessonDate, sh.startTime")
+    List<ScheduleDTO> findScheduleByTeacher(@Param("uuid") String uuid,
+                                            @Param("group") GroupEntity group);
+
+    /**
+     * Пары преподавателя во всех группах за период одним запросом.
+     * Занятие потока приходит строкой на каждую группу с одинаковым lessonId.
+     */
+    @Query(SELECT_DTO + """
+                        where t.teacherUuid = :uuid
+                        and sh.lessonDate between :from and :to
+            """ + CURRENT_SNAPSHOT + " order by sh.lessonDate, sh.startTime, g.groupName")
+    List<ScheduleDTO> findTeacherLessons(@Param("uuid") String uuid,
+                                         @Param("from") LocalDate from,
+                                         @Param("to") LocalDate to);
 
 }
@@ -1,8 +1,11 @@
 package ru.semavin.telegrambot.repositories;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import ru.semavin.telegrambot.models.UserEntity;
 
@@ -16,9 +19,17 @@ public interface UserRepository extends JpaRepository<UserEntity, Long> {
 
     boolean existsByTelegramId(Long telegramId);
 
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "teacherQueries")
+    })
     Optional<UserEntity> findByTeacherUuid(String teacherUuid);
 
+    /**
+     * Пространство запроса указано явно, иначе нативный INSERT сбросил бы весь кэш второго уровня.
+     */
     @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "teacher_groups"))
     @Query(value = """
             INSERT INTO teacher_groups (teacher_id, group_id)
             VALUES (:teacherId, :groupId)
@@ -30,6 +41,7 @@ public interface UserRepository extends JpaRepository<UserEntity, Long> {
     );
 
     @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "users"))
     @Query(value = """
             INSERT INTO users (first_name, last_name,
                 patronymic, role, teacher_uuid,
@@ -9,6 +9,9 @@ import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.semavin.telegrambot.config.datasource.PrimaryRead;
+import ru.semavin.telegrambot.config.datasource.Workload;
+import ru.semavin.telegrambot.config.datasource.WorkloadContext;
 import ru.semavin.telegrambot.dto.NotificationDTO;
 import ru.semavin.telegrambot.mapper.NotificationMapper;
 import ru.semavin.telegrambot.models.AbsenceEntity;
@@ -63,6 +66,8 @@ public class NotificationService {
         notificationRepository.deleteByUuid(UUID.fromString(uuid));
     }
 
+    @PrimaryRead
+    @Transactional(readOnly = true)
     @Cacheable(value = "notifications", key = "#groupName")
     public List<NotificationDTO> getAll(String groupName) {
         GroupEntity group = groupRepository.findByGroupNameIgnoreCase(groupName)
@@ -87,9 +92,11 @@ public class NotificationService {
     @Transactional
     @CacheEvict(value = "notifications", allEntries = true)
     public void deleteExpired() {
-        for (UUID uuid : toDelete) {
-            deleteByUUID(uuid.toString());
-        }
-        toDelete.clear();
+        WorkloadContext.runAs(Workload.INGEST, () -> {
+            for (UUID uuid : toDelete) {
+                deleteByUUID(uuid.toString());
+            }
+            toDelete.clear();
+        });
     }
 }
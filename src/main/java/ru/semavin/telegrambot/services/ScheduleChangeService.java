@@ -10,13 +10,23 @@ import ru.semavin.telegrambot.dto.ScheduleChangeForFrontDTO;
 import ru.semavin.telegrambot.models.GroupEntity;
 import ru.semavin.telegrambot.models.ScheduleChangeEntity;
 import ru.semavin.telegrambot.models.ScheduleEntity;
+import ru.semavin.telegrambot.models.converters.ControlSumConverter;
+import ru.semavin.telegrambot.models.enums.ExceptionMessages;
 import ru.semavin.telegrambot.models.enums.LessonType;
 import ru.semavin.telegrambot.repositories.ScheduleChangeRepository;
 import ru.semavin.telegrambot.repositories.ScheduleRepository;
 import ru.semavin.telegrambot.services.groups.GroupService;
+import ru.semavin.telegrambot.utils.ExceptionFabric;
+import ru.semavin.telegrambot.utils.exceptions.LessonMoveTooFarException;
+import ru.semavin.telegrambot.utils.exceptions.ScheduleNotFoundException;
 
 import java.time.LocalDate;
+import java.time.Period;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @RequiredArgsConstructor
 @Service
@@ -26,13 +36,17 @@ public class ScheduleChangeService {
     private final ScheduleRepository scheduleRepository;
     private final GroupService groupService;
 
+    /**
+     * Насколько далеко от исходной даты может быть перенесена пара. Переносы ищутся только в этом окне
+     * старых дат, поэтому более дальние отклоняются при сохранении.
+     */
+    private static final Period MAX_MOVE_DISTANCE = Period.ofMonths(6);
+
     @CacheEvict(value = "scheduleDay", key = "#groupName + '-' + #dto.oldLessonDate.format(T(ru.semavin.telegrambot.utils.DateUtils).FORMATTER)")
     public ScheduleChangeEntity createOrUpdate(ScheduleChangeDTO dto, String groupName) {
+        checkMoveDistance(dto);
         GroupEntity group = groupService.findEntityByName(groupName);
-        ScheduleEntity scheduleEntity = scheduleRepository.findSchedule(
-                group, dto.getOldLessonDate(), dto.getOldStartTime(),
-                dto.getOldEndTime(), LessonType.valueOfString(dto.getLessonType()), dto.getSubjectName()
-        );
+        ScheduleEntity scheduleEntity = findTargetLesson(group, dto);
         ScheduleChangeEntity entity = new ScheduleChangeEntity();
 
         entity.setGroup(group);
@@ -59,9 +73,85 @@ public class ScheduleChangeService {
         return changesToDto(changeRepository.findAllByGroupAndOldLessonDate(group, date));
     }
 
+    /**
+     * Изменения, затрагивающие день по старой или новой дате, вместе со всеми изменениями
+     * перенесенных на этот день пар: действующее изменение пары выбирается среди всех ее изменений.
+     */
     public List<ScheduleChangeEntity> getChangesDtoAnyDay(String groupName, LocalDate date) {
         GroupEntity group = groupService.findEntityByName(groupName);
-        return changeRepository.findAllByGroupAndDate(group, date);
+        LocalDate oldFrom = date.minus(MAX_MOVE_DISTANCE);
+        LocalDate oldTo = date.plus(MAX_MOVE_DISTANCE);
+        List<ScheduleChangeEntity> movedIn = changeRepository.findAllByGroupAndNewLessonDate(group, date, oldFrom, oldTo);
+        return Stream.of(
+                        changeRepository.findAllByGroupAndOldLessonDate(group, date),
+                        movedIn,
+                        otherChangesOf(group, movedIn, oldFrom, oldTo))
+                .flatMap(List::stream)
+                .distinct()
+                .toList();
+    }
+
+    /**
+     * Изменения группы, затрагивающие дни из диапазона [from, to] по старой или новой дате.
+     */
+    public List<ScheduleChangeEntity> getChangesForRange(String groupName, LocalDate from, LocalDate to) {
+        GroupEntity group = groupService.findEntityByName(groupName);
+        LocalDate oldFrom = from.minus(MAX_MOVE_DISTANCE);
+        LocalDate oldTo = to.plus(MAX_MOVE_DISTANCE);
+        List<ScheduleChangeEntity> movedIn = changeRepository.findAllByGroupAndNewLessonDateBetween(group, from, to,
+                oldFrom, oldTo);
+        return Stream.of(
+                        changeRepository.findAllByGroupAndOldLessonDateBetween(group, from, to),
+                        movedIn,
+                        otherChangesOf(group, movedIn, oldFrom, oldTo))
+                .flatMap(List::stream)
+                .distinct()
+                .toList();
+    }
+
+    /**
+     * Остальные изменения перенесенных пар: правка на исходном дне с большим id отменяет перенос,
+     * а в выборку по новой дате она не попадает.
+     */
+    private List<ScheduleChangeEntity> otherChangesOf(GroupEntity group, List<ScheduleChangeEntity> movedIn,
+                                                      LocalDate oldFrom, LocalDate oldTo) {
+        Set<String> sums = movedIn.stream()
+                .map(ScheduleChangeEntity::getOldControlSum)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (sums.isEmpty()) {
+            return List.of();
+        }
+        return changeRepository.findAllByGroupAndOldControlSumIn(group, sums, oldFrom, oldTo);
+    }
+
+    /**
+     * @throws LessonMoveTooFarException если новая дата дальше {@link #MAX_MOVE_DISTANCE} от старой
+     */
+    private void checkMoveDistance(ScheduleChangeDTO dto) {
+        LocalDate from = dto.getOldLessonDate();
+        LocalDate to = dto.getNewLessonDate();
+        if (from != null && to != null
+                && (to.isAfter(from.plus(MAX_MOVE_DISTANCE)) || to.isBefore(from.minus(MAX_MOVE_DISTANCE)))) {
+            throw ExceptionFabric.create(LessonMoveTooFarException.class, ExceptionMessages.LESSON_MOVE_TOO_FAR);
+        }
+    }
+
+    /**
+     * Находит изменяемую пару по контрольной сумме из запроса (уникальный индекс группы).
+     * Клиенты, не передающие контрольную сумму, ищут пару по дате, времени, типу и предмету.
+     *
+     * @throws ScheduleNotFoundException если пары нет в текущем расписании группы
+     */
+    private ScheduleEntity findTargetLesson(GroupEntity group, ScheduleChangeDTO dto) {
+        ScheduleEntity lesson = ControlSumConverter.isValid(dto.getControlSum())
+                ? scheduleRepository.findByGroupAndControlSum(group, dto.getControlSum(), dto.getOldLessonDate())
+                : scheduleRepository.findSchedule(group, dto.getOldLessonDate(), dto.getOldStartTime(),
+                dto.getOldEndTime(), LessonType.valueOfString(dto.getLessonType()), dto.getSubjectName());
+        if (lesson == null) {
+            throw ExceptionFabric.create(ScheduleNotFoundException.class, ExceptionMessages.LESSON_NOT_FOUND);
+        }
+        return lesson;
     }
 
     private ScheduleChangeForEveryDayCheckDTO changesToDto(List<ScheduleChangeEntity> scheduleChangeEntities) {
@@ -92,11 +182,9 @@ public class ScheduleChangeService {
 
     @CacheEvict(value = "scheduleDay", key = "#groupName + '-' + #dto.oldLessonDate.format(T(ru.semavin.telegrambot.utils.DateUtils).FORMATTER)")
     public void markAsDeleted(ScheduleChangeDTO dto, String groupName) {
+        checkMoveDistance(dto);
         GroupEntity group = groupService.findEntityByName(groupName);
-        ScheduleEntity scheduleEntity = scheduleRepository.findSchedule(
-                group, dto.getOldLessonDate(), dto.getOldStartTime(),
-                dto.getOldEndTime(), LessonType.valueOfString(dto.getLessonType()), dto.getSubjectName()
-        );
+        ScheduleEntity scheduleEntity = findTargetLesson(group, dto);
         ScheduleChangeEntity entity = new ScheduleChangeEntity();
 
         entity.setGroup(group);
@@ -65,6 +65,7 @@ public class UserService {
         return userRepository.save(userEntity).getUsername();
     }
 
+    @Transactional(readOnly = true)
     public UserDTO getUserEntity(String username) {
         return userMapper.userToUserDTO(userRepository.findByUsername(username)
                 .orElseThrow(() -> ExceptionFabric.create(UserNotFoundException.class, ExceptionMessages.USER_NOT_FOUND)));
@@ -92,37 +93,22 @@ public class UserService {
        return em.getReference(UserEntity.class, id);
     }
 
+    /**
+     * Находит или создает преподавателя и привязывает к нему группу.
+     * Гонку параллельных вызовов разрешает уникальный индекс по teacher_uuid (ON CONFLICT),
+     * поэтому блокировка в JVM не нужна и виртуальные потоки не закрепляются за носителем.
+     */
     @Transactional
-    public synchronized UserEntity findOrCreateTeacherAndAddGroup(
+    public UserEntity findOrCreateTeacherAndAddGroup(
             String teacherUuid,
             String teacherName,
             GroupEntity group
     ) {
         if ("00000000-0000-0000-0000-000000000000".equals(teacherUuid)) {
-            return userRepository.findByTeacherUuid(teacherUuid)
-                    .orElseGet(() -> userRepository.save(
-                            UserEntity.builder()
-                                    .teacherUuid(teacherUuid)
-                                    .role(UserRole.TEACHER)
-                                    .firstName("Не указан")
-                                    .lastName(" ")
-                                    .patronymic(" ")
-                                    .build()
-                    ));
+            insertTeacherIfAbsent(teacherUuid, "Не указан", " ", " ");
+            return userRepository.findByTeacherUuid(teacherUuid).orElseThrow();
         }
 
-        UserEntity teacher = userRepository.findByTeacherUuid(teacherUuid)
-                .orElseGet(() -> createUser(teacherUuid, teacherName));
-
-        userRepository.insertIgnore(
-                teacher.getId(),
-                group.getId()
-        );
-
-        return teacher;
-    }
-
-    private UserEntity createUser(String teacherUuid, String teacherName) {
         String lastName = "";
         String firstName = "";
         String patronymic = "";
@@ -133,15 +119,27 @@ public class UserService {
             if (parts.length > 1) firstName = parts[1];
             if (parts.length > 2) patronymic = parts[2];
         }
+        insertTeacherIfAbsent(teacherUuid, firstName, lastName, patronymic);
+        UserEntity teacher = userRepository.findByTeacherUuid(teacherUuid).orElseThrow();
+
+        userRepository.insertIgnore(
+                teacher.getId(),
+                group.getId()
+        );
+
+        return teacher;
+    }
 
-        return userRepository.saveAndFlush(
-                UserEntity.builder()
-                        .teacherUuid(teacherUuid)
-                        .role(UserRole.TEACHER)
-                        .firstName(firstName)
-                        .lastName(lastName)
-                        .patronymic(patronymic)
-                        .build()
+    private void insertTeacherIfAbsent(String teacherUuid, String firstName, String lastName, String patronymic) {
+        userRepository.insertWithConflict(
+                firstName,
+                lastName,
+                patronymic,
+                UserRole.TEACHER.name(),
+                teacherUuid,
+                null,
+                null,
+                null
         );
     }
 
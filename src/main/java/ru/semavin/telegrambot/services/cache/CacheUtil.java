@@ -5,8 +5,11 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.ArrayList;
+import java.util.function.Predicate;
 
 @Service
 @Slf4j
@@ -15,9 +18,39 @@ public class CacheUtil {
     private final CacheManager cacheManager;
 
     /**
-     * Удаляем все ключи в кэше cacheName, начинающиеся на groupName + '-'.
+     * Удаляем ключ groupName + '-' + date в кэше cacheName (группа без учета регистра).
+     */
+    public void evictGroupDayKey(String cacheName, String groupName, String date) {
+        evictMatching(cacheName, key -> isGroupKey(key, groupName)
+                && key.length() == groupName.length() + 1 + date.length()
+                && key.endsWith(date));
+    }
+
+    /**
+     * Удаляем все ключи в кэше cacheName, начинающиеся на groupName + '-' (без учета регистра).
      */
     public void evictAllGroupKeys(String cacheName, String groupName) {
+        evictMatching(cacheName, key -> isGroupKey(key, groupName));
+    }
+
+    /**
+     * Внутри транзакции ключи удаляются после коммита, чтобы кэш не успел
+     * заполниться данными, которые еще не видны другим транзакциям.
+     */
+    private void evictMatching(String cacheName, Predicate<String> keyFilter) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictMatchingNow(cacheName, keyFilter);
+                }
+            });
+            return;
+        }
+        evictMatchingNow(cacheName, keyFilter);
+    }
+
+    private void evictMatchingNow(String cacheName, Predicate<String> keyFilter) {
         Cache cache = cacheManager.getCache(cacheName);
         if (cache == null) {
             log.warn("Кэш {} не найден в CacheManager", cacheName);
@@ -29,7 +62,7 @@ public class CacheUtil {
             // Синхронный вариант
             var mapView = caffeineSync.asMap();
             for (Object keyObj : new ArrayList<>(mapView.keySet())) {
-                if (keyObj instanceof String keyStr && keyStr.startsWith(groupName + "-")) {
+                if (keyObj instanceof String keyStr && keyFilter.test(keyStr)) {
                     mapView.remove(keyStr);
                     log.debug("Удален ключ '{}' из кэша '{}'", keyStr, cacheName);
                 }
@@ -39,7 +72,7 @@ public class CacheUtil {
             var syncCache = caffeineAsync.synchronous();
             var mapView = syncCache.asMap();
             for (Object keyObj : new ArrayList<>(mapView.keySet())) {
-                if (keyObj instanceof String keyStr && keyStr.startsWith(groupName + "-")) {
+                if (keyObj instanceof String keyStr && keyFilter.test(keyStr)) {
                     mapView.remove(keyStr);
                     log.debug("Удален (async) ключ '{}' из кэша '{}'", keyStr, cacheName);
                 }
@@ -47,7 +80,7 @@ public class CacheUtil {
         } else if (nativeCache instanceof java.util.Map<?, ?> map) {
             // Если ConcurrentMapCache (Spring дефолт)
             for (Object keyObj : new ArrayList<>(map.keySet())) {
-                if (keyObj instanceof String keyStr && keyStr.startsWith(groupName + "-")) {
+                if (keyObj instanceof String keyStr && keyFilter.test(keyStr)) {
                     map.remove(keyStr);
                     log.debug("Удален ключ '{}' из кэша '{}'", keyStr, cacheName);
                 }
@@ -56,4 +89,10 @@ public class CacheUtil {
             log.warn("Кэш '{}' имеет неподдерживаемый тип: {}", cacheName, nativeCache.getClass());
         }
     }
+
+    private static boolean isGroupKey(String key, String groupName) {
+        return key.length() > groupName.length()
+                && key.charAt(groupName.length()) == '-'
+                && key.regionMatches(true, 0, groupName, 0, groupName.length());
+    }
 }
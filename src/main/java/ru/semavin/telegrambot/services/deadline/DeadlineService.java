@@ -32,12 +32,14 @@ public class DeadlineService {
     private final GroupService groupService;
     private final UserRepository userRepository;
 
+    @Transactional(readOnly = true)
     public List<DeadlineDTO> getAllByGroup(String groupName) {
         GroupEntity group = groupService.findEntityByName(groupName);
 
         return mapper.toDtoList(repository.findAllByGroup(group));
     }
 
+    @Transactional
     public DeadlineDTO save(DeadlineDTO dto) {
         if (dto.getUsername() == null) {
             throw ExceptionFabric.create(UserNotFoundException.class, ExceptionMessages.USER_NOT_FOUND);
@@ -46,7 +48,7 @@ public class DeadlineService {
             throw ExceptionFabric.create(GroupNotFoundException.class, ExceptionMessages.GROUP_NOT_FOUND);
         }
         DeadlineEntity entity = mapper.toEntity(dto);
-        entity.setGroup(groupService.findEntityByName(dto.getGroupName()));
+        entity.setGroup(groupService.loadEntityByName(dto.getGroupName()));
         entity.setCreator(userRepository.findByUsername(dto.getUsername())
                 .orElseThrow(() -> ExceptionFabric.create(UserNotFoundException.class, ExceptionMessages.USER_NOT_FOUND)));
         return mapper.toDto(repository.save(entity));
@@ -57,6 +59,7 @@ public class DeadlineService {
         repository.deleteByUuid(UUID.fromString(id));
     }
 
+    @Transactional(readOnly = true)
     public List<DeadlineDTO> getDeadlinesBetween(LocalDate from, LocalDate to) {
         return mapper.toDtoList(repository.findAllByDateRange(from, to));
     }
@@ -0,0 +1,181 @@
+package ru.semavin.telegrambot.services.groups;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.semavin.telegrambot.models.GroupEntity;
+import ru.semavin.telegrambot.repositories.GroupRepository;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Справочник групп в памяти: нормализованное название -> id и название группы.
+ * Загружается при старте, обновляется при изменении групп и сбрасывается на всех экземплярах
+ * приложения через PostgreSQL LISTEN/NOTIFY.
+ * Подписка держит отдельное соединение вне пулов: постоянно занятое соединение пула
+ * уменьшало бы bulkhead пользователей и считалось бы утечкой. При обрыве соединение открывается заново.
+ * <p>
+ * Возвращаемые сущности отсоединены от контекста и содержат только id и название,
+ * их можно использовать в запросах и как ссылку в связях, но не для чтения старосты и студентов.
+ */
+@Slf4j
+@Component
+public class GroupDirectory {
+
+    static final String CHANNEL = "group_directory";
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final long RECONNECT_DELAY_MS = 5_000;
+    private static final int POLL_TIMEOUT_MS = 10_000;
+
+    private final GroupRepository groupRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource listenerDataSource;
+    private final Map<String, GroupRef> groups = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    public GroupDirectory(GroupRepository groupRepository, JdbcTemplate jdbcTemplate,
+                          @Qualifier("listenerDataSource") DataSource listenerDataSource) {
+        this.groupRepository = groupRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.listenerDataSource = listenerDataSource;
+    }
+
+    /**
+     * Ищет группу без учета регистра и лишних пробелов. При промахе обращается к БД.
+     *
+     * @param groupName название группы
+     * @return новая отсоединенная сущность с id и названием
+     */
+    public Optional<GroupEntity> find(String groupName) {
+        if (groupName == null) {
+            return Optional.empty();
+        }
+        String key = normalize(groupName);
+        GroupRef ref = groups.get(key);
+        if (ref == null) {
+            ref = groupRepository.findByGroupNameIgnoreCase(groupName.trim())
+                    .map(GroupRef::of)
+                    .orElse(null);
+            if (ref == null) {
+                return Optional.empty();
+            }
+            groups.put(key, ref);
+        }
+        return Optional.of(ref.toEntity());
+    }
+
+    /**
+     * Полностью перечитывает справочник из БД.
+     */
+    public void reloadAll() {
+        Map<String, GroupRef> loaded = new ConcurrentHashMap<>();
+        groupRepository.findAll().forEach(group -> loaded.put(normalize(group.getGroupName()), GroupRef.of(group)));
+        groups.keySet().retainAll(loaded.keySet());
+        groups.putAll(loaded);
+        log.info("Справочник групп загружен: {} групп", groups.size());
+    }
+
+    /**
+     * Сообщает всем экземплярам, что группа изменилась. Внутри транзакции уведомление
+     * уходит при коммите, локальная запись сбрасывается после коммита.
+     *
+     * @param groupName название группы
+     */
+    public void invalidate(String groupName) {
+        String key = normalize(groupName);
+        jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", Object.class, CHANNEL, key);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    groups.remove(key);
+                }
+            });
+        } else {
+            groups.remove(key);
+        }
+    }
+
+    static String normalize(String groupName) {
+        return WHITESPACE.matcher(groupName.trim()).replaceAll(" ").toUpperCase(Locale.ROOT);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startListener() {
+        running = true;
+        listenerThread = Thread.ofVirtual().name("group-directory-listener").start(this::listen);
+    }
+
+    @PreDestroy
+    public void stopListener() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = listenerDataSource.getConnection()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                // уведомления, пропущенные до подписки, не восстановить, поэтому перечитываем все
+                reloadAll();
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MS);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        groups.remove(notification.getParameter());
+                        log.debug("Группа {} сброшена из справочника", notification.getParameter());
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Подписка на изменения групп прервана: {}", e.getMessage());
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private record GroupRef(Long id, String groupName) {
+        static GroupRef of(GroupEntity group) {
+            return new GroupRef(group.getId(), group.getGroupName());
+        }
+
+        GroupEntity toEntity() {
+            return GroupEntity.builder()
+                    .id(id)
+                    .groupName(groupName)
+                    .build();
+        }
+    }
+}
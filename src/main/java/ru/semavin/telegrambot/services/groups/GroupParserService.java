@@ -6,8 +6,7 @@ import com.google.gson.JsonParser;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
-import ru.semavin.telegrambot.models.GroupEntity;
+import ru.semavin.telegrambot.services.upstream.MaiScheduleClient;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -16,30 +15,28 @@ import java.util.List;
 @Slf4j
 @RequiredArgsConstructor
 public class GroupParserService {
-    private static final String SCHEDULE_URL = "https://public.mai.ru/schedule/data/groups.json";
-    private final RestTemplate restTemplate;
+    private static final List<String> INSTITUTES = List.of("Институт №3", "Институт №9", "Институт №7");
 
-    public List<GroupEntity> findAllGroups() {
-        JsonArray jsonListOfAllGroups = JsonParser.parseString(getJsonOfListGroups()).getAsJsonArray();
-        List<GroupEntity> groups = new ArrayList<>();
+    private final MaiScheduleClient maiScheduleClient;
+
+    /**
+     * Названия групп нужных институтов из groups.json.
+     * Ответ MAI приходит целой строкой (она же архивируется), поэтому разбирается деревом json.
+     *
+     * @return названия групп в порядке groups.json
+     */
+    public List<String> findAllGroupNames() {
+        JsonArray jsonListOfAllGroups = JsonParser.parseString(maiScheduleClient.fetchGroups()).getAsJsonArray();
+        List<String> names = new ArrayList<>();
 
         jsonListOfAllGroups.forEach(jsonElement -> {
             JsonObject jsonObject = jsonElement.getAsJsonObject();
             String fac = jsonObject.get("fac").getAsString();
-            if (fac.equalsIgnoreCase("Институт №3")
-                    || fac.equalsIgnoreCase("Институт №9")
-                    || fac.equalsIgnoreCase("Институт №7")) {
-                groups.add(GroupEntity.builder()
-                        .groupName(jsonObject.get("name").getAsString())
-                        .build());
+            if (INSTITUTES.stream().anyMatch(fac::equalsIgnoreCase)) {
+                names.add(jsonObject.get("name").getAsString());
             }
         });
-        log.info("Найдено {} групп", groups.size());
-        return groups;
-    }
-
-    private String getJsonOfListGroups() {
-        log.info("Получение всех групп");
-        return restTemplate.getForObject(SCHEDULE_URL, String.class);
+        log.info("Найдено {} групп", names.size());
+        return names;
     }
 }
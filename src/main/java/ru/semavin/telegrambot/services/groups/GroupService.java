@@ -1,10 +1,9 @@
 package ru.semavin.telegrambot.services.groups;
 
-import jakarta.annotation.PostConstruct;
-import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.semavin.telegrambot.dto.GroupDTO;
 import ru.semavin.telegrambot.dto.UserDTO;
 import ru.semavin.telegrambot.mapper.GroupMapper;
@@ -31,22 +30,12 @@ public class GroupService {
     private final GroupRepository groupRepository;
     private final GroupMapper groupMapper;
     private final UserRepository userRepository;
-    private final GroupParserService groupParserService;
     private final UserMapper userMapper;
+    private final GroupDirectory groupDirectory;
 
-    @PostConstruct
-    @Transactional
-    public void init() {
-        groupParserService.findAllGroups().forEach(group -> {
-            if (groupRepository.findByGroupNameIgnoreCase(group.getGroupName()).isEmpty()) {
-                groupRepository.save(group);
-            }
-        });
-    }
-
+    @Transactional(readOnly = true)
     public GroupDTO findDtoByName(String name) {
-        GroupEntity group = groupRepository.findByGroupNameIgnoreCase(name)
-                .orElseThrow(() -> ExceptionFabric.create(GroupNotFoundException.class, ExceptionMessages.GROUP_NOT_FOUND));
+        GroupEntity group = loadEntityByName(name);
         GroupDTO groupDTO = groupMapper.groupToDTO(group);
         if (group.getUsers().isEmpty())
             return groupDTO;
@@ -55,7 +44,25 @@ public class GroupService {
         return groupDTO;
     }
 
+    /**
+     * Находит группу через {@link GroupDirectory} без обращения к БД.
+     * Возвращает отсоединенную сущность только с id и названием.
+     *
+     * @param name название группы
+     * @return группа
+     */
     public GroupEntity findEntityByName(String name) {
+        return groupDirectory.find(name)
+                .orElseThrow(() -> ExceptionFabric.create(GroupNotFoundException.class, ExceptionMessages.GROUP_NOT_FOUND));
+    }
+
+    /**
+     * Загружает группу из БД вместе со связями (староста, студенты).
+     *
+     * @param name название группы
+     * @return группа
+     */
+    public GroupEntity loadEntityByName(String name) {
         return groupRepository.findByGroupNameIgnoreCase(name)
                 .orElseThrow(() -> ExceptionFabric.create(GroupNotFoundException.class, ExceptionMessages.GROUP_NOT_FOUND));
     }
@@ -66,7 +73,7 @@ public class GroupService {
 
     @Transactional
     public GroupDTO setStarosta(String groupName, String starostaUsername) {
-        GroupEntity group = findEntityByName(groupName);
+        GroupEntity group = loadEntityByName(groupName);
         if (group.getStarosta() != null) {
             throw ExceptionFabric.create(UserAlreadyExistsForStarostaException.class, ExceptionMessages.USER_ALREADY_EXISTS_FOR_STAROSTA);
         }
@@ -77,12 +84,13 @@ public class GroupService {
         userEntity.setRole(UserRole.STAROSTA);
 
         userRepository.save(userEntity);
+        groupDirectory.invalidate(group.getGroupName());
         return groupMapper.groupToDTO(groupRepository.save(group));
     }
 
     @Transactional
     public GroupDTO delStarosta(String groupName, String starostaUsername) {
-        GroupEntity group = findEntityByName(groupName);
+        GroupEntity group = loadEntityByName(groupName);
         if (group.getStarosta() == null) {
             throw ExceptionFabric.create(UserAlreadyNotExistsForStarostaException.class, ExceptionMessages.USER_NOW_NOT_EXISTS_AS_STAROSTA);
         }
@@ -93,6 +101,7 @@ public class GroupService {
         userEntity.setRole(UserRole.STUDENT);
 
         userRepository.save(userEntity);
+        groupDirectory.invalidate(group.getGroupName());
         return groupMapper.groupToDTO(groupRepository.save(group));
     }
 
@@ -103,11 +112,13 @@ public class GroupService {
                 .users(new ArrayList<>())
                 .build();
         groupRepository.save(group);
+        groupDirectory.invalidate(group.getGroupName());
         return groupMapper.groupToDTO(group);
     }
 
+    @Transactional(readOnly = true)
     public UserDTO getStarosta(String groupName) {
-        GroupEntity group = findEntityByName(groupName);
+        GroupEntity group = loadEntityByName(groupName);
         UserEntity userEntity = group.getStarosta();
         if (userEntity == null) {
             ExceptionFabric.create(UserNotFoundException.class, ExceptionMessages.USER_NOT_FOUND);
@@ -0,0 +1,31 @@
+package ru.semavin.telegrambot.services.groups;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Индикатор groupSync для readiness: приложение готово, если синхронизация групп прошла
+ * или в БД уже есть группы с прошлых запусков. Пока групп нет, отдается OUT_OF_SERVICE.
+ */
+@Component
+@RequiredArgsConstructor
+public class GroupSyncHealthIndicator implements HealthIndicator {
+
+    private final GroupSyncService groupSyncService;
+
+    @Override
+    public Health health() {
+        Health.Builder builder = groupSyncService.ready() ? Health.up() : Health.outOfService();
+        builder.withDetail("state", groupSyncService.state());
+        if (groupSyncService.lastSuccess() != null) {
+            builder.withDetail("lastSuccess", groupSyncService.lastSuccess().toString())
+                    .withDetail("inserted", groupSyncService.lastInserted());
+        }
+        if (groupSyncService.lastError() != null) {
+            builder.withDetail("error", groupSyncService.lastError());
+        }
+        return builder.build();
+    }
+}
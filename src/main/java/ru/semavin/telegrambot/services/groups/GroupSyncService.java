@@ -0,0 +1,188 @@
+package ru.semavin.telegrambot.services.groups;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.semavin.telegrambot.config.executors.WorkloadExecutors;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Фоновая синхронизация таблицы groups с groups.json MAI.
+ * Запускается после старта приложения и не блокирует его: до окончания синхронизации
+ * запросы обслуживаются по уже сохраненным группам. Новые группы вычисляются и записываются
+ * одним запросом. При ошибке синхронизация повторяется через groups.sync.retry-delay.
+ * <p>
+ * Состояние синхронизации отдает {@link GroupSyncHealthIndicator} в readiness.
+ */
+@Slf4j
+@Service
+public class GroupSyncService {
+
+    /**
+     * Ограничение длины groups.group_name.
+     */
+    static final int MAX_GROUP_NAME_LENGTH = 20;
+    private static final String GROUP_QUERIES_REGION = "groupQueries";
+
+    public enum State {PENDING, RUNNING, DONE, FAILED}
+
+    private final GroupParserService groupParserService;
+    private final GroupDirectory groupDirectory;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final WorkloadExecutors executors;
+    /**
+     * Синхронизация уже выполняется. Флаг вместо монитора: монитор, удерживаемый на время
+     * HTTP-запроса и записи в БД, закреплял бы виртуальный поток за потоком-носителем.
+     */
+    private final AtomicBoolean syncing = new AtomicBoolean();
+
+    private volatile State state = State.PENDING;
+    private volatile LocalDateTime lastSuccess;
+    private volatile String lastError;
+    private volatile int lastInserted;
+    private volatile boolean groupsExist;
+
+    public GroupSyncService(GroupParserService groupParserService,
+                            GroupDirectory groupDirectory,
+                            JdbcTemplate jdbcTemplate,
+                            EntityManagerFactory entityManagerFactory,
+                            WorkloadExecutors executors) {
+        this.groupParserService = groupParserService;
+        this.groupDirectory = groupDirectory;
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.executors = executors;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startSync() {
+        submitSync();
+    }
+
+    /**
+     * Повтор отправляется на исполнитель ingest, чтобы долгая загрузка groups.json
+     * не занимала поток планировщика, общий для всех задач fixedDelay.
+     */
+    @Scheduled(fixedDelayString = "${groups.sync.retry-delay}", initialDelayString = "${groups.sync.retry-delay}")
+    public void retryFailed() {
+        if (state == State.FAILED) {
+            log.info("Повтор синхронизации групп после ошибки: {}", lastError);
+            submitSync();
+        }
+    }
+
+    /**
+     * Загружает groups.json, добавляет отсутствующие группы и перечитывает {@link GroupDirectory}.
+     * Если синхронизация уже выполняется, вызов ничего не делает.
+     */
+    public void sync() {
+        if (!syncing.compareAndSet(false, true)) {
+            log.debug("Синхронизация групп уже выполняется, повторный запуск пропущен");
+            return;
+        }
+        state = State.RUNNING;
+        try {
+            List<String> names = groupParserService.findAllGroupNames().stream()
+                    .filter(this::fitsColumn)
+                    .toList();
+            List<String> inserted = insertMissing(names);
+            if (!inserted.isEmpty()) {
+                // группы записаны мимо Hibernate, закешированные промахи findByGroupNameIgnoreCase устарели
+                entityManagerFactory.getCache().unwrap(Cache.class).evictQueryRegion(GROUP_QUERIES_REGION);
+                log.info("Добавлено новых групп: {}", inserted.size());
+            }
+            groupDirectory.reloadAll();
+            lastInserted = inserted.size();
+            lastSuccess = LocalDateTime.now();
+            lastError = null;
+            groupsExist = groupsExist || !names.isEmpty();
+            state = State.DONE;
+        } catch (RuntimeException e) {
+            fail(e);
+        } finally {
+            syncing.set(false);
+        }
+    }
+
+    /**
+     * Готовность к обслуживанию запросов: синхронизация прошла или в таблице уже есть группы.
+     */
+    public boolean ready() {
+        return state == State.DONE || groupsStored();
+    }
+
+    public State state() {
+        return state;
+    }
+
+    public LocalDateTime lastSuccess() {
+        return lastSuccess;
+    }
+
+    public String lastError() {
+        return lastError;
+    }
+
+    public int lastInserted() {
+        return lastInserted;
+    }
+
+    private List<String> insertMissing(List<String> names) {
+        if (names.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query("""
+                        INSERT INTO groups (group_name)
+                        SELECT DISTINCT ON (upper(n)) n FROM unnest(?) n
+                        WHERE NOT EXISTS (SELECT 1 FROM groups g WHERE upper(g.group_name) = upper(n))
+                        RETURNING group_name
+                        """,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("text", names.toArray())),
+                (rs, rowNum) -> rs.getString(1));
+    }
+
+    private boolean groupsStored() {
+        if (!groupsExist) {
+            try {
+                groupsExist = Boolean.TRUE.equals(
+                        jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM groups)", Boolean.class));
+            } catch (DataAccessException e) {
+                log.debug("Не удалось проверить наличие групп: {}", e.getMessage());
+            }
+        }
+        return groupsExist;
+    }
+
+    private boolean fitsColumn(String name) {
+        if (name.length() > MAX_GROUP_NAME_LENGTH) {
+            log.warn("Группа {} пропущена: название длиннее {} символов", name, MAX_GROUP_NAME_LENGTH);
+            return false;
+        }
+        return true;
+    }
+
+    private void submitSync() {
+        try {
+            executors.ingest().execute(this::sync);
+        } catch (RejectedExecutionException e) {
+            fail(e);
+        }
+    }
+
+    private void fail(Exception e) {
+        lastError = e.getMessage();
+        state = State.FAILED;
+        log.error("Синхронизация групп не удалась, работаем по сохраненным группам: {}", e.getMessage());
+    }
+}
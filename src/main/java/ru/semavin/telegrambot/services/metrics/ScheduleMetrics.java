@@ -0,0 +1,111 @@
+package ru.semavin.telegrambot.services.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Метрики конвейера расписания: загрузка с MAI, разбор, запись в БД, слияние с изменениями и .ics.
+ * <p>
+ * Группы и преподаватели в теги не попадают, иначе число временных рядов росло бы с числом групп.
+ * Вместо названия группы используется номер института из названия (М3О-403С-22 -> 3),
+ * вместо преподавателя - kind=teacher.
+ */
+@Component
+public class ScheduleMetrics {
+
+    private static final Pattern INSTITUTE = Pattern.compile("^\\p{L}(\\d{1,2})");
+
+    private final MeterRegistry registry;
+
+    public ScheduleMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(registry);
+    }
+
+    /**
+     * Запрос к MAI: время ответа и размер json в символах.
+     *
+     * @param resource group, teacher или groups
+     * @param outcome  success, not_modified, error, replay или stale
+     */
+    public void upstreamFetched(Timer.Sample sample, String resource, String outcome, String body) {
+        sample.stop(timer("schedule.upstream.fetch", Tags.of("resource", resource, "outcome", outcome)));
+        if (body != null) {
+            summary("schedule.upstream.payload", "characters", Tags.of("resource", resource)).record(body.length());
+        }
+    }
+
+    /**
+     * Вместо ответа MAI отдан сохраненный: возраст сохраненного ответа в секундах.
+     */
+    public void staleServed(String resource, Duration age) {
+        summary("schedule.upstream.stale.age", "seconds", Tags.of("resource", resource)).record(age.toSeconds());
+    }
+
+    public void parsed(Timer.Sample sample, String groupName, int lessons) {
+        Tags tags = Tags.of("institute", institute(groupName));
+        sample.stop(timer("schedule.parse", tags));
+        summary("schedule.parse.lessons", "lessons", tags).record(lessons);
+    }
+
+    /**
+     * Запись расписания в БД и число изменившихся пар.
+     *
+     * @param operation full - новая версия снимка, days - отдельные дни
+     */
+    public void written(Timer.Sample sample, String operation, int changedLessons) {
+        Tags tags = Tags.of("operation", operation);
+        sample.stop(timer("schedule.db.write", tags));
+        summary("schedule.diff.lessons", "lessons", tags).record(changedLessons);
+    }
+
+    /**
+     * @param kind day, semester или teacher
+     */
+    public <T> T timeMerge(String kind, Supplier<T> merge) {
+        return timer("schedule.merge", Tags.of("kind", kind)).record(merge);
+    }
+
+    /**
+     * @param kind group или teacher
+     */
+    public void icsRendered(Timer.Sample sample, String kind, String ics) {
+        Tags tags = Tags.of("kind", kind);
+        sample.stop(timer("schedule.ics.render", tags));
+        summary("schedule.ics.size", "characters", tags).record(ics.length());
+    }
+
+    /**
+     * Длительность фонового задания.
+     */
+    public void jobFinished(Timer.Sample sample, String job) {
+        sample.stop(timer("schedule.job", Tags.of("job", job)));
+    }
+
+    static String institute(String groupName) {
+        if (groupName == null) {
+            return "unknown";
+        }
+        Matcher matcher = INSTITUTE.matcher(groupName.trim());
+        return matcher.find() ? matcher.group(1) : "unknown";
+    }
+
+    private Timer timer(String name, Tags tags) {
+        return Timer.builder(name).tags(tags).register(registry);
+    }
+
+    private DistributionSummary summary(String name, String baseUnit, Tags tags) {
+        return DistributionSummary.builder(name).baseUnit(baseUnit).tags(tags).register(registry);
+    }
+}
@@ -0,0 +1,140 @@
+package ru.semavin.telegrambot.services.profiling;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import ru.semavin.telegrambot.dto.RecordingStatusDTO;
+import ru.semavin.telegrambot.models.enums.ExceptionMessages;
+import ru.semavin.telegrambot.utils.ExceptionFabric;
+import ru.semavin.telegrambot.utils.exceptions.InvalidRecordingSettingsException;
+import ru.semavin.telegrambot.utils.exceptions.RecordingNotFoundException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Запись Java Flight Recorder по запросу администратора.
+ * Одновременно ведется не больше одной записи; остановленная запись хранится до следующего старта,
+ * чтобы ее можно было выгрузить.
+ */
+@Slf4j
+@Service
+public class FlightRecorderService {
+
+    private static final String RECORDING_NAME = "telegrambot-on-demand";
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private Recording recording;
+
+    /**
+     * Запускает запись. Если запись уже идет, возвращает ее состояние.
+     *
+     * @param settings встроенная конфигурация JFR: default (около 1% накладных расходов) или profile
+     * @param maxAge   сколько хранить события в кольцевом буфере на диске
+     */
+    public RecordingStatusDTO start(String settings, Duration maxAge) {
+        lock.lock();
+        try {
+            if (recording != null && recording.getState() == RecordingState.RUNNING) {
+                return status(recording);
+            }
+            closeRecording();
+            Recording created = new Recording(Configuration.getConfiguration(settings));
+            created.setName(RECORDING_NAME);
+            created.setToDisk(true);
+            created.setMaxAge(maxAge);
+            created.start();
+            recording = created;
+            log.info("Запись JFR запущена: settings={}, maxAge={}", settings, maxAge);
+            return status(created);
+        } catch (IOException | ParseException e) {
+            log.warn("Не удалось загрузить конфигурацию JFR {}: {}", settings, e.getMessage());
+            throw ExceptionFabric.create(InvalidRecordingSettingsException.class,
+                    ExceptionMessages.INVALID_RECORDING_SETTINGS);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public RecordingStatusDTO stop() {
+        lock.lock();
+        try {
+            Recording current = requireRecording();
+            if (current.getState() == RecordingState.RUNNING) {
+                current.stop();
+                log.info("Запись JFR остановлена");
+            }
+            return status(current);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public RecordingStatusDTO status() {
+        lock.lock();
+        try {
+            return status(requireRecording());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Сохраняет текущее содержимое записи во временный файл. Запись при этом не останавливается.
+     * Файл удаляет вызывающий.
+     */
+    public Path dump() {
+        lock.lock();
+        try {
+            Path file = Files.createTempFile("telegrambot-", ".jfr");
+            requireRecording().dump(file);
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        lock.lock();
+        try {
+            closeRecording();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Recording requireRecording() {
+        if (recording == null) {
+            throw ExceptionFabric.create(RecordingNotFoundException.class, ExceptionMessages.RECORDING_NOT_FOUND);
+        }
+        return recording;
+    }
+
+    private void closeRecording() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    private static RecordingStatusDTO status(Recording recording) {
+        return RecordingStatusDTO.builder()
+                .name(recording.getName())
+                .state(recording.getState().name())
+                .startTime(recording.getStartTime())
+                .maxAge(recording.getMaxAge())
+                .size(recording.getSize())
+                .build();
+    }
+}
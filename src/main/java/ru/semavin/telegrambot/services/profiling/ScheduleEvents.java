@@ -0,0 +1,134 @@
+package ru.semavin.telegrambot.services.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * События Java Flight Recorder на границах этапов конвейера расписания.
+ * Событие создается и начинается перед этапом, {@link StageEvent#finish} завершает его
+ * и записывает, только если запись JFR включена и длительность выше порога.
+ */
+public final class ScheduleEvents {
+
+    private ScheduleEvents() {
+    }
+
+    @Category({"Telegram Bot", "Schedule"})
+    @StackTrace(false)
+    public abstract static class StageEvent extends Event {
+        @Label("Group")
+        String group;
+
+        @Label("Lessons")
+        int lessons;
+
+        @Label("Size")
+        @DataAmount
+        long bytes;
+
+        StageEvent() {
+            begin();
+        }
+
+        public void finish(String group, int lessons, long bytes) {
+            end();
+            if (shouldCommit()) {
+                this.group = group;
+                this.lessons = lessons;
+                this.bytes = bytes;
+                commit();
+            }
+        }
+    }
+
+    @Name("ru.semavin.schedule.Fetch")
+    @Label("Schedule Fetch")
+    public static final class Fetch extends StageEvent {
+    }
+
+    @Name("ru.semavin.schedule.TreeParse")
+    @Label("Schedule JSON Tree Parse")
+    public static final class TreeParse extends StageEvent {
+    }
+
+    @Name("ru.semavin.schedule.PairsParse")
+    @Label("Schedule Day Pairs Parse")
+    public static final class PairsParse extends StageEvent {
+        @Label("Lesson Date")
+        String lessonDate;
+
+        public PairsParse(String lessonDate) {
+            this.lessonDate = lessonDate;
+        }
+    }
+
+    @Name("ru.semavin.schedule.TeacherUpsert")
+    @Label("Schedule Teacher Upsert")
+    public static final class TeacherUpsert extends StageEvent {
+    }
+
+    @Name("ru.semavin.schedule.Write")
+    @Label("Schedule DB Write")
+    public static final class Write extends StageEvent {
+        @Label("Operation")
+        String operation;
+
+        public Write(String operation) {
+            this.operation = operation;
+        }
+    }
+
+    @Name("ru.semavin.schedule.Merge")
+    @Label("Schedule Merge")
+    public static final class Merge extends StageEvent {
+        @Label("Changes")
+        int changes;
+
+        public Merge(int changes) {
+            this.changes = changes;
+        }
+    }
+
+    @Name("ru.semavin.schedule.IcsRender")
+    @Label("ICS Render")
+    public static final class IcsRender extends StageEvent {
+        @Label("Teacher")
+        String teacher;
+
+        public IcsRender(String teacher) {
+            this.teacher = teacher;
+        }
+    }
+
+    public static Fetch fetch() {
+        return new Fetch();
+    }
+
+    public static TreeParse treeParse() {
+        return new TreeParse();
+    }
+
+    public static PairsParse pairsParse(String lessonDate) {
+        return new PairsParse(lessonDate);
+    }
+
+    public static TeacherUpsert teacherUpsert() {
+        return new TeacherUpsert();
+    }
+
+    public static Write write(String operation) {
+        return new Write(operation);
+    }
+
+    public static Merge merge(int changes) {
+        return new Merge(changes);
+    }
+
+    public static IcsRender icsRender(String teacher) {
+        return new IcsRender(teacher);
+    }
+}
@@ -0,0 +1,139 @@
+package ru.semavin.telegrambot.services.schedules;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.semavin.telegrambot.config.datasource.Workload;
+import ru.semavin.telegrambot.config.datasource.WorkloadContext;
+import ru.semavin.telegrambot.config.executors.WorkloadExecutors;
+import ru.semavin.telegrambot.models.GroupEntity;
+import ru.semavin.telegrambot.models.GroupRefreshStateEntity;
+import ru.semavin.telegrambot.repositories.GroupRefreshStateRepository;
+import ru.semavin.telegrambot.services.groups.GroupService;
+import ru.semavin.telegrambot.services.upstream.UpstreamRequestBudget;
+import ru.semavin.telegrambot.utils.exceptions.GroupNotFoundException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Адаптивное обновление расписания групп.
+ * Группы, у которых расписание часто меняется, обновляются чаще, стабильные - реже.
+ * Общее число запросов к MAI ограничено {@link UpstreamRequestBudget}.
+ * Неудачные обновления ставятся в очередь повторов {@link GroupRefreshRetryService}. Пока группа в очереди
+ * (в том числе в dead-letter), адаптивно она не обновляется: попытки и задержки ведет только очередь.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AdaptiveScheduleRefreshService {
+
+    private final GroupRefreshStateRepository stateRepository;
+    private final ScheduleActualizationService actualizationService;
+    private final ScheduleRefreshPolicy refreshPolicy;
+    private final UpstreamRequestBudget upstreamBudget;
+    private final GroupService groupService;
+    private final WorkloadExecutors executors;
+    private final GroupRefreshRetryService retryService;
+
+    @Value("${schedule.refresh.enabled}")
+    private boolean enabled;
+
+    /**
+     * Добавляет группы под наблюдение. Новые группы обновляются при ближайшем запуске.
+     *
+     * @param groupNames названия групп
+     */
+    @Transactional
+    public void registerGroups(List<String> groupNames) {
+        for (String groupName : groupNames) {
+            try {
+                GroupEntity group = groupService.findEntityByName(groupName);
+                if (stateRepository.existsByGroup(group)) {
+                    continue;
+                }
+                stateRepository.save(GroupRefreshStateEntity.builder()
+                        .group(group)
+                        .nextRefreshAt(LocalDateTime.now())
+                        .build());
+                log.info("Группа {} добавлена в адаптивное обновление расписания", groupName);
+            } catch (GroupNotFoundException e) {
+                log.error("Группа {} не найдена, адаптивное обновление невозможно", groupName);
+            }
+        }
+    }
+
+    /**
+     * Обновляет группы, у которых наступило время обновления, в пределах бюджета запросов.
+     * Группы обновляются параллельно на исполнителе ingest.
+     */
+    @Scheduled(fixedDelayString = "${schedule.refresh.tick}", initialDelayString = "${schedule.refresh.tick}")
+    public void refreshDueGroups() {
+        WorkloadContext.runAs(Workload.INGEST, this::refreshDue);
+    }
+
+    private void refreshDue() {
+        if (!enabled) {
+            return;
+        }
+        int available = upstreamBudget.available();
+        if (available == 0) {
+            log.info("Бюджет запросов к MAI исчерпан, адаптивное обновление отложено");
+            return;
+        }
+        val due = stateRepository.findDue(LocalDateTime.now(), PageRequest.of(0, available));
+        List<Runnable> refreshes = new ArrayList<>(due.size());
+        for (int i = 0; i < due.size(); i++) {
+            if (!upstreamBudget.tryAcquire()) {
+                log.info("Бюджет запросов к MAI исчерпан, отложено групп: {}", due.size() - i);
+                break;
+            }
+            GroupRefreshStateEntity state = due.get(i);
+            refreshes.add(() -> refreshGroup(state));
+        }
+        executors.ingest().runAllAndWait(refreshes);
+    }
+
+    private void refreshGroup(GroupRefreshStateEntity state) {
+        String groupName = state.getGroup().getGroupName();
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            int diff = actualizationService.actualizationScheduleGroup(groupName);
+            applyRefreshResult(state, diff > 0, now);
+            retryService.recordSuccess(state.getGroup());
+            log.info("Расписание группы {} обновлено, изменений: {}, следующее обновление: {}",
+                    groupName, diff, state.getNextRefreshAt());
+        } catch (Exception e) {
+            state.setNextRefreshAt(now.plus(refreshPolicy.getMinInterval()));
+            log.error("Ошибка адаптивного обновления группы {}: {}", groupName, e.getMessage(), e);
+            retryService.recordFailure(state.getGroup(), e);
+        }
+        stateRepository.save(state);
+    }
+
+    private void applyRefreshResult(GroupRefreshStateEntity state, boolean changed, LocalDateTime now) {
+        Duration elapsed = Duration.ZERO;
+        // Первая загрузка расписания группы не считается изменением
+        boolean observedChange = false;
+        if (state.getLastRefreshAt() != null) {
+            elapsed = Duration.between(state.getLastRefreshAt(), now);
+            observedChange = changed;
+        }
+        double score = refreshPolicy.nextScore(state.getChangeScore(), elapsed, observedChange);
+
+        state.setChangeScore(score);
+        state.setLastRefreshAt(now);
+        state.setRefreshCount(state.getRefreshCount() + 1);
+        if (observedChange) {
+            state.setLastChangeAt(now);
+        }
+        state.setNextRefreshAt(now.plus(refreshPolicy.nextInterval(score)));
+    }
+}
@@ -1,11 +1,13 @@
 package ru.semavin.telegrambot.services.schedules;
 
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import lombok.val;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import ru.semavin.telegrambot.config.datasource.Workload;
+import ru.semavin.telegrambot.config.datasource.WorkloadContext;
+import ru.semavin.telegrambot.services.metrics.ScheduleMetrics;
 
 import java.util.List;
 
@@ -15,25 +17,23 @@ import java.util.List;
 @RequiredArgsConstructor
 public class DailyScheduleUpdateService {
 
-    private final ScheduleActualizationService scheduleService;
+    private final AdaptiveScheduleRefreshService adaptiveRefreshService;
+    private final ScheduleMetrics metrics;
 
+    /**
+     * Регистрирует группы в адаптивном обновлении и обновляет те, у которых наступил срок.
+     * Частота обновления каждой группы определяется {@link ScheduleRefreshPolicy}.
+     */
     @Scheduled(cron = "${dailyscheduleupdate.cron}", zone = "Europe/Moscow")
-    @CacheEvict(value = "scheduleDay", allEntries = true)
     public void updateDailySchedules() {
-        val startTime = System.currentTimeMillis();
-        log.info("Начало ежедневного обновления расписания.");
-        List<String> groups = getAllGroups();
-
-        for (String group : groups) {
-            try {
-                log.info("Обновление расписания для группы {}", group);
-                scheduleService.actualizationScheduleGroup(group);
-            } catch (Exception e) {
-                log.error("Ошибка обновления расписания для группы {}: {}", group, e.getMessage(), e);
-            }
-        }
-        val endTime = System.currentTimeMillis();
-        log.info("Завершено обновление расписания. [{}]ms", (endTime - startTime));
+        WorkloadContext.runAs(Workload.INGEST, () -> {
+            Timer.Sample sample = metrics.start();
+            log.info("Начало ежедневного обновления расписания.");
+            adaptiveRefreshService.registerGroups(getAllGroups());
+            adaptiveRefreshService.refreshDueGroups();
+            metrics.jobFinished(sample, "daily-update");
+            log.info("Завершено ежедневное обновление расписания.");
+        });
     }
 
     /**
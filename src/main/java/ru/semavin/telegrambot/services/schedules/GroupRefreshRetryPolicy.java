@@ -0,0 +1,86 @@
+package ru.semavin.telegrambot.services.schedules;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import ru.semavin.telegrambot.models.enums.RefreshErrorClass;
+import ru.semavin.telegrambot.utils.exceptions.GroupNotFoundException;
+import ru.semavin.telegrambot.utils.exceptions.ScheduleNotFoundException;
+import ru.semavin.telegrambot.utils.exceptions.UpstreamUnavailableException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+import java.util.random.RandomGenerator;
+
+/**
+ * Политика повторов неудачных обновлений расписания.
+ * <p>
+ * Задержка перед попыткой n: base * 2^(n-1), но не больше schedule.retry.max-delay,
+ * из нее случайно берется от половины до целой (equal jitter), чтобы группы,
+ * упавшие одновременно, не повторялись одной пачкой.
+ */
+@Component
+public class GroupRefreshRetryPolicy {
+
+    private final Duration maxDelay;
+    private final RandomGenerator random;
+
+    @Autowired
+    public GroupRefreshRetryPolicy(@Value("${schedule.retry.max-delay}") Duration maxDelay) {
+        this(maxDelay, RandomGenerator.getDefault());
+    }
+
+    GroupRefreshRetryPolicy(Duration maxDelay, RandomGenerator random) {
+        this.maxDelay = maxDelay;
+        this.random = random;
+    }
+
+    /**
+     * Класс ошибки по первому узнаваемому исключению в цепочке причин.
+     */
+    public RefreshErrorClass classify(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof HttpClientErrorException.NotFound
+                    || t instanceof GroupNotFoundException
+                    || t instanceof ScheduleNotFoundException) {
+                return RefreshErrorClass.NOT_FOUND;
+            }
+            if (t instanceof ResourceAccessException
+                    || t instanceof HttpServerErrorException
+                    || t instanceof UpstreamUnavailableException) {
+                return RefreshErrorClass.UPSTREAM;
+            }
+            if (t instanceof JsonProcessingException
+                    || t instanceof DateTimeParseException
+                    || t instanceof IOException) {
+                return RefreshErrorClass.PARSE;
+            }
+        }
+        return RefreshErrorClass.OTHER;
+    }
+
+    /**
+     * Задержка перед следующей попыткой.
+     *
+     * @param errorClass класс последней ошибки
+     * @param attempts   число неудачных попыток, от 1
+     */
+    public Duration delay(RefreshErrorClass errorClass, int attempts) {
+        long baseMillis = errorClass.getBaseDelay().toMillis();
+        int shift = Math.min(attempts - 1, Long.numberOfLeadingZeros(baseMillis) - 1);
+        long backoff = Math.min(baseMillis << shift, maxDelay.toMillis());
+        return Duration.ofMillis(backoff / 2 + random.nextLong(backoff / 2 + 1));
+    }
+
+    /**
+     * Исчерпаны ли попытки: группа переносится в dead-letter.
+     */
+    public boolean exhausted(RefreshErrorClass errorClass, int attempts) {
+        return attempts >= errorClass.getMaxAttempts();
+    }
+}
@@ -0,0 +1,184 @@
+package ru.semavin.telegrambot.services.schedules;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.semavin.telegrambot.config.datasource.Workload;
+import ru.semavin.telegrambot.config.datasource.WorkloadContext;
+import ru.semavin.telegrambot.config.executors.WorkloadExecutors;
+import ru.semavin.telegrambot.dto.GroupRefreshRetryDTO;
+import ru.semavin.telegrambot.models.GroupEntity;
+import ru.semavin.telegrambot.models.GroupRefreshRetryEntity;
+import ru.semavin.telegrambot.models.enums.ExceptionMessages;
+import ru.semavin.telegrambot.models.enums.RefreshErrorClass;
+import ru.semavin.telegrambot.repositories.GroupRefreshRetryRepository;
+import ru.semavin.telegrambot.services.groups.GroupService;
+import ru.semavin.telegrambot.services.upstream.UpstreamCircuitBreaker;
+import ru.semavin.telegrambot.services.upstream.UpstreamRequestBudget;
+import ru.semavin.telegrambot.utils.ExceptionFabric;
+import ru.semavin.telegrambot.utils.exceptions.RefreshRetryNotFoundException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Очередь повторов неудачных обновлений расписания групп в таблице group_refresh_retry.
+ * Задержки и число попыток зависят от класса ошибки ({@link GroupRefreshRetryPolicy}),
+ * после исчерпания попыток группа остается в dead-letter до ручного повтора.
+ * Попытки считаются по всем классам ошибок, чтобы группа, у которой чередуются разные ошибки,
+ * тоже попала в dead-letter.
+ * Первую ошибку записывает {@link AdaptiveScheduleRefreshService}, следующие - только эта очередь.
+ * Повторы расходуют общий {@link UpstreamRequestBudget} и не выполняются, пока разомкнут
+ * {@link UpstreamCircuitBreaker}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class GroupRefreshRetryService {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final GroupRefreshRetryRepository retryRepository;
+    private final GroupRefreshRetryPolicy retryPolicy;
+    private final ScheduleActualizationService actualizationService;
+    private final UpstreamRequestBudget upstreamBudget;
+    private final UpstreamCircuitBreaker breaker;
+    private final GroupService groupService;
+    private final WorkloadExecutors executors;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${schedule.retry.enabled}")
+    private boolean enabled;
+
+    /**
+     * Ставит группу в очередь повторов или переносит следующую попытку.
+     * Запись группы создается вставкой с ON CONFLICT и блокируется до конца транзакции,
+     * поэтому одновременные ошибки одной группы считаются по очереди.
+     *
+     * @param group группа, обновление которой не удалось
+     * @param error ошибка обновления
+     */
+    @Transactional
+    public void recordFailure(GroupEntity group, Exception error) {
+        RefreshErrorClass errorClass = retryPolicy.classify(error);
+        LocalDateTime now = LocalDateTime.now();
+        retryRepository.upsertFirstFailure(group.getId(), errorClass.name(), now);
+        GroupRefreshRetryEntity retry = retryRepository.findForUpdate(group)
+                .orElseThrow(() -> ExceptionFabric.create(RefreshRetryNotFoundException.class,
+                        ExceptionMessages.REFRESH_RETRY_NOT_FOUND));
+        retry.setErrorClass(errorClass);
+        retry.setAttempts(retry.getAttempts() + 1);
+        retry.setLastFailedAt(now);
+        retry.setLastError(truncate(String.valueOf(error.getMessage())));
+        retry.setNextAttemptAt(now.plus(retryPolicy.delay(errorClass, retry.getAttempts())));
+        if (retryPolicy.exhausted(errorClass, retry.getAttempts())) {
+            retry.setDead(true);
+            log.error("Обновление группы {} не удалось {} раз ({}), группа перенесена в dead-letter",
+                    group.getGroupName(), retry.getAttempts(), errorClass);
+        } else {
+            log.warn("Обновление группы {} будет повторено в {} (попытка {}, {})",
+                    group.getGroupName(), retry.getNextAttemptAt(), retry.getAttempts() + 1, errorClass);
+        }
+        retryRepository.save(retry);
+    }
+
+    /**
+     * Убирает группу из очереди после успешного обновления.
+     */
+    public void recordSuccess(GroupEntity group) {
+        if (retryRepository.deleteByGroup(group) > 0) {
+            log.info("Группа {} обновлена и убрана из очереди повторов", group.getGroupName());
+        }
+    }
+
+    /**
+     * Повторяет обновления, у которых наступило время, в пределах бюджета запросов к MAI.
+     */
+    @Scheduled(fixedDelayString = "${schedule.retry.tick}", initialDelayString = "${schedule.retry.tick}")
+    public void retryDue() {
+        WorkloadContext.runAs(Workload.INGEST, this::runDueRetries);
+    }
+
+    private void runDueRetries() {
+        if (!enabled) {
+            return;
+        }
+        if (breaker.state() == UpstreamCircuitBreaker.State.OPEN) {
+            log.debug("MAI недоступен, повторы обновлений отложены");
+            return;
+        }
+        int available = upstreamBudget.available();
+        if (available == 0) {
+            return;
+        }
+        val due = retryRepository.findDue(LocalDateTime.now(), PageRequest.of(0, available));
+        List<Runnable> retries = new ArrayList<>(due.size());
+        for (GroupRefreshRetryEntity retry : due) {
+            if (!upstreamBudget.tryAcquire()) {
+                break;
+            }
+            retries.add(() -> retry(retry.getGroup()));
+        }
+        executors.ingest().runAllAndWait(retries);
+    }
+
+    @Transactional(readOnly = true)
+    public List<GroupRefreshRetryDTO> findAll(boolean dead) {
+        return retryRepository.findAllByDead(dead).stream()
+                .map(GroupRefreshRetryService::toDto)
+                .toList();
+    }
+
+    /**
+     * Возвращает группу из dead-letter в очередь с немедленной попыткой.
+     *
+     * @param groupName название группы
+     */
+    @Transactional
+    public GroupRefreshRetryDTO requeue(String groupName) {
+        GroupEntity group = groupService.findEntityByName(groupName);
+        GroupRefreshRetryEntity retry = retryRepository.findByGroup(group)
+                .orElseThrow(() -> ExceptionFabric.create(RefreshRetryNotFoundException.class,
+                        ExceptionMessages.REFRESH_RETRY_NOT_FOUND));
+        retry.setDead(false);
+        retry.setAttempts(0);
+        retry.setNextAttemptAt(LocalDateTime.now());
+        log.info("Группа {} возвращена в очередь повторов вручную", groupName);
+        return toDto(retryRepository.save(retry));
+    }
+
+    private void retry(GroupEntity group) {
+        try {
+            int diff = actualizationService.actualizationScheduleGroup(group.getGroupName());
+            recordSuccess(group);
+            log.info("Повтор обновления группы {} удался, изменений: {}", group.getGroupName(), diff);
+        } catch (Exception e) {
+            // вызов изнутри класса не проходит через прокси, транзакцию открываем явно
+            transactionTemplate.executeWithoutResult(status -> recordFailure(group, e));
+        }
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private static GroupRefreshRetryDTO toDto(GroupRefreshRetryEntity retry) {
+        return GroupRefreshRetryDTO.builder()
+                .groupName(retry.getGroup().getGroupName())
+                .errorClass(retry.getErrorClass().name())
+                .attempts(retry.getAttempts())
+                .firstFailedAt(retry.getFirstFailedAt())
+                .lastFailedAt(retry.getLastFailedAt())
+                .nextAttemptAt(retry.isDead() ? null : retry.getNextAttemptAt())
+                .lastError(retry.getLastError())
+                .dead(retry.isDead())
+                .build();
+    }
+}
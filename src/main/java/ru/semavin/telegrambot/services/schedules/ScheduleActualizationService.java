@@ -1,20 +1,33 @@
 package ru.semavin.telegrambot.services.schedules;
 
 
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.semavin.telegrambot.dto.ScheduleDTO;
 import ru.semavin.telegrambot.mapper.ScheduleMapper;
 import ru.semavin.telegrambot.models.GroupEntity;
+import ru.semavin.telegrambot.models.GroupScheduleVersionEntity;
 import ru.semavin.telegrambot.models.ScheduleEntity;
 import ru.semavin.telegrambot.repositories.ScheduleRepository;
+import ru.semavin.telegrambot.services.cache.CacheUtil;
 import ru.semavin.telegrambot.services.groups.GroupService;
+import ru.semavin.telegrambot.services.metrics.ScheduleMetrics;
+import ru.semavin.telegrambot.services.profiling.ScheduleEvents;
+import ru.semavin.telegrambot.utils.DateUtils;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -25,23 +38,109 @@ public class ScheduleActualizationService {
     private final ScheduleParserService scheduleParserService;
     private final ScheduleMapper scheduleMapper;
     private final GroupService groupService;
+    private final CacheUtil cacheUtil;
+    private final ScheduleSnapshotService snapshotService;
+    private final TransactionTemplate transactionTemplate;
+    private final ScheduleMetrics metrics;
+    private final ScheduleLessonWriter lessonWriter;
 
-    @Transactional
-    @CacheEvict(value = {"scheduleCache", "scheduleDay"}, allEntries = true)
-    public void actualizationScheduleGroup(String groupName) {
+    /**
+     * Загружает актуальное расписание группы с MAI и записывает его новой версией снимка.
+     * Читатели видят предыдущую версию до коммита, после коммита сразу новую;
+     * старая версия удаляется в фоне {@link ScheduleSnapshotService#collectStaleSnapshots()}.
+     * Если контрольные суммы пар не изменились, БД и кэш не трогаются.
+     * Загрузка с MAI выполняется вне транзакции, соединение с БД берется только на запись.
+     *
+     * @param groupName название группы
+     * @return количество изменившихся пар (добавленных и удаленных контрольных сумм)
+     */
+    public int actualizationScheduleGroup(String groupName) {
         GroupEntity group = groupService.findEntityByName(groupName);
-        List<ScheduleEntity> scheduleEntities = scheduleParserService.findScheduleByGroup(group);
-
-        scheduleRepository.deleteAllByGroup(group);
+        List<ScheduleEntity> scheduleEntities = distinctByControlSum(scheduleParserService.findScheduleByGroup(group));
 
         log.info("Расписание для группы {} найдено", group);
 
-        scheduleRepository.saveAllAndFlush(scheduleEntities);
+        Timer.Sample sample = metrics.start();
+        Integer diff = transactionTemplate.execute(status -> saveScheduleVersion(group, scheduleEntities));
+        int changed = diff == null ? 0 : diff;
+        metrics.written(sample, "full", changed);
+        return changed;
+    }
+
+    private int saveScheduleVersion(GroupEntity group, List<ScheduleEntity> scheduleEntities) {
+        String groupName = group.getGroupName();
+        GroupScheduleVersionEntity pointer = snapshotService.lockCurrentVersion(group);
+        int diff = countChangedLessons(
+                new HashSet<>(scheduleRepository.findControlSumsByGroup(group)),
+                scheduleEntities.stream()
+                        .map(ScheduleEntity::getControlSum)
+                        .collect(Collectors.toSet()));
+        if (diff == 0) {
+            log.info("Расписание группы [{}] не изменилось.", groupName);
+            return 0;
+        }
 
-        log.info("БД очищена. Расписание группы [{}] загружено.", groupName);
+        long newVersion = pointer.getCurrentVersion() + 1;
+        val insertEvent = ScheduleEvents.write("insert");
+        lessonWriter.insert(group, newVersion, scheduleEntities);
+        insertEvent.finish(groupName, scheduleEntities.size(), 0);
+        snapshotService.publish(pointer, newVersion);
+        // в транзакции CacheUtil регистрирует удаление на afterCommit: до коммита читатели видят
+        // прежнюю версию и могли бы заново закэшировать ее после раннего сброса
+        cacheUtil.evictAllGroupKeys("scheduleDay", groupName);
+
+        log.info("Расписание группы [{}] загружено версией {}. Изменено пар: {}", groupName, newVersion, diff);
+        return diff;
     }
 
+    /**
+     * Применяет к сохраненному расписанию группы изменения только за указанные дни:
+     * удаляет пары, которых больше нет, и добавляет новые в текущую версию снимка.
+     * Кэш сбрасывается только для изменившихся дней.
+     *
+     * @param group   группа
+     * @param dates   обновляемые дни
+     * @param lessons актуальные пары группы на эти дни
+     * @return количество изменившихся пар
+     */
     @Transactional
+    public int actualizationScheduleGroupDays(GroupEntity group, Set<LocalDate> dates, List<ScheduleEntity> lessons) {
+        Timer.Sample sample = metrics.start();
+        long version = snapshotService.lockCurrentVersion(group).getCurrentVersion();
+        Map<LocalDate, List<ScheduleEntity>> lessonsByDate = distinctByControlSum(lessons).stream()
+                .collect(Collectors.groupingBy(ScheduleEntity::getLessonDate));
+        int diff = 0;
+        for (LocalDate date : dates) {
+            List<ScheduleEntity> stored = scheduleRepository.findAllByLessonDateAndGroup(date, group);
+            List<ScheduleEntity> actual = lessonsByDate.getOrDefault(date, List.of());
+
+            Set<String> storedSums = stored.stream().map(ScheduleEntity::getControlSum).collect(Collectors.toSet());
+            Set<String> actualSums = actual.stream().map(ScheduleEntity::getControlSum).collect(Collectors.toSet());
+            List<ScheduleEntity> removed = stored.stream()
+                    .filter(lesson -> !actualSums.contains(lesson.getControlSum()))
+                    .toList();
+            List<ScheduleEntity> added = actual.stream()
+                    .filter(lesson -> !storedSums.contains(lesson.getControlSum()))
+                    .toList();
+            if (removed.isEmpty() && added.isEmpty()) {
+                continue;
+            }
+
+            val deleteEvent = ScheduleEvents.write("delete");
+            scheduleRepository.deleteAllInBatch(removed);
+            deleteEvent.finish(group.getGroupName(), removed.size(), 0);
+            val insertEvent = ScheduleEvents.write("insert");
+            lessonWriter.insert(group, version, added);
+            insertEvent.finish(group.getGroupName(), added.size(), 0);
+            cacheUtil.evictGroupDayKey("scheduleDay", group.getGroupName(), date.format(DateUtils.FORMATTER));
+            log.info("Расписание группы [{}] на {} обновлено: удалено {}, добавлено {}",
+                    group.getGroupName(), date, removed.size(), added.size());
+            diff += removed.size() + added.size();
+        }
+        metrics.written(sample, "days", diff);
+        return diff;
+    }
+
     public List<ScheduleDTO> getActualSchedule(String groupName, String teacherUUID) {
         GroupEntity group = groupService.findEntityByName(groupName);
         log.debug("Парсинг расписания группы [{}].", groupName);
@@ -53,4 +152,31 @@ public class ScheduleActualizationService {
                 scheduleAfterParsing);
     }
 
+    /**
+     * Убирает повторы одной и той же пары: контрольная сумма уникальна в версии снимка группы.
+     */
+    private static List<ScheduleEntity> distinctByControlSum(List<ScheduleEntity> lessons) {
+        Map<String, ScheduleEntity> unique = new LinkedHashMap<>(lessons.size() * 2);
+        lessons.forEach(lesson -> unique.putIfAbsent(lesson.getControlSum(), lesson));
+        if (unique.size() < lessons.size()) {
+            log.debug("Отброшено повторяющихся пар: {}", lessons.size() - unique.size());
+        }
+        return new ArrayList<>(unique.values());
+    }
+
+    private static int countChangedLessons(Set<String> oldSums, Set<String> newSums) {
+        int diff = 0;
+        for (String sum : newSums) {
+            if (!oldSums.contains(sum)) {
+                diff++;
+            }
+        }
+        for (String sum : oldSums) {
+            if (!newSums.contains(sum)) {
+                diff++;
+            }
+        }
+        return diff;
+    }
+
 }
@@ -0,0 +1,144 @@
+package ru.semavin.telegrambot.services.schedules;
+
+import ru.semavin.telegrambot.dto.ScheduleDTO;
+import ru.semavin.telegrambot.models.ScheduleChangeEntity;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Применение изменений к расписанию одного дня за один проход.
+ * <p>
+ * Правила:
+ * <ol>
+ *     <li>Для пары действует одно изменение - последнее по id среди изменений с ее контрольной суммой
+ *     (без id - последнее в списке). Изменение без контрольной суммы действует само по себе.</li>
+ *     <li>Пара дня с действующим изменением, у которого есть новая дата (перенос, в том числе внутри дня),
+ *     или с удалением исчезает со своего места.</li>
+ *     <li>Пара дня с действующим изменением без новой даты и без удаления остается, изменение
+ *     заменяет предмет, тип и аудиторию, а время и описание - если они указаны.</li>
+ *     <li>Каждое действующее изменение без удаления с новой датой, равной дню, добавляет пару,
+ *     собранную из изменения; время берется новое, а если его нет - старое.</li>
+ *     <li>Если ни одно изменение не затронуло день, исходный список возвращается как есть.
+ *     Иначе пары упорядочены по времени начала; при равном времени сначала исходные пары
+ *     в исходном порядке, затем перенесенные в порядке изменений.</li>
+ * </ol>
+ * Изменения индексируются по контрольной сумме, поэтому слияние линейно по числу пар и изменений,
+ * сортируется только итоговый список дня.
+ */
+final class ScheduleDayMerger {
+
+    private static final Comparator<ScheduleDTO> BY_START =
+            Comparator.comparing(ScheduleDTO::getStartTime, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private ScheduleDayMerger() {
+    }
+
+    static List<ScheduleDTO> merge(List<ScheduleDTO> original, List<ScheduleChangeEntity> changes, LocalDate day) {
+        if (changes.isEmpty()) {
+            return original;
+        }
+        Map<String, ScheduleChangeEntity> effective = winners(changes);
+
+        List<ScheduleDTO> merged = new ArrayList<>(original.size() + changes.size());
+        boolean touched = false;
+        for (ScheduleDTO lesson : original) {
+            ScheduleChangeEntity change = lesson.getControlSum() == null ? null : effective.get(lesson.getControlSum());
+            if (change == null) {
+                merged.add(lesson);
+            } else {
+                touched = true;
+                if (change.getNewLessonDate() == null && !change.isDeleted()) {
+                    merged.add(edit(lesson, change));
+                }
+            }
+        }
+        for (ScheduleChangeEntity change : changes) {
+            if (day.equals(change.getNewLessonDate()) && !change.isDeleted()
+                    && (change.getOldControlSum() == null || effective.get(change.getOldControlSum()) == change)) {
+                touched = true;
+                merged.add(movedIn(change));
+            }
+        }
+        if (!touched) {
+            return original;
+        }
+        merged.sort(BY_START);
+        return merged;
+    }
+
+    /**
+     * Оставляет только действующие изменения (правило 1), сохраняя их порядок.
+     * Нужен, когда изменения раскладываются по дням до слияния: правка пары на исходном дне
+     * должна отменять и ее более ранний перенос, попавший в список другого дня.
+     */
+    static List<ScheduleChangeEntity> effective(List<ScheduleChangeEntity> changes) {
+        Map<String, ScheduleChangeEntity> winners = winners(changes);
+        List<ScheduleChangeEntity> effective = new ArrayList<>(winners.size());
+        for (ScheduleChangeEntity change : changes) {
+            if (change.getOldControlSum() == null || winners.get(change.getOldControlSum()) == change) {
+                effective.add(change);
+            }
+        }
+        return effective;
+    }
+
+    private static Map<String, ScheduleChangeEntity> winners(List<ScheduleChangeEntity> changes) {
+        Map<String, ScheduleChangeEntity> winners = new HashMap<>(changes.size() * 2);
+        for (ScheduleChangeEntity change : changes) {
+            String sum = change.getOldControlSum();
+            if (sum != null) {
+                winners.merge(sum, change, ScheduleDayMerger::later);
+            }
+        }
+        return winners;
+    }
+
+    /**
+     * Из двух изменений одной пары выбирает действующее: большее id, без id - встреченное позже.
+     */
+    private static ScheduleChangeEntity later(ScheduleChangeEntity earlier, ScheduleChangeEntity next) {
+        if (earlier.getId() != null && next.getId() != null && earlier.getId() > next.getId()) {
+            return earlier;
+        }
+        return next;
+    }
+
+    private static ScheduleDTO edit(ScheduleDTO lesson, ScheduleChangeEntity change) {
+        if (change.getNewStartTime() != null) {
+            lesson.setStartTime(change.getNewStartTime());
+        }
+        if (change.getNewEndTime() != null) {
+            lesson.setEndTime(change.getNewEndTime());
+        }
+        if (change.getDescription() != null) {
+            lesson.setDescription(change.getDescription());
+        }
+        lesson.setSubjectName(change.getSubjectName());
+        lesson.setLessonType(change.getLessonType());
+        lesson.setClassroom(change.getClassroom());
+        return lesson;
+    }
+
+    private static ScheduleDTO movedIn(ScheduleChangeEntity change) {
+        LocalTime start = change.getNewStartTime() == null ? change.getOldStartTime() : change.getNewStartTime();
+        LocalTime end = change.getNewEndTime() == null ? change.getOldEndTime() : change.getNewEndTime();
+        return ScheduleDTO.builder()
+                .subjectName(change.getSubjectName())
+                .lessonType(change.getLessonType())
+                .controlSum(change.getOldControlSum())
+                .teacherName(change.getTeacherName())
+                .classroom(change.getClassroom())
+                .groupName(change.getGroup() == null ? null : change.getGroup().getGroupName())
+                .startTime(start)
+                .endTime(end)
+                .lessonDate(change.getNewLessonDate())
+                .description(change.getDescription())
+                .build();
+    }
+}
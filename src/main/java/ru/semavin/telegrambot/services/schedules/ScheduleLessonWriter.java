@@ -0,0 +1,84 @@
+package ru.semavin.telegrambot.services.schedules;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.semavin.telegrambot.models.GroupEntity;
+import ru.semavin.telegrambot.models.ScheduleEntity;
+import ru.semavin.telegrambot.models.converters.ControlSumConverter;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Time;
+import java.util.List;
+
+/**
+ * Пакетная вставка пар группы функцией БД insert_schedule_lessons (V11): все пары уходят одним вызовом
+ * массивами по колонкам, словари, занятия и пары группы пишутся набором, без построчного триггера
+ * представления schedule_lessons. Работает в текущей транзакции.
+ */
+@Component
+@RequiredArgsConstructor
+public class ScheduleLessonWriter {
+
+    private static final ControlSumConverter CONTROL_SUM = new ControlSumConverter();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @param group   группа пар
+     * @param version версия снимка, в которую записываются пары
+     * @param lessons пары группы, контрольные суммы уникальны
+     * @return количество записанных пар
+     */
+    public int insert(GroupEntity group, long version, List<ScheduleEntity> lessons) {
+        if (lessons.isEmpty()) {
+            return 0;
+        }
+        int size = lessons.size();
+        Date[] dates = new Date[size];
+        Time[] starts = new Time[size];
+        Time[] ends = new Time[size];
+        String[] subjects = new String[size];
+        String[] types = new String[size];
+        Long[] teachers = new Long[size];
+        String[] rooms = new String[size];
+        Integer[] weeks = new Integer[size];
+        byte[][] sums = new byte[size][];
+        for (int i = 0; i < size; i++) {
+            ScheduleEntity lesson = lessons.get(i);
+            dates[i] = lesson.getLessonDate() == null ? null : Date.valueOf(lesson.getLessonDate());
+            starts[i] = lesson.getStartTime() == null ? null : Time.valueOf(lesson.getStartTime());
+            ends[i] = lesson.getEndTime() == null ? null : Time.valueOf(lesson.getEndTime());
+            subjects[i] = lesson.getSubjectName();
+            types[i] = lesson.getLessonType() == null ? null : lesson.getLessonType().name();
+            teachers[i] = lesson.getTeacher() == null ? null : lesson.getTeacher().getId();
+            rooms[i] = lesson.getClassroom();
+            weeks[i] = lesson.getLessonWeek();
+            sums[i] = CONTROL_SUM.convertToDatabaseColumn(lesson.getControlSum());
+        }
+        Integer inserted = jdbcTemplate.execute((ConnectionCallback<Integer>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "SELECT insert_schedule_lessons(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+                statement.setLong(1, group.getId());
+                statement.setLong(2, version);
+                statement.setArray(3, connection.createArrayOf("date", dates));
+                statement.setArray(4, connection.createArrayOf("time", starts));
+                statement.setArray(5, connection.createArrayOf("time", ends));
+                statement.setArray(6, connection.createArrayOf("text", subjects));
+                statement.setArray(7, connection.createArrayOf("text", types));
+                statement.setArray(8, connection.createArrayOf("bigint", teachers));
+                statement.setArray(9, connection.createArrayOf("text", rooms));
+                statement.setArray(10, connection.createArrayOf("integer", weeks));
+                statement.setArray(11, connection.createArrayOf("bytea", sums));
+                try (ResultSet rs = statement.executeQuery()) {
+                    rs.next();
+                    return rs.getInt(1);
+                }
+            }
+        });
+        return inserted == null ? 0 : inserted;
+    }
+}
@@ -4,12 +4,14 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.semavin.telegrambot.dto.ScheduleDTO;
-import ru.semavin.telegrambot.mapper.ScheduleMapper;
 import ru.semavin.telegrambot.models.ScheduleChangeEntity;
 import ru.semavin.telegrambot.repositories.ScheduleRepository;
 import ru.semavin.telegrambot.services.ScheduleChangeService;
 import ru.semavin.telegrambot.services.groups.GroupService;
+import ru.semavin.telegrambot.services.metrics.ScheduleMetrics;
+import ru.semavin.telegrambot.services.profiling.ScheduleEvents;
 
 import java.time.DayOfWeek;
 import java.time.LocalDate;
@@ -22,28 +24,52 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ScheduleMergingService {
     private final ScheduleRepository scheduleRepository;
-    private final ScheduleMapper scheduleMapper;
     private final SemesterService semesterService;
     private final GroupService groupService;
     private final ScheduleChangeService scheduleChangeService;
+    private final ScheduleMetrics metrics;
 
     /**
-     * Получаем все расписание для семестра с учетом слияния
+     * Получаем все расписание для семестра с учетом слияния.
+     * Пары и изменения за семестр читаются двумя диапазонными запросами и раскладываются по дням в памяти.
      */
+    @Transactional(readOnly = true)
     public List<ScheduleDTO> getScheduleAfterMerge(String groupName) {
         val group = groupService.findEntityByName(groupName);
+        LocalDate start = semesterService.getStartSemester();
+        LocalDate end = semesterService.getEndSemester();
+
+        Map<LocalDate, List<ScheduleDTO>> lessonsByDate = scheduleRepository
+                .findDtosByGroupAndLessonDateBetween(group, start, end).stream()
+                .collect(Collectors.groupingBy(ScheduleDTO::getLessonDate));
+        List<ScheduleChangeEntity> semesterChanges = scheduleChangeService.getChangesForRange(groupName, start, end);
+
+        return metrics.timeMerge("semester", () -> mergeSemester(start, end, lessonsByDate, semesterChanges));
+    }
+
+    private List<ScheduleDTO> mergeSemester(LocalDate start, LocalDate end,
+                                            Map<LocalDate, List<ScheduleDTO>> lessonsByDate,
+                                            List<ScheduleChangeEntity> semesterChanges) {
+        Map<LocalDate, List<ScheduleChangeEntity>> changesByDate = new HashMap<>();
+        // действующее изменение выбирается по всем дням сразу, иначе день переноса не увидит поздней правки
+        for (ScheduleChangeEntity change : ScheduleDayMerger.effective(semesterChanges)) {
+            if (change.getOldLessonDate() != null) {
+                changesByDate.computeIfAbsent(change.getOldLessonDate(), d -> new ArrayList<>()).add(change);
+            }
+            if (change.getNewLessonDate() != null && !change.getNewLessonDate().equals(change.getOldLessonDate())) {
+                changesByDate.computeIfAbsent(change.getNewLessonDate(), d -> new ArrayList<>()).add(change);
+            }
+        }
+
         List<ScheduleDTO> scheduleDTOS = new ArrayList<>();
-        for (LocalDate date = semesterService.getStartSemester();
-             !date.isAfter(semesterService.getEndSemester());
-             date = date.plusDays(1)) {
+        for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1)) {
 
             if (date.getDayOfWeek() == DayOfWeek.SUNDAY) {
                 continue;
             }
 
-            val changes = scheduleChangeService.getChangesDtoAnyDay(groupName, date);
-            val scheduleForMerge = scheduleRepository.findAllByLessonDateAndGroup(date, group);
-            val original = scheduleMapper.toScheduleDTOList(scheduleForMerge);
+            val changes = changesByDate.getOrDefault(date, List.of());
+            val original = lessonsByDate.getOrDefault(date, new ArrayList<>());
 
             scheduleDTOS.addAll(mergeChanges(original, changes, date));
         }
@@ -51,35 +77,43 @@ public class ScheduleMergingService {
     }
 
     /**
-     * Сливает расписания. Возможны два случая:
-     * 1. Перенесли пару на другой день (processAddNewPairsToDay)
-     * 2. Не переносили, просто изменения (processAcceptScheduleChangeForCurrDay)
+     * Сливает расписание дня с изменениями по правилам {@link ScheduleDayMerger}:
+     * переносы на другой день убирают пару, переносы на этот день добавляют ее,
+     * изменения без переноса правят пару на месте.
      */
     public List<ScheduleDTO> mergeChanges(
             List<ScheduleDTO> originalSchedule,
             List<ScheduleChangeEntity> changes,
             LocalDate today
     ) {
-        List<ScheduleDTO> changesDto = new ArrayList<>();
-        List<ScheduleChangeEntity> actual = new ArrayList<>();
-        processAddNewPairsToDay(changesDto, today, actual, changes, originalSchedule);
-        if (actual.isEmpty() && changesDto.isEmpty()) {
-            return originalSchedule;
-        }
-        originalSchedule.forEach(dto ->
-                processAcceptScheduleChangeForCurrDay(actual, dto, changesDto));
-        return changesDto.stream()
-                .sorted(Comparator.comparing(ScheduleDTO::getStartTime))
-                .toList();
+        val mergeEvent = ScheduleEvents.merge(changes.size());
+        List<ScheduleDTO> merged = ScheduleDayMerger.merge(originalSchedule, changes, today);
+        mergeEvent.finish(originalSchedule.isEmpty() ? null : originalSchedule.get(0).getGroupName(),
+                merged.size(), 0);
+        return merged;
     }
 
+    /**
+     * Сводит пары преподавателя из разных групп: занятие потока остается одной парой,
+     * группы которой перечислены в groupNames (и через запятую в groupName).
+     * Пары из БД сводятся по занятию (lessonId), пары групп, загруженных с MAI, - по дате, времени
+     * и предмету; такая пара присоединяется к занятию из БД с теми же датой, временем и предметом.
+     *
+     * @param scheduleGroupChunks пары по группам
+     * @return пары без повторов, по дате и времени начала
+     */
     public List<ScheduleDTO> mergeMultiGroups(Map<String, List<ScheduleDTO>>
                                                       scheduleGroupChunks) {
-        Map<LessonKey, ScheduleDTO> unique = new LinkedHashMap<>();
-        Map<LessonKey, Set<String>> groupsByKey = new HashMap<>();
+        Map<LessonKey, Long> lessonIds = new HashMap<>();
+        scheduleGroupChunks.values().forEach(list -> list.stream()
+                .filter(dto -> dto.getLessonId() != null)
+                .forEach(dto -> lessonIds.putIfAbsent(LessonKey.of(dto), dto.getLessonId())));
+
+        Map<Object, ScheduleDTO> unique = new LinkedHashMap<>();
+        Map<Object, Set<String>> groupsByKey = new HashMap<>();
 
         scheduleGroupChunks.forEach((scheduleGroup, scheduleDTOS) -> {
-            processFindMultiGroups(scheduleGroup, scheduleDTOS, unique, groupsByKey);
+            processFindMultiGroups(scheduleGroup, scheduleDTOS, lessonIds, unique, groupsByKey);
         });
 
         unique.forEach((key, dto) -> {
@@ -93,26 +127,26 @@ public class ScheduleMergingService {
                 .toList();
     }
 
-    private void setMultiGroups(LessonKey key, ScheduleDTO dto,
-                                Map<LessonKey, Set<String>> groupsByKey) {
+    private void setMultiGroups(Object key, ScheduleDTO dto,
+                                Map<Object, Set<String>> groupsByKey) {
         Set<String> groups = groupsByKey.get(key);
         if (groups != null && !groups.isEmpty()) {
-            String merged = groups.stream().sorted().collect(Collectors.joining(", "));
-            dto.setGroupName(merged);
+            List<String> sorted = groups.stream().sorted().toList();
+            dto.setGroupNames(sorted);
+            dto.setGroupName(String.join(", ", sorted));
         }
     }
 
     private void processFindMultiGroups(String scheduleGroup,
                                         List<ScheduleDTO> list,
-                                        Map<LessonKey, ScheduleDTO> unique,
-                                        Map<LessonKey, Set<String>> groupsByKey) {
+                                        Map<LessonKey, Long> lessonIds,
+                                        Map<Object, ScheduleDTO> unique,
+                                        Map<Object, Set<String>> groupsByKey) {
         for (ScheduleDTO dto : list) {
-            LessonKey key = new LessonKey(
-                    dto.getLessonDate(),
-                    dto.getStartTime(),
-                    dto.getEndTime(),
-                    dto.getSubjectName()
-            );
+            Object key = dto.getLessonId() != null ? dto.getLessonId() : lessonIds.get(LessonKey.of(dto));
+            if (key == null) {
+                key = LessonKey.of(dto);
+            }
 
             unique.putIfAbsent(key, dto);
 
@@ -120,96 +154,14 @@ public class ScheduleMergingService {
             if (scheduleGroup != null && !scheduleGroup.isBlank()) {
                 groups.add(scheduleGroup.trim());
             }
-            if (dto.getGroupName() != null && !dto.getGroupName().isBlank()) {
-                for (String g : dto.getGroupName().split(",")) {
-                    String trimmed = g.trim();
-                    if (!trimmed.isEmpty()) {
-                        groups.add(trimmed);
-                    }
-                }
+            if (dto.getGroupNames() != null) {
+                groups.addAll(dto.getGroupNames());
+            } else if (dto.getGroupName() != null && !dto.getGroupName().isBlank()) {
+                groups.add(dto.getGroupName().trim());
             }
         }
     }
 
-    /**
-     * Добавляет изменения, которые были выполнены для другого дня(перенос на другой день).
-     * Оставшиеся отдает на изменения.
-     */
-    private void processAddNewPairsToDay(List<ScheduleDTO> changesDTOs, LocalDate today,
-                                         List<ScheduleChangeEntity> actual,
-                                         List<ScheduleChangeEntity> changes,
-                                         List<ScheduleDTO> originalSchedule) {
-        for (ScheduleChangeEntity change : changes) {
-            if (change.getNewLessonDate() != null) {
-                if (!change.getNewLessonDate().equals(today)) {
-                    int index = -1;
-                    for (ScheduleDTO scheduleDTO : originalSchedule) {
-                        if (scheduleDTO.getControlSum().equals(change.getOldControlSum())) {
-                            index = originalSchedule.indexOf(scheduleDTO);
-                            break;
-                        }
-                    }
-                    if (index != -1) {
-                        originalSchedule.remove(index);
-                    }
-                    return;
-                }
-                ScheduleDTO newScheduleDto = ScheduleDTO.builder()
-                        .subjectName(change.getSubjectName())
-                        .lessonType(change.getLessonType())
-                        .controlSum(change.getOldControlSum())
-                        .teacherName(change.getTeacherName())
-                        .classroom(change.getClassroom())
-                        .groupName(change.getGroup().getGroupName())
-                        .endTime(change.getNewEndTime() == null ?
-                                change.getOldEndTime() : change.getNewEndTime())
-                        .startTime(change.getNewStartTime() == null ?
-                                change.getOldStartTime() : change.getNewStartTime())
-                        .lessonDate(change.getNewLessonDate())
-                        .build();
-                if (change.getDescription() != null) {
-                    newScheduleDto.setDescription(change.getDescription());
-                }
-                changesDTOs.add(newScheduleDto);
-            } else {
-                actual.add(change);
-            }
-        }
-    }
-
-    /**
-     * Применяет изменения для пар в текущем дне.
-     */
-    private void processAcceptScheduleChangeForCurrDay(List<ScheduleChangeEntity> changes,
-                                                       ScheduleDTO dto, List<ScheduleDTO> dtos) {
-        for (ScheduleChangeEntity change : changes) {
-            if (dto.getControlSum().equals(change.getOldControlSum())) {
-                if (change.getNewLessonDate() == null) {
-                    if (change.isDeleted()) {
-                        return;
-                    }
-
-                    if (change.getNewStartTime() != null) {
-                        dto.setStartTime(change.getNewStartTime());
-                    }
-                    if (change.getNewEndTime() != null) {
-                        dto.setEndTime(change.getNewEndTime());
-                    }
-                    if (change.getDescription() != null) {
-                        dto.setDescription(change.getDescription());
-                    }
-                    dto.setSubjectName(change.getSubjectName());
-                    dto.setLessonType(change.getLessonType());
-                    dto.setClassroom(change.getClassroom());
-
-                    dtos.add(dto);
-                }
-                return;
-            }
-        }
-        dtos.add(dto);
-    }
-
     private static final class LessonKey {
         private final LocalDate lessonDate;
         private final LocalTime startTime;
@@ -223,6 +175,10 @@ public class ScheduleMergingService {
             this.subjectName = subjectName == null ? "" : subjectName;
         }
 
+        private static LessonKey of(ScheduleDTO dto) {
+            return new LessonKey(dto.getLessonDate(), dto.getStartTime(), dto.getEndTime(), dto.getSubjectName());
+        }
+
         @Override
         public boolean equals(Object o) {
             if (this == o) return true;
@@ -1,13 +1,14 @@
 package ru.semavin.telegrambot.services.schedules;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
-import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.util.DigestUtils;
-import org.springframework.web.client.RestTemplate;
+import ru.semavin.telegrambot.config.executors.WorkloadExecutors;
 import ru.semavin.telegrambot.models.GroupEntity;
 import ru.semavin.telegrambot.models.ScheduleEntity;
 import ru.semavin.telegrambot.models.UserEntity;
@@ -15,21 +16,23 @@ import ru.semavin.telegrambot.models.enums.ExceptionMessages;
 import ru.semavin.telegrambot.models.enums.LessonType;
 import ru.semavin.telegrambot.models.enums.UserRole;
 import ru.semavin.telegrambot.services.UserService;
+import ru.semavin.telegrambot.services.metrics.ScheduleMetrics;
+import ru.semavin.telegrambot.services.profiling.ScheduleEvents;
+import ru.semavin.telegrambot.services.upstream.MaiScheduleClient;
 import ru.semavin.telegrambot.utils.DateUtils;
+import ru.semavin.telegrambot.utils.StringInterner;
 import ru.semavin.telegrambot.utils.ExceptionFabric;
+import ru.semavin.telegrambot.utils.StructuredFanOut;
 import ru.semavin.telegrambot.utils.exceptions.ScheduleNotFoundException;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Semaphore;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -39,46 +42,74 @@ import java.util.stream.StreamSupport;
 public class ScheduleParserService {
 
     private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("H:mm:ss");
-    private static final String SCHEDULE_URL = "https://public.mai.ru/schedule/data/";
 
     private final SemesterService semesterService;
     private final UserService teacherService;
-    private final RestTemplate restTemplate;
+    private final MaiScheduleClient maiScheduleClient;
     private final ObjectMapper objectMapper;
-    private final ExecutorService executorService;
-    private final Semaphore semaphore;
+    private final WorkloadExecutors executors;
+    private final Duration dayParseDeadline;
+    private final ScheduleMetrics metrics;
 
     public ScheduleParserService(SemesterService semesterService,
-                                 UserService teacherService, RestTemplate restTemplate,
-                                 ObjectMapper objectMapper, ExecutorService executorService,
-                                 @Qualifier("dayParseSemaphore")
-                                 Semaphore semaphore) {
+                                 UserService teacherService, MaiScheduleClient maiScheduleClient,
+                                 ObjectMapper objectMapper,
+                                 WorkloadExecutors executors,
+                                 @Value("${fan-out.day-parse.deadline}") Duration dayParseDeadline,
+                                 ScheduleMetrics metrics) {
         this.semesterService = semesterService;
         this.teacherService = teacherService;
-        this.restTemplate = restTemplate;
+        this.maiScheduleClient = maiScheduleClient;
         this.objectMapper = objectMapper;
-        this.executorService = executorService;
-        this.semaphore = semaphore;
+        this.executors = executors;
+        this.dayParseDeadline = dayParseDeadline;
+        this.metrics = metrics;
     }
 
 
     public List<ScheduleEntity> findScheduleByGroup(GroupEntity groupEntity) {
-        String jsonString = getJsonOfScheduleStudentWithGroupName(groupEntity.getGroupName());
+        val fetchEvent = ScheduleEvents.fetch();
+        String jsonString = maiScheduleClient.fetchGroupSchedule(groupEntity.getGroupName());
+        fetchEvent.finish(groupEntity.getGroupName(), 0, jsonString == null ? 0 : jsonString.length());
+        return parseSchedule(groupEntity, jsonString, date -> true);
+    }
+
+    /**
+     * Разбирает уже полученный json группы, оставляя только пары на указанные даты.
+     *
+     * @param groupEntity группа
+     * @param jsonString  json расписания группы
+     * @param dates       даты, пары которых нужно разобрать
+     * @return пары группы на указанные даты
+     */
+    public List<ScheduleEntity> parseScheduleForDates(GroupEntity groupEntity, String jsonString,
+                                                      Set<LocalDate> dates) {
+        return parseSchedule(groupEntity, jsonString, dates::contains);
+    }
+
+    private List<ScheduleEntity> parseSchedule(GroupEntity groupEntity, String jsonString,
+                                               Predicate<LocalDate> dateFilter) {
         if (jsonString == null || jsonString.isEmpty()) {
             log.error("Получен пустой JSON для группы {}", groupEntity.getGroupName());
             throw ExceptionFabric.create(ScheduleNotFoundException.class, ExceptionMessages.SCHEDULE_NOT_FOUND);
         }
         log.debug("JSON для группы {} получен. Размер [{}]", groupEntity.getGroupName(), jsonString.length());
+        Timer.Sample sample = metrics.start();
         try {
+            val treeParseEvent = ScheduleEvents.treeParse();
             JsonNode rootNode = objectMapper.readTree(jsonString);
+            treeParseEvent.finish(groupEntity.getGroupName(), 0, jsonString.length());
             LocalDate semesterStart = semesterService.getStartSemester();
             Map<String, UserEntity> teacherCache = new ConcurrentHashMap<>();
             List<ScheduleEntity> scheduleList = extractScheduleFromJson(groupEntity, rootNode,
-                    semesterStart, teacherCache);
+                    semesterStart, dateFilter, teacherCache);
             Map<String, UserEntity> studentCache = new HashMap<>();
+            val teacherUpsertEvent = ScheduleEvents.teacherUpsert();
             teacherCache.forEach((s, u) ->
                     studentCache.put(s, teacherService.saveEntity(u)));
+            teacherUpsertEvent.finish(groupEntity.getGroupName(), scheduleList.size(), 0);
             log.debug("Найдено {} пар для группы {}", scheduleList.size(), groupEntity.getGroupName());
+            metrics.parsed(sample, groupEntity.getGroupName(), scheduleList.size());
             return scheduleList.stream()
                     .peek(sch ->
                             sch.setTeacher(studentCache.get(sch.getTeacher().getTeacherUuid())))
@@ -106,40 +137,31 @@ public class ScheduleParserService {
     private List<ScheduleEntity> extractScheduleFromJson(GroupEntity groupEntity,
                                                          JsonNode rootNode,
                                                          LocalDate semesterStart,
+                                                         Predicate<LocalDate> dateFilter,
                                                          Map<String, UserEntity> teacherCache) {
-        List<CompletableFuture<List<ScheduleEntity>>> tasks =
+        List<Map.Entry<String, JsonNode>> days =
                 streamFields(rootNode)
                         .filter(e -> !"group".equals(e.getKey()))
-                        .filter(e ->
-                                !LocalDate.parse(e.getKey(), DateUtils.FORMATTER).isBefore(semesterStart))
-                        .map(e -> {
-                            String date = e.getKey();
+                        .filter(e -> {
+                            LocalDate date = LocalDate.parse(e.getKey(), DateUtils.FORMATTER);
+                            return !date.isBefore(semesterStart) && dateFilter.test(date);
+                        })
+                        .filter(e -> {
                             JsonNode pairsNode = e.getValue().path("pairs");
-                            if (pairsNode.isMissingNode() || pairsNode.isNull()) {
-                                return CompletableFuture.completedFuture(Collections.<ScheduleEntity>emptyList());
-                            }
-                            return CompletableFuture.supplyAsync(
-                                    () -> {
-                                        try {
-                                            semaphore.acquire();
-                                            return parsePairs(pairsNode, groupEntity, date, teacherCache);
-                                        } catch (Exception exp) {
-                                            log.error("Ошибка во время парсинга расписания дня [{}], [{}]",
-                                                    exp, exp.getMessage());
-                                            throw new RuntimeException(exp);
-                                        } finally {
-                                            semaphore.release();
-                                        }
-                                    },
-                                    executorService
-                            );
+                            return !pairsNode.isMissingNode() && !pairsNode.isNull();
                         })
                         .toList();
 
-        CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new)).join();
-
-        return tasks.stream()
-                .map(CompletableFuture::join)
+        return StructuredFanOut.forkAll(days, e -> {
+                    try {
+                        return parsePairs(e.getValue().path("pairs"), groupEntity, e.getKey(), teacherCache);
+                    } catch (RuntimeException exp) {
+                        log.error("Ошибка во время парсинга расписания дня [{}], [{}]",
+                                e.getKey(), exp.getMessage());
+                        throw exp;
+                    }
+                }, executors.parsing(), dayParseDeadline)
+                .stream()
                 .flatMap(List::stream)
                 .onClose(() -> log.info("Получено пар для группы {}", groupEntity.getGroupName()))
                 .toList();
@@ -147,28 +169,14 @@ public class ScheduleParserService {
 
     private JsonNode readTeacherJson(String teacherUuid) {
         try {
-            String json = getJsonOfScheduleTeacher(teacherUuid);
+            String json = maiScheduleClient.fetchTeacherSchedule(teacherUuid);
             return objectMapper.readTree(json);
-        } catch (Exception e) {
+        } catch (JsonProcessingException e) {
             log.error("Ошибка чтения teacher-json teacherUuid={}: {}", teacherUuid, e.getMessage(), e);
             throw new RuntimeException("Ошибка чтения teacher-json", e);
         }
     }
 
-    private String getJsonOfScheduleStudentWithGroupName(String groupName) {
-        log.info("Получение json для группы {}", groupName);
-        return restTemplate.getForObject(SCHEDULE_URL + getMd5Hash(groupName) + ".json", String.class);
-    }
-
-    private String getJsonOfScheduleTeacher(String teacherUUID) {
-        log.debug("Получение json для препода {}", teacherUUID);
-        return restTemplate.getForObject(SCHEDULE_URL + teacherUUID + ".json", String.class);
-    }
-
-    private String getMd5Hash(String input) {
-        return DigestUtils.md5DigestAsHex(input.getBytes(StandardCharsets.UTF_8));
-    }
-
     private Optional<String> firstFieldName(JsonNode n) {
         var it = n != null ? n.fieldNames() : null;
         return (it != null && it.hasNext()) ?
@@ -191,8 +199,9 @@ public class ScheduleParserService {
 
     private List<ScheduleEntity> parsePairs(JsonNode pairsNode, GroupEntity groupEntity, String lessonDate,
                                             Map<String, UserEntity> teacherCache) {
+        val pairsParseEvent = ScheduleEvents.pairsParse(lessonDate);
         int lessonWeek = Integer.parseInt(semesterService.getWeekForDate(lessonDate));
-        return streamFields(pairsNode)
+        List<ScheduleEntity> lessons = streamFields(pairsNode)
                 .flatMap(timeEntry -> streamFields(timeEntry.getValue())
                         .map(subjectEntry -> Map.entry(timeEntry.getKey(), subjectEntry)))
                 .map(entry -> extractScheduleEntityFromJson(groupEntity,
@@ -206,6 +215,8 @@ public class ScheduleParserService {
                         lessonDate))
                 .collect(Collectors.collectingAndThen
                         (Collectors.toList(), this::mergeSchedule));
+        pairsParseEvent.finish(groupEntity.getGroupName(), lessons.size(), 0);
+        return lessons;
     }
 
     private List<ScheduleEntity> mergeSchedule(List<ScheduleEntity> list) {
@@ -247,14 +258,14 @@ public class ScheduleParserService {
                                                          Map<String, UserEntity> teacherCache,
                                                          Map.Entry<String, Map.Entry<String, JsonNode>> entry,
                                                          int lessonWeek) {
-        String subjectName = entry.getValue().getKey();
+        String subjectName = StringInterner.intern(entry.getValue().getKey());
         JsonNode lessonNode = entry.getValue().getValue();
 
         LocalTime start = LocalTime.parse(lessonNode.path("time_start").asText(), TIME_FORMATTER);
         LocalTime end = LocalTime.parse(lessonNode.path("time_end").asText(), TIME_FORMATTER);
 
         LessonType type = mapLessonType(firstFieldName(lessonNode.get("type")).orElse(""));
-        String classroom = firstFieldValue(lessonNode.get("room")).orElse("");
+        String classroom = StringInterner.intern(firstFieldValue(lessonNode.get("room")).orElse(""));
         // teacher
         var lectorNode = lessonNode.get("lector");
         String teacherUuid = getTeacherUuid(lectorNode);
@@ -0,0 +1,95 @@
+package ru.semavin.telegrambot.services.schedules;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.semavin.telegrambot.config.datasource.Workload;
+import ru.semavin.telegrambot.config.datasource.WorkloadContext;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+
+/**
+ * Обслуживание помесячных партиций schedule, lessons и schedule_changes:
+ * заранее создает партиции будущих месяцев и переносит прошедшие месяцы в schedule_archive.
+ */
+@Slf4j
+@Service
+public class SchedulePartitionService {
+
+    private static final ZoneId ZONE = ZoneId.of("Europe/Moscow");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+    private final int archiveAfterMonths;
+
+    public SchedulePartitionService(JdbcTemplate jdbcTemplate,
+                                    @Value("${schedule.partitions.months-ahead}") int monthsAhead,
+                                    @Value("${schedule.partitions.archive-after-months}") int archiveAfterMonths) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = monthsAhead;
+        this.archiveAfterMonths = archiveAfterMonths;
+    }
+
+    @Scheduled(cron = "${schedule.partitions.cron}", zone = "Europe/Moscow")
+    public void maintainPartitions() {
+        WorkloadContext.runAs(Workload.INGEST, () -> {
+            YearMonth current = YearMonth.now(ZONE);
+            createFuturePartitions(current);
+            archivePastPartitions(current);
+        });
+    }
+
+    /**
+     * Создает партиции с текущего месяца на monthsAhead месяцев вперед.
+     */
+    public void createFuturePartitions(YearMonth current) {
+        for (int i = 0; i <= monthsAhead; i++) {
+            LocalDate monthStart = current.plusMonths(i).atDay(1);
+            ensurePartition("schedule", "lesson_date", monthStart);
+            ensurePartition("lessons", "lesson_date", monthStart);
+            ensurePartition("schedule_changes", "old_lesson_date", monthStart);
+        }
+    }
+
+    /**
+     * Переносит в архив все месяцы старше archiveAfterMonths, для которых еще остались партиции.
+     */
+    public void archivePastPartitions(YearMonth current) {
+        YearMonth boundary = current.minusMonths(archiveAfterMonths);
+        for (LocalDate monthStart : jdbcTemplate.queryForList("""
+                SELECT to_date(substring(c.relname from 'p(\\d{4}_\\d{2})$'), 'YYYY_MM')
+                FROM pg_inherits i
+                         JOIN pg_class c ON c.oid = i.inhrelid
+                WHERE i.inhparent IN ('schedule'::regclass, 'lessons'::regclass, 'schedule_changes'::regclass)
+                  AND c.relname ~ '_p\\d{4}_\\d{2}$'
+                GROUP BY 1
+                ORDER BY 1
+                """, LocalDate.class)) {
+            if (!YearMonth.from(monthStart).isBefore(boundary)) {
+                break;
+            }
+            archiveMonth(monthStart);
+        }
+    }
+
+    /**
+     * Архивирует месяц одной функцией БД, то есть в одной транзакции.
+     */
+    public void archiveMonth(LocalDate monthStart) {
+        Integer archived = jdbcTemplate.queryForObject(
+                "SELECT archive_schedule_month(?)", Integer.class, monthStart);
+        log.info("Месяц {} перенесен в архив расписания, пар: {}", YearMonth.from(monthStart), archived);
+    }
+
+    private void ensurePartition(String table, String partitionKey, LocalDate monthStart) {
+        Boolean created = jdbcTemplate.queryForObject(
+                "SELECT ensure_month_partition(?, ?, ?)", Boolean.class, table, partitionKey, monthStart);
+        if (Boolean.TRUE.equals(created)) {
+            log.info("Создана партиция {} за {}", table, YearMonth.from(monthStart));
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package ru.semavin.telegrambot.services.schedules;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Политика адаптивного обновления расписания.
+ * <p>
+ * Для каждой группы хранится затухающий счетчик изменений: при каждом обновлении
+ * он умножается на exp(-прошедшее_время / память) и увеличивается на 1, если
+ * контрольные суммы пар изменились. Деление счетчика на "память" дает оценку
+ * числа изменений в день, из которой вычисляется интервал до следующего обновления.
+ */
+@Component
+public class ScheduleRefreshPolicy {
+
+    private static final double SECONDS_PER_DAY = Duration.ofDays(1).toSeconds();
+
+    private final Duration minInterval;
+    private final Duration maxInterval;
+    private final Duration changeMemory;
+    private final double refreshesPerChange;
+
+    public ScheduleRefreshPolicy(@Value("${schedule.refresh.min-interval}") Duration minInterval,
+                                 @Value("${schedule.refresh.max-interval}") Duration maxInterval,
+                                 @Value("${schedule.refresh.change-memory}") Duration changeMemory,
+                                 @Value("${schedule.refresh.refreshes-per-change}") double refreshesPerChange) {
+        if (minInterval.compareTo(maxInterval) > 0) {
+            throw new IllegalArgumentException("schedule.refresh.min-interval больше max-interval");
+        }
+        this.minInterval = minInterval;
+        this.maxInterval = maxInterval;
+        this.changeMemory = changeMemory;
+        this.refreshesPerChange = refreshesPerChange;
+    }
+
+    /**
+     * Пересчитывает счетчик изменений после очередного обновления.
+     *
+     * @param score   текущее значение счетчика
+     * @param elapsed время с предыдущего обновления
+     * @param changed изменилось ли расписание при этом обновлении
+     */
+    public double nextScore(double score, Duration elapsed, boolean changed) {
+        double decay = Math.exp(-(double) elapsed.toSeconds() / changeMemory.toSeconds());
+        return score * decay + (changed ? 1 : 0);
+    }
+
+    /**
+     * Оценка числа изменений расписания в день.
+     */
+    public double changesPerDay(double score) {
+        return score * SECONDS_PER_DAY / changeMemory.toSeconds();
+    }
+
+    /**
+     * Интервал до следующего обновления: изменчивые группы обновляются
+     * чаще (не чаще min-interval), стабильные - реже (не реже max-interval).
+     */
+    public Duration nextInterval(double score) {
+        double rate = changesPerDay(score);
+        if (rate <= 0) {
+            return maxInterval;
+        }
+        long seconds = (long) (SECONDS_PER_DAY / (rate * refreshesPerChange));
+        Duration interval = Duration.ofSeconds(seconds);
+        if (interval.compareTo(minInterval) < 0) {
+            return minInterval;
+        }
+        return interval.compareTo(maxInterval) > 0 ? maxInterval : interval;
+    }
+
+    public Duration getMinInterval() {
+        return minInterval;
+    }
+}
@@ -2,29 +2,30 @@ package ru.semavin.telegrambot.services.schedules;
 
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
-import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.semavin.telegrambot.config.executors.WorkloadExecutors;
 import ru.semavin.telegrambot.dto.ScheduleDTO;
-import ru.semavin.telegrambot.mapper.ScheduleMapper;
 import ru.semavin.telegrambot.models.GroupEntity;
 import ru.semavin.telegrambot.models.ScheduleChangeEntity;
-import ru.semavin.telegrambot.models.ScheduleEntity;
 import ru.semavin.telegrambot.repositories.ScheduleRepository;
 import ru.semavin.telegrambot.services.ScheduleChangeService;
 import ru.semavin.telegrambot.services.groups.GroupService;
+import ru.semavin.telegrambot.services.metrics.ScheduleMetrics;
+import ru.semavin.telegrambot.utils.StructuredFanOut;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Semaphore;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.TreeSet;
 
 /**
  * Сервис для работы с расписанием.
@@ -36,88 +37,102 @@ public class ScheduleService {
     private final ScheduleRepository scheduleRepository;
     private final ScheduleActualizationService scheduleActualizationService;
     private final ScheduleParserService scheduleParserService;
-    private final ScheduleMapper scheduleMapper;
     private final SemesterService semesterService;
     private final GroupService groupService;
     private final ScheduleChangeService scheduleChangeService;
     private final ScheduleMergingService scheduleMergingService;
-    private final Semaphore semaphore;
-    private final ExecutorService executor;
+    private final WorkloadExecutors executors;
+    private final Duration teacherScheduleDeadline;
+    private final ScheduleMetrics metrics;
 
     public ScheduleService(ScheduleRepository scheduleRepository, ScheduleActualizationService
                                    scheduleActualizationService,
-                           ScheduleParserService scheduleParserService, ScheduleMapper scheduleMapper,
+                           ScheduleParserService scheduleParserService,
                            SemesterService semesterService, GroupService groupService,
                            ScheduleChangeService scheduleChangeService, ScheduleMergingService scheduleMergingService,
-                           @Qualifier("groupSemaphore")
-                           Semaphore semaphore, ExecutorService executor) {
+                           WorkloadExecutors executors,
+                           @Value("${fan-out.teacher-schedule.deadline}") Duration teacherScheduleDeadline,
+                           ScheduleMetrics metrics) {
         this.scheduleRepository = scheduleRepository;
         this.scheduleActualizationService = scheduleActualizationService;
         this.scheduleParserService = scheduleParserService;
-        this.scheduleMapper = scheduleMapper;
         this.semesterService = semesterService;
         this.groupService = groupService;
         this.scheduleChangeService = scheduleChangeService;
         this.scheduleMergingService = scheduleMergingService;
-        this.semaphore = semaphore;
-        this.executor = executor;
+        this.executors = executors;
+        this.teacherScheduleDeadline = teacherScheduleDeadline;
+        this.metrics = metrics;
     }
 
-    @Transactional
-    @Cacheable(value = "scheduleDay", key = "#groupName + '-' + #date", unless = "#result == null")
+    /**
+     * Читается с реплики; результат с отстающей реплики не кэшируется.
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(value = "scheduleDay", key = "#groupName + '-' + #date",
+            unless = "#result == null || T(ru.semavin.telegrambot.config.datasource.WorkloadRoutingDataSource).staleRead()")
     public List<ScheduleDTO> getScheduleForDay(String groupName, String date) {
         LocalDate parsingDate = semesterService.getFormatterDate(date);
 
         GroupEntity group = groupService.findEntityByName(groupName);
 
-        List<ScheduleEntity> updatedSchedule = scheduleRepository.findAllByLessonDateAndGroup(parsingDate, group);
-        List<ScheduleDTO> original = scheduleMapper.toScheduleDTOList(updatedSchedule);
+        List<ScheduleDTO> original = new ArrayList<>(
+                scheduleRepository.findDtosByGroupAndLessonDate(group, parsingDate));
         List<ScheduleChangeEntity> changes = scheduleChangeService.getChangesDtoAnyDay(groupName, parsingDate);
 
-        return scheduleMergingService.mergeChanges(original, changes, parsingDate);
+        return metrics.timeMerge("day", () -> scheduleMergingService.mergeChanges(original, changes, parsingDate));
     }
 
-    @Transactional
+    /**
+     * Собирает расписание преподавателя: пары сохраненных групп читаются из БД одним запросом,
+     * с MAI параллельно загружаются только группы, по которым у преподавателя нет сохраненных пар.
+     * Ошибка по любой загружаемой группе или истечение дедлайна отменяет запросы по остальным группам.
+     */
     public List<ScheduleDTO> getTeacherSchedule(String teacherUUID) {
         val scheduleGroups = scheduleParserService.findTeacherGroups(teacherUUID);
-        Map<String, CompletableFuture<List<ScheduleDTO>>> scheduleGroupChunks =
-                scheduleGroups.stream().collect(
-                        Collectors.toMap(
-                                group -> group,
-                                group -> CompletableFuture.supplyAsync(() -> {
-                                    semaphore.acquireUninterruptibly();
-                                    try {
-                                        return scheduleActualizationService
-                                                .getActualSchedule(group, teacherUUID);
-                                    } catch (Exception e) {
-                                        log.error(e.getMessage(), e);
-                                        throw new RuntimeException(e);
-                                    } finally {
-                                        semaphore.release();
-                                    }
-                                }, executor)
-                        )
-                );
-        Map<String, List<ScheduleDTO>> res = new HashMap<>(scheduleGroupChunks.size());
 
-        CompletableFuture.allOf(scheduleGroupChunks.values().toArray(new CompletableFuture[0])).join();
+        Map<String, List<ScheduleDTO>> res = new LinkedHashMap<>(scheduleGroups.size());
+        for (ScheduleDTO dto : scheduleRepository.findTeacherLessons(teacherUUID,
+                semesterService.getStartSemester(), semesterService.getEndSemester())) {
+            res.computeIfAbsent(dto.getGroupName(), group -> new ArrayList<>()).add(dto);
+        }
+        Set<String> stored = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        stored.addAll(res.keySet());
+        List<String> missingGroups = scheduleGroups.stream()
+                .filter(group -> !stored.contains(group))
+                .toList();
 
-        scheduleGroupChunks.forEach((groupName, schedules) ->
-                res.put(groupName, schedules.join()));
-        return scheduleMergingService.mergeMultiGroups(
+        if (!missingGroups.isEmpty()) {
+            log.debug("Расписание преподавателя {}: групп из БД {}, с MAI {}",
+                    teacherUUID, res.size(), missingGroups.size());
+            List<List<ScheduleDTO>> schedules = StructuredFanOut.forkAll(missingGroups, group -> {
+                try {
+                    return scheduleActualizationService.getActualSchedule(group, teacherUUID);
+                } catch (RuntimeException e) {
+                    log.error("Ошибка получения расписания группы {} для преподавателя {}: {}",
+                            group, teacherUUID, e.getMessage(), e);
+                    throw e;
+                }
+            }, executors.upstream(), teacherScheduleDeadline);
+            for (int i = 0; i < missingGroups.size(); i++) {
+                res.put(missingGroups.get(i), schedules.get(i));
+            }
+        }
+        return metrics.timeMerge("teacher", () -> scheduleMergingService.mergeMultiGroups(
                 res
-        );
+        ));
     }
 
     public List<ScheduleDTO> getScheduleForISC(String groupName) {
         return scheduleMergingService.getScheduleAfterMerge(groupName);
     }
 
+    @Transactional(readOnly = true)
     public ScheduleDTO findLesson(String groupName, String date, String startTime) {
         GroupEntity group = groupService.findEntityByName(groupName);
         LocalDate lessonDate = semesterService.getFormatterDate(date);
         LocalTime time = LocalTime.parse(startTime, DateTimeFormatter.ofPattern("HH:mm"));
-        return scheduleMapper.toScheduleDTO(scheduleRepository.findByGroupAndLessonDateAndStartTime(group, lessonDate, time));
+        return scheduleRepository.findDtoByGroupAndLessonDateAndStartTime(group, lessonDate, time);
     }
 
 }
@@ -0,0 +1,74 @@
+package ru.semavin.telegrambot.services.schedules;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.semavin.telegrambot.config.datasource.Workload;
+import ru.semavin.telegrambot.config.datasource.WorkloadContext;
+import ru.semavin.telegrambot.models.GroupEntity;
+import ru.semavin.telegrambot.models.GroupScheduleVersionEntity;
+import ru.semavin.telegrambot.repositories.GroupScheduleVersionRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Версионирование снимков расписания групп.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ScheduleSnapshotService {
+
+    private final GroupScheduleVersionRepository versionRepository;
+
+    @Value("${schedule.snapshot.gc-grace}")
+    private Duration gcGrace;
+
+    /**
+     * Возвращает указатель версии группы, заблокированный до конца текущей транзакции.
+     *
+     * @param group группа
+     * @return указатель на текущую версию
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public GroupScheduleVersionEntity lockCurrentVersion(GroupEntity group) {
+        versionRepository.insertIfAbsent(group.getId());
+        return versionRepository.findForUpdate(group.getId())
+                .orElseThrow(() -> new IllegalStateException(
+                        "Указатель версии расписания не найден для группы " + group.getGroupName()));
+    }
+
+    /**
+     * Переключает группу на новую версию. Изменение станет видно читателям при коммите транзакции.
+     *
+     * @param pointer    заблокированный указатель версии
+     * @param newVersion версия, под которой записано новое расписание
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(GroupScheduleVersionEntity pointer, long newVersion) {
+        pointer.setCurrentVersion(newVersion);
+        pointer.setSwitchedAt(LocalDateTime.now());
+        versionRepository.save(pointer);
+    }
+
+    /**
+     * Фоновое удаление устаревших снимков расписания.
+     */
+    @Scheduled(fixedDelayString = "${schedule.snapshot.gc-interval}",
+            initialDelayString = "${schedule.snapshot.gc-interval}")
+    @Transactional
+    public void collectStaleSnapshots() {
+        // соединение берется при первом запросе, поэтому пул выбирается уже с нагрузкой INGEST
+        WorkloadContext.runAs(Workload.INGEST, () -> {
+            int deleted = versionRepository.deleteStaleSnapshots(LocalDateTime.now().minus(gcGrace));
+            if (deleted > 0) {
+                log.info("Удалено пар устаревших версий расписания: {}", deleted);
+            }
+        });
+    }
+}
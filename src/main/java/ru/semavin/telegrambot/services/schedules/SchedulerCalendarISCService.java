@@ -1,11 +1,15 @@
 package ru.semavin.telegrambot.services.schedules;
 
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import org.springframework.stereotype.Service;
+import ru.semavin.telegrambot.config.executors.WorkloadExecutors;
 import ru.semavin.telegrambot.dto.ScheduleDTO;
 import ru.semavin.telegrambot.services.UserService;
+import ru.semavin.telegrambot.services.metrics.ScheduleMetrics;
+import ru.semavin.telegrambot.services.profiling.ScheduleEvents;
 
 import java.time.LocalDateTime;
 import java.time.ZoneId;
@@ -34,27 +38,27 @@ public class SchedulerCalendarISCService {
 
     private final ScheduleService scheduleService;
     private final UserService userService;
+    private final WorkloadExecutors executors;
+    private final ScheduleMetrics metrics;
 
 
     private static final DateTimeFormatter ICS_DATE_TIME_FORMATTER =
             DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
 
     public String getIscCalendarByGroupName(String groupName) {
-        val timeStart = System.currentTimeMillis();
-        val ics = buildCalendarISC(groupName);
+        Timer.Sample sample = metrics.start();
+        val ics = executors.ics().callAndWait(() -> buildCalendarISC(groupName));
+        metrics.icsRendered(sample, "group", ics);
         log.debug("Сформирован .ics за семестр для группы {}. Длина файла: {} символов",
                 groupName, ics.length());
-        val timeEnd = System.currentTimeMillis();
-        log.info("Создание календаря заняло [{}]ms", timeEnd - timeStart);
         return ics;
     }
     public String getIscCalendarByTeacher(String teacherUUID) {
-        val timeStart = System.currentTimeMillis();
-        val ics = buildTeacherCalendarISC(teacherUUID);
-        log.debug("Сформирован .ics за семестр для группы {}. Длина файла: {} символов",
+        Timer.Sample sample = metrics.start();
+        val ics = executors.ics().callAndWait(() -> buildTeacherCalendarISC(teacherUUID));
+        metrics.icsRendered(sample, "teacher", ics);
+        log.debug("Сформирован .ics за семестр для преподавателя {}. Длина файла: {} символов",
                 teacherUUID, ics.length());
-        val timeEnd = System.currentTimeMillis();
-        log.info("Создание календаря заняло [{}]ms", timeEnd - timeStart);
         return ics;
     }
 
@@ -63,6 +67,7 @@ public class SchedulerCalendarISCService {
     ) {
         ZoneId zoneId = ZoneId.of("Europe/Moscow");
         val schDtosList = scheduleService.getScheduleForISC(groupName);
+        val renderEvent = ScheduleEvents.icsRender(null);
 
         StringBuilder sb = new StringBuilder();
 
@@ -77,6 +82,7 @@ public class SchedulerCalendarISCService {
         );
 
         sb.append(END_VCALENDAR).append(CRLF);
+        renderEvent.finish(groupName, schDtosList.size(), sb.length());
 
         return sb.toString();
     }
@@ -87,6 +93,7 @@ public class SchedulerCalendarISCService {
         ZoneId zoneId = ZoneId.of("Europe/Moscow");
         val schDtosList = scheduleService.getTeacherSchedule(uuid);
         val teacher = userService.findTeacher(uuid);
+        val renderEvent = ScheduleEvents.icsRender(uuid);
 
         StringBuilder sb = new StringBuilder();
 
@@ -94,8 +101,7 @@ public class SchedulerCalendarISCService {
         sb.append(VERSION).append(CRLF);
         sb.append(PRODID).append(CRLF);
         sb.append(CALSCALE).append(CRLF);
-        sb.append(CALNAME).append(escapeText("Расписание " + teacher.getFirstName() + " "
-                + teacher.getPatronymic() + " " + teacher.getLastName()))
+        sb.append(CALNAME).append(escapeText("Расписание " + teacher.getDisplayName()))
                 .append(CRLF);
 
         schDtosList.forEach(dto ->
@@ -103,6 +109,7 @@ public class SchedulerCalendarISCService {
         );
 
         sb.append(END_VCALENDAR).append(CRLF);
+        renderEvent.finish(null, schDtosList.size(), sb.length());
 
         return sb.toString();
     }
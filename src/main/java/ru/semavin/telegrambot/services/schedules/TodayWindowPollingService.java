@@ -0,0 +1,99 @@
+package ru.semavin.telegrambot.services.schedules;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.semavin.telegrambot.config.datasource.Workload;
+import ru.semavin.telegrambot.config.datasource.WorkloadContext;
+import ru.semavin.telegrambot.config.executors.WorkloadExecutors;
+import ru.semavin.telegrambot.models.GroupEntity;
+import ru.semavin.telegrambot.repositories.GroupRepository;
+import ru.semavin.telegrambot.services.upstream.MaiScheduleClient;
+import ru.semavin.telegrambot.services.upstream.UpstreamRequestBudget;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Частый опрос MAI на сегодня и завтра для групп, в которых есть пользователи.
+ * Используются условные запросы, а при изменении json перезаписываются
+ * только пары и ключи кэша за эти два дня.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TodayWindowPollingService {
+
+    private static final ZoneId ZONE = ZoneId.of("Europe/Moscow");
+
+    private final GroupRepository groupRepository;
+    private final MaiScheduleClient maiScheduleClient;
+    private final ScheduleParserService scheduleParserService;
+    private final ScheduleActualizationService actualizationService;
+    private final UpstreamRequestBudget upstreamBudget;
+    private final WorkloadExecutors executors;
+    /**
+     * Сдвиг начала обхода, чтобы при нехватке бюджета не обделять одни и те же группы.
+     */
+    private final AtomicInteger offset = new AtomicInteger();
+
+    @Value("${schedule.today-poll.enabled}")
+    private boolean enabled;
+
+    @Scheduled(fixedDelayString = "${schedule.today-poll.interval}",
+            initialDelayString = "${schedule.today-poll.interval}")
+    public void pollTodayWindow() {
+        WorkloadContext.runAs(Workload.INGEST, this::pollWindow);
+    }
+
+    private void pollWindow() {
+        if (!enabled) {
+            return;
+        }
+        LocalDate today = LocalDate.now(ZONE);
+        Set<LocalDate> window = Set.of(today, today.plusDays(1));
+        List<GroupEntity> groups = groupRepository.findAllWithUsers();
+        if (groups.isEmpty()) {
+            return;
+        }
+
+        int start = Math.floorMod(offset.get(), groups.size());
+        AtomicInteger changed = new AtomicInteger();
+        List<Runnable> polls = new ArrayList<>(groups.size());
+        for (int i = 0; i < groups.size(); i++) {
+            if (!upstreamBudget.tryAcquire()) {
+                log.info("Бюджет запросов к MAI исчерпан, опрошено групп: {} из {}", polls.size(), groups.size());
+                break;
+            }
+            GroupEntity group = groups.get((start + i) % groups.size());
+            polls.add(() -> changed.addAndGet(pollGroup(group, window)));
+        }
+        executors.ingest().runAllAndWait(polls);
+        int polled = polls.size();
+        offset.set(start + polled);
+        log.info("Опрос расписания на сегодня и завтра завершен. Групп: {}, изменено пар: {}", polled, changed.get());
+    }
+
+    private int pollGroup(GroupEntity group, Set<LocalDate> window) {
+        try {
+            val response = maiScheduleClient.fetchGroupScheduleIfChanged(group.getGroupName());
+            if (!response.modified()) {
+                return 0;
+            }
+            val lessons = scheduleParserService.parseScheduleForDates(group, response.body(), window);
+            int diff = actualizationService.actualizationScheduleGroupDays(group, window, lessons);
+            maiScheduleClient.markProcessed(response);
+            return diff;
+        } catch (Exception e) {
+            log.error("Ошибка опроса расписания группы {}: {}", group.getGroupName(), e.getMessage(), e);
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package ru.semavin.telegrambot.services.upstream;
+
+/**
+ * Результат условного запроса к MAI.
+ *
+ * @param groupName  название группы
+ * @param url        адрес ресурса
+ * @param modified   изменился ли ресурс с прошлого подтвержденного запроса
+ * @param body       тело ответа (null, если ресурс не изменился)
+ * @param validators валидаторы ответа для следующего условного запроса
+ */
+public record ConditionalFetchResult(
+        String groupName,
+        String url,
+        boolean modified,
+        String body,
+        ResourceValidators validators
+) {
+    static ConditionalFetchResult notModified(String groupName, String url) {
+        return new ConditionalFetchResult(groupName, url, false, null, null);
+    }
+}
@@ -0,0 +1,42 @@
+package ru.semavin.telegrambot.services.upstream;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.semavin.telegrambot.repositories.GroupRefreshStateRepository;
+
+import java.util.Optional;
+
+/**
+ * Хранит валидаторы в group_refresh_state рядом с состоянием адаптивного обновления группы.
+ * Для групп без состояния валидаторы остаются только в памяти клиента.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class GroupRefreshValidatorStore implements ResourceValidatorStore {
+
+    private final GroupRefreshStateRepository stateRepository;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<ResourceValidators> load(String groupName) {
+        return stateRepository.findByGroupName(groupName)
+                .filter(state -> state.getBodyDigest() != null)
+                .map(state -> new ResourceValidators(
+                        state.getEtag(),
+                        state.getLastModified() == null ? -1 : state.getLastModified(),
+                        state.getBodyDigest()));
+    }
+
+    @Override
+    @Transactional
+    public void save(String groupName, ResourceValidators validators) {
+        int updated = stateRepository.updateValidators(groupName, validators.etag(),
+                validators.lastModified() > 0 ? validators.lastModified() : null, validators.digest());
+        if (updated == 0) {
+            log.debug("Группа {} не под адаптивным обновлением, валидаторы не сохранены", groupName);
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package ru.semavin.telegrambot.services.upstream;
+
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+import ru.semavin.telegrambot.models.enums.ExceptionMessages;
+import ru.semavin.telegrambot.services.metrics.ScheduleMetrics;
+import ru.semavin.telegrambot.services.upstream.UpstreamPayloadArchive.ArchivedPayload;
+import ru.semavin.telegrambot.utils.ExceptionFabric;
+import ru.semavin.telegrambot.utils.exceptions.UpstreamUnavailableException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Клиент публичного расписания MAI (public.mai.ru).
+ * Единая точка получения json групп, преподавателей и списка групп.
+ * Базовый адрес задается mai.schedule.base-url, для нагрузочных тестов его переключают на локальную заглушку.
+ * Все полученные ответы сохраняются в {@link UpstreamPayloadArchive}, в режиме воспроизведения
+ * ответы берутся из архива без обращения к сети.
+ * <p>
+ * Запросы идут через {@link UpstreamCircuitBreaker}. Если MAI недоступен (таймаут, 5xx) или выключатель
+ * разомкнут, вместо ошибки отдается последний сохраненный ответ, а запрос отмечается в {@link UpstreamStaleness}.
+ * Валидаторы условных запросов кэшируются в памяти и сохраняются в {@link ResourceValidatorStore},
+ * чтобы после перезапуска опрос не скачивал заново json всех групп.
+ */
+@Slf4j
+@Component
+public class MaiScheduleClient {
+
+    private final RestTemplate restTemplate;
+    private final ScheduleMetrics metrics;
+    private final UpstreamPayloadArchive archive;
+    private final UpstreamCircuitBreaker breaker;
+    private final ResourceValidatorStore validatorStore;
+    private final String scheduleUrl;
+    private final Map<String, ResourceValidators> validators = new ConcurrentHashMap<>();
+
+    public MaiScheduleClient(RestTemplate restTemplate,
+                             ScheduleMetrics metrics,
+                             UpstreamPayloadArchive archive,
+                             UpstreamCircuitBreaker breaker,
+                             ResourceValidatorStore validatorStore,
+                             @Value("${mai.schedule.base-url}") String scheduleUrl) {
+        this.restTemplate = restTemplate;
+        this.metrics = metrics;
+        this.archive = archive;
+        this.breaker = breaker;
+        this.validatorStore = validatorStore;
+        this.scheduleUrl = scheduleUrl.endsWith("/") ? scheduleUrl : scheduleUrl + "/";
+    }
+
+    public String fetchGroupSchedule(String groupName) {
+        log.info("Получение json для группы {}", groupName);
+        return fetch("group", groupScheduleUrl(groupName));
+    }
+
+    public String fetchTeacherSchedule(String teacherUuid) {
+        log.debug("Получение json для препода {}", teacherUuid);
+        return fetch("teacher", scheduleUrl + teacherUuid + ".json");
+    }
+
+    public String fetchGroups() {
+        log.info("Получение всех групп");
+        return fetch("groups", scheduleUrl + "groups.json");
+    }
+
+    /**
+     * Условный запрос json группы (If-None-Match / If-Modified-Since).
+     * Если сервер не поддерживает условные запросы, изменение определяется по MD5 тела.
+     * Валидаторы запоминаются только после {@link #markProcessed(ConditionalFetchResult)},
+     * чтобы неудачная обработка не скрыла изменение при следующем запросе.
+     * Сохраненный ответ здесь не подставляется: фоновое обновление по старым данным ничего не даст.
+     *
+     * @param groupName название группы
+     * @return результат запроса
+     * @throws UpstreamUnavailableException если выключатель разомкнут
+     */
+    public ConditionalFetchResult fetchGroupScheduleIfChanged(String groupName) {
+        String url = groupScheduleUrl(groupName);
+        ResourceValidators known = validators.get(url);
+        if (known == null) {
+            known = validatorStore.load(groupName).orElse(null);
+        }
+        if (archive.replaying()) {
+            return replayIfChanged(groupName, url, known);
+        }
+
+        if (!breaker.tryAcquire()) {
+            throw ExceptionFabric.create(UpstreamUnavailableException.class, ExceptionMessages.UPSTREAM_UNAVAILABLE);
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        if (known != null) {
+            if (known.etag() != null) {
+                headers.setIfNoneMatch(known.etag());
+            }
+            if (known.lastModified() > 0) {
+                headers.setIfModifiedSince(known.lastModified());
+            }
+        }
+        Timer.Sample sample = metrics.start();
+        ResponseEntity<String> response;
+        try {
+            response = restTemplate.exchange(url, HttpMethod.GET,
+                    new HttpEntity<>(headers), String.class);
+        } catch (RuntimeException e) {
+            metrics.upstreamFetched(sample, "group", "error", null);
+            recordFailure(e);
+            throw e;
+        }
+        breaker.onSuccess();
+        if (response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED) || response.getBody() == null) {
+            metrics.upstreamFetched(sample, "group", "not_modified", null);
+            log.debug("json группы {} не изменился (304)", groupName);
+            return ConditionalFetchResult.notModified(groupName, url);
+        }
+
+        String body = response.getBody();
+        metrics.upstreamFetched(sample, "group", "success", body);
+        archive.archive("group", url, body);
+        ResourceValidators received = new ResourceValidators(
+                response.getHeaders().getETag(),
+                response.getHeaders().getLastModified(),
+                md5(body));
+        if (known != null && known.digest().equals(received.digest())) {
+            remember(groupName, url, received);
+            log.debug("json группы {} не изменился (совпадает MD5)", groupName);
+            return ConditionalFetchResult.notModified(groupName, url);
+        }
+        return new ConditionalFetchResult(groupName, url, true, body, received);
+    }
+
+    /**
+     * Подтверждает, что результат условного запроса обработан.
+     */
+    public void markProcessed(ConditionalFetchResult result) {
+        if (result.modified()) {
+            remember(result.groupName(), result.url(), result.validators());
+        }
+    }
+
+    private void remember(String groupName, String url, ResourceValidators received) {
+        validators.put(url, received);
+        try {
+            validatorStore.save(groupName, received);
+        } catch (RuntimeException e) {
+            log.warn("Не удалось сохранить валидаторы группы {}: {}", groupName, e.getMessage());
+        }
+    }
+
+    /**
+     * В режиме воспроизведения изменение определяется только по MD5 тела из архива.
+     */
+    private ConditionalFetchResult replayIfChanged(String groupName, String url, ResourceValidators known) {
+        String body = replay("group", url);
+        ResourceValidators received = new ResourceValidators(null, -1, md5(body));
+        if (known != null && known.digest().equals(received.digest())) {
+            return ConditionalFetchResult.notModified(groupName, url);
+        }
+        return new ConditionalFetchResult(groupName, url, true, body, received);
+    }
+
+    private String fetch(String resource, String url) {
+        if (archive.replaying()) {
+            return replay(resource, url);
+        }
+        if (!breaker.tryAcquire()) {
+            return stale(resource, url, null);
+        }
+        Timer.Sample sample = metrics.start();
+        String body;
+        try {
+            body = restTemplate.getForObject(url, String.class);
+        } catch (RuntimeException e) {
+            metrics.upstreamFetched(sample, resource, "error", null);
+            if (!recordFailure(e)) {
+                throw e;
+            }
+            return stale(resource, url, e);
+        }
+        breaker.onSuccess();
+        metrics.upstreamFetched(sample, resource, "success", body);
+        archive.archive(resource, url, body);
+        return body;
+    }
+
+    /**
+     * Последний сохраненный ответ вместо недоступного MAI.
+     *
+     * @param cause ошибка запроса, пробрасывается, если сохраненного ответа нет;
+     *              null, если запрос не выполнялся из-за разомкнутого выключателя
+     */
+    private String stale(String resource, String url, RuntimeException cause) {
+        Timer.Sample sample = metrics.start();
+        Optional<ArchivedPayload> saved = archive.latest(url);
+        if (saved.isEmpty()) {
+            if (cause != null) {
+                throw cause;
+            }
+            throw ExceptionFabric.create(UpstreamUnavailableException.class, ExceptionMessages.UPSTREAM_UNAVAILABLE);
+        }
+        ArchivedPayload payload = saved.get();
+        metrics.upstreamFetched(sample, resource, "stale", payload.body());
+        metrics.staleServed(resource, Duration.between(payload.fetchedAt(), LocalDateTime.now()));
+        UpstreamStaleness.markStale(payload.fetchedAt());
+        log.warn("MAI недоступен, по {} отдан сохраненный ответ от {}", url, payload.fetchedAt());
+        return payload.body();
+    }
+
+    /**
+     * Сообщает выключателю результат неудачного запроса. Ошибки клиента (4xx) означают, что MAI отвечает.
+     *
+     * @return true, если MAI недоступен
+     */
+    private boolean recordFailure(RuntimeException e) {
+        if (e instanceof ResourceAccessException || e instanceof HttpServerErrorException) {
+            breaker.onFailure();
+            return true;
+        }
+        breaker.onSuccess();
+        return false;
+    }
+
+    private String replay(String resource, String url) {
+        Timer.Sample sample = metrics.start();
+        String body = archive.replay(url);
+        metrics.upstreamFetched(sample, resource, "replay", body);
+        return body;
+    }
+
+    private String groupScheduleUrl(String groupName) {
+        return scheduleUrl + md5(groupName) + ".json";
+    }
+
+    private static String md5(String input) {
+        return DigestUtils.md5DigestAsHex(input.getBytes(StandardCharsets.UTF_8));
+    }
+}
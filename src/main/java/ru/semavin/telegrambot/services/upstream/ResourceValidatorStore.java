@@ -0,0 +1,22 @@
+package ru.semavin.telegrambot.services.upstream;
+
+import java.util.Optional;
+
+/**
+ * Долговременное хранилище валидаторов условных запросов json групп.
+ * {@link MaiScheduleClient} держит валидаторы в памяти и обращается сюда при промахе и после обработки ответа.
+ */
+public interface ResourceValidatorStore {
+
+    /**
+     * @param groupName название группы
+     * @return последние сохраненные валидаторы группы
+     */
+    Optional<ResourceValidators> load(String groupName);
+
+    /**
+     * @param groupName  название группы
+     * @param validators валидаторы обработанного ответа
+     */
+    void save(String groupName, ResourceValidators validators);
+}
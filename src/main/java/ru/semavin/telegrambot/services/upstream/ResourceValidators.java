@@ -0,0 +1,15 @@
+package ru.semavin.telegrambot.services.upstream;
+
+/**
+ * Валидаторы ресурса MAI для условных запросов.
+ *
+ * @param etag         заголовок ETag (может отсутствовать)
+ * @param lastModified заголовок Last-Modified в миллисекундах (-1, если отсутствует)
+ * @param digest       MD5 тела ответа, на случай если сервер не поддерживает условные запросы
+ */
+public record ResourceValidators(
+        String etag,
+        long lastModified,
+        String digest
+) {
+}
@@ -0,0 +1,83 @@
+package ru.semavin.telegrambot.services.upstream;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Автоматический выключатель запросов к public.mai.ru.
+ * После upstream.breaker.failure-threshold ошибок подряд запросы не выполняются
+ * upstream.breaker.open-duration, затем пропускается один пробный запрос (HALF_OPEN):
+ * успех замыкает выключатель, ошибка снова размыкает.
+ * <p>
+ * Состояние публикуется метрикой upstream.breaker.state: 0 - CLOSED, 1 - OPEN, 2 - HALF_OPEN.
+ */
+@Slf4j
+@Component
+public class UpstreamCircuitBreaker {
+
+    public enum State {CLOSED, OPEN, HALF_OPEN}
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final LongSupplier nanoTime;
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger failures = new AtomicInteger();
+    private volatile long openedAt;
+
+    @Autowired
+    public UpstreamCircuitBreaker(MeterRegistry registry,
+                                  @Value("${upstream.breaker.failure-threshold}") int failureThreshold,
+                                  @Value("${upstream.breaker.open-duration}") Duration openDuration) {
+        this(registry, failureThreshold, openDuration, System::nanoTime);
+    }
+
+    UpstreamCircuitBreaker(MeterRegistry registry, int failureThreshold, Duration openDuration, LongSupplier nanoTime) {
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.nanoTime = nanoTime;
+        Gauge.builder("upstream.breaker.state", state, s -> s.get().ordinal()).register(registry);
+    }
+
+    /**
+     * Можно ли выполнить запрос к MAI. Из OPEN по истечении open-duration пропускает ровно один
+     * пробный запрос, результат которого нужно сообщить через {@link #onSuccess()} или {@link #onFailure()}.
+     */
+    public boolean tryAcquire() {
+        return switch (state.get()) {
+            case CLOSED -> true;
+            case HALF_OPEN -> false;
+            case OPEN -> nanoTime.getAsLong() - openedAt >= openNanos
+                    && state.compareAndSet(State.OPEN, State.HALF_OPEN);
+        };
+    }
+
+    public void onSuccess() {
+        failures.set(0);
+        if (state.getAndSet(State.CLOSED) != State.CLOSED) {
+            log.info("MAI снова отвечает, выключатель замкнут");
+        }
+    }
+
+    public void onFailure() {
+        if (state.get() == State.HALF_OPEN || failures.incrementAndGet() >= failureThreshold) {
+            openedAt = nanoTime.getAsLong();
+            failures.set(0);
+            if (state.getAndSet(State.OPEN) != State.OPEN) {
+                log.warn("MAI не отвечает, запросы приостановлены на {} с", Duration.ofNanos(openNanos).toSeconds());
+            }
+        }
+    }
+
+    public State state() {
+        return state.get();
+    }
+}
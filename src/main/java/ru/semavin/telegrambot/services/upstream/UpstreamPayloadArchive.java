@@ -0,0 +1,224 @@
+package ru.semavin.telegrambot.services.upstream;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import ru.semavin.telegrambot.config.datasource.Workload;
+import ru.semavin.telegrambot.config.datasource.WorkloadContext;
+import ru.semavin.telegrambot.config.executors.WorkloadExecutors;
+import ru.semavin.telegrambot.models.enums.ExceptionMessages;
+import ru.semavin.telegrambot.utils.ExceptionFabric;
+import ru.semavin.telegrambot.utils.exceptions.UpstreamPayloadNotArchivedException;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Архив сырых ответов public.mai.ru в таблице upstream_payloads: тело сжимается Deflater,
+ * подряд идущие одинаковые ответы по одному url не записываются повторно.
+ * Сжатие и запись выполняются на исполнителе ingest, чтобы архив не добавлял задержку к запросам пользователей.
+ * Ответы старше upstream.archive.retention удаляются, последний ответ по каждому url хранится всегда.
+ * <p>
+ * В режиме воспроизведения (upstream.replay.enabled) {@link MaiScheduleClient} не ходит в сеть,
+ * а отдает ответы из архива на момент upstream.replay.at (по умолчанию самые свежие),
+ * так что парсеры групп и расписаний можно перезапустить на сохраненных данных.
+ */
+@Slf4j
+@Component
+public class UpstreamPayloadArchive {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final WorkloadExecutors executors;
+    private final boolean enabled;
+    private final Duration retention;
+    private final boolean replaying;
+    private final LocalDateTime replayAt;
+    private final Map<String, String> lastDigests = new ConcurrentHashMap<>();
+
+    public UpstreamPayloadArchive(JdbcTemplate jdbcTemplate,
+                                  WorkloadExecutors executors,
+                                  @Value("${upstream.archive.enabled}") boolean enabled,
+                                  @Value("${upstream.archive.retention}") Duration retention,
+                                  @Value("${upstream.replay.enabled}") boolean replaying,
+                                  @Value("${upstream.replay.at}") String replayAt) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.executors = executors;
+        this.enabled = enabled;
+        this.retention = retention;
+        this.replaying = replaying;
+        this.replayAt = replayAt.isBlank() ? null : LocalDateTime.parse(replayAt);
+        if (replaying) {
+            log.warn("Включен режим воспроизведения: ответы MAI берутся из архива на момент {}",
+                    this.replayAt == null ? "последнего запроса" : this.replayAt);
+        }
+    }
+
+    public boolean replaying() {
+        return replaying;
+    }
+
+    /**
+     * Сохраняет ответ MAI в фоне. Ошибка записи не мешает обработке ответа и только логируется.
+     * Повтор проверяется сразу, в порядке получения ответов, а время получения фиксируется до отправки
+     * в фон, поэтому порядок выполнения фоновых записей на последний ответ по url не влияет.
+     *
+     * @param resource тип ресурса: group, teacher или groups
+     * @param url      адрес запроса
+     * @param body     тело ответа
+     */
+    public void archive(String resource, String url, String body) {
+        if (!enabled || replaying || body == null) {
+            return;
+        }
+        byte[] raw = body.getBytes(StandardCharsets.UTF_8);
+        String digest = DigestUtils.md5DigestAsHex(raw);
+        if (digest.equals(lastDigests.put(url, digest))) {
+            return;
+        }
+        LocalDateTime fetchedAt = LocalDateTime.now();
+        try {
+            executors.ingest().execute(() -> store(resource, url, fetchedAt, digest, raw));
+        } catch (RejectedExecutionException e) {
+            lastDigests.remove(url, digest);
+            log.warn("Ответ MAI {} не сохранен в архив: {}", url, e.getMessage());
+        }
+    }
+
+    private void store(String resource, String url, LocalDateTime fetchedAt, String digest, byte[] raw) {
+        try {
+            jdbcTemplate.update("""
+                            INSERT INTO upstream_payloads (url, resource, fetched_at, digest, raw_size, body)
+                            VALUES (?, ?, ?, ?, ?, ?)
+                            """,
+                    url, resource, fetchedAt, digest, raw.length, compress(raw));
+        } catch (DataAccessException e) {
+            lastDigests.remove(url, digest);
+            log.warn("Не удалось сохранить ответ MAI {} в архив: {}", url, e.getMessage());
+        }
+    }
+
+    /**
+     * Ответ MAI из архива для режима воспроизведения.
+     *
+     * @param url адрес запроса
+     * @return тело последнего ответа по url не позже upstream.replay.at
+     * @throws UpstreamPayloadNotArchivedException если ответа в архиве нет
+     */
+    public String replay(String url) {
+        LocalDateTime at = replayAt == null ? LocalDateTime.now() : replayAt;
+        return find(url, at)
+                .map(ArchivedPayload::body)
+                .orElseThrow(() -> {
+                    log.warn("В архиве нет ответа MAI {} на момент {}", url, at);
+                    return ExceptionFabric.create(UpstreamPayloadNotArchivedException.class,
+                            ExceptionMessages.UPSTREAM_PAYLOAD_NOT_ARCHIVED);
+                });
+    }
+
+    /**
+     * Последний сохраненный ответ MAI по url, если MAI недоступен.
+     * Ошибка чтения из БД не пробрасывается: без сохраненного ответа вызывающий код вернет свою ошибку.
+     *
+     * @param url адрес запроса
+     * @return последний ответ и время его получения
+     */
+    public Optional<ArchivedPayload> latest(String url) {
+        try {
+            return find(url, LocalDateTime.now());
+        } catch (DataAccessException e) {
+            log.warn("Не удалось прочитать сохраненный ответ MAI {}: {}", url, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private Optional<ArchivedPayload> find(String url, LocalDateTime at) {
+        return jdbcTemplate.query("""
+                                SELECT fetched_at, raw_size, body FROM upstream_payloads
+                                WHERE url = ? AND fetched_at <= ?
+                                ORDER BY fetched_at DESC
+                                LIMIT 1
+                                """,
+                        (rs, rowNum) -> new ArchivedPayload(
+                                decompress(rs.getBytes("body"), rs.getInt("raw_size")),
+                                rs.getTimestamp("fetched_at").toLocalDateTime()),
+                        url, at)
+                .stream()
+                .findFirst();
+    }
+
+    @Scheduled(cron = "${upstream.archive.purge-cron}", zone = "Europe/Moscow")
+    public void purgeExpired() {
+        WorkloadContext.runAs(Workload.INGEST, this::purge);
+    }
+
+    private void purge() {
+        if (replaying) {
+            return;
+        }
+        int deleted = jdbcTemplate.update("""
+                DELETE FROM upstream_payloads p
+                WHERE p.fetched_at < ?
+                  AND EXISTS (SELECT 1 FROM upstream_payloads n WHERE n.url = p.url AND n.fetched_at > p.fetched_at)
+                """, LocalDateTime.now().minus(retention));
+        if (deleted > 0) {
+            log.info("Удалено устаревших ответов MAI из архива: {}", deleted);
+        }
+    }
+
+    static byte[] compress(byte[] raw) {
+        Deflater deflater = new Deflater();
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 8));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    static String decompress(byte[] compressed, int rawSize) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            byte[] raw = new byte[rawSize];
+            int read = 0;
+            while (read < rawSize && !inflater.finished()) {
+                int n = inflater.inflate(raw, read, rawSize - read);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                read += n;
+            }
+            if (read != rawSize) {
+                throw new IllegalStateException("Архивный ответ MAI поврежден: распаковано " + read
+                        + " байт из " + rawSize);
+            }
+            return new String(raw, StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Архивный ответ MAI поврежден", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    public record ArchivedPayload(String body, LocalDateTime fetchedAt) {
+    }
+}
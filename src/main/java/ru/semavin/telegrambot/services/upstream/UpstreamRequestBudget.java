@@ -0,0 +1,70 @@
+package ru.semavin.telegrambot.services.upstream;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Глобальный бюджет фоновых запросов к public.mai.ru (token bucket).
+ * Бюджет равномерно пополняется в течение часа, поэтому фоновые обновления
+ * не создают всплесков нагрузки на MAI.
+ */
+@Slf4j
+@Component
+public class UpstreamRequestBudget {
+
+    private static final double NANOS_PER_HOUR = TimeUnit.HOURS.toNanos(1);
+
+    private final int requestsPerHour;
+    private final ReentrantLock lock = new ReentrantLock();
+    private double tokens;
+    private long lastRefillNanos;
+
+    public UpstreamRequestBudget(@Value("${upstream.budget.requests-per-hour}") int requestsPerHour) {
+        this.requestsPerHour = requestsPerHour;
+        this.tokens = requestsPerHour;
+        this.lastRefillNanos = System.nanoTime();
+        log.info("Бюджет фоновых запросов к MAI: {} в час", requestsPerHour);
+    }
+
+    /**
+     * Пытается списать один запрос из бюджета.
+     *
+     * @return true, если запрос разрешен
+     */
+    public boolean tryAcquire() {
+        lock.lock();
+        try {
+            refill();
+            if (tokens < 1) {
+                return false;
+            }
+            tokens -= 1;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Количество запросов, доступных прямо сейчас.
+     */
+    public int available() {
+        lock.lock();
+        try {
+            refill();
+            return (int) tokens;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(requestsPerHour, tokens + (now - lastRefillNanos) * requestsPerHour / NANOS_PER_HOUR);
+        lastRefillNanos = now;
+    }
+}
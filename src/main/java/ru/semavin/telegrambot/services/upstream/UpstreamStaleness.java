@@ -0,0 +1,41 @@
+package ru.semavin.telegrambot.services.upstream;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Отметка о том, что при обработке текущего запроса вместо ответа MAI использован сохраненный.
+ * Наследуется потоками исполнителей, созданными из потока запроса, как
+ * {@link ru.semavin.telegrambot.config.datasource.WorkloadContext}.
+ * Хранит время получения самого старого из использованных ответов.
+ */
+public final class UpstreamStaleness {
+
+    private static final InheritableThreadLocal<AtomicReference<LocalDateTime>> CURRENT =
+            new InheritableThreadLocal<>();
+
+    private UpstreamStaleness() {
+    }
+
+    public static void begin() {
+        CURRENT.set(new AtomicReference<>());
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    public static Optional<LocalDateTime> staleSince() {
+        AtomicReference<LocalDateTime> holder = CURRENT.get();
+        return holder == null ? Optional.empty() : Optional.ofNullable(holder.get());
+    }
+
+    static void markStale(LocalDateTime fetchedAt) {
+        AtomicReference<LocalDateTime> holder = CURRENT.get();
+        if (holder != null) {
+            holder.accumulateAndGet(fetchedAt, (current, next) ->
+                    current == null || next.isBefore(current) ? next : current);
+        }
+    }
+}
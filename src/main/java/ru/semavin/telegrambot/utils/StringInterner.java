@@ -0,0 +1,34 @@
+package ru.semavin.telegrambot.utils;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Пул повторяющихся строк расписания: названия предметов, аудитории, имена преподавателей и групп.
+ * Одни и те же несколько сотен значений встречаются в сотнях тысяч пар, поэтому пары из парсера
+ * и проекций БД ссылаются на общий экземпляр строки, а не держат в кэшах собственные копии.
+ * Размер пула ограничен: после заполнения новые строки возвращаются как есть.
+ */
+public final class StringInterner {
+
+    static final int MAX_SIZE = 20_000;
+
+    private static final ConcurrentHashMap<String, String> POOL = new ConcurrentHashMap<>();
+
+    private StringInterner() {
+    }
+
+    public static String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        String pooled = POOL.get(value);
+        if (pooled != null) {
+            return pooled;
+        }
+        if (POOL.size() >= MAX_SIZE) {
+            return value;
+        }
+        pooled = POOL.putIfAbsent(value, value);
+        return pooled == null ? value : pooled;
+    }
+}
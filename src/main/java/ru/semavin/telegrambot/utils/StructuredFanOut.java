@@ -0,0 +1,94 @@
+package ru.semavin.telegrambot.utils;
+
+import org.slf4j.MDC;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import ru.semavin.telegrambot.config.datasource.Workload;
+import ru.semavin.telegrambot.config.datasource.WorkloadContext;
+import ru.semavin.telegrambot.models.enums.ExceptionMessages;
+import ru.semavin.telegrambot.utils.exceptions.FanOutTimeoutException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Параллельное выполнение подзадач в духе structured concurrency: общий дедлайн,
+ * при первой ошибке или истечении дедлайна остальные подзадачи отменяются и прерываются.
+ * Подзадачи получают MDC, атрибуты запроса и тип нагрузки вызывающего потока.
+ */
+public final class StructuredFanOut {
+
+    private StructuredFanOut() {
+    }
+
+    /**
+     * Применяет task к каждому элементу параллельно.
+     *
+     * @param items    элементы
+     * @param task     подзадача
+     * @param executor исполнитель подзадач, ограничивает их параллелизм
+     * @param deadline время на выполнение всех подзадач
+     * @return результаты в порядке элементов
+     * @throws FanOutTimeoutException если подзадачи не уложились в дедлайн
+     */
+    public static <T, R> List<R> forkAll(List<T> items, Function<? super T, ? extends R> task,
+                                         ExecutorService executor, Duration deadline) {
+        if (items.isEmpty()) {
+            return List.of();
+        }
+        long deadlineNanos = System.nanoTime() + deadline.toNanos();
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        Workload workload = WorkloadContext.current();
+
+        ExecutorCompletionService<R> completion = new ExecutorCompletionService<>(executor);
+        List<Future<R>> futures = new ArrayList<>(items.size());
+        try {
+            for (T item : items) {
+                futures.add(completion.submit(() ->
+                        runInContext(mdc, requestAttributes, workload, () -> task.apply(item))));
+            }
+            for (int done = 0; done < futures.size(); done++) {
+                Future<R> finished = completion.poll(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (finished == null) {
+                    throw ExceptionFabric.create(FanOutTimeoutException.class, ExceptionMessages.FAN_OUT_TIMEOUT);
+                }
+                finished.get();
+            }
+            return futures.stream().map(Future::resultNow).toList();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Ожидание подзадач прервано", e);
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private static <R> R runInContext(Map<String, String> mdc, RequestAttributes requestAttributes,
+                                      Workload workload, Supplier<R> task) {
+        if (mdc != null) {
+            MDC.setContextMap(mdc);
+        }
+        RequestContextHolder.setRequestAttributes(requestAttributes);
+        try {
+            return WorkloadContext.callAs(workload, task);
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+            MDC.clear();
+        }
+    }
+}
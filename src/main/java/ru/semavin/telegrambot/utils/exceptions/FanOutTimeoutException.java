@@ -0,0 +1,7 @@
+package ru.semavin.telegrambot.utils.exceptions;
+
+public class FanOutTimeoutException extends RuntimeException {
+    public FanOutTimeoutException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package ru.semavin.telegrambot.utils.exceptions;
+
+public class InvalidRecordingSettingsException extends RuntimeException {
+    public InvalidRecordingSettingsException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package ru.semavin.telegrambot.utils.exceptions;
+
+public class LessonMoveTooFarException extends RuntimeException {
+    public LessonMoveTooFarException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package ru.semavin.telegrambot.utils.exceptions;
+
+public class RecordingNotFoundException extends RuntimeException {
+    public RecordingNotFoundException(String message) {
+        super(message);
+    }
+}
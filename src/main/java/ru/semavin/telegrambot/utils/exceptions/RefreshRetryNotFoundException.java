@@ -0,0 +1,7 @@
+package ru.semavin.telegrambot.utils.exceptions;
+
+public class RefreshRetryNotFoundException extends RuntimeException {
+    public RefreshRetryNotFoundException(String message) {
+        super(message);
+    }
+}
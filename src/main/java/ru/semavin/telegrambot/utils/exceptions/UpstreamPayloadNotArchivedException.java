@@ -0,0 +1,7 @@
+package ru.semavin.telegrambot.utils.exceptions;
+
+public class UpstreamPayloadNotArchivedException extends RuntimeException {
+    public UpstreamPayloadNotArchivedException(String message) {
+        super(message);
+    }
+}
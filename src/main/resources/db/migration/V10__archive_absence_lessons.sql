@@ -0,0 +1,76 @@
+-- Внешнего ключа absences -> schedule нет (V4), поэтому архивирование месяца само переводит
+-- пропуски с удаляемых пар на архивные: schedule_id обнуляется, id пары сохраняется
+-- в archived_schedule_id и находится в schedule_archive.lessons за месяц пропуска.
+
+ALTER TABLE absences
+    ALTER COLUMN schedule_id DROP NOT NULL,
+    ADD COLUMN archived_schedule_id bigint,
+    ADD CONSTRAINT absences_schedule_or_archived
+        CHECK (schedule_id IS NOT NULL OR archived_schedule_id IS NOT NULL);
+
+-- Пропуски, чьи пары уже удалены прежним архивированием, переводятся так же
+DO
+$$
+    DECLARE
+        dangling integer;
+    BEGIN
+        UPDATE absences a
+        SET archived_schedule_id = a.schedule_id,
+            schedule_id          = NULL
+        WHERE a.schedule_id IS NOT NULL
+          AND NOT EXISTS (SELECT 1 FROM schedule s WHERE s.id = a.schedule_id);
+        GET DIAGNOSTICS dangling = ROW_COUNT;
+        IF dangling > 0 THEN
+            RAISE NOTICE 'Пропусков с удаленными парами переведено в архив: %', dangling;
+        END IF;
+    END
+$$;
+
+CREATE OR REPLACE FUNCTION archive_schedule_month(month_start date)
+    RETURNS integer AS
+$$
+DECLARE
+    lessons_part text := format('schedule_p%s', to_char(month_start, 'YYYY_MM'));
+    shared_part  text := format('lessons_p%s', to_char(month_start, 'YYYY_MM'));
+    changes_part text := format('schedule_changes_p%s', to_char(month_start, 'YYYY_MM'));
+    archived     integer := 0;
+BEGIN
+    IF to_regclass(lessons_part) IS NOT NULL THEN
+        EXECUTE format('ALTER TABLE schedule DETACH PARTITION %I', lessons_part);
+        EXECUTE format('INSERT INTO schedule_archive (group_id, month, lesson_count, lessons) '
+                           || 'SELECT s.group_id, %L, count(*), '
+                           || 'jsonb_agg((to_jsonb(s) - ''group_id'' - ''lesson_id'') '
+                           || '|| (to_jsonb(l) - ''id'' - ''lesson_key'' - ''lesson_date'' - ''subject_id'' - ''room_id'') '
+                           || '|| jsonb_build_object(''subject_name'', sj.name, ''classroom'', r.name) '
+                           || 'ORDER BY s.lesson_date, l.start_time) '
+                           || 'FROM %I s JOIN lessons l ON l.id = s.lesson_id AND l.lesson_date = s.lesson_date '
+                           || 'LEFT JOIN subjects sj ON sj.id = l.subject_id '
+                           || 'LEFT JOIN rooms r ON r.id = l.room_id '
+                           || 'WHERE s.group_id IS NOT NULL GROUP BY s.group_id '
+                           || 'ON CONFLICT (group_id, month) DO UPDATE '
+                           || 'SET lesson_count = excluded.lesson_count, lessons = excluded.lessons, '
+                           || 'archived_at = now()',
+                       month_start, lessons_part);
+        EXECUTE format('UPDATE absences a SET archived_schedule_id = a.schedule_id, schedule_id = NULL '
+                           || 'FROM %I s WHERE a.schedule_id = s.id',
+                       lessons_part);
+        EXECUTE format('SELECT count(*) FROM %I', lessons_part) INTO archived;
+        EXECUTE format('DROP TABLE %I', lessons_part);
+    END IF;
+    IF to_regclass(shared_part) IS NOT NULL THEN
+        EXECUTE format('ALTER TABLE lessons DETACH PARTITION %I', shared_part);
+        EXECUTE format('DROP TABLE %I', shared_part);
+    END IF;
+    IF to_regclass(changes_part) IS NOT NULL THEN
+        EXECUTE format('ALTER TABLE schedule_changes DETACH PARTITION %I', changes_part);
+        EXECUTE format('INSERT INTO schedule_archive (group_id, month, changes) '
+                           || 'SELECT c.group_id, %L, jsonb_agg(to_jsonb(c) - ''group_id'' ORDER BY c.id) '
+                           || 'FROM %I c WHERE c.group_id IS NOT NULL GROUP BY c.group_id '
+                           || 'ON CONFLICT (group_id, month) DO UPDATE '
+                           || 'SET changes = excluded.changes, archived_at = now()',
+                       month_start, changes_part);
+        EXECUTE format('DROP TABLE %I', changes_part);
+    END IF;
+    RETURN archived;
+END
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,60 @@
+-- Запись пар группы одним вызовом. Триггер представления schedule_lessons разбирает строки по одной
+-- (поиск занятия, словари, вставка пары), и пакеты JDBC превращаются в построчную работу в БД.
+-- Функция делает то же для всего набора: по одному оператору на словари, занятия и пары группы.
+-- Идентификаторы пар берутся из schedule_seq, как умолчание представления.
+CREATE OR REPLACE FUNCTION insert_schedule_lessons(p_group_id bigint, p_version bigint,
+                                                   p_dates date[], p_starts time[], p_ends time[],
+                                                   p_subjects text[], p_types text[], p_teachers bigint[],
+                                                   p_rooms text[], p_weeks integer[], p_sums bytea[])
+    RETURNS integer AS
+$$
+DECLARE
+    inserted integer;
+BEGIN
+    -- как в subject_id_of: сначала чтение, чтобы не расходовать identity на существующих названиях
+    INSERT INTO subjects (name)
+    SELECT DISTINCT n
+    FROM unnest(p_subjects) n
+    WHERE n IS NOT NULL
+      AND NOT EXISTS (SELECT 1 FROM subjects s WHERE s.name = n)
+    ORDER BY n
+    ON CONFLICT (name) DO NOTHING;
+
+    INSERT INTO rooms (name)
+    SELECT DISTINCT n
+    FROM unnest(p_rooms) n
+    WHERE n IS NOT NULL
+      AND NOT EXISTS (SELECT 1 FROM rooms r WHERE r.name = n)
+    ORDER BY n
+    ON CONFLICT (name) DO NOTHING;
+
+    WITH input AS (SELECT schedule_lesson_key(t.lesson_date, t.start_time, t.end_time, t.subject_name,
+                                              t.lesson_type, t.teacher_id, t.classroom) AS lesson_key,
+                          t.*
+                   FROM unnest(p_dates, p_starts, p_ends, p_subjects, p_types, p_teachers, p_rooms, p_weeks)
+                            AS t(lesson_date, start_time, end_time, subject_name, lesson_type, teacher_id,
+                                 classroom, lesson_week))
+    INSERT
+    INTO lessons (lesson_key, lesson_date, start_time, end_time, subject_id, lesson_type, teacher_id, room_id,
+                  lesson_week)
+    SELECT DISTINCT ON (i.lesson_key, i.lesson_date) i.lesson_key, i.lesson_date, i.start_time, i.end_time,
+                                                     sj.id, i.lesson_type, i.teacher_id, r.id, i.lesson_week
+    FROM input i
+             LEFT JOIN subjects sj ON sj.name = i.subject_name
+             LEFT JOIN rooms r ON r.name = i.classroom
+    WHERE NOT EXISTS (SELECT 1 FROM lessons l WHERE l.lesson_key = i.lesson_key AND l.lesson_date = i.lesson_date)
+    ORDER BY i.lesson_key, i.lesson_date
+    ON CONFLICT (lesson_key, lesson_date) DO NOTHING;
+
+    INSERT INTO schedule (id, group_id, lesson_id, lesson_date, control_sum, snapshot_version)
+    SELECT nextval('schedule_seq'), p_group_id, l.id, t.lesson_date, t.control_sum, p_version
+    FROM unnest(p_dates, p_starts, p_ends, p_subjects, p_types, p_teachers, p_rooms, p_sums)
+             AS t(lesson_date, start_time, end_time, subject_name, lesson_type, teacher_id, classroom,
+                  control_sum)
+             JOIN lessons l ON l.lesson_date = t.lesson_date
+        AND l.lesson_key = schedule_lesson_key(t.lesson_date, t.start_time, t.end_time, t.subject_name,
+                                               t.lesson_type, t.teacher_id, t.classroom);
+    GET DIAGNOSTICS inserted = ROW_COUNT;
+    RETURN inserted;
+END
+$$ LANGUAGE plpgsql;
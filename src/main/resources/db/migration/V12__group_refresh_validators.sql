@@ -0,0 +1,6 @@
+-- Валидаторы условных запросов к MAI хранятся рядом с состоянием обновления группы,
+-- чтобы после перезапуска опрос продолжал получать 304, а не полные json всех групп.
+ALTER TABLE group_refresh_state
+    ADD COLUMN IF NOT EXISTS etag          varchar(255),
+    ADD COLUMN IF NOT EXISTS last_modified bigint,
+    ADD COLUMN IF NOT EXISTS body_digest   varchar(32);
@@ -0,0 +1,107 @@
+-- Схема на момент перехода с ddl-auto=update на миграции.
+-- На существующих базах не выполняется (spring.flyway.baseline-on-migrate).
+
+CREATE TABLE IF NOT EXISTS users
+(
+    id           bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    telegram_id  bigint UNIQUE,
+    username     varchar(255),
+    patronymic   varchar(255),
+    first_name   varchar(255),
+    last_name    varchar(255),
+    role         varchar(255),
+    group_id     bigint,
+    teacher_uuid varchar(255) UNIQUE
+);
+
+CREATE TABLE IF NOT EXISTS groups
+(
+    id          bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    group_name  varchar(20) NOT NULL,
+    starosta_id bigint REFERENCES users (id)
+);
+
+ALTER TABLE users
+    ADD CONSTRAINT fk_users_group FOREIGN KEY (group_id) REFERENCES groups (id);
+
+CREATE TABLE IF NOT EXISTS teacher_groups
+(
+    teacher_id bigint NOT NULL REFERENCES users (id),
+    group_id   bigint NOT NULL REFERENCES groups (id),
+    PRIMARY KEY (teacher_id, group_id)
+);
+
+CREATE TABLE IF NOT EXISTS schedule
+(
+    id           bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    group_id     bigint REFERENCES groups (id),
+    subject_name varchar(255),
+    lesson_type  varchar(255),
+    teacher_id   bigint REFERENCES users (id),
+    classroom    varchar(255),
+    lesson_date  date,
+    start_time   time(6),
+    end_time     time(6),
+    lesson_week  integer,
+    control_sum  varchar(255)
+);
+
+CREATE TABLE IF NOT EXISTS schedule_changes
+(
+    id              bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    subject_name    varchar(255),
+    lesson_type     varchar(255),
+    teacher_name    varchar(255),
+    classroom       varchar(255),
+    old_lesson_date date,
+    old_start_time  time(6),
+    old_end_time    time(6),
+    new_lesson_date date,
+    new_start_time  time(6),
+    new_end_time    time(6),
+    description     varchar(255),
+    deleted         boolean NOT NULL,
+    old_control_sum varchar(255),
+    group_id        bigint REFERENCES groups (id)
+);
+
+CREATE TABLE IF NOT EXISTS absences
+(
+    id          bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id     bigint       NOT NULL REFERENCES users (id),
+    schedule_id bigint       NOT NULL REFERENCES schedule (id),
+    date        date,
+    reason      varchar(255),
+    status      varchar(255)
+);
+
+CREATE TABLE IF NOT EXISTS deadlines
+(
+    id              bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    title           varchar(255),
+    uuid            uuid,
+    description     text,
+    due_date        date,
+    group_id        bigint REFERENCES groups (id),
+    creator_id      bigint REFERENCES users (id),
+    notified_3_days boolean NOT NULL,
+    notified_1_day  boolean NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS notifications
+(
+    id          bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    uuid_id     uuid         NOT NULL,
+    user_id     bigint       NOT NULL REFERENCES users (id),
+    group_id    bigint       NOT NULL REFERENCES groups (id),
+    description varchar(255),
+    from_date   date         NOT NULL,
+    to_date     date         NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS requests
+(
+    id       bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id  bigint NOT NULL REFERENCES users (id),
+    group_id bigint NOT NULL REFERENCES groups (id)
+);
@@ -0,0 +1,34 @@
+-- Таблицы и колонки, которые до перехода на миграции создавал ddl-auto=update.
+-- Все изменения идемпотентны: часть баз их уже содержит.
+
+CREATE TABLE IF NOT EXISTS group_refresh_state
+(
+    id              bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    group_id        bigint           NOT NULL UNIQUE REFERENCES groups (id),
+    change_score    double precision NOT NULL,
+    last_refresh_at timestamp(6),
+    last_change_at  timestamp(6),
+    next_refresh_at timestamp(6)     NOT NULL,
+    refresh_count   bigint           NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS group_schedule_version
+(
+    group_id        bigint PRIMARY KEY,
+    current_version bigint NOT NULL,
+    switched_at     timestamp(6)
+);
+
+ALTER TABLE schedule
+    ADD COLUMN IF NOT EXISTS snapshot_version bigint NOT NULL DEFAULT 0;
+
+-- id пар выдаются из последовательности пачками по 50 (pooled optimizer)
+ALTER TABLE schedule
+    ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS schedule_seq INCREMENT BY 50;
+
+SELECT setval('schedule_seq', GREATEST(
+        (SELECT coalesce(max(id), 0) FROM schedule),
+        (SELECT last_value FROM schedule_seq),
+        1));
@@ -0,0 +1,45 @@
+-- Индексы под горячие запросы репозиториев.
+
+-- ScheduleRepository: выборки по группе и дню в текущей версии снимка,
+-- контрольные суммы группы (префикс group_id, snapshot_version)
+CREATE INDEX IF NOT EXISTS idx_schedule_group_version_date
+    ON schedule (group_id, snapshot_version, lesson_date);
+
+-- ScheduleRepository.findScheduleByTeacher
+CREATE INDEX IF NOT EXISTS idx_schedule_teacher_group
+    ON schedule (teacher_id, group_id);
+
+-- ScheduleChangeRepository.findAllByGroupAndDate: OR по старой и новой дате
+-- выполняется как BitmapOr по двум индексам
+CREATE INDEX IF NOT EXISTS idx_schedule_changes_group_old_date
+    ON schedule_changes (group_id, old_lesson_date);
+
+CREATE INDEX IF NOT EXISTS idx_schedule_changes_group_new_date
+    ON schedule_changes (group_id, new_lesson_date)
+    WHERE new_lesson_date IS NOT NULL;
+
+-- GroupRepository.findByGroupNameIgnoreCase: Spring Data сравнивает upper(group_name)
+CREATE INDEX IF NOT EXISTS idx_groups_upper_name
+    ON groups (upper(group_name));
+
+-- GroupRepository.findAllWithUsers
+CREATE INDEX IF NOT EXISTS idx_users_group
+    ON users (group_id);
+
+-- DeadlineRepository.findAllByDateRange, findAllByGroup, findByUuid
+CREATE INDEX IF NOT EXISTS idx_deadlines_due_date
+    ON deadlines (due_date);
+
+CREATE INDEX IF NOT EXISTS idx_deadlines_group
+    ON deadlines (group_id);
+
+CREATE INDEX IF NOT EXISTS idx_deadlines_uuid
+    ON deadlines (uuid);
+
+-- NotificationRepository.findAllByGroupName
+CREATE INDEX IF NOT EXISTS idx_notifications_group
+    ON notifications (group_id);
+
+-- Проверка ссылок из пропусков при удалении устаревших снимков
+CREATE INDEX IF NOT EXISTS idx_absences_schedule
+    ON absences (schedule_id);
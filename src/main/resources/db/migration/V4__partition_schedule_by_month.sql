@@ -0,0 +1,209 @@
+-- Помесячное партиционирование schedule (по lesson_date) и schedule_changes (по old_lesson_date).
+-- Прошедшие месяцы переносятся в schedule_archive функцией archive_schedule_month.
+
+-- Внешний ключ absences -> schedule невозможен: первичный ключ партиционированной
+-- таблицы обязан включать ключ партиционирования.
+DO
+$$
+    DECLARE
+        c record;
+    BEGIN
+        FOR c IN SELECT conname
+                 FROM pg_constraint
+                 WHERE conrelid = 'absences'::regclass
+                   AND confrelid = 'schedule'::regclass
+            LOOP
+                EXECUTE format('ALTER TABLE absences DROP CONSTRAINT %I', c.conname);
+            END LOOP;
+    END
+$$;
+
+-- Создает месячную партицию, если ее еще нет. Строки этого месяца,
+-- успевшие попасть в партицию по умолчанию, переносятся в новую.
+CREATE OR REPLACE FUNCTION ensure_month_partition(parent text, part_key text, month_start date)
+    RETURNS boolean AS
+$$
+DECLARE
+    part      text := format('%s_p%s', parent, to_char(month_start, 'YYYY_MM'));
+    month_end date := (month_start + interval '1 month')::date;
+BEGIN
+    IF to_regclass(part) IS NOT NULL THEN
+        RETURN false;
+    END IF;
+    EXECUTE format('CREATE TABLE %I (LIKE %I INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', part, parent);
+    EXECUTE format('WITH moved AS (DELETE FROM %I WHERE %I >= %L AND %I < %L RETURNING *) '
+                       || 'INSERT INTO %I SELECT * FROM moved',
+                   parent || '_default', part_key, month_start, part_key, month_end, part);
+    EXECUTE format('ALTER TABLE %I ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                   parent, part, month_start, month_end);
+    RETURN true;
+END
+$$ LANGUAGE plpgsql;
+
+-- schedule
+
+DROP INDEX IF EXISTS idx_schedule_group_version_date;
+DROP INDEX IF EXISTS idx_schedule_teacher_group;
+ALTER TABLE schedule
+    RENAME TO schedule_unpartitioned;
+
+CREATE TABLE schedule
+(
+    id               bigint NOT NULL,
+    group_id         bigint REFERENCES groups (id),
+    subject_name     varchar(255),
+    lesson_type      varchar(255),
+    teacher_id       bigint REFERENCES users (id),
+    classroom        varchar(255),
+    lesson_date      date   NOT NULL,
+    start_time       time(6),
+    end_time         time(6),
+    lesson_week      integer,
+    control_sum      varchar(255),
+    snapshot_version bigint NOT NULL DEFAULT 0,
+    CONSTRAINT schedule_partitioned_pkey PRIMARY KEY (id, lesson_date)
+) PARTITION BY RANGE (lesson_date);
+
+CREATE TABLE schedule_default PARTITION OF schedule DEFAULT;
+
+CREATE INDEX idx_schedule_group_version_date
+    ON schedule (group_id, snapshot_version, lesson_date);
+CREATE INDEX idx_schedule_teacher_group
+    ON schedule (teacher_id, group_id);
+
+-- schedule_changes
+
+DROP INDEX IF EXISTS idx_schedule_changes_group_old_date;
+DROP INDEX IF EXISTS idx_schedule_changes_group_new_date;
+ALTER TABLE schedule_changes
+    RENAME TO schedule_changes_unpartitioned;
+
+CREATE SEQUENCE schedule_changes_part_id_seq;
+
+CREATE TABLE schedule_changes
+(
+    id              bigint  NOT NULL DEFAULT nextval('schedule_changes_part_id_seq'),
+    subject_name    varchar(255),
+    lesson_type     varchar(255),
+    teacher_name    varchar(255),
+    classroom       varchar(255),
+    old_lesson_date date    NOT NULL,
+    old_start_time  time(6),
+    old_end_time    time(6),
+    new_lesson_date date,
+    new_start_time  time(6),
+    new_end_time    time(6),
+    description     varchar(255),
+    deleted         boolean NOT NULL,
+    old_control_sum varchar(255),
+    group_id        bigint REFERENCES groups (id),
+    CONSTRAINT schedule_changes_partitioned_pkey PRIMARY KEY (id, old_lesson_date)
+) PARTITION BY RANGE (old_lesson_date);
+
+ALTER SEQUENCE schedule_changes_part_id_seq OWNED BY schedule_changes.id;
+
+CREATE TABLE schedule_changes_default PARTITION OF schedule_changes DEFAULT;
+
+CREATE INDEX idx_schedule_changes_group_old_date
+    ON schedule_changes (group_id, old_lesson_date);
+CREATE INDEX idx_schedule_changes_group_new_date
+    ON schedule_changes (group_id, new_lesson_date)
+    WHERE new_lesson_date IS NOT NULL;
+
+-- Партиции под существующие данные и на три месяца вперед
+
+DO
+$$
+    DECLARE
+        first_month date;
+        last_month  date := date_trunc('month', current_date + interval '3 months')::date;
+        m           date;
+    BEGIN
+        SELECT date_trunc('month', least(
+                coalesce((SELECT min(lesson_date) FROM schedule_unpartitioned), current_date),
+                coalesce((SELECT min(old_lesson_date) FROM schedule_changes_unpartitioned), current_date)))::date
+        INTO first_month;
+        m := first_month;
+        WHILE m <= last_month
+            LOOP
+                PERFORM ensure_month_partition('schedule', 'lesson_date', m);
+                PERFORM ensure_month_partition('schedule_changes', 'old_lesson_date', m);
+                m := (m + interval '1 month')::date;
+            END LOOP;
+    END
+$$;
+
+-- Перенос данных. Пары без даты в выдачу никогда не попадали и не переносятся.
+
+INSERT INTO schedule (id, group_id, subject_name, lesson_type, teacher_id, classroom, lesson_date,
+                      start_time, end_time, lesson_week, control_sum, snapshot_version)
+SELECT id, group_id, subject_name, lesson_type, teacher_id, classroom, lesson_date,
+       start_time, end_time, lesson_week, control_sum, snapshot_version
+FROM schedule_unpartitioned
+WHERE lesson_date IS NOT NULL;
+
+INSERT INTO schedule_changes (id, subject_name, lesson_type, teacher_name, classroom, old_lesson_date,
+                              old_start_time, old_end_time, new_lesson_date, new_start_time, new_end_time,
+                              description, deleted, old_control_sum, group_id)
+SELECT id, subject_name, lesson_type, teacher_name, classroom, coalesce(old_lesson_date, new_lesson_date),
+       old_start_time, old_end_time, new_lesson_date, new_start_time, new_end_time,
+       description, deleted, old_control_sum, group_id
+FROM schedule_changes_unpartitioned
+WHERE coalesce(old_lesson_date, new_lesson_date) IS NOT NULL;
+
+SELECT setval('schedule_changes_part_id_seq',
+              (SELECT coalesce(max(id), 0) + 1 FROM schedule_changes), false);
+
+DROP TABLE schedule_unpartitioned;
+DROP TABLE schedule_changes_unpartitioned;
+
+-- Архив прошедших месяцев: пары и изменения группы за месяц одной строкой jsonb.
+-- Большие значения jsonb PostgreSQL сжимает в TOAST.
+
+CREATE TABLE schedule_archive
+(
+    group_id     bigint       NOT NULL,
+    month        date         NOT NULL,
+    lesson_count integer      NOT NULL DEFAULT 0,
+    lessons      jsonb        NOT NULL DEFAULT '[]'::jsonb,
+    changes      jsonb        NOT NULL DEFAULT '[]'::jsonb,
+    archived_at  timestamp(6) NOT NULL DEFAULT now(),
+    PRIMARY KEY (group_id, month)
+);
+
+-- Отсоединяет месячные партиции schedule и schedule_changes, переносит их строки
+-- в schedule_archive и удаляет партиции. Возвращает количество перенесенных пар.
+CREATE OR REPLACE FUNCTION archive_schedule_month(month_start date)
+    RETURNS integer AS
+$$
+DECLARE
+    lessons_part text := format('schedule_p%s', to_char(month_start, 'YYYY_MM'));
+    changes_part text := format('schedule_changes_p%s', to_char(month_start, 'YYYY_MM'));
+    archived     integer := 0;
+BEGIN
+    IF to_regclass(lessons_part) IS NOT NULL THEN
+        EXECUTE format('ALTER TABLE schedule DETACH PARTITION %I', lessons_part);
+        EXECUTE format('INSERT INTO schedule_archive (group_id, month, lesson_count, lessons) '
+                           || 'SELECT s.group_id, %L, count(*), '
+                           || 'jsonb_agg(to_jsonb(s) - ''group_id'' ORDER BY s.lesson_date, s.start_time) '
+                           || 'FROM %I s WHERE s.group_id IS NOT NULL GROUP BY s.group_id '
+                           || 'ON CONFLICT (group_id, month) DO UPDATE '
+                           || 'SET lesson_count = excluded.lesson_count, lessons = excluded.lessons, '
+                           || 'archived_at = now()',
+                       month_start, lessons_part);
+        EXECUTE format('SELECT count(*) FROM %I', lessons_part) INTO archived;
+        EXECUTE format('DROP TABLE %I', lessons_part);
+    END IF;
+    IF to_regclass(changes_part) IS NOT NULL THEN
+        EXECUTE format('ALTER TABLE schedule_changes DETACH PARTITION %I', changes_part);
+        EXECUTE format('INSERT INTO schedule_archive (group_id, month, changes) '
+                           || 'SELECT c.group_id, %L, jsonb_agg(to_jsonb(c) - ''group_id'' ORDER BY c.id) '
+                           || 'FROM %I c WHERE c.group_id IS NOT NULL GROUP BY c.group_id '
+                           || 'ON CONFLICT (group_id, month) DO UPDATE '
+                           || 'SET changes = excluded.changes, archived_at = now()',
+                       month_start, changes_part);
+        EXECUTE format('DROP TABLE %I', changes_part);
+    END IF;
+    RETURN archived;
+END
+$$ LANGUAGE plpgsql;
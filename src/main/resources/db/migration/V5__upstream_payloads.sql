@@ -0,0 +1,22 @@
+-- Архив сырых ответов public.mai.ru (json групп, преподавателей и списка групп).
+-- Строки только добавляются, тело сжато java.util.zip.Deflater, raw_size - размер тела до сжатия в байтах.
+-- Подряд идущие одинаковые ответы по одному url не дублируются.
+
+CREATE TABLE IF NOT EXISTS upstream_payloads
+(
+    id         bigint GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    url        varchar(512) NOT NULL,
+    resource   varchar(16)  NOT NULL,
+    fetched_at timestamp(6) NOT NULL,
+    digest     varchar(32)  NOT NULL,
+    raw_size   integer      NOT NULL,
+    body       bytea        NOT NULL
+);
+
+-- UpstreamPayloadArchive.replay: последний ответ по url на момент времени
+CREATE INDEX IF NOT EXISTS idx_upstream_payloads_url_fetched_at
+    ON upstream_payloads (url, fetched_at DESC);
+
+-- UpstreamPayloadArchive.purgeExpired
+CREATE INDEX IF NOT EXISTS idx_upstream_payloads_fetched_at
+    ON upstream_payloads (fetched_at);
@@ -0,0 +1,17 @@
+-- Очередь повторов неудачных обновлений расписания групп.
+-- dead = true - попытки исчерпаны, группа ждет ручного повтора через api/v1/admin/refresh-retries.
+CREATE TABLE IF NOT EXISTS group_refresh_retry
+(
+    id              bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    group_id        bigint       NOT NULL UNIQUE REFERENCES groups (id),
+    error_class     varchar(16)  NOT NULL,
+    attempts        integer      NOT NULL,
+    first_failed_at timestamp(6) NOT NULL,
+    last_failed_at  timestamp(6) NOT NULL,
+    next_attempt_at timestamp(6) NOT NULL,
+    last_error      varchar(1000),
+    dead            boolean      NOT NULL DEFAULT false
+);
+
+CREATE INDEX IF NOT EXISTS idx_group_refresh_retry_due
+    ON group_refresh_retry (next_attempt_at) WHERE NOT dead;
@@ -0,0 +1,203 @@
+-- Общие занятия потока хранятся один раз: содержимое пары (время, предмет, тип, преподаватель, аудитория)
+-- переносится в lessons, а schedule остается узкой таблицей принадлежности пары группе и версии снимка.
+-- Приложение работает с представлением schedule_lessons, запись в него разбирается триггером.
+
+-- Стабильный идентификатор занятия, не зависящий от группы.
+CREATE OR REPLACE FUNCTION schedule_lesson_key(date, time, time, text, text, bigint, text)
+    RETURNS uuid AS
+$$
+SELECT md5(format('%s|%s|%s|%s|%s|%s|%s', to_char($1, 'YYYY-MM-DD'), $2, $3, $4, $5, $6, $7))::uuid
+$$ LANGUAGE sql IMMUTABLE;
+
+CREATE SEQUENCE lessons_id_seq;
+
+CREATE TABLE lessons
+(
+    id           bigint NOT NULL DEFAULT nextval('lessons_id_seq'),
+    lesson_key   uuid   NOT NULL,
+    lesson_date  date   NOT NULL,
+    start_time   time(6),
+    end_time     time(6),
+    subject_name varchar(255),
+    lesson_type  varchar(255),
+    teacher_id   bigint REFERENCES users (id),
+    classroom    varchar(255),
+    lesson_week  integer,
+    CONSTRAINT lessons_pkey PRIMARY KEY (id, lesson_date),
+    CONSTRAINT lessons_key_unique UNIQUE (lesson_key, lesson_date)
+) PARTITION BY RANGE (lesson_date);
+
+ALTER SEQUENCE lessons_id_seq OWNED BY lessons.id;
+
+CREATE TABLE lessons_default PARTITION OF lessons DEFAULT;
+
+-- ScheduleRepository.findTeacherLessons
+CREATE INDEX idx_lessons_teacher_date
+    ON lessons (teacher_id, lesson_date);
+
+-- Партиции lessons повторяют месяцы schedule
+DO
+$$
+    DECLARE
+        m date;
+    BEGIN
+        FOR m IN SELECT to_date(substring(c.relname from 'p(\d{4}_\d{2})$'), 'YYYY_MM')
+                 FROM pg_inherits i
+                          JOIN pg_class c ON c.oid = i.inhrelid
+                 WHERE i.inhparent = 'schedule'::regclass
+                   AND c.relname ~ '_p\d{4}_\d{2}$'
+            LOOP
+                PERFORM ensure_month_partition('lessons', 'lesson_date', m);
+            END LOOP;
+    END
+$$;
+
+-- Перенос данных: одинаковые пары разных групп становятся одним занятием
+
+INSERT INTO lessons (lesson_key, lesson_date, start_time, end_time, subject_name, lesson_type, teacher_id,
+                     classroom, lesson_week)
+SELECT DISTINCT ON (k.lesson_key, s.lesson_date) k.lesson_key, s.lesson_date, s.start_time, s.end_time,
+                                                 s.subject_name, s.lesson_type, s.teacher_id, s.classroom,
+                                                 s.lesson_week
+FROM schedule s
+         CROSS JOIN LATERAL (SELECT schedule_lesson_key(s.lesson_date, s.start_time, s.end_time, s.subject_name,
+                                                        s.lesson_type, s.teacher_id, s.classroom) AS lesson_key) k
+ORDER BY k.lesson_key, s.lesson_date, s.id;
+
+ALTER TABLE schedule
+    ADD COLUMN lesson_id bigint;
+
+UPDATE schedule s
+SET lesson_id = l.id
+FROM lessons l
+WHERE l.lesson_date = s.lesson_date
+  AND l.lesson_key = schedule_lesson_key(s.lesson_date, s.start_time, s.end_time, s.subject_name,
+                                         s.lesson_type, s.teacher_id, s.classroom);
+
+ALTER TABLE schedule
+    ALTER COLUMN lesson_id SET NOT NULL;
+
+DROP INDEX IF EXISTS idx_schedule_teacher_group;
+
+ALTER TABLE schedule
+    DROP COLUMN subject_name,
+    DROP COLUMN lesson_type,
+    DROP COLUMN teacher_id,
+    DROP COLUMN classroom,
+    DROP COLUMN start_time,
+    DROP COLUMN end_time,
+    DROP COLUMN lesson_week;
+
+-- Переход от занятия к парам групп в запросе преподавателя.
+-- Внешний ключ schedule -> lessons не заводится: перенос строк из партиции по умолчанию
+-- в ensure_month_partition удалял бы строки, на которые он ссылается.
+CREATE INDEX idx_schedule_lesson
+    ON schedule (lesson_id, lesson_date);
+
+-- Пара группы в прежнем виде
+
+CREATE VIEW schedule_lessons AS
+SELECT s.id,
+       s.group_id,
+       s.lesson_id,
+       l.subject_name,
+       l.lesson_type,
+       l.teacher_id,
+       l.classroom,
+       s.lesson_date,
+       l.start_time,
+       l.end_time,
+       l.lesson_week,
+       s.control_sum,
+       s.snapshot_version
+FROM schedule s
+         JOIN lessons l ON l.id = s.lesson_id AND l.lesson_date = s.lesson_date;
+
+ALTER VIEW schedule_lessons
+    ALTER COLUMN id SET DEFAULT nextval('schedule_seq');
+ALTER VIEW schedule_lessons
+    ALTER COLUMN snapshot_version SET DEFAULT 0;
+
+-- Вставка пары находит или создает занятие и записывает принадлежность группе.
+-- Изменение выполняется как удаление и вставка. Занятия без пар не удаляются сразу,
+-- чтобы не гоняться с параллельной записью другой группы потока: их убирает архивация месяца.
+CREATE OR REPLACE FUNCTION schedule_lessons_write()
+    RETURNS trigger AS
+$$
+DECLARE
+    k      uuid;
+    lesson bigint;
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        DELETE FROM schedule WHERE id = OLD.id AND lesson_date = OLD.lesson_date;
+        IF TG_OP = 'DELETE' THEN
+            RETURN OLD;
+        END IF;
+    END IF;
+    k := schedule_lesson_key(NEW.lesson_date, NEW.start_time, NEW.end_time, NEW.subject_name,
+                             NEW.lesson_type, NEW.teacher_id, NEW.classroom);
+    INSERT INTO lessons (lesson_key, lesson_date, start_time, end_time, subject_name, lesson_type, teacher_id,
+                         classroom, lesson_week)
+    VALUES (k, NEW.lesson_date, NEW.start_time, NEW.end_time, NEW.subject_name, NEW.lesson_type, NEW.teacher_id,
+            NEW.classroom, NEW.lesson_week)
+    ON CONFLICT (lesson_key, lesson_date) DO NOTHING
+    RETURNING id INTO lesson;
+    IF lesson IS NULL THEN
+        SELECT id INTO lesson FROM lessons WHERE lesson_key = k AND lesson_date = NEW.lesson_date;
+    END IF;
+    INSERT INTO schedule (id, group_id, lesson_id, lesson_date, control_sum, snapshot_version)
+    VALUES (NEW.id, NEW.group_id, lesson, NEW.lesson_date, NEW.control_sum, NEW.snapshot_version);
+    NEW.lesson_id := lesson;
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER schedule_lessons_write
+    INSTEAD OF INSERT OR UPDATE OR DELETE
+    ON schedule_lessons
+    FOR EACH ROW
+EXECUTE FUNCTION schedule_lessons_write();
+
+-- Архив хранит пары в прежнем формате; месячная партиция lessons удаляется вместе с партицией schedule.
+CREATE OR REPLACE FUNCTION archive_schedule_month(month_start date)
+    RETURNS integer AS
+$$
+DECLARE
+    lessons_part text := format('schedule_p%s', to_char(month_start, 'YYYY_MM'));
+    shared_part  text := format('lessons_p%s', to_char(month_start, 'YYYY_MM'));
+    changes_part text := format('schedule_changes_p%s', to_char(month_start, 'YYYY_MM'));
+    archived     integer := 0;
+BEGIN
+    IF to_regclass(lessons_part) IS NOT NULL THEN
+        EXECUTE format('ALTER TABLE schedule DETACH PARTITION %I', lessons_part);
+        EXECUTE format('INSERT INTO schedule_archive (group_id, month, lesson_count, lessons) '
+                           || 'SELECT s.group_id, %L, count(*), '
+                           || 'jsonb_agg((to_jsonb(s) - ''group_id'' - ''lesson_id'') '
+                           || '|| (to_jsonb(l) - ''id'' - ''lesson_key'' - ''lesson_date'') '
+                           || 'ORDER BY s.lesson_date, l.start_time) '
+                           || 'FROM %I s JOIN lessons l ON l.id = s.lesson_id AND l.lesson_date = s.lesson_date '
+                           || 'WHERE s.group_id IS NOT NULL GROUP BY s.group_id '
+                           || 'ON CONFLICT (group_id, month) DO UPDATE '
+                           || 'SET lesson_count = excluded.lesson_count, lessons = excluded.lessons, '
+                           || 'archived_at = now()',
+                       month_start, lessons_part);
+        EXECUTE format('SELECT count(*) FROM %I', lessons_part) INTO archived;
+        EXECUTE format('DROP TABLE %I', lessons_part);
+    END IF;
+    IF to_regclass(shared_part) IS NOT NULL THEN
+        EXECUTE format('ALTER TABLE lessons DETACH PARTITION %I', shared_part);
+        EXECUTE format('DROP TABLE %I', shared_part);
+    END IF;
+    IF to_regclass(changes_part) IS NOT NULL THEN
+        EXECUTE format('ALTER TABLE schedule_changes DETACH PARTITION %I', changes_part);
+        EXECUTE format('INSERT INTO schedule_archive (group_id, month, changes) '
+                           || 'SELECT c.group_id, %L, jsonb_agg(to_jsonb(c) - ''group_id'' ORDER BY c.id) '
+                           || 'FROM %I c WHERE c.group_id IS NOT NULL GROUP BY c.group_id '
+                           || 'ON CONFLICT (group_id, month) DO UPDATE '
+                           || 'SET changes = excluded.changes, archived_at = now()',
+                       month_start, changes_part);
+        EXECUTE format('DROP TABLE %I', changes_part);
+    END IF;
+    RETURN archived;
+END
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,201 @@
+-- Словари повторяющихся строк расписания: названия предметов и аудитории хранятся один раз,
+-- в lessons остаются целочисленные ссылки. Представление schedule_lessons отдает прежние колонки.
+
+CREATE TABLE subjects
+(
+    id   integer GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name varchar(255) NOT NULL UNIQUE
+);
+
+CREATE TABLE rooms
+(
+    id   integer GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name varchar(255) NOT NULL UNIQUE
+);
+
+INSERT INTO subjects (name)
+SELECT DISTINCT subject_name FROM lessons WHERE subject_name IS NOT NULL;
+
+INSERT INTO rooms (name)
+SELECT DISTINCT classroom FROM lessons WHERE classroom IS NOT NULL;
+
+ALTER TABLE lessons
+    ADD COLUMN subject_id integer REFERENCES subjects (id),
+    ADD COLUMN room_id    integer REFERENCES rooms (id);
+
+UPDATE lessons l
+SET subject_id = s.id
+FROM subjects s
+WHERE s.name = l.subject_name;
+
+UPDATE lessons l
+SET room_id = r.id
+FROM rooms r
+WHERE r.name = l.classroom;
+
+DROP VIEW schedule_lessons;
+
+ALTER TABLE lessons
+    DROP COLUMN subject_name,
+    DROP COLUMN classroom;
+
+-- Находят строку словаря или добавляют новую. Сначала чтение, чтобы не расходовать
+-- значения identity и не плодить мертвые строки на повторяющихся названиях.
+CREATE OR REPLACE FUNCTION subject_id_of(subject text)
+    RETURNS integer AS
+$$
+DECLARE
+    found integer;
+BEGIN
+    IF subject IS NULL THEN
+        RETURN NULL;
+    END IF;
+    SELECT id INTO found FROM subjects WHERE name = subject;
+    IF found IS NULL THEN
+        INSERT INTO subjects (name) VALUES (subject) ON CONFLICT (name) DO NOTHING RETURNING id INTO found;
+        IF found IS NULL THEN
+            SELECT id INTO found FROM subjects WHERE name = subject;
+        END IF;
+    END IF;
+    RETURN found;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION room_id_of(room text)
+    RETURNS integer AS
+$$
+DECLARE
+    found integer;
+BEGIN
+    IF room IS NULL THEN
+        RETURN NULL;
+    END IF;
+    SELECT id INTO found FROM rooms WHERE name = room;
+    IF found IS NULL THEN
+        INSERT INTO rooms (name) VALUES (room) ON CONFLICT (name) DO NOTHING RETURNING id INTO found;
+        IF found IS NULL THEN
+            SELECT id INTO found FROM rooms WHERE name = room;
+        END IF;
+    END IF;
+    RETURN found;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE VIEW schedule_lessons AS
+SELECT s.id,
+       s.group_id,
+       s.lesson_id,
+       sj.name AS subject_name,
+       l.lesson_type,
+       l.teacher_id,
+       r.name  AS classroom,
+       s.lesson_date,
+       l.start_time,
+       l.end_time,
+       l.lesson_week,
+       s.control_sum,
+       s.snapshot_version
+FROM schedule s
+         JOIN lessons l ON l.id = s.lesson_id AND l.lesson_date = s.lesson_date
+         LEFT JOIN subjects sj ON sj.id = l.subject_id
+         LEFT JOIN rooms r ON r.id = l.room_id;
+
+ALTER VIEW schedule_lessons
+    ALTER COLUMN id SET DEFAULT nextval('schedule_seq');
+ALTER VIEW schedule_lessons
+    ALTER COLUMN snapshot_version SET DEFAULT 0;
+
+-- Словари затрагиваются только при первой вставке занятия: пары других групп потока
+-- находят готовое занятие по ключу.
+CREATE OR REPLACE FUNCTION schedule_lessons_write()
+    RETURNS trigger AS
+$$
+DECLARE
+    k      uuid;
+    lesson bigint;
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        DELETE FROM schedule WHERE id = OLD.id AND lesson_date = OLD.lesson_date;
+        IF TG_OP = 'DELETE' THEN
+            RETURN OLD;
+        END IF;
+    END IF;
+    k := schedule_lesson_key(NEW.lesson_date, NEW.start_time, NEW.end_time, NEW.subject_name,
+                             NEW.lesson_type, NEW.teacher_id, NEW.classroom);
+    SELECT id INTO lesson FROM lessons WHERE lesson_key = k AND lesson_date = NEW.lesson_date;
+    IF lesson IS NULL THEN
+        INSERT INTO lessons (lesson_key, lesson_date, start_time, end_time, subject_id, lesson_type, teacher_id,
+                             room_id, lesson_week)
+        VALUES (k, NEW.lesson_date, NEW.start_time, NEW.end_time, subject_id_of(NEW.subject_name),
+                NEW.lesson_type, NEW.teacher_id, room_id_of(NEW.classroom), NEW.lesson_week)
+        ON CONFLICT (lesson_key, lesson_date) DO NOTHING
+        RETURNING id INTO lesson;
+        IF lesson IS NULL THEN
+            SELECT id INTO lesson FROM lessons WHERE lesson_key = k AND lesson_date = NEW.lesson_date;
+        END IF;
+    END IF;
+    INSERT INTO schedule (id, group_id, lesson_id, lesson_date, control_sum, snapshot_version)
+    VALUES (NEW.id, NEW.group_id, lesson, NEW.lesson_date, NEW.control_sum, NEW.snapshot_version);
+    NEW.lesson_id := lesson;
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER schedule_lessons_write
+    INSTEAD OF INSERT OR UPDATE OR DELETE
+    ON schedule_lessons
+    FOR EACH ROW
+EXECUTE FUNCTION schedule_lessons_write();
+
+-- Архив хранит названия, а не ссылки на словари
+CREATE OR REPLACE FUNCTION archive_schedule_month(month_start date)
+    RETURNS integer AS
+$$
+DECLARE
+    lessons_part text := format('schedule_p%s', to_char(month_start, 'YYYY_MM'));
+    shared_part  text := format('lessons_p%s', to_char(month_start, 'YYYY_MM'));
+    changes_part text := format('schedule_changes_p%s', to_char(month_start, 'YYYY_MM'));
+    archived     integer := 0;
+BEGIN
+    IF to_regclass(lessons_part) IS NOT NULL THEN
+        EXECUTE format('ALTER TABLE schedule DETACH PARTITION %I', lessons_part);
+        EXECUTE format('INSERT INTO schedule_archive (group_id, month, lesson_count, lessons) '
+                           || 'SELECT s.group_id, %L, count(*), '
+                           || 'jsonb_agg((to_jsonb(s) - ''group_id'' - ''lesson_id'') '
+                           || '|| (to_jsonb(l) - ''id'' - ''lesson_key'' - ''lesson_date'' - ''subject_id'' - ''room_id'') '
+                           || '|| jsonb_build_object(''subject_name'', sj.name, ''classroom'', r.name) '
+                           || 'ORDER BY s.lesson_date, l.start_time) '
+                           || 'FROM %I s JOIN lessons l ON l.id = s.lesson_id AND l.lesson_date = s.lesson_date '
+                           || 'LEFT JOIN subjects sj ON sj.id = l.subject_id '
+                           || 'LEFT JOIN rooms r ON r.id = l.room_id '
+                           || 'WHERE s.group_id IS NOT NULL GROUP BY s.group_id '
+                           || 'ON CONFLICT (group_id, month) DO UPDATE '
+                           || 'SET lesson_count = excluded.lesson_count, lessons = excluded.lessons, '
+                           || 'archived_at = now()',
+                       month_start, lessons_part);
+        EXECUTE format('SELECT count(*) FROM %I', lessons_part) INTO archived;
+        EXECUTE format('DROP TABLE %I', lessons_part);
+    END IF;
+    IF to_regclass(shared_part) IS NOT NULL THEN
+        EXECUTE format('ALTER TABLE lessons DETACH PARTITION %I', shared_part);
+        EXECUTE format('DROP TABLE %I', shared_part);
+    END IF;
+    IF to_regclass(changes_part) IS NOT NULL THEN
+        EXECUTE format('ALTER TABLE schedule_changes DETACH PARTITION %I', changes_part);
+        EXECUTE format('INSERT INTO schedule_archive (group_id, month, changes) '
+                           || 'SELECT c.group_id, %L, jsonb_agg(to_jsonb(c) - ''group_id'' ORDER BY c.id) '
+                           || 'FROM %I c WHERE c.group_id IS NOT NULL GROUP BY c.group_id '
+                           || 'ON CONFLICT (group_id, month) DO UPDATE '
+                           || 'SET changes = excluded.changes, archived_at = now()',
+                       month_start, changes_part);
+        EXECUTE format('DROP TABLE %I', changes_part);
+    END IF;
+    RETURN archived;
+END
+$$ LANGUAGE plpgsql;
+
+-- Имя преподавателя для выдачи в том же виде, в каком его собирал ScheduleMapper
+ALTER TABLE users
+    ADD COLUMN display_name varchar(767)
+        GENERATED ALWAYS AS (coalesce(first_name, '') || ' ' || coalesce(patronymic, '') || ' '
+            || coalesce(last_name, '')) STORED;
@@ -0,0 +1,68 @@
+-- Контрольные суммы пар (SHA-256) хранятся 32 байтами вместо 64 символов hex.
+-- Приложение по-прежнему видит hex-строку: преобразование делает ControlSumConverter.
+
+DROP VIEW schedule_lessons;
+
+ALTER TABLE schedule
+    ALTER COLUMN control_sum TYPE bytea
+        USING CASE WHEN control_sum ~ '^[0-9a-f]{64}$' THEN decode(control_sum, 'hex') END;
+
+ALTER TABLE schedule_changes
+    ALTER COLUMN old_control_sum TYPE bytea
+        USING CASE WHEN old_control_sum ~ '^[0-9a-f]{64}$' THEN decode(old_control_sum, 'hex') END;
+
+-- Одинаковая пара в одной версии снимка группы - дубль ответа MAI, остается первая запись.
+-- Пропуски, ссылавшиеся на удаляемый дубль, переводятся на оставшуюся запись.
+UPDATE absences a
+SET schedule_id = k.keep_id
+FROM (SELECT id,
+             min(id) OVER (PARTITION BY group_id, snapshot_version, lesson_date, control_sum) AS keep_id
+      FROM schedule
+      WHERE control_sum IS NOT NULL) k
+WHERE a.schedule_id = k.id
+  AND k.keep_id <> k.id;
+
+DELETE
+FROM schedule s
+    USING schedule d
+WHERE d.group_id = s.group_id
+  AND d.snapshot_version = s.snapshot_version
+  AND d.lesson_date = s.lesson_date
+  AND d.control_sum = s.control_sum
+  AND d.id < s.id;
+
+-- Поиск пары группы по контрольной сумме (ScheduleRepository.findByGroupAndControlSum).
+-- В ключ входят версия снимка, так как старая версия хранится до сборки мусора,
+-- и дата - ключ партиционирования.
+CREATE UNIQUE INDEX idx_schedule_group_control_sum
+    ON schedule (group_id, control_sum, snapshot_version, lesson_date);
+
+CREATE VIEW schedule_lessons AS
+SELECT s.id,
+       s.group_id,
+       s.lesson_id,
+       sj.name AS subject_name,
+       l.lesson_type,
+       l.teacher_id,
+       r.name  AS classroom,
+       s.lesson_date,
+       l.start_time,
+       l.end_time,
+       l.lesson_week,
+       s.control_sum,
+       s.snapshot_version
+FROM schedule s
+         JOIN lessons l ON l.id = s.lesson_id AND l.lesson_date = s.lesson_date
+         LEFT JOIN subjects sj ON sj.id = l.subject_id
+         LEFT JOIN rooms r ON r.id = l.room_id;
+
+ALTER VIEW schedule_lessons
+    ALTER COLUMN id SET DEFAULT nextval('schedule_seq');
+ALTER VIEW schedule_lessons
+    ALTER COLUMN snapshot_version SET DEFAULT 0;
+
+CREATE TRIGGER schedule_lessons_write
+    INSTEAD OF INSERT OR UPDATE OR DELETE
+    ON schedule_lessons
+    FOR EACH ROW
+EXECUTE FUNCTION schedule_lessons_write();
@@ -0,0 +1,41 @@
+package ru.semavin.telegrambot.config.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DataSourceConfigTest {
+
+    @Test
+    @DisplayName("Пулы реплик получают настройки spring.datasource.hikari.*")
+    void replicaPoolsBindHikariProperties() throws Exception {
+        DataSourceProperties properties = new DataSourceProperties();
+        properties.setUrl("jdbc:postgresql://primary/app");
+        properties.afterPropertiesSet();
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("spring.datasource.hikari.connection-timeout", "180000")
+                .withProperty("spring.datasource.hikari.leak-detection-threshold", "150000");
+
+        ReplicaSet replicaSet = new DataSourceConfig().replicaSet(properties, environment,
+                List.of("jdbc:postgresql://replica/app"), 4, Duration.ofSeconds(10));
+        try {
+            HikariDataSource replica = (HikariDataSource) replicaSet.targetDataSources().get("replica-0");
+
+            assertThat(replica.getConnectionTimeout()).isEqualTo(180_000);
+            assertThat(replica.getLeakDetectionThreshold()).isEqualTo(150_000);
+            assertThat(replica.getJdbcUrl()).isEqualTo("jdbc:postgresql://replica/app");
+            assertThat(replica.getPoolName()).isEqualTo("replica-0");
+            assertThat(replica.getMaximumPoolSize()).isEqualTo(4);
+            assertThat(replica.isReadOnly()).isTrue();
+        } finally {
+            replicaSet.close();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package ru.semavin.telegrambot.config.datasource;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.SimpleAsyncTaskScheduler;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class ReplicaSetTest {
+
+    private final DataSource first = mock(DataSource.class);
+    private final DataSource second = mock(DataSource.class);
+    private final Map<DataSource, Duration> lags = new HashMap<>();
+
+    private ReplicaSet replicaSet() {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-0", first);
+        replicas.put("replica-1", second);
+        return new ReplicaSet(replicas, Duration.ofSeconds(10), dataSource -> {
+            Duration lag = lags.get(dataSource);
+            if (lag == null) {
+                throw new SQLException("connection refused");
+            }
+            return lag;
+        });
+    }
+
+    @Test
+    @DisplayName("До первой проверки отставания чтение идет с основной БД")
+    void uncheckedReplicasAreNotUsed() {
+        assertThat(replicaSet().nextKey()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Пригодные реплики выбираются по кругу")
+    void roundRobinBetweenHealthyReplicas() {
+        lags.put(first, Duration.ZERO);
+        lags.put(second, Duration.ofSeconds(3));
+        ReplicaSet replicaSet = replicaSet();
+
+        replicaSet.checkLag();
+
+        assertThat(replicaSet.nextKey()).contains("replica-0");
+        assertThat(replicaSet.nextKey()).contains("replica-1");
+        assertThat(replicaSet.nextKey()).contains("replica-0");
+    }
+
+    @Test
+    @DisplayName("Отстающая и недоступная реплики пропускаются")
+    void laggingAndFailedReplicasAreSkipped() {
+        lags.put(first, Duration.ofMinutes(1));
+        lags.put(second, Duration.ZERO);
+        ReplicaSet replicaSet = replicaSet();
+
+        replicaSet.checkLag();
+        assertThat(replicaSet.nextKey()).contains("replica-1");
+        assertThat(replicaSet.nextKey()).contains("replica-1");
+
+        lags.remove(second);
+        replicaSet.checkLag();
+        assertThat(replicaSet.nextKey()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Задача fixedDelay выполняется с нагрузкой INGEST, хотя декоратор планировщика к ней не применяется")
+    void fixedDelayJobRunsAsIngest() throws Exception {
+        CompletableFuture<Workload> seen = new CompletableFuture<>();
+        ReplicaSet replicaSet = new ReplicaSet(Map.of("replica-0", first), Duration.ofSeconds(10), dataSource -> {
+            seen.complete(WorkloadContext.current());
+            return Duration.ZERO;
+        });
+        SimpleAsyncTaskScheduler scheduler = new SimpleAsyncTaskScheduler();
+        scheduler.setVirtualThreads(true);
+        scheduler.setTaskDecorator(task -> () -> WorkloadContext.runAs(Workload.USER, task));
+        try {
+            ScheduledFuture<?> job = scheduler.scheduleWithFixedDelay(replicaSet::checkLag, Duration.ofMillis(50));
+            assertThat(seen.get(5, TimeUnit.SECONDS)).isEqualTo(Workload.INGEST);
+            job.cancel(true);
+        } finally {
+            scheduler.close();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package ru.semavin.telegrambot.config.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class WorkloadRoutingDataSourceTest {
+
+    private final ReplicaSet replicaSet = new ReplicaSet(Map.of("replica-0", mock(DataSource.class)),
+            Duration.ofSeconds(10), dataSource -> Duration.ZERO);
+    private final WorkloadRoutingDataSource routing = new WorkloadRoutingDataSource(replicaSet);
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    @DisplayName("readOnly-транзакция метода с @PrimaryRead читает с основной БД, остальные - с реплики")
+    void primaryReadBypassesReplicas() {
+        replicaSet.checkLag();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        AspectJProxyFactory factory = new AspectJProxyFactory(new CachedReads());
+        factory.addAspect(PrimaryReadAspect.class);
+        CachedReads reads = factory.getProxy();
+
+        assertThat(reads.cached(routing)).isEqualTo(Workload.USER);
+        assertThat(reads.uncached(routing)).isEqualTo("replica-0");
+        assertThat(PrimaryReadAspect.active()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Соединение с отстающей реплики отмечается как устаревшее чтение")
+    void laggingReplicaReadIsStale() {
+        ReplicaSet lagging = new ReplicaSet(Map.of("replica-0", mock(DataSource.class)),
+                Duration.ofSeconds(10), dataSource -> Duration.ofSeconds(2));
+        WorkloadRoutingDataSource laggingRouting = new WorkloadRoutingDataSource(lagging);
+        lagging.checkLag();
+        replicaSet.checkLag();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(laggingRouting.determineCurrentLookupKey()).isEqualTo("replica-0");
+        assertThat(WorkloadRoutingDataSource.staleRead()).isTrue();
+
+        assertThat(routing.determineCurrentLookupKey()).isEqualTo("replica-0");
+        assertThat(WorkloadRoutingDataSource.staleRead()).isFalse();
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        laggingRouting.determineCurrentLookupKey();
+        assertThat(WorkloadRoutingDataSource.staleRead()).isFalse();
+    }
+
+    public static class CachedReads {
+
+        @PrimaryRead
+        public Object cached(WorkloadRoutingDataSource routing) {
+            return routing.determineCurrentLookupKey();
+        }
+
+        public Object uncached(WorkloadRoutingDataSource routing) {
+            return routing.determineCurrentLookupKey();
+        }
+    }
+}
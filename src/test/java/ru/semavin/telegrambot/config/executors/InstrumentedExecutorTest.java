@@ -0,0 +1,92 @@
+package ru.semavin.telegrambot.config.executors;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.semavin.telegrambot.config.datasource.Workload;
+import ru.semavin.telegrambot.config.datasource.WorkloadContext;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class InstrumentedExecutorTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final InstrumentedExecutor executor = new InstrumentedExecutor("test", 1, 1, registry);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Сверх лимита и очереди задачи отклоняются и учитываются в метриках")
+    void rejectsWhenQueueIsFull() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        executor.execute(() -> {
+            started.countDown();
+            await(release);
+        });
+        assertThat(started.await(1, TimeUnit.SECONDS)).isTrue();
+        executor.execute(() -> await(release));
+
+        assertThat(registry.get("executor.active").tag("name", "test").gauge().value()).isEqualTo(1);
+        assertThat(registry.get("executor.queued").tag("name", "test").gauge().value()).isEqualTo(1);
+        assertThatThrownBy(() -> executor.execute(() -> { }))
+                .isInstanceOf(RejectedExecutionException.class);
+        assertThat(registry.get("executor.rejected").tag("name", "test").counter().count()).isEqualTo(1);
+
+        release.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(registry.get("executor").tag("name", "test").timer().count()).isEqualTo(2);
+        assertThat(registry.get("executor.idle").tag("name", "test").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("После shutdown выполняющиеся задачи дорабатывают, новые отклоняются")
+    void drainsInFlightTasks() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(1);
+        executor.execute(() -> {
+            await(release);
+            finished.countDown();
+        });
+
+        executor.shutdown();
+        assertThatThrownBy(() -> executor.execute(() -> { }))
+                .isInstanceOf(RejectedExecutionException.class);
+        release.countDown();
+
+        assertThat(executor.awaitTermination(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(finished.getCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Исполнитель с типом нагрузки выполняет задачи с ним, а не с нагрузкой отправителя")
+    void runsTasksUnderConfiguredWorkload() {
+        InstrumentedExecutor ingest = new InstrumentedExecutor("ingest", Workload.INGEST, 1, 1, registry);
+        try {
+            Workload seen = WorkloadContext.callAs(Workload.USER,
+                    () -> ingest.callAndWait(WorkloadContext::current));
+            assertThat(seen).isEqualTo(Workload.INGEST);
+            assertThat(executor.callAndWait(WorkloadContext::current)).isEqualTo(Workload.USER);
+        } finally {
+            ingest.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
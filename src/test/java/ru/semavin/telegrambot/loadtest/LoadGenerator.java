@@ -0,0 +1,93 @@
+package ru.semavin.telegrambot.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Генератор нагрузки с открытой моделью: запросы отправляются по расписанию с заданным RPS
+ * независимо от того, ответил ли сервер на предыдущие. Задержка считается от запланированного
+ * момента отправки, поэтому очередь перед сервером попадает в перцентили (без coordinated omission).
+ */
+public final class LoadGenerator {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    /**
+     * @param requests адрес очередного запроса
+     * @param rps      целевое число запросов в секунду
+     * @param count    сколько запросов отправить
+     * @return задержки и ошибки прогона
+     */
+    public LoadResult run(Supplier<URI> requests, int rps, int count) {
+        long interval = 1_000_000_000L / rps;
+        long[] latencies = new long[count];
+        AtomicInteger errors = new AtomicInteger();
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < count; i++) {
+                long scheduled = start + i * interval;
+                long wait;
+                while ((wait = scheduled - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                int index = i;
+                HttpRequest request = HttpRequest.newBuilder(requests.get())
+                        .timeout(REQUEST_TIMEOUT)
+                        .GET()
+                        .build();
+                executor.execute(() -> {
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() >= 400) {
+                            errors.incrementAndGet();
+                        }
+                    } catch (IOException e) {
+                        errors.incrementAndGet();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        errors.incrementAndGet();
+                    }
+                    latencies[index] = System.nanoTime() - scheduled;
+                });
+            }
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        Arrays.sort(latencies);
+        return new LoadResult(count, errors.get(), elapsed,
+                percentile(latencies, 0.50), percentile(latencies, 0.99), Duration.ofNanos(latencies[count - 1]));
+    }
+
+    private static Duration percentile(long[] sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return Duration.ofNanos(sorted[Math.max(0, index)]);
+    }
+
+    /**
+     * Итог прогона одного сценария.
+     */
+    public record LoadResult(int requests, int errors, Duration elapsed, Duration p50, Duration p99, Duration max) {
+
+        public double errorRate() {
+            return requests == 0 ? 0 : (double) errors / requests;
+        }
+
+        public double achievedRps() {
+            return requests / (elapsed.toNanos() / 1e9);
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package ru.semavin.telegrambot.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Локальная заглушка public.mai.ru на встроенном HTTP-сервере JDK.
+ * Раздает /schedule/data/{ресурс}.json из записанных файлов и синтетических данных,
+ * умеет задерживать ответы, отвечать ошибками с заданной вероятностью и поддерживает
+ * условные запросы: ETag (MD5 тела) и Last-Modified с ответом 304.
+ */
+public class MaiStandInServer implements AutoCloseable {
+
+    private static final String PREFIX = "/schedule/data/";
+    private static final DateTimeFormatter HTTP_DATE = DateTimeFormatter.RFC_1123_DATE_TIME.withZone(ZoneOffset.UTC);
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, Payload> payloads = new ConcurrentHashMap<>();
+    private final Map<Integer, LongAdder> responses = new ConcurrentHashMap<>();
+
+    private volatile Function<String, Optional<String>> source = name -> Optional.empty();
+    private volatile Instant sourceModified = Instant.now();
+    private volatile Duration latency = Duration.ZERO;
+    private volatile Duration jitter = Duration.ZERO;
+    private volatile double errorRate;
+    private volatile boolean conditionalRequests = true;
+
+    public MaiStandInServer() {
+        try {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        server.createContext(PREFIX, this::handle);
+        server.setExecutor(executor);
+    }
+
+    public MaiStandInServer start() {
+        server.start();
+        return this;
+    }
+
+    /**
+     * Адрес для mai.schedule.base-url.
+     */
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + PREFIX;
+    }
+
+    /**
+     * Публикует или заменяет ресурс. Замена меняет ETag и Last-Modified.
+     *
+     * @param resource имя файла без .json: groups, md5 названия группы или uuid преподавателя
+     * @param body     тело ответа
+     */
+    public MaiStandInServer put(String resource, String body) {
+        payloads.put(resource, new Payload(body.getBytes(StandardCharsets.UTF_8),
+                '"' + SyntheticMaiSchedule.md5(body) + '"', Instant.now()));
+        return this;
+    }
+
+    public MaiStandInServer putAll(Map<String, String> resources) {
+        resources.forEach(this::put);
+        return this;
+    }
+
+    /**
+     * Источник ресурсов, которых нет среди опубликованных через {@link #put}.
+     * Тело строится на каждый запрос и не хранится, поэтому подходит для тысяч групп.
+     */
+    public MaiStandInServer serve(Function<String, Optional<String>> source) {
+        this.source = source;
+        this.sourceModified = Instant.now();
+        return this;
+    }
+
+    /**
+     * Загружает записанные ответы: каждый файл {ресурс}.json в каталоге становится ресурсом.
+     */
+    public MaiStandInServer loadRecorded(Path directory) {
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> file.getFileName().toString().endsWith(".json"))
+                    .forEach(file -> {
+                        String name = file.getFileName().toString();
+                        try {
+                            put(name.substring(0, name.length() - ".json".length()), Files.readString(file));
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return this;
+    }
+
+    /**
+     * Задержка каждого ответа: latency плюс равномерно распределенная добавка до jitter.
+     */
+    public MaiStandInServer latency(Duration latency, Duration jitter) {
+        this.latency = latency;
+        this.jitter = jitter;
+        return this;
+    }
+
+    /**
+     * Доля запросов, на которые заглушка отвечает 503.
+     */
+    public MaiStandInServer errorRate(double errorRate) {
+        this.errorRate = errorRate;
+        return this;
+    }
+
+    /**
+     * Отключает ETag, Last-Modified и 304, как у сервера без поддержки условных запросов.
+     */
+    public MaiStandInServer conditionalRequests(boolean enabled) {
+        this.conditionalRequests = enabled;
+        return this;
+    }
+
+    /**
+     * Количество отданных ответов с кодом status.
+     */
+    public long responses(int status) {
+        LongAdder counter = responses.get(status);
+        return counter == null ? 0 : counter.sum();
+    }
+
+    /**
+     * Общее количество отданных ответов.
+     */
+    public long requests() {
+        return responses.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            delay();
+            String path = exchange.getRequestURI().getPath();
+            if (ThreadLocalRandom.current().nextDouble() < errorRate) {
+                respond(exchange, 503, null);
+                return;
+            }
+            if (!"GET".equals(exchange.getRequestMethod()) || !path.endsWith(".json")) {
+                respond(exchange, 404, null);
+                return;
+            }
+            Payload payload = payload(path.substring(PREFIX.length(), path.length() - ".json".length()));
+            if (payload == null) {
+                respond(exchange, 404, null);
+                return;
+            }
+            if (conditionalRequests) {
+                exchange.getResponseHeaders().set("ETag", payload.etag());
+                exchange.getResponseHeaders().set("Last-Modified", HTTP_DATE.format(payload.lastModified()));
+                if (notModified(exchange, payload)) {
+                    respond(exchange, 304, null);
+                    return;
+                }
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+            respond(exchange, 200, payload.body());
+        }
+    }
+
+    private Payload payload(String resource) {
+        Payload payload = payloads.get(resource);
+        if (payload != null) {
+            return payload;
+        }
+        return source.apply(resource)
+                .map(body -> new Payload(body.getBytes(StandardCharsets.UTF_8),
+                        '"' + SyntheticMaiSchedule.md5(body) + '"', sourceModified))
+                .orElse(null);
+    }
+
+    private static boolean notModified(HttpExchange exchange, Payload payload) {
+        String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        if (ifNoneMatch != null) {
+            return ifNoneMatch.contains(payload.etag());
+        }
+        String ifModifiedSince = exchange.getRequestHeaders().getFirst("If-Modified-Since");
+        return ifModifiedSince != null
+                && !payload.lastModified().truncatedTo(ChronoUnit.SECONDS)
+                .isAfter(Instant.from(HTTP_DATE.parse(ifModifiedSince)));
+    }
+
+    private void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        responses.computeIfAbsent(status, s -> new LongAdder()).increment();
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private void delay() {
+        long nanos = latency.toNanos();
+        if (!jitter.isZero()) {
+            nanos += ThreadLocalRandom.current().nextLong(jitter.toNanos() + 1);
+        }
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(Duration.ofNanos(nanos));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record Payload(byte[] body, String etag, Instant lastModified) {
+    }
+}
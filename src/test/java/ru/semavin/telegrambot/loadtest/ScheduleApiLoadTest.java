@@ -0,0 +1,258 @@
+package ru.semavin.telegrambot.loadtest;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import ru.semavin.telegrambot.loadtest.LoadGenerator.LoadResult;
+import ru.semavin.telegrambot.utils.DateUtils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Сквозной нагрузочный тест REST API на одной машине: приложение поднимается целиком на случайном порту,
+ * вместо public.mai.ru работает {@link MaiStandInServer}, БД - локальный PostgreSQL из TEST_POSTGRES_URL
+ * (схема load_test пересоздается при каждом запуске).
+ * <p>
+ * Каждый сценарий гоняется с целевым RPS, в отчете p50/p99 с учетом очереди, доля ошибок,
+ * число SQL-запросов Hibernate на один HTTP-запрос (запросы через JdbcTemplate не учитываются)
+ * и число обращений к заглушке MAI.
+ * <p>
+ * Параметры из окружения: LOAD_TEST_RPS (25), LOAD_TEST_DURATION (PT20S), LOAD_TEST_GROUPS (60),
+ * LOAD_TEST_TEACHERS (200), LOAD_TEST_UPSTREAM_LATENCY (PT0.08S), LOAD_TEST_UPSTREAM_ERROR_RATE (0),
+ * LOAD_TEST_MAX_ERROR_RATE (0.01), LOAD_TEST_P99 (без ограничения),
+ * MAI_RECORDED_DIR - каталог записанных json MAI поверх синтетических.
+ * <p>
+ * Перед прогоном {@link SyntheticDatasetSeeder} добавляет студентов, дедлайны, уведомления
+ * и изменения расписания для тех же групп, расписание приложение загружает с заглушки само.
+ * <p>
+ * Отчет выводится в лог и сохраняется в target/load-test-report.txt.
+ */
+@Slf4j
+@Tag("benchmark")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfEnvironmentVariable(named = "TEST_POSTGRES_URL", matches = ".+")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class ScheduleApiLoadTest {
+
+    private static final String SCHEMA = "load_test";
+    private static final LocalDate SEMESTER_START =
+            LocalDate.now().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).minusWeeks(4);
+    private static final int TEACHING_WEEKS = 16;
+    private static final LocalDate SEMESTER_END = SEMESTER_START.plusWeeks(TEACHING_WEEKS).minusDays(1);
+
+    private static SyntheticMaiSchedule mai;
+    private static MaiStandInServer standIn;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        mai = new SyntheticMaiSchedule(SyntheticScale.builder()
+                .groups(intEnv("LOAD_TEST_GROUPS", 60))
+                .teachers(intEnv("LOAD_TEST_TEACHERS", 200))
+                .from(SEMESTER_START)
+                .teachingWeeks(TEACHING_WEEKS)
+                .build());
+        standIn = new MaiStandInServer()
+                .serve(mai::resource)
+                .latency(durationEnv("LOAD_TEST_UPSTREAM_LATENCY", Duration.ofMillis(80)), Duration.ofMillis(40))
+                .errorRate(Double.parseDouble(env("LOAD_TEST_UPSTREAM_ERROR_RATE", "0")));
+        String recorded = System.getenv("MAI_RECORDED_DIR");
+        if (recorded != null && !recorded.isBlank()) {
+            standIn.loadRecorded(Path.of(recorded));
+        }
+        standIn.start();
+
+        registry.add("spring.datasource.url", ScheduleApiLoadTest::schemaUrl);
+        registry.add("spring.datasource.username", () -> env("TEST_POSTGRES_USER", "postgres"));
+        registry.add("spring.datasource.password", () -> env("TEST_POSTGRES_PASSWORD", "postgres"));
+        registry.add("spring.flyway.schemas", () -> SCHEMA);
+        registry.add("spring.flyway.clean-disabled", () -> false);
+        registry.add("mai.schedule.base-url", standIn::baseUrl);
+        registry.add("key.api", () -> "load-test");
+        registry.add("semester.start", () -> SEMESTER_START.format(DateUtils.FORMATTER));
+        registry.add("semester.end", () -> SEMESTER_END.format(DateUtils.FORMATTER));
+        registry.add("schedule.refresh.enabled", () -> false);
+        registry.add("schedule.today-poll.enabled", () -> false);
+        registry.add("dailyscheduleupdate.cron", () -> "-");
+        registry.add("logging.level.ru.semavin", () -> "WARN");
+        registry.add("logging.level.ru.semavin.telegrambot.loadtest", () -> "INFO");
+        registry.add("logging.level.org.springframework.transaction", () -> "WARN");
+    }
+
+    @BeforeAll
+    void seedDataset() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(schemaUrl(),
+                env("TEST_POSTGRES_USER", "postgres"), env("TEST_POSTGRES_PASSWORD", "postgres"))) {
+            log.info("{}", new SyntheticDatasetSeeder(mai).seed(connection, false));
+        }
+    }
+
+    @AfterAll
+    void stopStandIn() {
+        standIn.close();
+    }
+
+    @Test
+    void scheduleEndpointsUnderLoad() {
+        int rps = intEnv("LOAD_TEST_RPS", 25);
+        int count = (int) (durationEnv("LOAD_TEST_DURATION", Duration.ofSeconds(20)).toSeconds() * rps);
+        List<String> groups = mai.groupNames();
+        List<String> teachers = mai.teacherUuids();
+
+        Map<String, Supplier<URI>> scenarios = new LinkedHashMap<>();
+        // первый проход по каждой группе идет в MAI и пишет расписание в БД
+        scenarios.put("day (cold)", sequential(groups, group -> "/day?groupName=" + encode(group)
+                + "&date=" + randomLessonDate()));
+        scenarios.put("day", random(groups, group -> "/day?groupName=" + encode(group)
+                + "&date=" + randomLessonDate()));
+        scenarios.put("currentDay", random(groups, group -> "/currentDay?groupName=" + encode(group)));
+        scenarios.put("change", random(groups, group -> "/change?groupName=" + encode(group)
+                + "&date=" + randomLessonDate()));
+        scenarios.put("group ics", random(groups, group -> "/semester/feed?groupName=" + encode(group)));
+        scenarios.put("teacher ics", random(teachers, teacher -> "/teacher/semester/feed?teacherUUID=" + teacher));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        LoadGenerator generator = new LoadGenerator();
+        List<String> report = new ArrayList<>();
+        report.add(String.format("%-14s %8s %8s %9s %9s %9s %8s %10s %9s",
+                "scenario", "requests", "rps", "p50 ms", "p99 ms", "max ms", "errors", "sql/req", "upstream"));
+        Map<String, LoadResult> results = new LinkedHashMap<>();
+        scenarios.forEach((name, requests) -> {
+            long statementsBefore = statistics.getPrepareStatementCount();
+            long upstreamBefore = standIn.requests();
+            LoadResult result = generator.run(requests, rps,
+                    name.endsWith("(cold)") ? groups.size() : count);
+            long statements = statistics.getPrepareStatementCount() - statementsBefore;
+            long upstream = standIn.requests() - upstreamBefore;
+            results.put(name, result);
+            report.add(String.format("%-14s %8d %8.1f %9.1f %9.1f %9.1f %7.2f%% %10.1f %9d",
+                    name, result.requests(), result.achievedRps(), millis(result.p50()), millis(result.p99()),
+                    millis(result.max()), result.errorRate() * 100, (double) statements / result.requests(), upstream));
+        });
+        writeReport(report);
+
+        double maxErrorRate = Double.parseDouble(env("LOAD_TEST_MAX_ERROR_RATE", "0.01"));
+        String p99Budget = System.getenv("LOAD_TEST_P99");
+        results.forEach((name, result) -> {
+            assertThat(result.errorRate()).as("доля ошибок сценария %s", name).isLessThanOrEqualTo(maxErrorRate);
+            if (p99Budget != null && !p99Budget.isBlank() && !name.endsWith("(cold)")) {
+                assertThat(result.p99()).as("p99 сценария %s", name).isLessThanOrEqualTo(Duration.parse(p99Budget));
+            }
+        });
+    }
+
+    private Supplier<URI> random(List<String> values, Function<String, String> path) {
+        return () -> uri(path.apply(values.get(ThreadLocalRandom.current().nextInt(values.size()))));
+    }
+
+    private Supplier<URI> sequential(List<String> values, Function<String, String> path) {
+        int[] next = {0};
+        return () -> uri(path.apply(values.get(next[0]++ % values.size())));
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://127.0.0.1:" + port + "/api/v1/schedule" + path);
+    }
+
+    private static String schemaUrl() {
+        String url = System.getenv("TEST_POSTGRES_URL");
+        return url + (url.contains("?") ? "&" : "?") + "currentSchema=" + SCHEMA;
+    }
+
+    private static String randomLessonDate() {
+        LocalDate date = SEMESTER_START.plusDays(ThreadLocalRandom.current().nextLong(
+                SEMESTER_END.toEpochDay() - SEMESTER_START.toEpochDay()));
+        if (date.getDayOfWeek() == DayOfWeek.SUNDAY) {
+            date = date.minusDays(1);
+        }
+        return date.format(DateUtils.FORMATTER);
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static double millis(Duration duration) {
+        return duration.toNanos() / 1e6;
+    }
+
+    private static void writeReport(List<String> report) {
+        report.forEach(log::info);
+        Path file = Path.of("target", "load-test-report.txt");
+        try {
+            Files.createDirectories(file.getParent());
+            Files.write(file, report, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            log.warn("Не удалось сохранить отчет в {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+
+    private static int intEnv(String name, int defaultValue) {
+        return Integer.parseInt(env(name, String.valueOf(defaultValue)));
+    }
+
+    private static Duration durationEnv(String name, Duration defaultValue) {
+        return Duration.parse(env(name, defaultValue.toString()));
+    }
+
+    @TestConfiguration
+    static class CleanSchema {
+
+        /**
+         * Каждый запуск начинается с пустой схемы, чтобы холодный сценарий действительно был холодным.
+         */
+        @Bean
+        FlywayMigrationStrategy cleanMigrate() {
+            return flyway -> {
+                flyway.clean();
+                flyway.migrate();
+            };
+        }
+    }
+}
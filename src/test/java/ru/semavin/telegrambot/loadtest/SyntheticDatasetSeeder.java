@@ -0,0 +1,453 @@
+package ru.semavin.telegrambot.loadtest;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import ru.semavin.telegrambot.loadtest.SyntheticMaiSchedule.Lesson;
+import ru.semavin.telegrambot.models.GroupEntity;
+import ru.semavin.telegrambot.models.ScheduleEntity;
+import ru.semavin.telegrambot.models.UserEntity;
+import ru.semavin.telegrambot.models.enums.LessonType;
+import ru.semavin.telegrambot.services.schedules.ScheduleControlSumParserService;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Заполняет PostgreSQL синтетическими данными {@link SyntheticMaiSchedule}:
+ * группы, преподаватели, студенты со старостами, дедлайны, уведомления и изменения расписания
+ * за все семестры, по желанию и сами пары. Пишет через COPY в одной транзакции.
+ * <p>
+ * Группы и преподаватели, которые приложение уже создало (например, загрузив groups.json с заглушки),
+ * переиспользуются по названию и uuid, поэтому сидер можно запускать и после старта приложения.
+ * Студенты, дедлайны, уведомления и изменения добавляются при каждом запуске.
+ */
+public final class SyntheticDatasetSeeder {
+
+    private static final long TELEGRAM_ID_BASE = 7_000_000_000L;
+    private static final int COPY_BUFFER = 1 << 20;
+
+    private final SyntheticMaiSchedule mai;
+    private final SyntheticScale scale;
+
+    public SyntheticDatasetSeeder(SyntheticMaiSchedule mai) {
+        this.mai = mai;
+        this.scale = mai.scale();
+    }
+
+    /**
+     * @param connection   соединение со схемой после миграций Flyway (search_path уже выставлен)
+     * @param withSchedule записывать ли пары в schedule; без них расписание загрузит приложение
+     * @return количество записанных строк
+     */
+    public SeedResult seed(Connection connection, boolean withSchedule) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            ensurePartitions(connection);
+            Map<String, Long> groupIds = seedGroups(connection);
+            Map<String, Long> teacherIds = seedTeachers(connection);
+            seedTeacherGroups(connection, groupIds, teacherIds);
+            Map<Long, List<Long>> students = seedStudents(connection, groupIds);
+            long lessons = withSchedule ? seedSchedule(connection, groupIds, teacherIds) : 0;
+            long changes = seedChanges(connection, groupIds);
+            long deadlines = seedDeadlines(connection, groupIds);
+            long notifications = seedNotifications(connection, groupIds, students);
+            connection.commit();
+            try (Statement st = connection.createStatement()) {
+                st.execute("ANALYZE");
+            }
+            connection.commit();
+            long studentCount = students.values().stream().mapToLong(List::size).sum();
+            return new SeedResult(groupIds.size(), teacherIds.size(), studentCount, lessons, changes,
+                    deadlines, notifications);
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private void ensurePartitions(Connection connection) throws SQLException {
+        try (Statement st = connection.createStatement()) {
+            for (YearMonth month = YearMonth.from(scale.getFrom()); !month.isAfter(YearMonth.from(scale.to()));
+                 month = month.plusMonths(1)) {
+                LocalDate monthStart = month.atDay(1);
+                st.execute("SELECT ensure_month_partition('schedule', 'lesson_date', DATE '" + monthStart + "')");
+                st.execute("SELECT ensure_month_partition('lessons', 'lesson_date', DATE '" + monthStart + "')");
+                st.execute("SELECT ensure_month_partition('schedule_changes', 'old_lesson_date', DATE '"
+                        + monthStart + "')");
+            }
+        }
+    }
+
+    private Map<String, Long> seedGroups(Connection connection) throws SQLException {
+        execute(connection, "CREATE TEMP TABLE seed_groups (group_name varchar(20)) ON COMMIT DROP");
+        try (Copy copy = new Copy(connection, "COPY seed_groups (group_name) FROM STDIN")) {
+            for (String group : mai.groupNames()) {
+                copy.row(group);
+            }
+        }
+        execute(connection, """
+                INSERT INTO groups (group_name)
+                SELECT s.group_name FROM seed_groups s
+                WHERE NOT EXISTS (SELECT 1 FROM groups g WHERE upper(g.group_name) = upper(s.group_name))
+                """);
+        return ids(connection, """
+                SELECT upper(g.group_name), min(g.id) FROM groups g
+                JOIN seed_groups s ON upper(s.group_name) = upper(g.group_name)
+                GROUP BY 1
+                """);
+    }
+
+    private Map<String, Long> seedTeachers(Connection connection) throws SQLException {
+        execute(connection, """
+                CREATE TEMP TABLE seed_teachers (teacher_uuid varchar(255), last_name varchar(255),
+                                                 first_name varchar(255), patronymic varchar(255)) ON COMMIT DROP
+                """);
+        try (Copy copy = new Copy(connection,
+                "COPY seed_teachers (teacher_uuid, last_name, first_name, patronymic) FROM STDIN")) {
+            List<String> uuids = mai.teacherUuids();
+            for (int i = 0; i < uuids.size(); i++) {
+                String[] name = mai.teacherName(i).split(" ");
+                copy.row(uuids.get(i), name[0], name[1], name[2]);
+            }
+        }
+        execute(connection, """
+                INSERT INTO users (teacher_uuid, last_name, first_name, patronymic, role)
+                SELECT teacher_uuid, last_name, first_name, patronymic, 'TEACHER' FROM seed_teachers
+                ON CONFLICT (teacher_uuid) DO NOTHING
+                """);
+        return ids(connection, """
+                SELECT u.teacher_uuid, u.id FROM users u JOIN seed_teachers s ON s.teacher_uuid = u.teacher_uuid
+                """);
+    }
+
+    private void seedTeacherGroups(Connection connection, Map<String, Long> groupIds,
+                                   Map<String, Long> teacherIds) throws SQLException {
+        execute(connection, """
+                CREATE TEMP TABLE seed_teacher_groups (teacher_id bigint, group_id bigint) ON COMMIT DROP
+                """);
+        try (Copy copy = new Copy(connection, "COPY seed_teacher_groups (teacher_id, group_id) FROM STDIN")) {
+            List<String> uuids = mai.teacherUuids();
+            for (int teacher = 0; teacher < uuids.size(); teacher++) {
+                for (int group : mai.teacherGroups(teacher)) {
+                    copy.row(teacherIds.get(uuids.get(teacher)), groupId(groupIds, group));
+                }
+            }
+        }
+        execute(connection, """
+                INSERT INTO teacher_groups (teacher_id, group_id)
+                SELECT teacher_id, group_id FROM seed_teacher_groups
+                ON CONFLICT DO NOTHING
+                """);
+    }
+
+    private Map<Long, List<Long>> seedStudents(Connection connection, Map<String, Long> groupIds) throws SQLException {
+        long telegramBase;
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("SELECT coalesce(max(telegram_id), 0) FROM users")) {
+            rs.next();
+            telegramBase = Math.max(TELEGRAM_ID_BASE, rs.getLong(1) + 1);
+        }
+        Random random = new Random(scale.getSeed() + 1);
+        try (Copy copy = new Copy(connection,
+                "COPY users (telegram_id, username, last_name, first_name, role, group_id) FROM STDIN")) {
+            long n = 0;
+            for (int group = 0; group < mai.groupNames().size(); group++) {
+                for (int i = 0; i < scale.getStudentsPerGroup(); i++, n++) {
+                    String[] name = mai.teacherName(random.nextInt(mai.teacherUuids().size())).split(" ");
+                    copy.row(telegramBase + n, "student" + (telegramBase + n), name[0], name[1],
+                            i == 0 ? "STAROSTA" : "STUDENT", groupId(groupIds, group));
+                }
+            }
+        }
+        execute(connection, """
+                UPDATE groups g SET starosta_id = u.id
+                FROM users u
+                WHERE u.group_id = g.id AND u.role = 'STAROSTA' AND u.telegram_id >= %d AND g.starosta_id IS NULL
+                """.formatted(telegramBase));
+
+        Map<Long, List<Long>> students = new HashMap<>();
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("SELECT group_id, id FROM users WHERE telegram_id >= " + telegramBase)) {
+            while (rs.next()) {
+                students.computeIfAbsent(rs.getLong(1), k -> new ArrayList<>()).add(rs.getLong(2));
+            }
+        }
+        return students;
+    }
+
+    private long seedSchedule(Connection connection, Map<String, Long> groupIds,
+                              Map<String, Long> teacherIds) throws SQLException {
+        long rows = 0;
+        execute(connection, "CREATE TEMP TABLE seed_schedule (LIKE schedule_lessons) ON COMMIT DROP");
+        try (Copy copy = new Copy(connection, """
+                COPY seed_schedule (group_id, subject_name, lesson_type, teacher_id, classroom, lesson_date,
+                                    start_time, end_time, lesson_week, control_sum) FROM STDIN
+                """)) {
+            List<String> uuids = mai.teacherUuids();
+            for (int group = 0; group < mai.groupNames().size(); group++) {
+                GroupEntity groupEntity = GroupEntity.builder().groupName(mai.groupNames().get(group)).build();
+                for (LocalDate date = scale.getFrom(); !date.isAfter(scale.to()); date = date.plusDays(1)) {
+                    for (Lesson lesson : mai.lessons(group, date)) {
+                        copy.row(groupId(groupIds, group), lesson.subject(), lessonType(lesson).name(),
+                                teacherIds.get(uuids.get(lesson.teacher())), lesson.room(), date,
+                                lesson.start(), lesson.end(), week(date), controlSum(groupEntity, lesson));
+                        rows++;
+                    }
+                }
+            }
+        }
+        execute(connection, """
+                INSERT INTO subjects (name)
+                SELECT DISTINCT subject_name FROM seed_schedule
+                ON CONFLICT (name) DO NOTHING
+                """);
+        execute(connection, """
+                INSERT INTO rooms (name)
+                SELECT DISTINCT classroom FROM seed_schedule
+                ON CONFLICT (name) DO NOTHING
+                """);
+        execute(connection, """
+                INSERT INTO lessons (lesson_key, lesson_date, start_time, end_time, subject_id, lesson_type,
+                                     teacher_id, room_id, lesson_week)
+                SELECT DISTINCT ON (k.lesson_key, s.lesson_date) k.lesson_key, s.lesson_date, s.start_time,
+                       s.end_time, sj.id, s.lesson_type, s.teacher_id, r.id, s.lesson_week
+                FROM seed_schedule s
+                         JOIN subjects sj ON sj.name = s.subject_name
+                         JOIN rooms r ON r.name = s.classroom
+                         CROSS JOIN LATERAL (SELECT schedule_lesson_key(s.lesson_date, s.start_time, s.end_time,
+                                s.subject_name, s.lesson_type, s.teacher_id, s.classroom) AS lesson_key) k
+                ON CONFLICT (lesson_key, lesson_date) DO NOTHING
+                """);
+        execute(connection, """
+                INSERT INTO schedule (id, group_id, lesson_id, lesson_date, control_sum, snapshot_version)
+                SELECT nextval('schedule_seq'), s.group_id, l.id, s.lesson_date, s.control_sum, 0
+                FROM seed_schedule s
+                         JOIN lessons l ON l.lesson_date = s.lesson_date
+                    AND l.lesson_key = schedule_lesson_key(s.lesson_date, s.start_time, s.end_time,
+                                                           s.subject_name, s.lesson_type, s.teacher_id, s.classroom)
+                """);
+        return rows;
+    }
+
+    /**
+     * Изменения: треть пар отменяется, остальные переносятся на неделю вперед в то же время.
+     */
+    private long seedChanges(Connection connection, Map<String, Long> groupIds) throws SQLException {
+        Random random = new Random(scale.getSeed() + 2);
+        long rows = 0;
+        try (Copy copy = new Copy(connection, """
+                COPY schedule_changes (subject_name, lesson_type, teacher_name, classroom, old_lesson_date,
+                                       old_start_time, old_end_time, new_lesson_date, new_start_time, new_end_time,
+                                       description, deleted, old_control_sum, group_id) FROM STDIN
+                """)) {
+            for (int group = 0; group < mai.groupNames().size(); group++) {
+                GroupEntity groupEntity = GroupEntity.builder().groupName(mai.groupNames().get(group)).build();
+                for (int semester = 0; semester < scale.getSemesters(); semester++) {
+                    LocalDate start = scale.semesterStart(semester);
+                    for (int i = 0; i < scale.getChangesPerGroup(); i++) {
+                        LocalDate date = start.plusDays(random.nextInt(scale.getTeachingWeeks() * 7));
+                        List<Lesson> lessons = mai.lessons(group, date);
+                        if (lessons.isEmpty()) {
+                            continue;
+                        }
+                        Lesson lesson = lessons.get(random.nextInt(lessons.size()));
+                        boolean deleted = random.nextInt(3) == 0;
+                        LocalDate newDate = deleted ? null : date.plusWeeks(1);
+                        copy.row(lesson.subject(), lessonType(lesson).name(), mai.teacherName(lesson.teacher()),
+                                lesson.room(), date, lesson.start(), lesson.end(), newDate,
+                                deleted ? null : lesson.start(), deleted ? null : lesson.end(),
+                                deleted ? "Пара отменена" : "Перенос на неделю", deleted,
+                                controlSum(groupEntity, lesson), groupId(groupIds, group));
+                        rows++;
+                    }
+                }
+            }
+        }
+        return rows;
+    }
+
+    private long seedDeadlines(Connection connection, Map<String, Long> groupIds) throws SQLException {
+        Random random = new Random(scale.getSeed() + 3);
+        long days = ChronoUnit.DAYS.between(scale.getFrom(), scale.to()) + 1;
+        long rows = 0;
+        try (Copy copy = new Copy(connection, """
+                COPY deadlines (title, uuid, description, due_date, group_id, notified_3_days, notified_1_day)
+                FROM STDIN
+                """)) {
+            for (int group = 0; group < mai.groupNames().size(); group++) {
+                for (int i = 0; i < scale.getDeadlinesPerGroup(); i++) {
+                    copy.row("Дедлайн " + (i + 1), randomUuid(random), "Сдать работу " + (i + 1),
+                            scale.getFrom().plusDays(random.nextLong(days)), groupId(groupIds, group), false, false);
+                    rows++;
+                }
+            }
+        }
+        execute(connection, """
+                UPDATE deadlines d SET creator_id = g.starosta_id
+                FROM groups g
+                WHERE d.group_id = g.id AND d.creator_id IS NULL
+                """);
+        return rows;
+    }
+
+    private long seedNotifications(Connection connection, Map<String, Long> groupIds,
+                                   Map<Long, List<Long>> students) throws SQLException {
+        Random random = new Random(scale.getSeed() + 4);
+        long days = ChronoUnit.DAYS.between(scale.getFrom(), scale.to()) + 1;
+        long rows = 0;
+        try (Copy copy = new Copy(connection, """
+                COPY notifications (uuid_id, user_id, group_id, description, from_date, to_date) FROM STDIN
+                """)) {
+            for (int group = 0; group < mai.groupNames().size(); group++) {
+                long groupId = groupId(groupIds, group);
+                List<Long> members = students.getOrDefault(groupId, List.of());
+                if (members.isEmpty()) {
+                    continue;
+                }
+                for (int i = 0; i < scale.getNotificationsPerGroup(); i++) {
+                    LocalDate from = scale.getFrom().plusDays(random.nextLong(days));
+                    copy.row(randomUuid(random), members.get(random.nextInt(members.size())), groupId,
+                            "Уведомление " + (i + 1), from, from.plusDays(1 + random.nextInt(14)));
+                    rows++;
+                }
+            }
+        }
+        return rows;
+    }
+
+    private int week(LocalDate date) {
+        long weeks = ChronoUnit.WEEKS.between(scale.semesterStart(0), date);
+        return (int) (weeks % (scale.getTeachingWeeks() + scale.getSessionWeeks())) + 1;
+    }
+
+    /**
+     * Контрольная сумма в текстовом формате bytea для COPY.
+     */
+    private String controlSum(GroupEntity group, Lesson lesson) {
+        String[] name = mai.teacherName(lesson.teacher()).split(" ");
+        String hex = ScheduleControlSumParserService.fillCalculateSum(ScheduleEntity.builder()
+                        .group(group)
+                        .subjectName(lesson.subject())
+                        .lessonType(lessonType(lesson))
+                        .teacher(UserEntity.builder().lastName(name[0]).firstName(name[1]).patronymic(name[2]).build())
+                        .classroom(lesson.room())
+                        .lessonDate(lesson.date())
+                        .startTime(lesson.start())
+                        .endTime(lesson.end())
+                        .build())
+                .getControlSum();
+        return "\\x" + hex;
+    }
+
+    private static LessonType lessonType(Lesson lesson) {
+        return switch (lesson.type()) {
+            case "ПЗ" -> LessonType.PRACTICAL;
+            case "ЛР" -> LessonType.LAB;
+            case SyntheticMaiSchedule.EXAM -> LessonType.EXAM;
+            default -> LessonType.LECTURE;
+        };
+    }
+
+    private long groupId(Map<String, Long> groupIds, int group) {
+        return groupIds.get(mai.groupNames().get(group).toUpperCase(Locale.ROOT));
+    }
+
+    private static UUID randomUuid(Random random) {
+        return new UUID(random.nextLong(), random.nextLong());
+    }
+
+    private static Map<String, Long> ids(Connection connection, String sql) throws SQLException {
+        Map<String, Long> ids = new HashMap<>();
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery(sql)) {
+            while (rs.next()) {
+                ids.put(rs.getString(1), rs.getLong(2));
+            }
+        }
+        return ids;
+    }
+
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement st = connection.createStatement()) {
+            st.execute(sql);
+        }
+    }
+
+    /**
+     * Количество записанных строк по таблицам.
+     */
+    public record SeedResult(long groups, long teachers, long students, long lessons, long changes,
+                             long deadlines, long notifications) {
+    }
+
+    /**
+     * Потоковая запись в COPY ... FROM STDIN в текстовом формате с буфером.
+     */
+    private static final class Copy implements AutoCloseable {
+
+        private final CopyIn copyIn;
+        private final StringBuilder buffer = new StringBuilder(COPY_BUFFER);
+
+        Copy(Connection connection, String copySql) throws SQLException {
+            copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(copySql);
+        }
+
+        void row(Object... values) throws SQLException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    buffer.append('\t');
+                }
+                if (values[i] == null) {
+                    buffer.append("\\N");
+                } else {
+                    escape(values[i].toString());
+                }
+            }
+            buffer.append('\n');
+            if (buffer.length() >= COPY_BUFFER) {
+                flush();
+            }
+        }
+
+        private void escape(String value) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '\\' -> buffer.append("\\\\");
+                    case '\t' -> buffer.append("\\t");
+                    case '\n' -> buffer.append("\\n");
+                    case '\r' -> buffer.append("\\r");
+                    default -> buffer.append(c);
+                }
+            }
+        }
+
+        private void flush() throws SQLException {
+            byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+            copyIn.writeToCopy(bytes, 0, bytes.length);
+            buffer.setLength(0);
+        }
+
+        @Override
+        public void close() throws SQLException {
+            flush();
+            copyIn.endCopy();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package ru.semavin.telegrambot.loadtest;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import ru.semavin.telegrambot.loadtest.SyntheticDatasetSeeder.SeedResult;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Заполнение схемы, накатанной Flyway, синтетическими данными.
+ * Запускается только при заданной переменной TEST_POSTGRES_URL.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfEnvironmentVariable(named = "TEST_POSTGRES_URL", matches = ".+")
+public class SyntheticDatasetSeederTest {
+
+    private static final String SCHEMA = "seed_test";
+    private static final SyntheticScale SCALE = SyntheticScale.builder()
+            .groups(12)
+            .teachers(30)
+            .from(LocalDate.of(2025, 9, 1))
+            .teachingWeeks(4)
+            .sessionWeeks(1)
+            .semesters(2)
+            .studentsPerGroup(5)
+            .deadlinesPerGroup(3)
+            .notificationsPerGroup(2)
+            .changesPerGroup(4)
+            .build();
+
+    private Connection connection;
+    private SeedResult first;
+
+    @BeforeAll
+    void migrateAndSeed() throws SQLException {
+        String url = System.getenv("TEST_POSTGRES_URL");
+        String user = System.getenv().getOrDefault("TEST_POSTGRES_USER", "postgres");
+        String password = System.getenv().getOrDefault("TEST_POSTGRES_PASSWORD", "postgres");
+        Flyway.configure().dataSource(url, user, password).schemas(SCHEMA).cleanDisabled(false).load().clean();
+        Flyway.configure().dataSource(url, user, password).schemas(SCHEMA).load().migrate();
+
+        connection = DriverManager.getConnection(url, user, password);
+        try (Statement st = connection.createStatement()) {
+            st.execute("SET search_path TO " + SCHEMA);
+        }
+        SyntheticDatasetSeeder seeder = new SyntheticDatasetSeeder(new SyntheticMaiSchedule(SCALE));
+        first = seeder.seed(connection, true);
+        seeder.seed(connection, false);
+    }
+
+    @AfterAll
+    void close() throws SQLException {
+        connection.close();
+    }
+
+    @Test
+    @DisplayName("Повторный запуск не дублирует группы и преподавателей")
+    void groupsAndTeachersAreReused() throws SQLException {
+        assertThat(count("SELECT count(*) FROM groups")).isEqualTo(SCALE.getGroups());
+        assertThat(count("SELECT count(*) FROM users WHERE role = 'TEACHER'")).isEqualTo(SCALE.getTeachers());
+        assertThat(count("SELECT count(*) FROM groups WHERE starosta_id IS NULL")).isZero();
+        assertThat(count("SELECT count(*) FROM users WHERE role IN ('STUDENT', 'STAROSTA')"))
+                .isEqualTo(2L * SCALE.getGroups() * SCALE.getStudentsPerGroup());
+    }
+
+    @Test
+    @DisplayName("Пары, изменения, дедлайны и уведомления записаны в нужном объеме")
+    void volumes() throws SQLException {
+        assertThat(first.lessons()).isPositive();
+        assertThat(count("SELECT count(*) FROM schedule")).isEqualTo(first.lessons());
+        assertThat(count("SELECT count(*) FROM schedule_changes")).isEqualTo(2 * first.changes());
+        assertThat(count("SELECT count(*) FROM deadlines WHERE creator_id IS NOT NULL"))
+                .isEqualTo(2L * SCALE.getGroups() * SCALE.getDeadlinesPerGroup());
+        assertThat(count("SELECT count(*) FROM notifications"))
+                .isEqualTo(2L * SCALE.getGroups() * SCALE.getNotificationsPerGroup());
+        assertThat(count("SELECT count(*) FROM schedule_lessons WHERE lesson_type = 'EXAM'")).isPositive();
+    }
+
+    @Test
+    @DisplayName("Общая лекция потока записана каждой группе потока")
+    void streamLectureIsShared() throws SQLException {
+        long groupsPerLecture = count("""
+                SELECT max(c) FROM (
+                    SELECT count(DISTINCT group_id) c FROM schedule_lessons
+                    WHERE lesson_type = 'LECTURE'
+                    GROUP BY lesson_date, start_time, teacher_id, classroom, subject_name) l
+                """);
+
+        assertThat(groupsPerLecture).isEqualTo(SCALE.getStreamSize());
+    }
+
+    @Test
+    @DisplayName("Общая лекция потока хранится одним занятием")
+    void streamLectureIsStoredOnce() throws SQLException {
+        long groupsPerLesson = count("""
+                SELECT max(c) FROM (
+                    SELECT count(DISTINCT s.group_id) c FROM schedule s
+                    JOIN lessons l ON l.id = s.lesson_id AND l.lesson_date = s.lesson_date
+                    WHERE l.lesson_type = 'LECTURE'
+                    GROUP BY l.id) l
+                """);
+
+        assertThat(groupsPerLesson).isEqualTo(SCALE.getStreamSize());
+        assertThat(count("SELECT count(*) FROM lessons")).isLessThan(first.lessons());
+    }
+
+    @Test
+    @DisplayName("Названия предметов и аудиторий записаны в словари по одному разу")
+    void dictionariesHoldDistinctNames() throws SQLException {
+        assertThat(count("SELECT count(*) FROM subjects"))
+                .isEqualTo(count("SELECT count(DISTINCT subject_name) FROM schedule_lessons"));
+        assertThat(count("SELECT count(*) FROM rooms"))
+                .isEqualTo(count("SELECT count(DISTINCT classroom) FROM schedule_lessons"));
+        assertThat(count("SELECT count(*) FROM lessons WHERE subject_id IS NULL OR room_id IS NULL")).isZero();
+    }
+
+    private long count(String sql) throws SQLException {
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
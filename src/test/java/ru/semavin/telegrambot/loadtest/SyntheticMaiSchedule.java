@@ -0,0 +1,262 @@
+package ru.semavin.telegrambot.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Детерминированное расписание в формате public.mai.ru: список групп, json групп и преподавателей.
+ * При одинаковом {@link SyntheticScale} генерируются одинаковые данные, поэтому прогоны сравнимы.
+ * <p>
+ * Группы объединены в потоки с общими лекциями (один преподаватель, аудитория и время у всех групп потока),
+ * лабораторные иногда идут сдвоенной парой, в неделях сессии вместо занятий - экзамены.
+ * json групп строится по запросу, в памяти держится только учебный план,
+ * так что генератор выдерживает тысячи групп и несколько семестров.
+ */
+public final class SyntheticMaiSchedule {
+
+    public static final String EXAM = "Экзамен";
+
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("H:mm:ss");
+    private static final String[] DAY_NAMES = {"Пн", "Вт", "Ср", "Чт", "Пт", "Сб"};
+    private static final LocalTime[][] SLOTS = {
+            {LocalTime.of(9, 0), LocalTime.of(10, 30)},
+            {LocalTime.of(10, 45), LocalTime.of(12, 15)},
+            {LocalTime.of(13, 0), LocalTime.of(14, 30)},
+            {LocalTime.of(14, 45), LocalTime.of(16, 15)},
+            {LocalTime.of(16, 30), LocalTime.of(18, 0)}};
+    private static final int[] INSTITUTES = {3, 7, 9};
+    private static final int LECTURES_PER_STREAM = 4;
+    private static final int SEMINARS_PER_GROUP = 4;
+    private static final String[] LAST_NAMES = {"Иванов", "Петров", "Сидоров", "Смирнов", "Кузнецов", "Попов",
+            "Волков", "Соколов", "Лебедев", "Козлов"};
+    private static final String[] FIRST_NAMES = {"Иван", "Петр", "Сергей", "Алексей", "Дмитрий", "Андрей",
+            "Михаил", "Николай"};
+    private static final String[] PATRONYMICS = {"Иванович", "Петрович", "Сергеевич", "Алексеевич", "Андреевич"};
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final SyntheticScale scale;
+    private final List<String> groupNames = new ArrayList<>();
+    private final Map<String, Integer> groupByMd5 = new HashMap<>();
+    private final String[] teacherUuids;
+    private final String[] teacherNames;
+    private final Map<String, Integer> teacherByUuid = new HashMap<>();
+    private final List<Set<Integer>> teacherGroups;
+    private final Subject[][] streamLectures;
+    private final Subject[][] groupSeminars;
+    private final String groupsJson;
+
+    public SyntheticMaiSchedule(SyntheticScale scale) {
+        this.scale = scale;
+        Random random = new Random(scale.getSeed());
+
+        int teachers = scale.getTeachers();
+        teacherUuids = new String[teachers];
+        teacherNames = new String[teachers];
+        teacherGroups = new ArrayList<>(teachers);
+        for (int i = 0; i < teachers; i++) {
+            teacherUuids[i] = new UUID(random.nextLong(), random.nextLong()).toString();
+            teacherNames[i] = pick(random, LAST_NAMES) + " " + pick(random, FIRST_NAMES) + " "
+                    + pick(random, PATRONYMICS);
+            teacherByUuid.put(teacherUuids[i], i);
+            teacherGroups.add(new LinkedHashSet<>());
+        }
+
+        int streams = (scale.getGroups() + scale.getStreamSize() - 1) / scale.getStreamSize();
+        streamLectures = new Subject[streams][LECTURES_PER_STREAM];
+        for (int stream = 0; stream < streams; stream++) {
+            for (int i = 0; i < LECTURES_PER_STREAM; i++) {
+                streamLectures[stream][i] = new Subject("Предмет " + (1 + random.nextInt(60)), "ЛК",
+                        random.nextInt(teachers), "ГУК Б-" + random.nextInt(300));
+            }
+        }
+
+        ArrayNode groupsNode = mapper.createArrayNode();
+        groupSeminars = new Subject[scale.getGroups()][SEMINARS_PER_GROUP];
+        for (int group = 0; group < scale.getGroups(); group++) {
+            int stream = group / scale.getStreamSize();
+            int institute = INSTITUTES[stream % INSTITUTES.length];
+            String name = "М" + institute + "О-" + (101 + group) + "Б-" + (22 + stream % 4);
+            groupNames.add(name);
+            groupByMd5.put(md5(name), group);
+            groupsNode.addObject()
+                    .put("name", name)
+                    .put("fac", "Институт №" + institute)
+                    .put("level", "Бакалавриат");
+            for (int i = 0; i < SEMINARS_PER_GROUP; i++) {
+                groupSeminars[group][i] = new Subject(streamLectures[stream][i].name(), i % 2 == 0 ? "ПЗ" : "ЛР",
+                        random.nextInt(teachers), random.nextInt(7) + "-" + (100 + random.nextInt(400)));
+                teacherGroups.get(groupSeminars[group][i].teacher()).add(group);
+            }
+            for (Subject lecture : streamLectures[stream]) {
+                teacherGroups.get(lecture.teacher()).add(group);
+            }
+        }
+        groupsJson = groupsNode.toString();
+    }
+
+    public SyntheticScale scale() {
+        return scale;
+    }
+
+    public List<String> groupNames() {
+        return Collections.unmodifiableList(groupNames);
+    }
+
+    public List<String> teacherUuids() {
+        return List.of(teacherUuids);
+    }
+
+    public String teacherName(int teacher) {
+        return teacherNames[teacher];
+    }
+
+    /**
+     * Индексы групп, у которых ведет занятия преподаватель.
+     */
+    public Set<Integer> teacherGroups(int teacher) {
+        return Collections.unmodifiableSet(teacherGroups.get(teacher));
+    }
+
+    /**
+     * Ресурс public.mai.ru по имени файла без .json: groups, md5 названия группы или uuid преподавателя.
+     */
+    public Optional<String> resource(String name) {
+        if ("groups".equals(name)) {
+            return Optional.of(groupsJson);
+        }
+        Integer group = groupByMd5.get(name);
+        if (group != null) {
+            return Optional.of(groupJson(group));
+        }
+        Integer teacher = teacherByUuid.get(name);
+        return teacher == null ? Optional.empty() : Optional.of(teacherJson(teacher));
+    }
+
+    /**
+     * Пары группы за день. Сдвоенная пара - одна запись с двумя слотами,
+     * в json она превращается в две соседние пары, как у MAI.
+     */
+    public List<Lesson> lessons(int group, LocalDate date) {
+        if (date.getDayOfWeek() == DayOfWeek.SUNDAY || date.isBefore(scale.getFrom()) || date.isAfter(scale.to())) {
+            return List.of();
+        }
+        int stream = group / scale.getStreamSize();
+        long day = date.toEpochDay();
+        long weekInSemester = ChronoUnit.WEEKS.between(scale.semesterStart(0), date)
+                % (scale.getTeachingWeeks() + scale.getSessionWeeks());
+        if (weekInSemester >= scale.getTeachingWeeks()) {
+            // экзамены раз в четыре дня, у соседних групп потока в разные дни
+            if ((day + group) % 4 != 0) {
+                return List.of();
+            }
+            Subject exam = streamLectures[stream][(int) ((day / 4) % LECTURES_PER_STREAM)];
+            return List.of(new Lesson(date, 0, 1, exam.name(), EXAM, exam.teacher(), exam.room()));
+        }
+
+        List<Lesson> lessons = new ArrayList<>();
+        Random streamDay = new Random(scale.getSeed() * 31 + stream * 1_000_003L + day);
+        int slot = streamDay.nextInt(2);
+        if (streamDay.nextInt(10) < 7) {
+            Subject lecture = streamLectures[stream][streamDay.nextInt(LECTURES_PER_STREAM)];
+            lessons.add(new Lesson(date, slot, 1, lecture.name(), lecture.type(), lecture.teacher(), lecture.room()));
+            slot++;
+        }
+        Random groupDay = new Random(scale.getSeed() * 17 + group * 1_000_033L + day);
+        int seminars = 1 + groupDay.nextInt(3);
+        for (int i = 0; i < seminars && slot < SLOTS.length; i++) {
+            Subject seminar = groupSeminars[group][groupDay.nextInt(SEMINARS_PER_GROUP)];
+            int slots = "ЛР".equals(seminar.type()) && slot + 1 < SLOTS.length && groupDay.nextInt(3) == 0 ? 2 : 1;
+            lessons.add(new Lesson(date, slot, slots, seminar.name(), seminar.type(), seminar.teacher(),
+                    seminar.room()));
+            slot += slots;
+        }
+        return lessons;
+    }
+
+    public static String md5(String value) {
+        return DigestUtils.md5DigestAsHex(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String groupJson(int group) {
+        ObjectNode root = mapper.createObjectNode();
+        root.put("group", groupNames.get(group));
+        for (LocalDate date = scale.getFrom(); !date.isAfter(scale.to()); date = date.plusDays(1)) {
+            List<Lesson> lessons = lessons(group, date);
+            if (lessons.isEmpty()) {
+                continue;
+            }
+            ObjectNode day = root.putObject(date.format(DATE));
+            day.put("day", DAY_NAMES[date.getDayOfWeek().ordinal()]);
+            ObjectNode pairs = day.putObject("pairs");
+            for (Lesson lesson : lessons) {
+                for (int slot = lesson.slot(); slot < lesson.slot() + lesson.slots(); slot++) {
+                    String start = SLOTS[slot][0].format(TIME);
+                    ObjectNode pair = pairs.putObject(start).putObject(lesson.subject());
+                    pair.put("time_start", start);
+                    pair.put("time_end", SLOTS[slot][1].format(TIME));
+                    pair.putObject("lector").put(teacherUuids[lesson.teacher()], teacherNames[lesson.teacher()]);
+                    pair.putObject("type").put(lesson.type(), 1);
+                    pair.putObject("room").put(md5(lesson.room()), lesson.room());
+                    pair.put("lms", "");
+                    pair.put("teams", "");
+                    pair.put("other", "");
+                }
+            }
+        }
+        return root.toString();
+    }
+
+    private String teacherJson(int teacher) {
+        ObjectNode root = mapper.createObjectNode();
+        root.put("name", teacherNames[teacher]);
+        ObjectNode groups = root.putObject("groups");
+        teacherGroups.get(teacher).forEach(group -> groups.put(groupNames.get(group), md5(groupNames.get(group))));
+        return root.toString();
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private record Subject(String name, String type, int teacher, String room) {
+    }
+
+    /**
+     * Пара группы.
+     *
+     * @param slot    номер первого слота дня, с нуля
+     * @param slots   1 или 2 для сдвоенной пары
+     * @param type    значок типа MAI: ЛК, ПЗ, ЛР или Экзамен
+     * @param teacher индекс преподавателя
+     */
+    public record Lesson(LocalDate date, int slot, int slots, String subject, String type, int teacher, String room) {
+
+        public LocalTime start() {
+            return SLOTS[slot][0];
+        }
+
+        public LocalTime end() {
+            return SLOTS[slot + slots - 1][1];
+        }
+    }
+}
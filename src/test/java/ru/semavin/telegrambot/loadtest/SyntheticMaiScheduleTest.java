@@ -0,0 +1,101 @@
+package ru.semavin.telegrambot.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.semavin.telegrambot.loadtest.SyntheticMaiSchedule.Lesson;
+import ru.semavin.telegrambot.utils.DateUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SyntheticMaiScheduleTest {
+
+    private static final SyntheticScale SCALE = SyntheticScale.builder()
+            .groups(8)
+            .teachers(20)
+            .from(LocalDate.of(2025, 9, 1))
+            .teachingWeeks(4)
+            .sessionWeeks(2)
+            .semesters(2)
+            .build();
+
+    private final SyntheticMaiSchedule mai = new SyntheticMaiSchedule(SCALE);
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("Одинаковый масштаб дает одинаковые json")
+    void deterministic() {
+        SyntheticMaiSchedule other = new SyntheticMaiSchedule(SCALE);
+        String group = SyntheticMaiSchedule.md5(mai.groupNames().get(5));
+
+        assertThat(other.resource(group)).isEqualTo(mai.resource(group));
+        assertThat(other.teacherUuids()).isEqualTo(mai.teacherUuids());
+    }
+
+    @Test
+    @DisplayName("Группы потока слушают одни и те же лекции")
+    void streamLecturesAreShared() {
+        List<Lesson> first = lectures(0);
+        List<Lesson> second = lectures(1);
+
+        assertThat(first).isNotEmpty();
+        assertThat(second).isEqualTo(first);
+        assertThat(lectures(SCALE.getStreamSize())).isNotEqualTo(first);
+    }
+
+    @Test
+    @DisplayName("Сдвоенная пара в json - две соседние пары одного предмета")
+    void doublePairsInJson() throws Exception {
+        Lesson lesson = allLessons(2).filter(l -> l.slots() == 2).findFirst().orElseThrow();
+        JsonNode day = mapper.readTree(mai.resource(SyntheticMaiSchedule.md5(mai.groupNames().get(2))).orElseThrow())
+                .path(lesson.date().format(DateUtils.FORMATTER))
+                .path("pairs");
+
+        List<String> subjects = new ArrayList<>();
+        day.fields().forEachRemaining(pair -> pair.getValue().fieldNames().forEachRemaining(subjects::add));
+        assertThat(subjects).containsSequence(lesson.subject(), lesson.subject());
+        assertThat(lesson.end()).isAfter(lesson.start().plusMinutes(90));
+    }
+
+    @Test
+    @DisplayName("В сессию только экзамены, в каждом семестре")
+    void examDaysInSession() {
+        for (int semester = 0; semester < SCALE.getSemesters(); semester++) {
+            LocalDate sessionStart = SCALE.semesterStart(semester).plusWeeks(SCALE.getTeachingWeeks());
+            List<Lesson> session = Stream.iterate(sessionStart, d -> d.plusDays(1))
+                    .limit(SCALE.getSessionWeeks() * 7L)
+                    .flatMap(date -> mai.lessons(3, date).stream())
+                    .toList();
+
+            assertThat(session).isNotEmpty()
+                    .allSatisfy(lesson -> assertThat(lesson.type()).isEqualTo(SyntheticMaiSchedule.EXAM));
+        }
+    }
+
+    @Test
+    @DisplayName("json преподавателя перечисляет группы, где он ведет пары")
+    void teacherJsonListsGroups() throws Exception {
+        Lesson lesson = allLessons(4).findFirst().orElseThrow();
+        String teacherUuid = mai.teacherUuids().get(lesson.teacher());
+
+        JsonNode teacher = mapper.readTree(mai.resource(teacherUuid).orElseThrow());
+
+        assertThat(teacher.path("groups").has(mai.groupNames().get(4))).isTrue();
+        assertThat(mai.resource("groups").orElseThrow()).contains(mai.groupNames().get(7));
+    }
+
+    private List<Lesson> lectures(int group) {
+        return allLessons(group).filter(lesson -> "ЛК".equals(lesson.type())).toList();
+    }
+
+    private Stream<Lesson> allLessons(int group) {
+        return Stream.iterate(SCALE.getFrom(), date -> !date.isAfter(SCALE.to()), date -> date.plusDays(1))
+                .flatMap(date -> mai.lessons(group, date).stream());
+    }
+}
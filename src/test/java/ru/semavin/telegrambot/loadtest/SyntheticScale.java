@@ -0,0 +1,78 @@
+package ru.semavin.telegrambot.loadtest;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Масштаб синтетического набора данных: сколько групп, преподавателей, семестров
+ * и пользовательских данных (студенты, дедлайны, уведомления, изменения) генерировать.
+ * Семестры идут подряд: teachingWeeks недель занятий, затем sessionWeeks недель сессии.
+ */
+@Value
+@Builder(toBuilder = true)
+public class SyntheticScale {
+
+    @Builder.Default
+    long seed = 42;
+    @Builder.Default
+    int groups = 60;
+    @Builder.Default
+    int teachers = 200;
+    /**
+     * Групп в потоке, поток слушает общие лекции.
+     */
+    @Builder.Default
+    int streamSize = 4;
+    @Builder.Default
+    LocalDate from = LocalDate.of(2025, 9, 1);
+    @Builder.Default
+    int semesters = 1;
+    @Builder.Default
+    int teachingWeeks = 16;
+    @Builder.Default
+    int sessionWeeks = 3;
+    @Builder.Default
+    int studentsPerGroup = 25;
+    @Builder.Default
+    int deadlinesPerGroup = 10;
+    @Builder.Default
+    int notificationsPerGroup = 5;
+    /**
+     * Изменений расписания на группу за семестр.
+     */
+    @Builder.Default
+    int changesPerGroup = 20;
+
+    /**
+     * Объем, близкий к текущей эксплуатации: несколько сотен групп, один семестр.
+     */
+    public static SyntheticScale production() {
+        return SyntheticScale.builder().groups(400).teachers(1_200).build();
+    }
+
+    /**
+     * Целевой объем после подключения других институтов.
+     */
+    public static SyntheticScale target() {
+        return SyntheticScale.builder().groups(5_000).teachers(10_000).semesters(4).build();
+    }
+
+    /**
+     * Первый день (понедельник) семестра с номером semester, считая с нуля.
+     */
+    public LocalDate semesterStart(int semester) {
+        return from.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+                .plusWeeks((long) semester * (teachingWeeks + sessionWeeks));
+    }
+
+    /**
+     * Последний день данных: конец сессии последнего семестра.
+     */
+    public LocalDate to() {
+        return semesterStart(semesters).minusDays(1);
+    }
+}
@@ -0,0 +1,50 @@
+package ru.semavin.telegrambot.models.converters;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.semavin.telegrambot.models.GroupEntity;
+import ru.semavin.telegrambot.models.ScheduleEntity;
+import ru.semavin.telegrambot.models.UserEntity;
+import ru.semavin.telegrambot.models.enums.LessonType;
+import ru.semavin.telegrambot.services.schedules.ScheduleControlSumParserService;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ControlSumConverterTest {
+
+    private final ControlSumConverter converter = new ControlSumConverter();
+
+    @Test
+    @DisplayName("Контрольная сумма пары хранится 32 байтами и восстанавливается без потерь")
+    void roundTrip() {
+        String controlSum = ScheduleControlSumParserService.fillCalculateSum(ScheduleEntity.builder()
+                        .group(GroupEntity.builder().groupName("М3О-403С-22").build())
+                        .subjectName("Теория автоматического управления")
+                        .lessonType(LessonType.LECTURE)
+                        .teacher(UserEntity.builder().lastName("Иванов").firstName("Иван").patronymic("Иванович").build())
+                        .classroom("ГУК Б-416")
+                        .lessonDate(LocalDate.of(2025, 10, 1))
+                        .startTime(LocalTime.of(9, 0))
+                        .endTime(LocalTime.of(10, 30))
+                        .build())
+                .getControlSum();
+
+        byte[] stored = converter.convertToDatabaseColumn(controlSum);
+
+        assertThat(ControlSumConverter.isValid(controlSum)).isTrue();
+        assertThat(stored).hasSize(32);
+        assertThat(converter.convertToEntityAttribute(stored)).isEqualTo(controlSum);
+        assertThat(converter.convertToDatabaseColumn(null)).isNull();
+    }
+
+    @Test
+    @DisplayName("Произвольная строка не считается контрольной суммой")
+    void rejectsNonHex() {
+        assertThat(ControlSumConverter.isValid("sum_1")).isFalse();
+        assertThat(ControlSumConverter.isValid(null)).isFalse();
+        assertThat(ControlSumConverter.isValid("A".repeat(64))).isFalse();
+    }
+}
@@ -0,0 +1,156 @@
+package ru.semavin.telegrambot.repositories;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверяет по EXPLAIN, что горячие запросы репозиториев используют индексы из миграций.
+ * Схема накатывается Flyway в отдельную схему локального PostgreSQL из TEST_POSTGRES_URL.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfEnvironmentVariable(named = "TEST_POSTGRES_URL", matches = ".+")
+public class HotQueryIndexExplainTest {
+
+    private static final String SCHEMA = "explain_test";
+
+    private Connection connection;
+
+    @BeforeAll
+    void migrateAndSeed() throws SQLException {
+        String url = System.getenv("TEST_POSTGRES_URL");
+        String user = System.getenv().getOrDefault("TEST_POSTGRES_USER", "postgres");
+        String password = System.getenv().getOrDefault("TEST_POSTGRES_PASSWORD", "postgres");
+
+        Flyway.configure()
+                .dataSource(url, user, password)
+                .schemas(SCHEMA)
+                .cleanDisabled(false)
+                .load()
+                .clean();
+        Flyway.configure()
+                .dataSource(url, user, password)
+                .schemas(SCHEMA)
+                .load()
+                .migrate();
+
+        connection = DriverManager.getConnection(url, user, password);
+        try (Statement st = connection.createStatement()) {
+            st.execute("SET search_path TO " + SCHEMA);
+            st.execute("""
+                    INSERT INTO groups (group_name)
+                    SELECT 'М3О-' || g || 'Б-22' FROM generate_series(1, 500) g
+                    """);
+            st.execute("""
+                    INSERT INTO users (username, role, teacher_uuid, group_id)
+                    SELECT 'teacher' || t, 'TEACHER', md5(t::text), NULL FROM generate_series(1, 300) t
+                    """);
+            st.execute("""
+                    INSERT INTO schedule_lessons (id, group_id, subject_name, lesson_type, teacher_id, classroom,
+                                                  lesson_date, start_time, end_time, lesson_week, control_sum)
+                    SELECT nextval('schedule_seq'), 1 + i % 500, 'Предмет ' || i % 40, 'LECTURE', 1 + i % 300,
+                           'ГУК Б-' || i % 300, DATE '2025-09-01' + i % 120, TIME '09:00', TIME '10:30',
+                           1 + (i % 120) / 7, decode(md5(i::text) || md5(i::text), 'hex')
+                    FROM generate_series(1, 50000) i
+                    """);
+            st.execute("""
+                    INSERT INTO schedule_changes (group_id, subject_name, old_lesson_date, new_lesson_date, deleted)
+                    SELECT 1 + i % 500, 'Предмет', DATE '2025-09-01' + i % 120,
+                           CASE WHEN i % 3 = 0 THEN DATE '2025-09-01' + (i + 5) % 120 END, i % 3 = 1
+                    FROM generate_series(1, 20000) i
+                    """);
+            st.execute("""
+                    INSERT INTO deadlines (title, uuid, due_date, group_id, notified_3_days, notified_1_day)
+                    SELECT 'Дедлайн', gen_random_uuid(), DATE '2025-09-01' + i % 365, 1 + i % 500, false, false
+                    FROM generate_series(1, 20000) i
+                    """);
+            st.execute("""
+                    SELECT ensure_month_partition(t.parent, t.part_key, m::date)
+                    FROM (VALUES ('schedule', 'lesson_date'), ('lessons', 'lesson_date'),
+                                 ('schedule_changes', 'old_lesson_date')) t(parent, part_key),
+                         generate_series(DATE '2025-09-01', DATE '2026-01-01', interval '1 month') m
+                    """);
+            st.execute("ANALYZE");
+            st.execute("SET enable_seqscan = off");
+        }
+    }
+
+    @AfterAll
+    void close() throws SQLException {
+        connection.close();
+    }
+
+    /**
+     * Для партиционированных таблиц в плане видны индексы партиций,
+     * их имена PostgreSQL строит из имени партиции и колонок.
+     */
+    @ParameterizedTest(name = "{0}")
+    @DisplayName("Горячие запросы используют индексы")
+    @CsvSource(delimiter = '|', value = {
+            "findAllByLessonDateAndGroup | group_id_snapshot_version_lesson_date_idx | "
+                    + "SELECT * FROM schedule_lessons sh WHERE sh.group_id = 42 AND sh.lesson_date = DATE '2025-10-01' "
+                    + "AND sh.snapshot_version = coalesce((SELECT v.current_version FROM group_schedule_version v "
+                    + "WHERE v.group_id = sh.group_id), 0)",
+            "findTeacherLessons | teacher_id_lesson_date_idx | "
+                    + "SELECT sh.* FROM schedule_lessons sh JOIN users t ON t.id = sh.teacher_id "
+                    + "WHERE t.teacher_uuid = md5('7') AND sh.lesson_date BETWEEN DATE '2025-09-01' AND DATE '2025-12-31'",
+            "findByGroupAndControlSum | group_id_control_sum | "
+                    + "SELECT * FROM schedule sh WHERE sh.group_id = 42 AND sh.lesson_date = DATE '2025-10-01' "
+                    + "AND sh.control_sum = decode(md5('42') || md5('42'), 'hex')",
+            "findAllByGroupAndNewLessonDate | group_id_new_lesson_date_idx | "
+                    + "SELECT * FROM schedule_changes sc WHERE sc.group_id = 42 "
+                    + "AND sc.new_lesson_date = DATE '2025-10-01' "
+                    + "AND sc.old_lesson_date BETWEEN DATE '2025-04-01' AND DATE '2026-04-01'",
+            "findAllByGroupAndOldLessonDate | group_id_old_lesson_date_idx | "
+                    + "SELECT * FROM schedule_changes sc WHERE sc.group_id = 42 AND sc.old_lesson_date = DATE '2025-10-01'",
+            "findByGroupNameIgnoreCase | idx_groups_upper_name | "
+                    + "SELECT * FROM groups g WHERE upper(g.group_name) = upper('м3о-42б-22')",
+            "findAllByDateRange | idx_deadlines_due_date | "
+                    + "SELECT * FROM deadlines d WHERE d.due_date BETWEEN DATE '2025-10-01' AND DATE '2025-10-07'"
+    })
+    void hotQueryUsesIndex(String query, String index, String sql) throws SQLException {
+        String plan = explain(sql);
+
+        assertThat(plan).as("план запроса %s", query).contains(index);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @DisplayName("Запросы по дню затрагивают одну месячную партицию")
+    @CsvSource(delimiter = '|', value = {
+            "findAllByLessonDateAndGroup | lessons_p2025_10 | "
+                    + "SELECT * FROM schedule_lessons sh WHERE sh.group_id = 42 AND sh.lesson_date = DATE '2025-10-01'",
+            "findAllByGroupAndOldLessonDate | schedule_changes_p2025_10 | "
+                    + "SELECT * FROM schedule_changes sc WHERE sc.group_id = 42 AND sc.old_lesson_date = DATE '2025-10-01'"
+    })
+    void dayQueryIsPruned(String query, String partition, String sql) throws SQLException {
+        String plan = explain(sql);
+
+        assertThat(plan).as("план запроса %s", query)
+                .contains(partition)
+                .doesNotContain("_p2025_09", "_p2025_11", "_default");
+    }
+
+    private String explain(String sql) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("EXPLAIN " + sql)) {
+            while (rs.next()) {
+                plan.append(rs.getString(1)).append('\n');
+            }
+        }
+        return plan.toString();
+    }
+}
@@ -0,0 +1,105 @@
+package ru.semavin.telegrambot.repositories;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверяет на миграциях, что архивирование месяца не оставляет пропуски со ссылками на удаленные пары.
+ * Схема накатывается Flyway в отдельную схему локального PostgreSQL из TEST_POSTGRES_URL.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfEnvironmentVariable(named = "TEST_POSTGRES_URL", matches = ".+")
+public class ScheduleArchiveMigrationTest {
+
+    private static final String SCHEMA = "archive_test";
+
+    private Connection connection;
+
+    @BeforeAll
+    void migrate() throws SQLException {
+        String url = System.getenv("TEST_POSTGRES_URL");
+        String user = System.getenv().getOrDefault("TEST_POSTGRES_USER", "postgres");
+        String password = System.getenv().getOrDefault("TEST_POSTGRES_PASSWORD", "postgres");
+
+        Flyway.configure()
+                .dataSource(url, user, password)
+                .schemas(SCHEMA)
+                .cleanDisabled(false)
+                .load()
+                .clean();
+        Flyway.configure()
+                .dataSource(url, user, password)
+                .schemas(SCHEMA)
+                .load()
+                .migrate();
+
+        connection = DriverManager.getConnection(url, user, password);
+        try (Statement st = connection.createStatement()) {
+            st.execute("SET search_path TO " + SCHEMA);
+            st.execute("INSERT INTO groups (id, group_name) VALUES (1, 'М3О-203С-22')");
+            st.execute("INSERT INTO users (id, username, role, group_id) VALUES (1, 'student', 'STUDENT', 1)");
+            st.execute("""
+                    SELECT ensure_month_partition(t.parent, t.part_key, DATE '2024-01-01')
+                    FROM (VALUES ('schedule', 'lesson_date'), ('lessons', 'lesson_date'),
+                                 ('schedule_changes', 'old_lesson_date')) t(parent, part_key)
+                    """);
+            st.execute("""
+                    INSERT INTO schedule_lessons (id, group_id, subject_name, lesson_type, classroom,
+                                                  lesson_date, start_time, end_time, lesson_week, control_sum)
+                    VALUES (1001, 1, 'Предмет', 'LECTURE', '3-321', DATE '2024-01-15', TIME '09:00', TIME '10:30',
+                            3, decode(md5('1001') || md5('1001'), 'hex'))
+                    """);
+            st.execute("""
+                    INSERT INTO absences (user_id, schedule_id, date, reason, status)
+                    VALUES (1, 1001, DATE '2024-01-15', 'болезнь', 'PENDING')
+                    """);
+        }
+    }
+
+    @AfterAll
+    void close() throws SQLException {
+        connection.close();
+    }
+
+    @Test
+    @DisplayName("Архивирование месяца переводит пропуски на архивные пары")
+    void archiveMovesAbsencesToArchivedLessons() throws SQLException {
+        try (Statement st = connection.createStatement()) {
+            st.execute("SELECT archive_schedule_month(DATE '2024-01-01')");
+
+            try (ResultSet rs = st.executeQuery("SELECT schedule_id, archived_schedule_id FROM absences")) {
+                assertThat(rs.next()).isTrue();
+                assertThat(rs.getObject("schedule_id")).isNull();
+                assertThat(rs.getLong("archived_schedule_id")).isEqualTo(1001L);
+            }
+            try (ResultSet rs = st.executeQuery("""
+                    SELECT count(*) FROM schedule_archive
+                    WHERE group_id = 1 AND lessons @> '[{"id": 1001}]'::jsonb
+                    """)) {
+                rs.next();
+                assertThat(rs.getInt(1)).isEqualTo(1);
+            }
+            try (ResultSet rs = st.executeQuery("""
+                    SELECT count(*) FROM absences a
+                    WHERE a.schedule_id IS NOT NULL
+                      AND NOT EXISTS (SELECT 1 FROM schedule s WHERE s.id = a.schedule_id)
+                    """)) {
+                rs.next();
+                assertThat(rs.getInt(1)).isZero();
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package ru.semavin.telegrambot.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -8,25 +9,28 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.client.RestTemplate;
+import ru.semavin.telegrambot.config.executors.WorkloadExecutors;
 import ru.semavin.telegrambot.models.GroupEntity;
 import ru.semavin.telegrambot.models.ScheduleEntity;
 import ru.semavin.telegrambot.models.UserEntity;
 import ru.semavin.telegrambot.models.enums.LessonType;
 import ru.semavin.telegrambot.models.enums.UserRole;
 import ru.semavin.telegrambot.services.UserService;
+import ru.semavin.telegrambot.services.metrics.ScheduleMetrics;
 import ru.semavin.telegrambot.services.schedules.ScheduleParserService;
 import ru.semavin.telegrambot.services.schedules.SemesterService;
+import ru.semavin.telegrambot.services.upstream.MaiScheduleClient;
+import ru.semavin.telegrambot.services.upstream.ResourceValidatorStore;
+import ru.semavin.telegrambot.services.upstream.UpstreamCircuitBreaker;
+import ru.semavin.telegrambot.services.upstream.UpstreamPayloadArchive;
 
 
 import static org.mockito.Mockito.when;
 
 import java.time.format.DateTimeFormatter;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Semaphore;
+import java.time.Duration;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -41,12 +45,17 @@ public class ScheduleParserServiceTest {
     @Mock
     private RestTemplate restTemplate;
 
+    @Mock
+    private UpstreamPayloadArchive archive;
+
     @Mock
     private ObjectMapper mapper;
     // Используем реальный SemesterService с датой начала семестра
     private SemesterService semesterService = new SemesterService("01.09.2025", "26.01.2026");
     private SemesterService semesterServiceLater = new SemesterService("10.10.2025", "26.01.2026");
-    private ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor();
+    private WorkloadExecutors executors = new WorkloadExecutors(new SimpleMeterRegistry(),
+            20, 500, 10, 10_000, 4, 2000, 8, 100, Duration.ofSeconds(5));
+    private ScheduleMetrics metrics = new ScheduleMetrics(new SimpleMeterRegistry());
     private UserEntity teacherNonEmpty;
     private UserEntity teacherEmpty;
     private UserEntity teacherSAU;
@@ -349,14 +358,14 @@ public class ScheduleParserServiceTest {
                   }
                 }
                 """;
-        scheduleParserService = new ScheduleParserService(semesterService, teacherService, restTemplate, mapper,
-                executorService,
-                new Semaphore(10));
+        // Клиент MAI работает поверх мока restTemplate
+        MaiScheduleClient maiScheduleClient = new MaiScheduleClient(restTemplate, metrics, archive,
+                new UpstreamCircuitBreaker(new SimpleMeterRegistry(), 5, Duration.ofSeconds(30)),
+                mock(ResourceValidatorStore.class), "https://public.mai.ru/schedule/data/");
+        scheduleParserService = new ScheduleParserService(semesterService, teacherService, maiScheduleClient, mapper,
+                executors, Duration.ofSeconds(10), metrics);
         scheduleParserServiceWithSemesterStartAfterLessons = new ScheduleParserService(semesterServiceLater,
-                teacherService, restTemplate, mapper, executorService, new Semaphore(10));
-        // Заменяем restTemplate внутри ScheduleParserService на наш мок
-        ReflectionTestUtils.setField(scheduleParserService, "restTemplate", restTemplate);
-        ReflectionTestUtils.setField(scheduleParserServiceWithSemesterStartAfterLessons, "restTemplate", restTemplate);
+                teacherService, maiScheduleClient, mapper, executors, Duration.ofSeconds(10), metrics);
 
         teacherNonEmpty = UserEntity.builder()
                 .teacherUuid("578c176d-1d99-11e0-9baf-1c6f65450efa")
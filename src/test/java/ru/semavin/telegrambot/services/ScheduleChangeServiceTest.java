@@ -0,0 +1,75 @@
+package ru.semavin.telegrambot.services;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.semavin.telegrambot.dto.ScheduleChangeDTO;
+import ru.semavin.telegrambot.models.GroupEntity;
+import ru.semavin.telegrambot.models.ScheduleChangeEntity;
+import ru.semavin.telegrambot.repositories.ScheduleChangeRepository;
+import ru.semavin.telegrambot.repositories.ScheduleRepository;
+import ru.semavin.telegrambot.services.groups.GroupService;
+import ru.semavin.telegrambot.utils.exceptions.LessonMoveTooFarException;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ScheduleChangeServiceTest {
+
+    private static final String GROUP_NAME = "М3О-203С-22";
+    private static final LocalDate DAY = LocalDate.of(2025, 10, 6);
+    private static final GroupEntity GROUP = GroupEntity.builder().id(1L).groupName(GROUP_NAME).build();
+
+    @Mock
+    private ScheduleChangeRepository changeRepository;
+
+    @Mock
+    private ScheduleRepository scheduleRepository;
+
+    @Mock
+    private GroupService groupService;
+
+    @InjectMocks
+    private ScheduleChangeService changeService;
+
+    @Test
+    @DisplayName("Перенос дальше шести месяцев отклоняется, а не теряется при чтении")
+    void moveBeyondWindowIsRejected() {
+        ScheduleChangeDTO dto = ScheduleChangeDTO.builder()
+                .oldLessonDate(DAY)
+                .newLessonDate(DAY.plusMonths(6).plusDays(1))
+                .build();
+
+        assertThatThrownBy(() -> changeService.createOrUpdate(dto, GROUP_NAME))
+                .isInstanceOf(LessonMoveTooFarException.class);
+        verifyNoInteractions(changeRepository, scheduleRepository);
+    }
+
+    @Test
+    @DisplayName("К изменениям дня добавляются поздние правки перенесенных на него пар")
+    void dayChangesIncludeLaterEditsOfMovedInLessons() {
+        ScheduleChangeEntity moved = ScheduleChangeEntity.builder()
+                .id(5L).oldControlSum("a").oldLessonDate(DAY.minusDays(1)).newLessonDate(DAY).build();
+        ScheduleChangeEntity edited = ScheduleChangeEntity.builder()
+                .id(9L).oldControlSum("a").oldLessonDate(DAY.minusDays(1)).classroom("4-404").build();
+        when(groupService.findEntityByName(GROUP_NAME)).thenReturn(GROUP);
+        when(changeRepository.findAllByGroupAndOldLessonDate(GROUP, DAY)).thenReturn(List.of());
+        when(changeRepository.findAllByGroupAndNewLessonDate(any(), any(), any(), any())).thenReturn(List.of(moved));
+        when(changeRepository.findAllByGroupAndOldControlSumIn(any(), any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Set<String>>getArgument(1).contains("a")
+                        ? List.of(moved, edited) : List.of());
+
+        assertThat(changeService.getChangesDtoAnyDay(GROUP_NAME, DAY)).containsExactly(moved, edited);
+    }
+}
@@ -0,0 +1,84 @@
+package ru.semavin.telegrambot.services.groups;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.semavin.telegrambot.models.GroupEntity;
+import ru.semavin.telegrambot.repositories.GroupRepository;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class GroupDirectoryTest {
+
+    @Mock
+    private GroupRepository groupRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private DataSource dataSource;
+
+    @InjectMocks
+    private GroupDirectory groupDirectory;
+
+    private final GroupEntity group = GroupEntity.builder().id(7L).groupName("М3О-403С-22").build();
+
+    @Test
+    @DisplayName("Название нормализуется: пробелы и регистр не важны")
+    void normalize() {
+        assertThat(GroupDirectory.normalize("  м3о-403с-22 ")).isEqualTo("М3О-403С-22");
+        assertThat(GroupDirectory.normalize("М3О  403С\t22")).isEqualTo("М3О 403С 22");
+    }
+
+    @Test
+    @DisplayName("После загрузки справочника поиск не обращается к БД")
+    void findAfterReloadDoesNotHitRepository() {
+        when(groupRepository.findAll()).thenReturn(List.of(group));
+        groupDirectory.reloadAll();
+
+        Optional<GroupEntity> found = groupDirectory.find("м3о-403с-22");
+
+        assertThat(found).isPresent();
+        assertThat(found.get().getId()).isEqualTo(7L);
+        assertThat(found.get().getGroupName()).isEqualTo("М3О-403С-22");
+        verify(groupRepository, never()).findByGroupNameIgnoreCase(anyString());
+    }
+
+    @Test
+    @DisplayName("Промах загружает группу из БД один раз")
+    void missFallsBackToRepositoryOnce() {
+        when(groupRepository.findByGroupNameIgnoreCase("М3О-403С-22")).thenReturn(Optional.of(group));
+
+        groupDirectory.find("М3О-403С-22");
+        groupDirectory.find("м3о-403с-22");
+
+        verify(groupRepository, times(1)).findByGroupNameIgnoreCase(anyString());
+    }
+
+    @Test
+    @DisplayName("Каждый вызов возвращает новую копию сущности")
+    void returnsDetachedCopies() {
+        when(groupRepository.findAll()).thenReturn(List.of(group));
+        groupDirectory.reloadAll();
+
+        GroupEntity first = groupDirectory.find("М3О-403С-22").orElseThrow();
+        first.setGroupName("changed");
+
+        assertThat(groupDirectory.find("М3О-403С-22").orElseThrow().getGroupName()).isEqualTo("М3О-403С-22");
+    }
+}
@@ -0,0 +1,165 @@
+package ru.semavin.telegrambot.services.groups;
+
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.web.client.ResourceAccessException;
+import ru.semavin.telegrambot.config.executors.InstrumentedExecutor;
+import ru.semavin.telegrambot.config.executors.WorkloadExecutors;
+import ru.semavin.telegrambot.services.upstream.MaiScheduleClient;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class GroupSyncServiceTest {
+
+    private static final String GROUPS_JSON = """
+            [
+              {"name": "М3О-403С-22", "fac": "Институт №3", "level": "Специалитет"},
+              {"name": "М1О-101Б-25", "fac": "Институт №1", "level": "Бакалавриат"},
+              {"name": "М9О-210Б-24", "fac": "институт №9", "extra": {"nested": [1, 2]}}
+            ]
+            """;
+
+    @Mock
+    private MaiScheduleClient maiScheduleClient;
+
+    @Mock
+    private GroupDirectory groupDirectory;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private WorkloadExecutors executors;
+
+    private GroupSyncService groupSyncService;
+    private GroupSyncHealthIndicator healthIndicator;
+
+    @BeforeEach
+    void setUp() {
+        groupSyncService = new GroupSyncService(new GroupParserService(maiScheduleClient), groupDirectory,
+                jdbcTemplate, entityManagerFactory, executors);
+        healthIndicator = new GroupSyncHealthIndicator(groupSyncService);
+    }
+
+    @Test
+    @DisplayName("Новые группы нужных институтов записываются одним запросом")
+    @SuppressWarnings("unchecked")
+    void syncInsertsMissingGroupsInOneQuery() throws Exception {
+        when(maiScheduleClient.fetchGroups()).thenReturn(GROUPS_JSON);
+        when(jdbcTemplate.query(anyString(), any(PreparedStatementSetter.class), any(RowMapper.class)))
+                .thenReturn(List.of("М9О-210Б-24"));
+        Cache cache = mock(Cache.class);
+        org.hibernate.Cache hibernateCache = mock(org.hibernate.Cache.class);
+        when(entityManagerFactory.getCache()).thenReturn(cache);
+        when(cache.unwrap(org.hibernate.Cache.class)).thenReturn(hibernateCache);
+
+        groupSyncService.sync();
+
+        ArgumentCaptor<PreparedStatementSetter> setter = ArgumentCaptor.forClass(PreparedStatementSetter.class);
+        verify(jdbcTemplate).query(anyString(), setter.capture(), any(RowMapper.class));
+        PreparedStatement ps = mock(PreparedStatement.class);
+        Connection connection = mock(Connection.class);
+        when(ps.getConnection()).thenReturn(connection);
+        setter.getValue().setValues(ps);
+        verify(connection).createArrayOf(eq("text"), eq(new Object[]{"М3О-403С-22", "М9О-210Б-24"}));
+
+        verify(hibernateCache).evictQueryRegion("groupQueries");
+        verify(groupDirectory).reloadAll();
+        assertThat(groupSyncService.state()).isEqualTo(GroupSyncService.State.DONE);
+        assertThat(healthIndicator.health().getStatus()).isEqualTo(Status.UP);
+        assertThat(healthIndicator.health().getDetails()).containsEntry("inserted", 1);
+    }
+
+    @Test
+    @DisplayName("Если MAI недоступен, а группы уже есть в БД, приложение готово")
+    void failedSyncWithStoredGroupsIsReady() {
+        when(maiScheduleClient.fetchGroups()).thenThrow(new ResourceAccessException("Connection refused"));
+        when(jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM groups)", Boolean.class)).thenReturn(true);
+
+        groupSyncService.sync();
+
+        Health health = healthIndicator.health();
+        assertThat(groupSyncService.state()).isEqualTo(GroupSyncService.State.FAILED);
+        assertThat(health.getStatus()).isEqualTo(Status.UP);
+        assertThat(health.getDetails()).containsEntry("error", "Connection refused");
+        verify(groupDirectory, never()).reloadAll();
+    }
+
+    @Test
+    @DisplayName("Без сохраненных групп приложение не готово до успешной синхронизации")
+    void emptyTableIsOutOfServiceUntilSync() {
+        when(jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM groups)", Boolean.class)).thenReturn(false);
+        assertThat(healthIndicator.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+
+        when(maiScheduleClient.fetchGroups()).thenReturn("[]");
+        groupSyncService.sync();
+
+        assertThat(healthIndicator.health().getStatus()).isEqualTo(Status.UP);
+    }
+
+    @Test
+    @DisplayName("Повтор после ошибки отправляется на исполнитель ingest, а не выполняется в потоке планировщика")
+    void retryIsSubmittedToIngestExecutor() {
+        when(maiScheduleClient.fetchGroups()).thenThrow(new ResourceAccessException("Connection refused"));
+        InstrumentedExecutor ingest = mock(InstrumentedExecutor.class);
+        when(executors.ingest()).thenReturn(ingest);
+        groupSyncService.sync();
+
+        groupSyncService.retryFailed();
+
+        verify(ingest).execute(any(Runnable.class));
+        verify(maiScheduleClient, times(1)).fetchGroups();
+    }
+
+    @Test
+    @DisplayName("Запуск во время выполняющейся синхронизации пропускается")
+    void concurrentSyncIsSkipped() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(maiScheduleClient.fetchGroups()).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return "[]";
+        });
+        CompletableFuture<Void> first = CompletableFuture.runAsync(groupSyncService::sync);
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        groupSyncService.sync();
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+
+        verify(maiScheduleClient, times(1)).fetchGroups();
+        assertThat(groupSyncService.state()).isEqualTo(GroupSyncService.State.DONE);
+    }
+}
@@ -0,0 +1,38 @@
+package ru.semavin.telegrambot.services.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ScheduleMetricsTest {
+
+    @ParameterizedTest
+    @DisplayName("Вместо названия группы в тег попадает номер института")
+    @CsvSource({
+            "М3О-403С-22, 3",
+            "м8о-101б-24, 8",
+            "' Т12О-201М-23', 12",
+            "Группа, unknown"
+    })
+    void instituteFromGroupName(String groupName, String institute) {
+        assertThat(ScheduleMetrics.institute(groupName)).isEqualTo(institute);
+    }
+
+    @Test
+    @DisplayName("Разбор расписания учитывается по институту группы")
+    void parsedIsTaggedByInstitute() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ScheduleMetrics metrics = new ScheduleMetrics(registry);
+
+        metrics.parsed(metrics.start(), "М3О-403С-22", 120);
+        metrics.parsed(metrics.start(), "М3О-404С-22", 80);
+
+        assertThat(registry.get("schedule.parse").tag("institute", "3").timer().count()).isEqualTo(2);
+        assertThat(registry.get("schedule.parse.lessons").tag("institute", "3").summary().totalAmount())
+                .isEqualTo(200);
+    }
+}
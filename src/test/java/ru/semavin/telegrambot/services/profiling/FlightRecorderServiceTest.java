@@ -0,0 +1,64 @@
+package ru.semavin.telegrambot.services.profiling;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.semavin.telegrambot.utils.exceptions.InvalidRecordingSettingsException;
+import ru.semavin.telegrambot.utils.exceptions.RecordingNotFoundException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class FlightRecorderServiceTest {
+
+    private final FlightRecorderService service = new FlightRecorderService();
+
+    @AfterEach
+    void close() {
+        service.close();
+    }
+
+    @Test
+    @DisplayName("События этапов попадают в выгрузку записи")
+    void dumpContainsStageEvents() throws IOException {
+        assertThat(service.start("default", Duration.ofMinutes(5)).getState()).isEqualTo("RUNNING");
+
+        ScheduleEvents.PairsParse event = ScheduleEvents.pairsParse("01.09.2025");
+        event.finish("М3О-403С-22", 4, 0);
+        service.stop();
+
+        Path file = service.dump();
+        try {
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                    .filter(e -> e.getEventType().getName().equals("ru.semavin.schedule.PairsParse"))
+                    .toList();
+            assertThat(events).hasSize(1);
+            assertThat(events.get(0).getString("group")).isEqualTo("М3О-403С-22");
+            assertThat(events.get(0).getInt("lessons")).isEqualTo(4);
+            assertThat(events.get(0).getString("lessonDate")).isEqualTo("01.09.2025");
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    @DisplayName("Без запущенной записи выгрузка невозможна")
+    void dumpWithoutRecordingFails() {
+        assertThatThrownBy(service::dump).isInstanceOf(RecordingNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("Неизвестная конфигурация JFR отклоняется как ошибка запроса")
+    void unknownSettingsAreRejected() {
+        assertThatThrownBy(() -> service.start("no-such-settings", Duration.ofMinutes(5)))
+                .isInstanceOf(InvalidRecordingSettingsException.class);
+    }
+}
@@ -0,0 +1,67 @@
+package ru.semavin.telegrambot.services.schedules;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import ru.semavin.telegrambot.models.enums.RefreshErrorClass;
+
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GroupRefreshRetryPolicyTest {
+
+    private final Duration MAX_DELAY = Duration.ofHours(12);
+
+    private final GroupRefreshRetryPolicy policy = new GroupRefreshRetryPolicy(MAX_DELAY, new SplittableRandom(42));
+
+    @Test
+    @DisplayName("Ошибки классифицируются по цепочке причин")
+    void success_classify() {
+        assertEquals(RefreshErrorClass.NOT_FOUND, policy.classify(
+                HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null)));
+        assertEquals(RefreshErrorClass.UPSTREAM, policy.classify(
+                new ResourceAccessException("timeout", new SocketTimeoutException())));
+        assertEquals(RefreshErrorClass.UPSTREAM, policy.classify(
+                HttpServerErrorException.create(HttpStatus.BAD_GATEWAY, "Bad Gateway", null, null, null)));
+        assertEquals(RefreshErrorClass.PARSE, policy.classify(
+                new RuntimeException("Ошибка парсинга JSON", new JsonParseException(null, "unexpected"))));
+        assertEquals(RefreshErrorClass.OTHER, policy.classify(new IllegalStateException("boom")));
+    }
+
+    @Test
+    @DisplayName("Задержка удваивается с попыткой, с разбросом от половины до целой")
+    void success_delayBackoffWithJitter() {
+        for (int attempt = 1; attempt <= 5; attempt++) {
+            long backoff = RefreshErrorClass.UPSTREAM.getBaseDelay().toMillis() << (attempt - 1);
+            for (int i = 0; i < 100; i++) {
+                long delay = policy.delay(RefreshErrorClass.UPSTREAM, attempt).toMillis();
+                assertTrue(delay >= backoff / 2 && delay <= backoff, "попытка " + attempt + ": " + delay);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Задержка не превышает max-delay даже после многих попыток")
+    void success_delayCapped() {
+        for (int attempt = 1; attempt <= 100; attempt++) {
+            Duration delay = policy.delay(RefreshErrorClass.NOT_FOUND, attempt);
+            assertTrue(delay.compareTo(MAX_DELAY) <= 0);
+            assertTrue(delay.compareTo(MAX_DELAY.dividedBy(2)) >= 0 || attempt == 1);
+        }
+    }
+
+    @Test
+    @DisplayName("Попытки исчерпываются по лимиту класса ошибки")
+    void success_exhausted() {
+        int limit = RefreshErrorClass.PARSE.getMaxAttempts();
+        assertFalse(policy.exhausted(RefreshErrorClass.PARSE, limit - 1));
+        assertTrue(policy.exhausted(RefreshErrorClass.PARSE, limit));
+    }
+}
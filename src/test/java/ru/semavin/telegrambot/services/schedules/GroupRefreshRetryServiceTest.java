@@ -0,0 +1,90 @@
+package ru.semavin.telegrambot.services.schedules;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.HttpServerErrorException;
+import ru.semavin.telegrambot.config.executors.WorkloadExecutors;
+import ru.semavin.telegrambot.models.GroupEntity;
+import ru.semavin.telegrambot.models.GroupRefreshRetryEntity;
+import ru.semavin.telegrambot.models.enums.RefreshErrorClass;
+import ru.semavin.telegrambot.repositories.GroupRefreshRetryRepository;
+import ru.semavin.telegrambot.services.groups.GroupService;
+import ru.semavin.telegrambot.services.upstream.UpstreamCircuitBreaker;
+import ru.semavin.telegrambot.services.upstream.UpstreamRequestBudget;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GroupRefreshRetryServiceTest {
+
+    private final GroupRefreshRetryRepository retryRepository = mock(GroupRefreshRetryRepository.class);
+    private final GroupRefreshRetryService service = new GroupRefreshRetryService(retryRepository,
+            new GroupRefreshRetryPolicy(Duration.ofHours(12), new SplittableRandom(42)),
+            mock(ScheduleActualizationService.class), mock(UpstreamRequestBudget.class),
+            mock(UpstreamCircuitBreaker.class), mock(GroupService.class), mock(WorkloadExecutors.class),
+            mock(TransactionTemplate.class));
+
+    @Test
+    @DisplayName("Смена класса ошибки не сбрасывает счетчик попыток, чередующиеся ошибки ведут в dead-letter")
+    void success_attemptsCountedAcrossErrorClasses() {
+        GroupEntity group = GroupEntity.builder().groupName("М3О-403С-22").build();
+        LocalDateTime failedAt = LocalDateTime.now().minusHours(1);
+        GroupRefreshRetryEntity retry = GroupRefreshRetryEntity.builder()
+                .group(group)
+                .errorClass(RefreshErrorClass.UPSTREAM)
+                .attempts(RefreshErrorClass.PARSE.getMaxAttempts() - 2)
+                .firstFailedAt(failedAt)
+                .lastFailedAt(failedAt)
+                .nextAttemptAt(failedAt)
+                .build();
+        when(retryRepository.findForUpdate(group)).thenReturn(Optional.of(retry));
+
+        service.recordFailure(group, new RuntimeException("Ошибка парсинга JSON",
+                new JsonParseException(null, "unexpected")));
+        assertEquals(RefreshErrorClass.PARSE, retry.getErrorClass());
+        assertEquals(RefreshErrorClass.PARSE.getMaxAttempts() - 1, retry.getAttempts());
+        assertFalse(retry.isDead());
+
+        service.recordFailure(group, HttpServerErrorException.create(HttpStatus.BAD_GATEWAY, "Bad Gateway",
+                null, null, null));
+        service.recordFailure(group, new RuntimeException("Ошибка парсинга JSON",
+                new JsonParseException(null, "unexpected")));
+        assertEquals(RefreshErrorClass.PARSE.getMaxAttempts() + 1, retry.getAttempts());
+        assertTrue(retry.isDead());
+    }
+
+    @Test
+    @DisplayName("Первая ошибка создает запись вставкой с ON CONFLICT, а не сохранением новой сущности")
+    void success_firstFailureIsUpserted() {
+        GroupEntity group = GroupEntity.builder().id(7L).groupName("М3О-403С-22").build();
+        LocalDateTime failedAt = LocalDateTime.now();
+        GroupRefreshRetryEntity inserted = GroupRefreshRetryEntity.builder()
+                .group(group)
+                .errorClass(RefreshErrorClass.UPSTREAM)
+                .firstFailedAt(failedAt)
+                .lastFailedAt(failedAt)
+                .nextAttemptAt(failedAt)
+                .build();
+        when(retryRepository.findForUpdate(group)).thenReturn(Optional.of(inserted));
+
+        service.recordFailure(group, HttpServerErrorException.create(HttpStatus.BAD_GATEWAY, "Bad Gateway",
+                null, null, null));
+
+        verify(retryRepository).upsertFirstFailure(eq(7L), eq(RefreshErrorClass.UPSTREAM.name()), any());
+        assertEquals(1, inserted.getAttempts());
+        assertEquals(failedAt, inserted.getFirstFailedAt());
+        verify(retryRepository).save(inserted);
+    }
+}
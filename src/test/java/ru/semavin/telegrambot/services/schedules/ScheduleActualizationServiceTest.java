@@ -0,0 +1,99 @@
+package ru.semavin.telegrambot.services.schedules;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.semavin.telegrambot.mapper.ScheduleMapper;
+import ru.semavin.telegrambot.models.GroupEntity;
+import ru.semavin.telegrambot.models.GroupScheduleVersionEntity;
+import ru.semavin.telegrambot.models.ScheduleEntity;
+import ru.semavin.telegrambot.repositories.ScheduleRepository;
+import ru.semavin.telegrambot.services.cache.CacheUtil;
+import ru.semavin.telegrambot.services.groups.GroupService;
+import ru.semavin.telegrambot.services.metrics.ScheduleMetrics;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ScheduleActualizationServiceTest {
+
+    private static final String GROUP_NAME = "М3О-203С-22";
+    private static final String CACHED_KEY = GROUP_NAME + "-06.10.2025";
+
+    private final GroupEntity group = GroupEntity.builder().id(1L).groupName(GROUP_NAME).build();
+    private final ScheduleRepository scheduleRepository = mock(ScheduleRepository.class);
+    private final ScheduleParserService parserService = mock(ScheduleParserService.class);
+    private final GroupService groupService = mock(GroupService.class);
+    private final ScheduleSnapshotService snapshotService = mock(ScheduleSnapshotService.class);
+    private final ScheduleLessonWriter lessonWriter = mock(ScheduleLessonWriter.class);
+    private final CacheManager cacheManager = new ConcurrentMapCacheManager("scheduleDay");
+
+    private ScheduleActualizationService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new ScheduleActualizationService(scheduleRepository, parserService, mock(ScheduleMapper.class),
+                groupService, new CacheUtil(cacheManager), snapshotService,
+                new TransactionTemplate(new NoOpTransactionManager()), mock(ScheduleMetrics.class), lessonWriter);
+        cacheManager.getCache("scheduleDay").put(CACHED_KEY, List.of());
+
+        when(groupService.findEntityByName(GROUP_NAME)).thenReturn(group);
+        when(parserService.findScheduleByGroup(group)).thenReturn(List.of(ScheduleEntity.builder()
+                .group(group)
+                .lessonDate(LocalDate.of(2025, 10, 6))
+                .controlSum("a")
+                .build()));
+        when(snapshotService.lockCurrentVersion(group))
+                .thenReturn(GroupScheduleVersionEntity.builder().groupId(1L).currentVersion(1).build());
+        when(scheduleRepository.findControlSumsByGroup(group)).thenReturn(List.of("b"));
+    }
+
+    @Test
+    @DisplayName("Кэш дней группы сбрасывается после коммита новой версии, а не внутри транзакции")
+    void cacheIsEvictedAfterCommit() {
+        doAnswer(invocation -> {
+            assertThat(cacheManager.getCache("scheduleDay").get(CACHED_KEY)).isNotNull();
+            return null;
+        }).when(snapshotService).publish(any(), anyLong());
+
+        assertThat(service.actualizationScheduleGroup(GROUP_NAME)).isEqualTo(2);
+
+        assertThat(cacheManager.getCache("scheduleDay").get(CACHED_KEY)).isNull();
+    }
+
+    /**
+     * Менеджер транзакций без ресурсов: только жизненный цикл и синхронизации, как у JPA.
+     */
+    private static final class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
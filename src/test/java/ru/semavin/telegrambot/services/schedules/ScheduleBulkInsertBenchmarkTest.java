@@ -0,0 +1,280 @@
+package ru.semavin.telegrambot.services.schedules;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.postgresql.PGConnection;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Сравнение скорости записи пар семестра в PostgreSQL:
+ * построчный INSERT с IDENTITY (прежнее поведение), JDBC-батчи с id из последовательности и COPY
+ * в плоскую таблицу, а также запись в схему приложения: JDBC-батчи через представление schedule_lessons
+ * с построчным триггером и один вызов insert_schedule_lessons, которым пишет {@link ScheduleLessonWriter}.
+ * Запускается только при заданной переменной TEST_POSTGRES_URL.
+ */
+@Slf4j
+@Tag("benchmark")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfEnvironmentVariable(named = "TEST_POSTGRES_URL", matches = ".+")
+public class ScheduleBulkInsertBenchmarkTest {
+
+    private static final int ROWS = 5_000;
+    private static final int BATCH_SIZE = 50;
+    private static final String SCHEMA = "bulk_insert_bench";
+
+    private Connection connection;
+
+    @BeforeAll
+    void connect() throws SQLException {
+        String url = System.getenv("TEST_POSTGRES_URL");
+        String user = System.getenv().getOrDefault("TEST_POSTGRES_USER", "postgres");
+        String password = System.getenv().getOrDefault("TEST_POSTGRES_PASSWORD", "postgres");
+        Flyway.configure()
+                .dataSource(url, user, password)
+                .schemas(SCHEMA)
+                .cleanDisabled(false)
+                .load()
+                .clean();
+        Flyway.configure()
+                .dataSource(url, user, password)
+                .schemas(SCHEMA)
+                .load()
+                .migrate();
+
+        Properties props = new Properties();
+        props.setProperty("user", user);
+        props.setProperty("password", password);
+        props.setProperty("reWriteBatchedInserts", "true");
+        connection = DriverManager.getConnection(url, props);
+        connection.setAutoCommit(false);
+        try (Statement st = connection.createStatement()) {
+            st.execute("SET search_path TO " + SCHEMA);
+            st.execute("INSERT INTO groups (id, group_name) VALUES (1, 'М3О-203С-22')");
+            st.execute("""
+                    SELECT ensure_month_partition(t.parent, t.part_key, m::date)
+                    FROM (VALUES ('schedule', 'lesson_date'), ('lessons', 'lesson_date')) t(parent, part_key),
+                         generate_series(DATE '2025-09-01', DATE '2026-01-01', interval '1 month') m
+                    """);
+            st.execute("""
+                    CREATE TEMP TABLE bench_schedule_identity (
+                        id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                        group_id bigint, subject_name varchar(255), lesson_date date,
+                        start_time time, end_time time, classroom varchar(255), control_sum varchar(255))
+                    """);
+            st.execute("""
+                    CREATE TEMP TABLE bench_schedule_seq (
+                        id bigint PRIMARY KEY,
+                        group_id bigint, subject_name varchar(255), lesson_date date,
+                        start_time time, end_time time, classroom varchar(255), control_sum varchar(255))
+                    """);
+            st.execute("CREATE TEMP SEQUENCE bench_schedule_seq_id INCREMENT BY " + BATCH_SIZE);
+        }
+        connection.commit();
+    }
+
+    @AfterAll
+    void close() throws SQLException {
+        connection.close();
+    }
+
+    @BeforeEach
+    void truncate() throws SQLException {
+        try (Statement st = connection.createStatement()) {
+            st.execute("TRUNCATE bench_schedule_identity, bench_schedule_seq, schedule, lessons, subjects, rooms");
+        }
+        connection.commit();
+    }
+
+    @Test
+    @DisplayName("Построчный INSERT ... RETURNING id (IDENTITY)")
+    void identityRowByRow() throws SQLException {
+        long start = System.nanoTime();
+        try (PreparedStatement ps = connection.prepareStatement("""
+                INSERT INTO bench_schedule_identity
+                    (group_id, subject_name, lesson_date, start_time, end_time, classroom, control_sum)
+                VALUES (?, ?, ?, ?, ?, ?, ?)
+                """, Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < ROWS; i++) {
+                bindLesson(ps, 1, i);
+                ps.executeUpdate();
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    keys.next();
+                }
+            }
+        }
+        connection.commit();
+        report("identity row-by-row", start, "bench_schedule_identity");
+    }
+
+    @Test
+    @DisplayName("JDBC-батчи с id из последовательности (pooled)")
+    void sequenceBatched() throws SQLException {
+        long start = System.nanoTime();
+        try (PreparedStatement nextval = connection.prepareStatement("SELECT nextval('bench_schedule_seq_id')");
+             PreparedStatement ps = connection.prepareStatement("""
+                     INSERT INTO bench_schedule_seq
+                         (id, group_id, subject_name, lesson_date, start_time, end_time, classroom, control_sum)
+                     VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+                     """)) {
+            long hi = 0;
+            for (int i = 0; i < ROWS; i++) {
+                if (i % BATCH_SIZE == 0) {
+                    try (ResultSet rs = nextval.executeQuery()) {
+                        rs.next();
+                        hi = rs.getLong(1);
+                    }
+                }
+                ps.setLong(1, hi - BATCH_SIZE + 1 + i % BATCH_SIZE);
+                bindLesson(ps, 2, i);
+                ps.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    ps.executeBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+        connection.commit();
+        report("sequence batched", start, "bench_schedule_seq");
+    }
+
+    @Test
+    @DisplayName("COPY FROM STDIN")
+    void copy() throws Exception {
+        long start = System.nanoTime();
+        StringBuilder csv = new StringBuilder(ROWS * 80);
+        for (int i = 0; i < ROWS; i++) {
+            csv.append(1).append('\t')
+                    .append("Предмет ").append(i % 40).append('\t')
+                    .append(LocalDate.of(2025, 9, 1).plusDays(i % 120)).append('\t')
+                    .append(LocalTime.of(9, 0)).append('\t')
+                    .append(LocalTime.of(10, 30)).append('\t')
+                    .append("ГУК Б-").append(i % 300).append('\t')
+                    .append("sum-").append(i).append('\n');
+        }
+        connection.unwrap(PGConnection.class).getCopyAPI().copyIn("""
+                COPY bench_schedule_identity
+                    (group_id, subject_name, lesson_date, start_time, end_time, classroom, control_sum)
+                FROM STDIN
+                """, new StringReader(csv.toString()));
+        connection.commit();
+        report("copy", start, "bench_schedule_identity");
+    }
+
+    @Test
+    @DisplayName("JDBC-батчи через представление schedule_lessons (построчный триггер)")
+    void viewTriggerBatched() throws SQLException {
+        long start = System.nanoTime();
+        try (PreparedStatement ps = connection.prepareStatement("""
+                INSERT INTO schedule_lessons
+                    (id, group_id, subject_name, lesson_date, start_time, end_time, classroom, control_sum,
+                     lesson_type, snapshot_version)
+                VALUES (nextval('schedule_seq'), ?, ?, ?, ?, ?, ?, sha256(convert_to(?, 'UTF8')), 'LECTURE', 1)
+                """)) {
+            for (int i = 0; i < ROWS; i++) {
+                bindLesson(ps, 1, i);
+                ps.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    ps.executeBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+        connection.commit();
+        report("view trigger batched", start, "schedule");
+    }
+
+    @Test
+    @DisplayName("Один вызов insert_schedule_lessons с массивами по колонкам")
+    void setBasedFunction() throws SQLException {
+        long start = System.nanoTime();
+        Date[] dates = new Date[ROWS];
+        Time[] starts = new Time[ROWS];
+        Time[] ends = new Time[ROWS];
+        String[] subjects = new String[ROWS];
+        String[] types = new String[ROWS];
+        Long[] teachers = new Long[ROWS];
+        String[] rooms = new String[ROWS];
+        Integer[] weeks = new Integer[ROWS];
+        byte[][] sums = new byte[ROWS][];
+        for (int i = 0; i < ROWS; i++) {
+            dates[i] = Date.valueOf(LocalDate.of(2025, 9, 1).plusDays(i % 120));
+            starts[i] = Time.valueOf(LocalTime.of(9, 0));
+            ends[i] = Time.valueOf(LocalTime.of(10, 30));
+            subjects[i] = "Предмет " + i % 40;
+            types[i] = "LECTURE";
+            rooms[i] = "ГУК Б-" + i % 300;
+            sums[i] = sha256("sum-" + i);
+        }
+        try (PreparedStatement ps = connection.prepareStatement(
+                "SELECT insert_schedule_lessons(1, 1, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            ps.setArray(1, connection.createArrayOf("date", dates));
+            ps.setArray(2, connection.createArrayOf("time", starts));
+            ps.setArray(3, connection.createArrayOf("time", ends));
+            ps.setArray(4, connection.createArrayOf("text", subjects));
+            ps.setArray(5, connection.createArrayOf("text", types));
+            ps.setArray(6, connection.createArrayOf("bigint", teachers));
+            ps.setArray(7, connection.createArrayOf("text", rooms));
+            ps.setArray(8, connection.createArrayOf("integer", weeks));
+            ps.setArray(9, connection.createArrayOf("bytea", sums));
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                assertThat(rs.getInt(1)).isEqualTo(ROWS);
+            }
+        }
+        connection.commit();
+        report("set-based function", start, "schedule");
+    }
+
+    private static byte[] sha256(String value) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void bindLesson(PreparedStatement ps, int from, int i) throws SQLException {
+        ps.setLong(from, 1);
+        ps.setString(from + 1, "Предмет " + i % 40);
+        ps.setDate(from + 2, Date.valueOf(LocalDate.of(2025, 9, 1).plusDays(i % 120)));
+        ps.setTime(from + 3, Time.valueOf(LocalTime.of(9, 0)));
+        ps.setTime(from + 4, Time.valueOf(LocalTime.of(10, 30)));
+        ps.setString(from + 5, "ГУК Б-" + i % 300);
+        ps.setString(from + 6, "sum-" + i);
+    }
+
+    private void report(String name, long startNanos, String table) throws SQLException {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        log.info(String.format("%-22s %8d rows  %8.3f s  %10.0f rows/s", name, ROWS, seconds, ROWS / seconds));
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("SELECT count(*) FROM " + table)) {
+            rs.next();
+            assertThat(rs.getLong(1)).isEqualTo(ROWS);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package ru.semavin.telegrambot.services.schedules;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import ru.semavin.telegrambot.dto.ScheduleDTO;
+import ru.semavin.telegrambot.models.ScheduleChangeEntity;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Сравнение скорости слияния дня с изменениями: однопроходное {@link ScheduleDayMerger}
+ * и буквальная реализация правил вложенными циклами.
+ * Запускается только с -Dbenchmark=true. Время только выводится в лог: сравнение по времени
+ * на общей машине нестабильно, поэтому тест ничего о нем не утверждает.
+ */
+@Slf4j
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class ScheduleDayMergerBenchmarkTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 10, 6);
+    private static final int DAYS = 20_000;
+    private static final int WARMUP_ROUNDS = 3;
+
+    @Test
+    @DisplayName("Время слияния: вложенные циклы и однопроходное слияние")
+    void compare() {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            run(() -> ScheduleDayMergerReference::merge);
+            run(() -> ScheduleDayMerger::merge);
+        }
+        long reference = run(() -> ScheduleDayMergerReference::merge);
+        long engine = run(() -> ScheduleDayMerger::merge);
+
+        report("reference nested loops", reference);
+        report("hash-indexed single pass", engine);
+    }
+
+    private long run(Supplier<Merger> merger) {
+        Merger merge = merger.get();
+        long start = System.nanoTime();
+        long lessons = 0;
+        for (long seed = 0; seed < DAYS; seed++) {
+            lessons += merge.merge(ScheduleDayMergerTest.originals(seed), ScheduleDayMergerTest.changes(seed), DAY)
+                    .size();
+        }
+        assertThat(lessons).isPositive();
+        return System.nanoTime() - start;
+    }
+
+    private static void report(String name, long nanos) {
+        double seconds = nanos / 1e9;
+        log.info(String.format("%-26s %8d days  %8.3f s  %10.0f days/s", name, DAYS, seconds, DAYS / seconds));
+    }
+
+    @FunctionalInterface
+    private interface Merger {
+        List<ScheduleDTO> merge(List<ScheduleDTO> original, List<ScheduleChangeEntity> changes, LocalDate day);
+    }
+}
@@ -0,0 +1,97 @@
+package ru.semavin.telegrambot.services.schedules;
+
+import ru.semavin.telegrambot.dto.ScheduleDTO;
+import ru.semavin.telegrambot.models.ScheduleChangeEntity;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Буквальная реализация правил {@link ScheduleDayMerger} вложенными циклами,
+ * эталон для проверки эквивалентности и для сравнения скорости.
+ * Изменения в наборе либо все с различными id, либо все без id.
+ */
+final class ScheduleDayMergerReference {
+
+    private ScheduleDayMergerReference() {
+    }
+
+    static List<ScheduleDTO> merge(List<ScheduleDTO> original, List<ScheduleChangeEntity> changes, LocalDate day) {
+        List<ScheduleDTO> kept = new ArrayList<>();
+        List<ScheduleDTO> added = new ArrayList<>();
+        boolean touched = false;
+
+        for (ScheduleDTO lesson : original) {
+            ScheduleChangeEntity change = lesson.getControlSum() == null ? null
+                    : effective(lesson.getControlSum(), changes);
+            if (change == null) {
+                kept.add(lesson);
+                continue;
+            }
+            touched = true;
+            if (change.getNewLessonDate() != null || change.isDeleted()) {
+                continue;
+            }
+            if (change.getNewStartTime() != null) {
+                lesson.setStartTime(change.getNewStartTime());
+            }
+            if (change.getNewEndTime() != null) {
+                lesson.setEndTime(change.getNewEndTime());
+            }
+            if (change.getDescription() != null) {
+                lesson.setDescription(change.getDescription());
+            }
+            lesson.setSubjectName(change.getSubjectName());
+            lesson.setLessonType(change.getLessonType());
+            lesson.setClassroom(change.getClassroom());
+            kept.add(lesson);
+        }
+
+        for (ScheduleChangeEntity change : changes) {
+            boolean isEffective = change.getOldControlSum() == null
+                    || effective(change.getOldControlSum(), changes) == change;
+            if (isEffective && !change.isDeleted() && day.equals(change.getNewLessonDate())) {
+                touched = true;
+                added.add(ScheduleDTO.builder()
+                        .subjectName(change.getSubjectName())
+                        .lessonType(change.getLessonType())
+                        .controlSum(change.getOldControlSum())
+                        .teacherName(change.getTeacherName())
+                        .classroom(change.getClassroom())
+                        .groupName(change.getGroup() == null ? null : change.getGroup().getGroupName())
+                        .startTime(change.getNewStartTime() == null ? change.getOldStartTime() : change.getNewStartTime())
+                        .endTime(change.getNewEndTime() == null ? change.getOldEndTime() : change.getNewEndTime())
+                        .lessonDate(change.getNewLessonDate())
+                        .description(change.getDescription())
+                        .build());
+            }
+        }
+
+        if (!touched) {
+            return original;
+        }
+        List<ScheduleDTO> merged = new ArrayList<>(kept);
+        merged.addAll(added);
+        merged.sort(Comparator.comparing(ScheduleDTO::getStartTime, Comparator.nullsLast(Comparator.naturalOrder())));
+        return merged;
+    }
+
+    /**
+     * Последнее по id изменение с контрольной суммой, а без id - последнее в списке.
+     */
+    private static ScheduleChangeEntity effective(String controlSum, List<ScheduleChangeEntity> changes) {
+        ScheduleChangeEntity result = null;
+        for (ScheduleChangeEntity change : changes) {
+            if (!Objects.equals(controlSum, change.getOldControlSum())) {
+                continue;
+            }
+            if (result == null || change.getId() == null || change.getId() > result.getId()) {
+                result = change;
+            }
+        }
+        return result;
+    }
+}
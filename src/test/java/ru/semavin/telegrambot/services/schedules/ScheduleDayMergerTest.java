@@ -0,0 +1,272 @@
+package ru.semavin.telegrambot.services.schedules;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import ru.semavin.telegrambot.dto.ScheduleDTO;
+import ru.semavin.telegrambot.models.GroupEntity;
+import ru.semavin.telegrambot.models.ScheduleChangeEntity;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ScheduleDayMergerTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 10, 6);
+    private static final GroupEntity GROUP = GroupEntity.builder().groupName("М3О-203С-22").build();
+    private static final List<LocalTime> SLOTS = List.of(
+            LocalTime.of(9, 0), LocalTime.of(10, 45), LocalTime.of(13, 0), LocalTime.of(14, 45), LocalTime.of(16, 30));
+
+    /**
+     * Правила из описания {@link ScheduleDayMerger}, ожидания выписаны вручную.
+     * Пара записывается как "сумма начало аудитория описание", отсутствующее значение - "-".
+     */
+    static Stream<Arguments> rules() {
+        return Stream.of(
+                // последнее по id
+                Arguments.of("Правка с большим id отменяет более ранний перенос",
+                        List.of(lesson("a", 0)),
+                        List.of(change(5L, "a").newLessonDate(DAY.plusDays(1)).build(),
+                                change(9L, "a").classroom("4-404").build()),
+                        List.of("a 09:00 4-404 -")),
+                Arguments.of("Правка с большим id на исходном дне отменяет перенос и на дне переноса",
+                        List.of(),
+                        List.of(change(5L, "x").oldLessonDate(DAY.minusDays(1)).newLessonDate(DAY).build(),
+                                change(9L, "x").oldLessonDate(DAY.minusDays(1)).classroom("4-404").build()),
+                        List.of()),
+                Arguments.of("Удаление с большим id побеждает правку",
+                        List.of(lesson("a", 0)),
+                        List.of(change(2L, "a").classroom("4-404").build(),
+                                change(8L, "a").deleted(true).build()),
+                        List.of()),
+                Arguments.of("При id порядок изменений в списке не важен",
+                        List.of(lesson("a", 0)),
+                        List.of(change(9L, "a").classroom("4-404").build(),
+                                change(5L, "a").deleted(true).build()),
+                        List.of("a 09:00 4-404 -")),
+                Arguments.of("Без id действует последнее изменение в списке",
+                        List.of(lesson("a", 0)),
+                        List.of(change(null, "a").classroom("1-111").build(),
+                                change(null, "a").classroom("2-222").build()),
+                        List.of("a 09:00 2-222 -")),
+                // перенос внутри дня
+                Arguments.of("Перенос внутри дня оставляет пару только на новом месте",
+                        List.of(lesson("a", 0), lesson("b", 1)),
+                        List.of(change(null, "a").newLessonDate(DAY).newStartTime(SLOTS.get(3))
+                                .classroom("3-321").build()),
+                        List.of("b 10:45 3-321 -", "a 14:45 3-321 -")),
+                Arguments.of("Перенос внутри дня без нового времени не дублирует пару",
+                        List.of(lesson("a", 0)),
+                        List.of(change(null, "a").newLessonDate(DAY).oldStartTime(SLOTS.get(0))
+                                .classroom("3-321").build()),
+                        List.of("a 09:00 3-321 -")),
+                // удаление
+                Arguments.of("Удаление с переносом на этот день не добавляет пару",
+                        List.of(lesson("b", 1)),
+                        List.of(change(null, "x").oldLessonDate(DAY.minusDays(1)).newLessonDate(DAY)
+                                .oldStartTime(SLOTS.get(0)).deleted(true).build()),
+                        List.of("b 10:45 3-321 -")),
+                Arguments.of("Удаление с переносом внутри дня убирает пару и не добавляет ее",
+                        List.of(lesson("a", 0)),
+                        List.of(change(null, "a").newLessonDate(DAY).newStartTime(SLOTS.get(2))
+                                .deleted(true).build()),
+                        List.of()),
+                Arguments.of("Удаление убирает пару",
+                        List.of(lesson("a", 0), lesson("b", 1)),
+                        List.of(change(null, "a").deleted(true).build()),
+                        List.of("b 10:45 3-321 -")),
+                // поведение, сохраненное от прежней реализации
+                Arguments.of("Правка без времени и описания меняет аудиторию, время остается",
+                        List.of(lesson("a", 2)),
+                        List.of(change(null, "a").classroom("5-555").build()),
+                        List.of("a 13:00 5-555 -")),
+                Arguments.of("Правка с временем и описанием применяет их",
+                        List.of(lesson("a", 2)),
+                        List.of(change(null, "a").classroom("5-555").newStartTime(SLOTS.get(4))
+                                .description("замена").build()),
+                        List.of("a 16:30 5-555 замена")),
+                Arguments.of("Пара, перенесенная на день без нового времени, берет старое время",
+                        List.of(),
+                        List.of(change(null, "x").oldLessonDate(DAY.minusDays(1)).newLessonDate(DAY)
+                                .oldStartTime(SLOTS.get(4)).classroom("6-606").description("перенос").build()),
+                        List.of("x 16:30 6-606 перенос")),
+                Arguments.of("Перенос на другой день убирает пару, пары без изменений не трогаются",
+                        List.of(lesson("a", 0), lesson("b", 1)),
+                        List.of(change(null, "a").newLessonDate(DAY.plusDays(3)).build()),
+                        List.of("b 10:45 3-321 -")),
+                Arguments.of("Пары упорядочены по началу, при равном времени исходная раньше перенесенной",
+                        List.of(lesson("b", 2)),
+                        List.of(change(null, "x").oldLessonDate(DAY.minusDays(1)).newLessonDate(DAY)
+                                        .newStartTime(SLOTS.get(2)).classroom("7-707").build(),
+                                change(null, "y").oldLessonDate(DAY.minusDays(1)).newLessonDate(DAY)
+                                        .newStartTime(SLOTS.get(0)).classroom("7-707").build()),
+                        List.of("y 09:00 7-707 -", "b 13:00 3-321 -", "x 13:00 7-707 -"))
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("rules")
+    @DisplayName("Правила слияния дня")
+    void rule(String rule, List<ScheduleDTO> original, List<ScheduleChangeEntity> changes, List<String> expected) {
+        List<ScheduleDTO> merged = ScheduleDayMerger.merge(new ArrayList<>(original), changes, DAY);
+
+        assertThat(merged).extracting(ScheduleDayMergerTest::describe).as(rule).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    @DisplayName("Если изменения не затрагивают день, возвращается исходный список")
+    void untouchedDayReturnsOriginal() {
+        List<ScheduleDTO> original = List.of(lesson("a", 0));
+        List<ScheduleChangeEntity> changes = List.of(
+                change(null, "x").oldLessonDate(DAY.minusDays(1)).newLessonDate(DAY.plusDays(1)).build());
+
+        assertThat(ScheduleDayMerger.merge(original, changes, DAY)).isSameAs(original);
+        assertThat(ScheduleDayMerger.merge(original, List.of(), DAY)).isSameAs(original);
+    }
+
+    @Test
+    @DisplayName("Отбор действующих изменений оставляет по одному на пару и изменения без суммы")
+    void effectiveKeepsWinnersInOrder() {
+        ScheduleChangeEntity moved = change(5L, "a").newLessonDate(DAY.plusDays(1)).build();
+        ScheduleChangeEntity edited = change(9L, "a").classroom("4-404").build();
+        ScheduleChangeEntity withoutSum = change(1L, null).newLessonDate(DAY.plusDays(2)).build();
+        ScheduleChangeEntity other = change(3L, "b").deleted(true).build();
+
+        assertThat(ScheduleDayMerger.effective(List.of(moved, withoutSum, edited, other)))
+                .containsExactly(withoutSum, edited, other);
+    }
+
+    @Test
+    @DisplayName("Все переносы на другие дни убирают пары, изменения после них применяются")
+    void severalMovesAwayAndEdit() {
+        List<ScheduleDTO> original = List.of(lesson("a", 0), lesson("b", 1), lesson("c", 2));
+        List<ScheduleChangeEntity> changes = List.of(
+                change(null, "a").newLessonDate(DAY.plusDays(1)).build(),
+                change(null, "b").newLessonDate(DAY.plusDays(2)).build(),
+                change(null, "c").classroom("3-101").newStartTime(SLOTS.get(4)).build());
+
+        List<ScheduleDTO> merged = ScheduleDayMerger.merge(original, changes, DAY);
+
+        assertThat(merged).singleElement().satisfies(lesson -> {
+            assertThat(lesson.getControlSum()).isEqualTo("c");
+            assertThat(lesson.getClassroom()).isEqualTo("3-101");
+            assertThat(lesson.getStartTime()).isEqualTo(SLOTS.get(4));
+        });
+    }
+
+    @Test
+    @DisplayName("Из нескольких изменений пары действует последнее по id")
+    void latestChangeWins() {
+        List<ScheduleChangeEntity> changes = List.of(
+                change(7L, "a").description("вторая").build(),
+                change(3L, "a").deleted(true).build());
+
+        List<ScheduleDTO> merged = ScheduleDayMerger.merge(List.of(lesson("a", 0)), changes, DAY);
+
+        assertThat(merged).singleElement()
+                .extracting(ScheduleDTO::getDescription).isEqualTo("вторая");
+    }
+
+    @Test
+    @DisplayName("Перенос внутри дня не дублирует пару")
+    void moveWithinDay() {
+        List<ScheduleChangeEntity> changes = List.of(
+                change(null, "a").newLessonDate(DAY).newStartTime(SLOTS.get(3)).build());
+
+        List<ScheduleDTO> merged = ScheduleDayMerger.merge(List.of(lesson("a", 0), lesson("b", 1)), changes, DAY);
+
+        assertThat(merged).extracting(ScheduleDTO::getControlSum).containsExactly("b", "a");
+        assertThat(merged.get(1).getStartTime()).isEqualTo(SLOTS.get(3));
+    }
+
+    @Test
+    @DisplayName("Слияние совпадает с эталонной реализацией правил на случайных днях")
+    void equivalentToReference() {
+        for (long seed = 0; seed < 2_000; seed++) {
+            List<ScheduleDTO> expected = ScheduleDayMergerReference.merge(
+                    originals(seed), changes(seed), DAY);
+            List<ScheduleDTO> actual = ScheduleDayMerger.merge(originals(seed), changes(seed), DAY);
+
+            assertThat(actual).as("seed %d", seed).isEqualTo(expected);
+        }
+    }
+
+    static List<ScheduleDTO> originals(long seed) {
+        Random random = new Random(seed);
+        int count = random.nextInt(9);
+        List<ScheduleDTO> lessons = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            lessons.add(lesson("s" + i, random.nextInt(SLOTS.size())));
+        }
+        return lessons;
+    }
+
+    static List<ScheduleChangeEntity> changes(long seed) {
+        Random random = new Random(~seed);
+        int lessons = new Random(seed).nextInt(9);
+        int count = random.nextInt(9);
+        boolean withIds = random.nextBoolean();
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= count; id++) {
+            ids.add(id);
+        }
+        Collections.shuffle(ids, random);
+
+        List<ScheduleChangeEntity> changes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int kind = random.nextInt(10);
+            String sum = kind < 6 && lessons > 0 ? "s" + random.nextInt(lessons)
+                    : kind < 8 ? "x" + random.nextInt(3)
+                    : null;
+            int target = random.nextInt(4);
+            changes.add(change(withIds ? ids.get(i) : null, sum)
+                    .oldLessonDate(sum != null && sum.startsWith("x") ? DAY.minusDays(1) : DAY)
+                    .newLessonDate(target < 2 ? null : target == 2 ? DAY : DAY.plusDays(1))
+                    .oldStartTime(SLOTS.get(random.nextInt(SLOTS.size())))
+                    .newStartTime(random.nextBoolean() ? SLOTS.get(random.nextInt(SLOTS.size())) : null)
+                    .description(random.nextBoolean() ? "изменение " + i : null)
+                    .classroom("ауд. " + random.nextInt(5))
+                    .deleted(random.nextInt(5) == 0)
+                    .build());
+        }
+        return changes;
+    }
+
+    static ScheduleDTO lesson(String controlSum, int slot) {
+        return ScheduleDTO.builder()
+                .lessonDate(DAY)
+                .groupName(GROUP.getGroupName())
+                .subjectName("Предмет " + controlSum)
+                .lessonType("LECTURE")
+                .classroom("3-321")
+                .startTime(SLOTS.get(slot))
+                .endTime(SLOTS.get(slot).plusMinutes(90))
+                .controlSum(controlSum)
+                .build();
+    }
+
+    private static String describe(ScheduleDTO lesson) {
+        return String.join(" ", lesson.getControlSum(), String.valueOf(lesson.getStartTime()),
+                lesson.getClassroom() == null ? "-" : lesson.getClassroom(),
+                lesson.getDescription() == null ? "-" : lesson.getDescription());
+    }
+
+    private static ScheduleChangeEntity.ScheduleChangeEntityBuilder change(Long id, String controlSum) {
+        return ScheduleChangeEntity.builder()
+                .id(id)
+                .group(GROUP)
+                .oldLessonDate(DAY)
+                .oldControlSum(controlSum)
+                .subjectName("Предмет " + controlSum)
+                .lessonType("LECTURE");
+    }
+}
@@ -15,13 +15,19 @@ import ru.semavin.telegrambot.models.enums.LessonType;
 import ru.semavin.telegrambot.repositories.ScheduleRepository;
 import ru.semavin.telegrambot.services.ScheduleChangeService;
 import ru.semavin.telegrambot.services.groups.GroupService;
+import ru.semavin.telegrambot.services.metrics.ScheduleMetrics;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 public class ScheduleMergeServiceTest {
@@ -44,6 +50,9 @@ public class ScheduleMergeServiceTest {
     @Mock
     private ScheduleChangeService scheduleChangeService;
 
+    @Mock
+    private ScheduleMetrics metrics;
+
     private final String GROUP_NAME = "М3О-203С-22";
 
     private final LocalDate TEST_DATE = LocalDate.of(2025, 12, 12);
@@ -121,6 +130,104 @@ public class ScheduleMergeServiceTest {
         });
     }
 
+    @Test
+    @DisplayName("Правка пары после ее переноса отменяет перенос на обоих днях семестра")
+    void editAfterMoveCancelsMoveAcrossDays() {
+        LocalDate nextDay = TEST_DATE.plusDays(1);
+        when(groupService.findEntityByName(GROUP_NAME)).thenReturn(GROUP_ENTITY);
+        when(semesterService.getStartSemester()).thenReturn(TEST_DATE);
+        when(semesterService.getEndSemester()).thenReturn(nextDay);
+        when(scheduleRepository.findDtosByGroupAndLessonDateBetween(GROUP_ENTITY, TEST_DATE, nextDay))
+                .thenReturn(buildScheduleList());
+        when(scheduleChangeService.getChangesForRange(GROUP_NAME, TEST_DATE, nextDay)).thenReturn(List.of(
+                ScheduleChangeEntity.builder()
+                        .id(5L)
+                        .oldControlSum(CONTROL_SUM_1)
+                        .oldLessonDate(TEST_DATE)
+                        .newLessonDate(nextDay)
+                        .subjectName(TEST_SUB_1)
+                        .group(GROUP_ENTITY)
+                        .build(),
+                ScheduleChangeEntity.builder()
+                        .id(9L)
+                        .oldControlSum(CONTROL_SUM_1)
+                        .oldLessonDate(TEST_DATE)
+                        .subjectName(TEST_SUB_1)
+                        .classroom(TEST_ROOM_2)
+                        .group(GROUP_ENTITY)
+                        .build()));
+        when(metrics.timeMerge(any(), any())).thenAnswer(invocation ->
+                invocation.<Supplier<?>>getArgument(1).get());
+
+        List<ScheduleDTO> result = scheduleService.getScheduleAfterMerge(GROUP_NAME);
+
+        assertThat(result).filteredOn(lesson -> CONTROL_SUM_1.equals(lesson.getControlSum()))
+                .singleElement()
+                .satisfies(lesson -> {
+                    assertThat(lesson.getLessonDate()).isEqualTo(TEST_DATE);
+                    assertThat(lesson.getClassroom()).isEqualTo(TEST_ROOM_2);
+                });
+    }
+
+    @Test
+    @DisplayName("Занятие потока у преподавателя - одна пара со списком групп")
+    void mergeMultiGroupsCollectsGroupNames() {
+        String otherGroup = "М3О-204С-22";
+        ScheduleDTO otherLecture = ScheduleDTO.builder()
+                .lessonDate(TEST_DATE)
+                .groupName(otherGroup)
+                .startTime(START_TIME_1)
+                .endTime(END_TIME_1)
+                .subjectName(TEST_SUB_1)
+                .build();
+
+        Map<String, List<ScheduleDTO>> chunks = new LinkedHashMap<>();
+        chunks.put(GROUP_NAME, buildScheduleList());
+        chunks.put(otherGroup, List.of(otherLecture));
+
+        List<ScheduleDTO> result = scheduleService.mergeMultiGroups(chunks);
+
+        assertThat(result).hasSize(2);
+        assertThat(result.get(0).getGroupNames()).containsExactly(GROUP_NAME, otherGroup);
+        assertThat(result.get(0).getGroupName()).isEqualTo(GROUP_NAME + ", " + otherGroup);
+        assertThat(result.get(1).getGroupNames()).containsExactly(GROUP_NAME);
+    }
+
+    @Test
+    @DisplayName("Пары преподавателя сводятся по занятию, пары с MAI - по времени и предмету")
+    void mergeMultiGroupsKeysOnLessonId() {
+        String otherGroup = "М3О-204С-22";
+        String maiGroup = "М3О-205С-22";
+        ScheduleDTO lecture = lesson(GROUP_NAME, 11L, TEST_ROOM_1);
+        ScheduleDTO sameLecture = lesson(otherGroup, 11L, TEST_ROOM_1);
+        ScheduleDTO otherLesson = lesson(otherGroup, 12L, TEST_ROOM_2);
+        ScheduleDTO fromMai = lesson(maiGroup, null, TEST_ROOM_1);
+
+        Map<String, List<ScheduleDTO>> chunks = new LinkedHashMap<>();
+        chunks.put(maiGroup, List.of(fromMai));
+        chunks.put(GROUP_NAME, List.of(lecture));
+        chunks.put(otherGroup, List.of(sameLecture, otherLesson));
+
+        List<ScheduleDTO> result = scheduleService.mergeMultiGroups(chunks);
+
+        assertThat(result).hasSize(2);
+        assertThat(result).extracting(ScheduleDTO::getGroupNames).containsExactlyInAnyOrder(
+                List.of(GROUP_NAME, otherGroup, maiGroup),
+                List.of(otherGroup));
+    }
+
+    private ScheduleDTO lesson(String groupName, Long lessonId, String classroom) {
+        return ScheduleDTO.builder()
+                .lessonId(lessonId)
+                .lessonDate(TEST_DATE)
+                .groupName(groupName)
+                .classroom(classroom)
+                .startTime(START_TIME_1)
+                .endTime(END_TIME_1)
+                .subjectName(TEST_SUB_1)
+                .build();
+    }
+
     private List<ScheduleDTO> buildScheduleList() {
         return List.of(
                 ScheduleDTO.builder()
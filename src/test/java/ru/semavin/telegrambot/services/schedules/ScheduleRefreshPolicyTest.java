@@ -0,0 +1,64 @@
+package ru.semavin.telegrambot.services.schedules;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScheduleRefreshPolicyTest {
+
+    private final Duration MIN_INTERVAL = Duration.ofHours(2);
+    private final Duration MAX_INTERVAL = Duration.ofDays(3);
+
+    private final ScheduleRefreshPolicy policy = new ScheduleRefreshPolicy(
+            MIN_INTERVAL, MAX_INTERVAL, Duration.ofDays(14), 2);
+
+    @Test
+    @DisplayName("Группа без изменений обновляется с максимальным интервалом")
+    void success_nextIntervalForStableGroup() {
+        assertEquals(MAX_INTERVAL, policy.nextInterval(0));
+    }
+
+    @Test
+    @DisplayName("Группа с частыми изменениями обновляется не чаще минимального интервала")
+    void success_nextIntervalForVolatileGroup() {
+        assertEquals(MIN_INTERVAL, policy.nextInterval(1000));
+    }
+
+    @Test
+    @DisplayName("Чем чаще меняется расписание, тем короче интервал")
+    void success_nextIntervalDecreasesWithChanges() {
+        double score = 0;
+        Duration previous = policy.nextInterval(score);
+        for (int i = 0; i < 10; i++) {
+            score = policy.nextScore(score, Duration.ofDays(1), true);
+            Duration next = policy.nextInterval(score);
+            assertTrue(next.compareTo(previous) <= 0);
+            previous = next;
+        }
+        assertTrue(previous.compareTo(MAX_INTERVAL) < 0);
+    }
+
+    @Test
+    @DisplayName("Без изменений счетчик затухает и интервал возвращается к максимальному")
+    void success_nextScoreDecays() {
+        double score = 0;
+        for (int i = 0; i < 7; i++) {
+            score = policy.nextScore(score, Duration.ofHours(6), true);
+        }
+        double volatileScore = score;
+        for (int i = 0; i < 20; i++) {
+            score = policy.nextScore(score, Duration.ofDays(3), false);
+        }
+        assertTrue(score < volatileScore);
+        assertEquals(MAX_INTERVAL, policy.nextInterval(score));
+    }
+
+    @Test
+    void fail_minIntervalGreaterThanMax() {
+        assertThrows(IllegalArgumentException.class, () ->
+                new ScheduleRefreshPolicy(Duration.ofDays(4), MAX_INTERVAL, Duration.ofDays(14), 2));
+    }
+}
@@ -0,0 +1,193 @@
+package ru.semavin.telegrambot.services.upstream;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+import ru.semavin.telegrambot.loadtest.MaiStandInServer;
+import ru.semavin.telegrambot.loadtest.SyntheticMaiSchedule;
+import ru.semavin.telegrambot.loadtest.SyntheticScale;
+import ru.semavin.telegrambot.services.metrics.ScheduleMetrics;
+import ru.semavin.telegrambot.services.upstream.UpstreamPayloadArchive.ArchivedPayload;
+import ru.semavin.telegrambot.utils.exceptions.UpstreamUnavailableException;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Клиент MAI против локальной заглушки по настоящему HTTP, без мока RestTemplate.
+ */
+public class MaiScheduleClientTest {
+
+    private final SyntheticMaiSchedule mai = new SyntheticMaiSchedule(SyntheticScale.builder()
+            .groups(3)
+            .teachers(5)
+            .from(LocalDate.of(2025, 9, 1))
+            .teachingWeeks(2)
+            .sessionWeeks(0)
+            .build());
+    private MaiStandInServer standIn;
+    private final MapValidatorStore validatorStore = new MapValidatorStore();
+    private MaiScheduleClient client;
+
+    @BeforeEach
+    void setUp() {
+        standIn = new MaiStandInServer().serve(mai::resource).start();
+        client = new MaiScheduleClient(new RestTemplate(), new ScheduleMetrics(new SimpleMeterRegistry()),
+                mock(UpstreamPayloadArchive.class), breaker(5), validatorStore, standIn.baseUrl());
+    }
+
+    @AfterEach
+    void tearDown() {
+        standIn.close();
+    }
+
+    @Test
+    @DisplayName("Список групп и json группы читаются с заглушки")
+    void fetchesGroupsAndGroupSchedule() {
+        String group = mai.groupNames().get(0);
+
+        assertThat(client.fetchGroups()).contains(group, "Институт №3");
+        assertThat(client.fetchGroupSchedule(group)).contains("\"group\":\"" + group + "\"", "01.09.2025");
+    }
+
+    @Test
+    @DisplayName("Повторный условный запрос получает 304, после замены json - новое тело")
+    void conditionalFetchUsesEtag() {
+        String group = mai.groupNames().get(1);
+
+        ConditionalFetchResult first = client.fetchGroupScheduleIfChanged(group);
+        client.markProcessed(first);
+        ConditionalFetchResult second = client.fetchGroupScheduleIfChanged(group);
+        standIn.put(SyntheticMaiSchedule.md5(group), "{\"group\":\"" + group + "\"}");
+        ConditionalFetchResult third = client.fetchGroupScheduleIfChanged(group);
+
+        assertThat(first.modified()).isTrue();
+        assertThat(second.modified()).isFalse();
+        assertThat(standIn.responses(304)).isEqualTo(1);
+        assertThat(third.modified()).isTrue();
+        assertThat(third.body()).isEqualTo("{\"group\":\"" + group + "\"}");
+    }
+
+    @Test
+    @DisplayName("В режиме воспроизведения ответы берутся из архива без запросов к MAI")
+    void replayServesArchivedPayloads() {
+        String group = mai.groupNames().get(2);
+        String archived = "{\"group\":\"" + group + "\"}";
+        UpstreamPayloadArchive archive = mock(UpstreamPayloadArchive.class);
+        when(archive.replaying()).thenReturn(true);
+        when(archive.replay(standIn.baseUrl() + SyntheticMaiSchedule.md5(group) + ".json")).thenReturn(archived);
+        MaiScheduleClient replayClient = new MaiScheduleClient(new RestTemplate(),
+                new ScheduleMetrics(new SimpleMeterRegistry()), archive, breaker(5), validatorStore, standIn.baseUrl());
+
+        ConditionalFetchResult first = replayClient.fetchGroupScheduleIfChanged(group);
+        replayClient.markProcessed(first);
+
+        assertThat(replayClient.fetchGroupSchedule(group)).isEqualTo(archived);
+        assertThat(first.body()).isEqualTo(archived);
+        assertThat(replayClient.fetchGroupScheduleIfChanged(group).modified()).isFalse();
+        assertThat(standIn.requests()).isZero();
+    }
+
+    @Test
+    @DisplayName("Ошибка MAI доходит до вызывающего кода")
+    void upstreamErrorIsPropagated() {
+        standIn.errorRate(1);
+
+        assertThatThrownBy(() -> client.fetchTeacherSchedule(mai.teacherUuids().get(0)))
+                .isInstanceOf(HttpServerErrorException.ServiceUnavailable.class);
+    }
+
+    @Test
+    @DisplayName("Если MAI недоступен, отдается сохраненный ответ с отметкой устаревания")
+    void staleFallbackWhenUpstreamFails() {
+        String group = mai.groupNames().get(0);
+        String url = standIn.baseUrl() + SyntheticMaiSchedule.md5(group) + ".json";
+        LocalDateTime fetchedAt = LocalDateTime.of(2025, 9, 1, 10, 0);
+        UpstreamPayloadArchive archive = mock(UpstreamPayloadArchive.class);
+        when(archive.latest(url)).thenReturn(Optional.of(new ArchivedPayload("{\"stale\":true}", fetchedAt)));
+        MaiScheduleClient staleClient = new MaiScheduleClient(new RestTemplate(),
+                new ScheduleMetrics(new SimpleMeterRegistry()), archive, breaker(5), validatorStore, standIn.baseUrl());
+        standIn.errorRate(1);
+
+        UpstreamStaleness.begin();
+        try {
+            assertThat(staleClient.fetchGroupSchedule(group)).isEqualTo("{\"stale\":true}");
+            assertThat(UpstreamStaleness.staleSince()).contains(fetchedAt);
+        } finally {
+            UpstreamStaleness.end();
+        }
+    }
+
+    @Test
+    @DisplayName("Разомкнутый выключатель не пускает запросы к MAI")
+    void openBreakerSkipsUpstream() {
+        String group = mai.groupNames().get(1);
+        UpstreamPayloadArchive archive = mock(UpstreamPayloadArchive.class);
+        when(archive.latest(anyString())).thenReturn(
+                Optional.of(new ArchivedPayload("{}", LocalDateTime.of(2025, 9, 1, 10, 0))));
+        UpstreamCircuitBreaker breaker = breaker(2);
+        MaiScheduleClient guarded = new MaiScheduleClient(new RestTemplate(),
+                new ScheduleMetrics(new SimpleMeterRegistry()), archive, breaker, validatorStore, standIn.baseUrl());
+        standIn.errorRate(1);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(guarded.fetchGroupSchedule(group)).isEqualTo("{}");
+        }
+
+        assertThat(standIn.requests()).isEqualTo(2);
+        assertThat(breaker.state()).isEqualTo(UpstreamCircuitBreaker.State.OPEN);
+        assertThatThrownBy(() -> guarded.fetchGroupScheduleIfChanged(group))
+                .isInstanceOf(UpstreamUnavailableException.class);
+        assertThat(standIn.requests()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Валидаторы переживают перезапуск: новый клиент сразу получает 304")
+    void validatorsSurviveRestart() {
+        String group = mai.groupNames().get(2);
+        client.markProcessed(client.fetchGroupScheduleIfChanged(group));
+
+        MaiScheduleClient restarted = new MaiScheduleClient(new RestTemplate(),
+                new ScheduleMetrics(new SimpleMeterRegistry()), mock(UpstreamPayloadArchive.class), breaker(5),
+                validatorStore, standIn.baseUrl());
+
+        assertThat(restarted.fetchGroupScheduleIfChanged(group).modified()).isFalse();
+        assertThat(standIn.responses(304)).isEqualTo(1);
+    }
+
+    private static UpstreamCircuitBreaker breaker(int failureThreshold) {
+        return new UpstreamCircuitBreaker(new SimpleMeterRegistry(), failureThreshold, Duration.ofMinutes(1));
+    }
+
+    /**
+     * Хранилище валидаторов в памяти вместо group_refresh_state.
+     */
+    private static final class MapValidatorStore implements ResourceValidatorStore {
+
+        private final Map<String, ResourceValidators> saved = new HashMap<>();
+
+        @Override
+        public Optional<ResourceValidators> load(String groupName) {
+            return Optional.ofNullable(saved.get(groupName));
+        }
+
+        @Override
+        public void save(String groupName, ResourceValidators validators) {
+            saved.put(groupName, validators);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package ru.semavin.telegrambot.services.upstream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.semavin.telegrambot.config.executors.InstrumentedExecutor;
+import ru.semavin.telegrambot.config.executors.WorkloadExecutors;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class UpstreamPayloadArchiveTest {
+
+    private static final String URL = "https://public.mai.ru/schedule/data/0123.json";
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final WorkloadExecutors executors = mock(WorkloadExecutors.class);
+    private final InstrumentedExecutor ingest = mock(InstrumentedExecutor.class);
+    private final List<Runnable> submitted = new ArrayList<>();
+
+    {
+        when(executors.ingest()).thenReturn(ingest);
+        doAnswer(invocation -> submitted.add(invocation.getArgument(0))).when(ingest).execute(any(Runnable.class));
+    }
+
+    private UpstreamPayloadArchive archive(boolean enabled, boolean replaying, String replayAt) {
+        return new UpstreamPayloadArchive(jdbcTemplate, executors, enabled, Duration.ofDays(60), replaying, replayAt);
+    }
+
+    @Test
+    @DisplayName("Сжатый ответ распаковывается без потерь")
+    void compressRoundTrip() {
+        String json = "{\"group\":\"М3О-403С-22\",\"pairs\":\"" + "Системы управления ".repeat(500) + "\"}";
+        byte[] raw = json.getBytes(StandardCharsets.UTF_8);
+
+        byte[] compressed = UpstreamPayloadArchive.compress(raw);
+
+        assertThat(compressed.length).isLessThan(raw.length / 10);
+        assertThat(UpstreamPayloadArchive.decompress(compressed, raw.length)).isEqualTo(json);
+    }
+
+    @Test
+    @DisplayName("Повторный одинаковый ответ по url не записывается")
+    void sameBodyIsArchivedOnce() {
+        UpstreamPayloadArchive archive = archive(true, false, "");
+
+        archive.archive("group", URL, "{\"a\":1}");
+        archive.archive("group", URL, "{\"a\":1}");
+        archive.archive("group", URL, "{\"a\":2}");
+        submitted.forEach(Runnable::run);
+
+        verify(jdbcTemplate, times(2)).update(anyString(), any(Object[].class));
+    }
+
+    @Test
+    @DisplayName("Запись в архив выполняется на исполнителе ingest, а не в потоке запроса")
+    void archiveIsWrittenInBackground() {
+        archive(true, false, "").archive("group", URL, "{\"a\":1}");
+
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+        assertThat(submitted).hasSize(1);
+        submitted.get(0).run();
+        verify(jdbcTemplate).update(anyString(), any(Object[].class));
+    }
+
+    @Test
+    @DisplayName("В режиме воспроизведения и при выключенном архиве ничего не пишется")
+    void nothingIsArchivedWhenReplayingOrDisabled() {
+        archive(true, true, "2025-09-01T10:00").archive("group", URL, "{}");
+        archive(false, false, "").archive("group", URL, "{}");
+
+        assertThat(submitted).isEmpty();
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+    }
+}
@@ -0,0 +1,19 @@
+package ru.semavin.telegrambot.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StringInternerTest {
+
+    @Test
+    @DisplayName("Равные строки из разных источников становятся одним экземпляром")
+    void equalStringsShareInstance() {
+        String parsed = new String("Теория автоматического управления");
+        String projected = new String("Теория автоматического управления");
+
+        assertThat(StringInterner.intern(parsed)).isSameAs(StringInterner.intern(projected)).isSameAs(parsed);
+        assertThat(StringInterner.intern(null)).isNull();
+    }
+}
@@ -0,0 +1,95 @@
+package ru.semavin.telegrambot.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.MDC;
+import ru.semavin.telegrambot.config.executors.InstrumentedExecutor;
+import ru.semavin.telegrambot.utils.exceptions.FanOutTimeoutException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class StructuredFanOutTest {
+
+    private static final Duration DEADLINE = Duration.ofSeconds(5);
+
+    private final InstrumentedExecutor executor =
+            new InstrumentedExecutor("test", 4, 100, new SimpleMeterRegistry());
+
+    @AfterEach
+    void tearDown() {
+        MDC.clear();
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Результаты возвращаются в порядке элементов, MDC передается подзадачам")
+    void resultsKeepOrderAndContext() {
+        MDC.put("requestId", "42");
+
+        List<String> results = StructuredFanOut.forkAll(List.of(3, 1, 2), i -> {
+            sleep(i * 20L);
+            return i + ":" + MDC.get("requestId");
+        }, executor, DEADLINE);
+
+        assertThat(results).containsExactly("3:42", "1:42", "2:42");
+    }
+
+    @Test
+    @DisplayName("Ошибка подзадачи прерывает остальные")
+    void failureCancelsSiblings() throws InterruptedException {
+        CountDownLatch siblingStarted = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+
+        assertThatThrownBy(() -> StructuredFanOut.forkAll(List.of(1, 2), i -> {
+            if (i == 1) {
+                await(siblingStarted);
+                throw new IllegalArgumentException("boom");
+            }
+            try {
+                siblingStarted.countDown();
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return i;
+        }, executor, DEADLINE))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("boom");
+
+        assertThat(interrupted.await(1, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    @DisplayName("По истечении дедлайна выбрасывается FanOutTimeoutException")
+    void deadlineExceeded() {
+        assertThatThrownBy(() -> StructuredFanOut.forkAll(List.of(1), i -> {
+            sleep(10_000);
+            return i;
+        }, executor, Duration.ofMillis(100)))
+                .isInstanceOf(FanOutTimeoutException.class);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}